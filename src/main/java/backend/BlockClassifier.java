@@ -0,0 +1,26 @@
+package backend;
+
+/**
+ * Classifies the bytes of a 64 byte block of a JSON document, the first pass of building a {@link StructuralIndex}.
+ * Bit i of a mask is set when byte i of the block belongs to the class of the mask.
+ */
+interface BlockClassifier {
+
+    int BACKSLASH = 0;
+    int QUOTE = 1;
+    int WHITESPACE = 2;
+    // { } [ ] : ,
+    int OPERATOR = 3;
+    // control characters and the bytes of non ASCII characters
+    int SPECIAL = 4;
+    int MASK_COUNT = 5;
+
+    /**
+     * Classify the 64 bytes starting at an index.
+     *
+     * @param bytes bytes of the document, holding at least 64 bytes from the index.
+     * @param index index of the first byte of the block.
+     * @param masks receives one mask per class.
+     */
+    void classify(byte[] bytes, int index, long[] masks);
+}
@@ -0,0 +1,91 @@
+package backend;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Backend parsing documents with the lenient Gson parser, the default backend of the engine. Bytes are decoded to
+ * characters before they are parsed.
+ */
+public final class GsonBackend implements JsonBackend {
+
+    // JSON parser instance, stateless and safe to share
+    private static final JsonParser parser = new JsonParser();
+
+    // null when the documents are not limited
+    private final ParseLimits limits;
+
+    /**
+     * Create a backend without limits.
+     */
+    public GsonBackend() {
+        this(null);
+    }
+
+    private GsonBackend(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    public JsonElement parse(String input) {
+        if (limits == null) {
+            return parser.parse(input);
+        }
+        limits.checkInputSize(input);
+        return parseLimited(new StringReader(input));
+    }
+
+    @Override
+    public JsonElement parse(Reader input) {
+        return limits == null ? parser.parse(input) : parseLimited(input);
+    }
+
+    @Override
+    public JsonElement parse(InputStream input) {
+        return parse(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public JsonElement parse(ByteBuffer input) {
+        if (limits != null) {
+            limits.checkInputSize(input.remaining());
+        }
+        return parse(StandardCharsets.UTF_8.decode(input.duplicate()).toString());
+    }
+
+    @Override
+    public JsonBackend withLimits(ParseLimits limits) {
+        return new GsonBackend(limits);
+    }
+
+    /**
+     * Parse a whole document with a reader checking the limits, as {@link JsonParser#parse(Reader)} does.
+     */
+    private JsonElement parseLimited(Reader input) {
+        JsonReader reader = new LimitedJsonReader(input, limits);
+        JsonElement element = parser.parse(reader);
+        try {
+            if (!element.isJsonNull() && reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+        } catch (MalformedJsonException ex) {
+            throw new JsonSyntaxException(ex);
+        } catch (IOException ex) {
+            throw new JsonIOException(ex);
+        }
+        return element;
+    }
+}
@@ -0,0 +1,61 @@
+package backend;
+
+import com.google.gson.JsonElement;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * Source of the JSON trees corrected by the validators. The engine parses every input document through its backend,
+ * see {@link parser.ParserOptions#setBackend(JsonBackend)}. {@link GsonBackend} is the default backend,
+ * {@link Utf8Backend} reads UTF-8 bytes without decoding them to characters first.
+ * <p>
+ * Implementations must be thread safe. Malformed input is reported with a JsonSyntaxException and reading errors
+ * with a JsonIOException, as the Gson parser does.
+ */
+public interface JsonBackend {
+
+    /**
+     * Parse a JSON document given as a string.
+     *
+     * @param input JSON document.
+     * @return parsed tree, JsonNull for an empty document.
+     */
+    JsonElement parse(String input);
+
+    /**
+     * Parse a JSON document read from a reader.
+     *
+     * @param input reader providing the JSON document. Not closed by this method.
+     * @return parsed tree, JsonNull for an empty document.
+     */
+    JsonElement parse(Reader input);
+
+    /**
+     * Parse a UTF-8 JSON document read from a stream.
+     *
+     * @param input stream providing the JSON document. Not closed by this method.
+     * @return parsed tree, JsonNull for an empty document.
+     */
+    JsonElement parse(InputStream input);
+
+    /**
+     * Parse the remaining bytes of a buffer as a UTF-8 JSON document. The position of the buffer is not changed.
+     *
+     * @param input buffer holding the JSON document.
+     * @return parsed tree, JsonNull for an empty document.
+     */
+    JsonElement parse(ByteBuffer input);
+
+    /**
+     * Create a backend checking limits while it tokenizes the documents, see {@link ParseLimits}.
+     *
+     * @param limits limits of the documents.
+     * @return backend enforcing the limits.
+     * @throws UnsupportedOperationException the backend can not enforce limits.
+     */
+    default JsonBackend withLimits(ParseLimits limits) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not enforce parse limits");
+    }
+}
@@ -0,0 +1,699 @@
+package backend;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonWriter;
+import schema.CompiledSchema;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Compact representation of a UTF-8 JSON document as a flat tape of nodes, instead of a tree of Gson objects. Each
+ * node is a value, or the name of an object member followed by the node of its value, and takes a type byte and two
+ * ints in primitive arrays: the offset of its token in the original bytes, and the length of the token for scalars or
+ * the number of nodes of the subtree for arrays and objects, so a subtree is skipped in one step. Strings and numbers
+ * are only decoded when they are read.
+ * <p>
+ * The arrays grow to the largest document parsed and are reused by the next {@link #parse(byte[], int, int)}, so a
+ * tape kept by a thread parses documents without allocating. Corrected values are recorded as overrides of their
+ * nodes, the original bytes are never changed. An override of an array or an object replaces its whole subtree.
+ * <p>
+ * A tape parsed for a schema keeps the arrays and objects no validator looks into as raw nodes, and a tape parsed
+ * for a {@link Projection} marks the values outside its paths as excluded.
+ * <p>
+ * Node 0 is the root. A tape is not thread safe, and the parsed bytes must not change while the tape is used.
+ */
+public final class JsonTape {
+
+    // Node types
+    public static final int ARRAY = 1;
+    public static final int OBJECT = 2;
+    public static final int NAME = 3;
+    public static final int STRING = 4;
+    public static final int NUMBER = 5;
+    public static final int TRUE = 6;
+    public static final int FALSE = 7;
+    public static final int NULL = 8;
+    // array or object kept as its bytes, see parse(byte[], int, int, CompiledSchema)
+    public static final int RAW = 9;
+
+    private static final int TYPE_MASK = 0x0f;
+    // flag of strings without escapes or non ASCII characters and of numbers which fit in a long
+    private static final int SIMPLE = 0x10;
+    // flag of values outside the paths of a projection
+    private static final int EXCLUDED = 0x20;
+    // flag of arrays and objects on the way to the paths of a projection
+    private static final int PARTIAL = 0x40;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // writes overrides using the settings of the writer
+    private static final TypeAdapter<JsonElement> elementAdapter = new Gson().getAdapter(JsonElement.class);
+
+    // parses raw subtrees when they are read as elements
+    private static final Utf8Backend RAW_BACKEND = new Utf8Backend();
+
+    private final boolean indexed;
+    private final ParseLimits limits;
+    private byte[] bytes;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size;
+    // open arrays and objects while parsing, with the schemas of their children and their number of children
+    private int[] stack = new int[16];
+    private CompiledSchema[] schemas = new CompiledSchema[16];
+    private Projection.Node[] projections = new Projection.Node[16];
+    private int[] counts = new int[16];
+    // schema and projection state of the value being parsed
+    private CompiledSchema valueSchema;
+    private Projection.Node valueProjection;
+    private boolean valueExcluded;
+    private boolean dropExcluded;
+    // overridden nodes in increasing order, and their values
+    private int[] overrideNodes = new int[8];
+    private JsonElement[] overrideValues = new JsonElement[8];
+    private int overrideCount;
+
+    /**
+     * Create a tape scanning the bytes one at a time.
+     */
+    public JsonTape() {
+        this(false);
+    }
+
+    /**
+     * Create a tape.
+     *
+     * @param indexed true to build a {@link StructuralIndex} of each document first.
+     */
+    public JsonTape(boolean indexed) {
+        this(indexed, ParseLimits.NONE);
+    }
+
+    /**
+     * Create a tape checking limits while it tokenizes the documents. The arrays and objects kept raw are only
+     * tokenized again when the length of strings, arrays or objects is limited.
+     *
+     * @param indexed true to build a {@link StructuralIndex} of each document first.
+     * @param limits  limits of the documents.
+     */
+    public JsonTape(boolean indexed, ParseLimits limits) {
+        this.indexed = indexed;
+        this.limits = limits;
+    }
+
+    /**
+     * Parse the remaining bytes of a buffer as a UTF-8 JSON document, replacing the previous document and its
+     * overrides. The bytes of a buffer without an accessible array are copied.
+     *
+     * @param input buffer holding the JSON document. Its position is not changed.
+     * @throws JsonSyntaxException the document is not valid JSON.
+     */
+    public void parse(ByteBuffer input) {
+        if (input.hasArray()) {
+            parse(input.array(), input.arrayOffset() + input.position(), input.remaining());
+            return;
+        }
+        byte[] copy = new byte[input.remaining()];
+        input.duplicate().get(copy);
+        parse(copy, 0, copy.length);
+    }
+
+    /**
+     * Parse a range of a byte array as a UTF-8 JSON document, replacing the previous document and its overrides. Only
+     * strict JSON (RFC 8259) is accepted, as by {@link Utf8Backend}. An empty document gives a single null node.
+     *
+     * @param bytes  UTF-8 bytes of the document. Not copied, must not change while the tape is used.
+     * @param offset offset of the first byte of the document.
+     * @param length number of bytes of the document.
+     * @throws JsonSyntaxException the document is not valid JSON.
+     */
+    public void parse(byte[] bytes, int offset, int length) {
+        parse(bytes, offset, length, null);
+    }
+
+    /**
+     * Parse a range of a byte array as a UTF-8 JSON document to be corrected with a schema. The arrays and objects no
+     * validator looks into, such as the values of properties with a "{}" schema, of undeclared properties and the
+     * items of arrays without an items type, are not built: they are checked while they are skipped and kept as a
+     * single {@link #RAW} node, written back byte for byte.
+     *
+     * @param bytes  UTF-8 bytes of the document. Not copied, must not change while the tape is used.
+     * @param offset offset of the first byte of the document.
+     * @param length number of bytes of the document.
+     * @param schema compiled schema the document will be corrected with, null to tokenize every value.
+     * @throws JsonSyntaxException the document is not valid JSON.
+     */
+    public void parse(byte[] bytes, int offset, int length, CompiledSchema schema) {
+        parse(bytes, offset, length, schema, null);
+    }
+
+    /**
+     * Parse a range of a byte array as a UTF-8 JSON document to be corrected with a schema, only at the paths of a
+     * projection. The values outside the paths, and not on the way to them, are skipped as by
+     * {@link #parse(byte[], int, int, CompiledSchema)} and marked as excluded, see {@link #isExcluded(int)}. The arrays
+     * and objects on the way to the paths are marked as partial, see {@link #isPartial(int)}. Excluded values are
+     * left out when the tape is written if the projection drops them.
+     *
+     * @param bytes      UTF-8 bytes of the document. Not copied, must not change while the tape is used.
+     * @param offset     offset of the first byte of the document.
+     * @param length     number of bytes of the document.
+     * @param schema     compiled schema the document will be corrected with, null to tokenize every value.
+     * @param projection paths of the values to correct, null to correct the whole document.
+     * @throws JsonSyntaxException the document is not valid JSON.
+     */
+    public void parse(byte[] bytes, int offset, int length, CompiledSchema schema, Projection projection) {
+        Utf8Tokenizer tokenizer = indexed ? Utf8Tokenizer.indexed(bytes, offset, length)
+                : new Utf8Tokenizer(bytes, offset, length);
+        clear();
+        limits.checkInputSize(length);
+        this.bytes = bytes;
+        this.dropExcluded = projection != null && projection.isDropOthers();
+        try {
+            build(tokenizer, schema, projection == null || projection.root().isSelected() ? null
+                    : projection.root());
+        } catch (ParseException ex) {
+            size = 0;
+            throw new JsonSyntaxException(ex.getMessage() + " at offset " + (ex.getErrorOffset() - offset), ex);
+        } catch (LimitExceededException ex) {
+            size = 0;
+            throw ex;
+        } finally {
+            Arrays.fill(schemas, null);
+            Arrays.fill(projections, null);
+            valueSchema = null;
+            valueProjection = null;
+        }
+    }
+
+    /**
+     * Release the parsed document and its overrides, keeping the arrays for the next document.
+     */
+    public void clear() {
+        bytes = null;
+        size = 0;
+        Arrays.fill(overrideValues, 0, overrideCount, null);
+        overrideCount = 0;
+    }
+
+    private void build(Utf8Tokenizer tokenizer, CompiledSchema schema, Projection.Node projection)
+            throws ParseException {
+        Utf8Tokenizer.Token token = tokenizer.next();
+        if (token == Utf8Tokenizer.Token.END_DOCUMENT) {
+            append(NULL, tokenizer.getOffset(), 0);
+            return;
+        }
+        int depth = 0;
+        valueSchema = schema;
+        valueProjection = projection;
+        valueExcluded = false;
+        while (true) {
+            // token is the first token of a value, a scalar on the way to the projected paths is not on them
+            int flags = valueExcluded || valueProjection != null ? EXCLUDED : 0;
+            switch (token) {
+                case BEGIN_ARRAY:
+                case BEGIN_OBJECT:
+                    boolean array = token == Utf8Tokenizer.Token.BEGIN_ARRAY;
+                    limits.checkDepth(depth + 1);
+                    // values on the way to the projected paths are tokenized when the others are dropped
+                    if (valueExcluded || RawSubtrees.isUnconstrained(valueSchema)
+                            && (valueProjection == null || !dropExcluded)) {
+                        int start = tokenizer.getOffset();
+                        tokenizer.skipValue(limits.getMaxDepth() == -1 ? -1 : limits.getMaxDepth() - depth);
+                        if (limits.limitsLengths()) {
+                            checkRaw(start, tokenizer.getEnd());
+                        }
+                        append(valueExcluded ? RAW | EXCLUDED : RAW, start, tokenizer.getEnd() - start);
+                        break;
+                    }
+                    int node = append((array ? ARRAY : OBJECT) | (valueProjection != null ? PARTIAL : 0),
+                            tokenizer.getOffset(), 1);
+                    token = tokenizer.next();
+                    if (token != (array ? Utf8Tokenizer.Token.END_ARRAY : Utf8Tokenizer.Token.END_OBJECT)) {
+                        if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                            schemas = Arrays.copyOf(schemas, depth * 2);
+                            projections = Arrays.copyOf(projections, depth * 2);
+                            counts = Arrays.copyOf(counts, depth * 2);
+                        }
+                        stack[depth] = node;
+                        schemas[depth] = RawSubtrees.containerSchema(valueSchema, array);
+                        projections[depth] = valueProjection;
+                        counts[depth++] = 0;
+                        if (!array) {
+                            token = member(tokenizer, token);
+                        }
+                        enterChild(depth - 1);
+                        continue;
+                    }
+                    break;
+                case STRING:
+                    checkStringLength(tokenizer);
+                    append((tokenizer.isPlainString() ? STRING | SIMPLE : STRING) | flags, tokenizer.getOffset(),
+                            tokenizer.getEnd() - tokenizer.getOffset());
+                    break;
+                case NUMBER:
+                    append((tokenizer.isLong() ? NUMBER | SIMPLE : NUMBER) | flags, tokenizer.getOffset(),
+                            tokenizer.getEnd() - tokenizer.getOffset());
+                    break;
+                case TRUE:
+                    append(TRUE | flags, tokenizer.getOffset(), 4);
+                    break;
+                case FALSE:
+                    append(FALSE | flags, tokenizer.getOffset(), 5);
+                    break;
+                case NULL:
+                    append(NULL | flags, tokenizer.getOffset(), 4);
+                    break;
+                case END_DOCUMENT:
+                    throw new ParseException("Unexpected end of the document", tokenizer.getOffset());
+                default:
+                    throw new ParseException("Expected a value", tokenizer.getOffset());
+            }
+            // a value is complete, close the containers it ends
+            while (true) {
+                if (depth == 0) {
+                    if (tokenizer.next() != Utf8Tokenizer.Token.END_DOCUMENT) {
+                        throw new ParseException("Did not consume the entire document", tokenizer.getOffset());
+                    }
+                    return;
+                }
+                int parent = stack[depth - 1];
+                boolean array = (types[parent] & TYPE_MASK) == ARRAY;
+                token = tokenizer.next();
+                if (token == (array ? Utf8Tokenizer.Token.END_ARRAY : Utf8Tokenizer.Token.END_OBJECT)) {
+                    lengths[parent] = size - parent;
+                    depth--;
+                    continue;
+                }
+                expect(tokenizer, token, Utf8Tokenizer.Token.COMMA, array ? "Expected ',' or ']'"
+                        : "Expected ',' or '}'");
+                token = tokenizer.next();
+                if (!array) {
+                    token = member(tokenizer, token);
+                }
+                enterChild(depth - 1);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Find the schema and the projection state of the next child of an open container, its member name being the
+     * last node for an object.
+     */
+    private void enterChild(int depth) {
+        boolean array = (types[stack[depth]] & TYPE_MASK) == ARRAY;
+        int index = counts[depth]++;
+        if (array) {
+            limits.checkArrayLength(index + 1);
+        } else {
+            limits.checkObjectMembers(index + 1);
+        }
+        CompiledSchema schema = schemas[depth];
+        Projection.Node projection = projections[depth];
+        String key = null;
+        if (!array && (schema != null || projection != null && projection.isNamed())) {
+            key = getString(size - 1);
+        } else if (array && projection != null && projection.isNamed()) {
+            key = Integer.toString(index);
+        }
+        if (schema == null) {
+            valueSchema = null;
+        } else {
+            valueSchema = array ? RawSubtrees.itemSchema(schema, index) : RawSubtrees.memberSchema(schema, key);
+        }
+        if (projection == null) {
+            valueProjection = null;
+            valueExcluded = false;
+        } else {
+            Projection.Node child = projection.child(key);
+            valueProjection = child == null || child.isSelected() ? null : child;
+            valueExcluded = child == null;
+        }
+    }
+
+    /**
+     * Append the name of a member and read up to its value.
+     *
+     * @return first token of the value.
+     */
+    private Utf8Tokenizer.Token member(Utf8Tokenizer tokenizer, Utf8Tokenizer.Token token) throws ParseException {
+        expect(tokenizer, token, Utf8Tokenizer.Token.STRING, "Expected a member name");
+        checkStringLength(tokenizer);
+        append(tokenizer.isPlainString() ? NAME | SIMPLE : NAME, tokenizer.getOffset(),
+                tokenizer.getEnd() - tokenizer.getOffset());
+        expect(tokenizer, tokenizer.next(), Utf8Tokenizer.Token.COLON, "Expected ':'");
+        return tokenizer.next();
+    }
+
+    /**
+     * Check the length of the current string token, only decoding it when its bytes may exceed the limit.
+     */
+    private void checkStringLength(Utf8Tokenizer tokenizer) {
+        int max = limits.getMaxStringLength();
+        // a character takes at least one byte, the quotes are not counted
+        if (max != -1 && tokenizer.getEnd() - tokenizer.getOffset() - 2 > max) {
+            limits.checkStringLength(tokenizer.getString().length());
+        }
+    }
+
+    /**
+     * Check the lengths of the strings, arrays and objects of a raw subtree, which was already skipped so it is
+     * well formed. The items and members are counted by their separators.
+     */
+    private void checkRaw(int start, int end) throws ParseException {
+        Utf8Tokenizer raw = new Utf8Tokenizer(bytes, start, end - start);
+        boolean[] arrays = new boolean[16];
+        int[] separators = new int[16];
+        int depth = 0;
+        for (Utf8Tokenizer.Token token = raw.next(); token != Utf8Tokenizer.Token.END_DOCUMENT;
+             token = raw.next()) {
+            switch (token) {
+                case BEGIN_ARRAY:
+                case BEGIN_OBJECT:
+                    if (depth == arrays.length) {
+                        arrays = Arrays.copyOf(arrays, depth * 2);
+                        separators = Arrays.copyOf(separators, depth * 2);
+                    }
+                    arrays[depth] = token == Utf8Tokenizer.Token.BEGIN_ARRAY;
+                    separators[depth++] = 0;
+                    break;
+                case END_ARRAY:
+                case END_OBJECT:
+                    depth--;
+                    break;
+                case COMMA:
+                    if (arrays[depth - 1]) {
+                        limits.checkArrayLength(++separators[depth - 1] + 1);
+                    } else {
+                        limits.checkObjectMembers(++separators[depth - 1] + 1);
+                    }
+                    break;
+                case STRING:
+                    checkStringLength(raw);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void expect(Utf8Tokenizer tokenizer, Utf8Tokenizer.Token token, Utf8Tokenizer.Token expected,
+                               String message) throws ParseException {
+        if (token != expected) {
+            throw new ParseException(message, tokenizer.getOffset());
+        }
+    }
+
+    private int append(int type, int offset, int length) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+        types[size] = (byte) type;
+        offsets[size] = offset;
+        lengths[size] = length;
+        return size++;
+    }
+
+    /**
+     * @return number of nodes of the document, 0 before a document is parsed.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param node node index.
+     * @return type of the node, one of the type constants.
+     */
+    public int getType(int node) {
+        checkNode(node);
+        return types[node] & TYPE_MASK;
+    }
+
+    /**
+     * @param node node index.
+     * @return true if the value is outside the paths of the projection the tape was parsed with.
+     */
+    public boolean isExcluded(int node) {
+        checkNode(node);
+        return (types[node] & EXCLUDED) != 0;
+    }
+
+    /**
+     * @param node node index.
+     * @return true if the array or object is only on the way to the paths of the projection the tape was parsed
+     * with, so only some of its children are corrected.
+     */
+    public boolean isPartial(int node) {
+        checkNode(node);
+        return (types[node] & PARTIAL) != 0;
+    }
+
+    /**
+     * @param node node index.
+     * @return index of the node following the node and its subtree, {@link #size()} after the last node.
+     */
+    public int next(int node) {
+        checkNode(node);
+        int type = types[node] & TYPE_MASK;
+        return type == ARRAY || type == OBJECT ? node + lengths[node] : node + 1;
+    }
+
+    /**
+     * Decode the value of a string node or the name of a member.
+     *
+     * @param node STRING or NAME node.
+     * @return decoded string, ignoring overrides.
+     */
+    public String getString(int node) {
+        checkNode(node);
+        int type = types[node] & TYPE_MASK;
+        if (type != STRING && type != NAME) {
+            throw new IllegalStateException("Node " + node + " is not a string");
+        }
+        return Utf8Tokenizer.decodeString(bytes, offsets[node], offsets[node] + lengths[node],
+                (types[node] & SIMPLE) != 0);
+    }
+
+    /**
+     * Get a node as a Gson element, building the subtree of an array or an object with the overrides of its nodes.
+     * A raw node is parsed from its bytes.
+     *
+     * @param node node index.
+     * @return override of the node, or a new element holding its value.
+     */
+    public JsonElement getElement(int node) {
+        checkNode(node);
+        JsonElement override = getOverride(node);
+        if (override != null) {
+            return override;
+        }
+        switch (types[node] & TYPE_MASK) {
+            case ARRAY:
+                JsonArray array = new JsonArray();
+                for (int item = node + 1; item < node + lengths[node]; item = next(item)) {
+                    if (!isDropped(item)) {
+                        array.add(getElement(item));
+                    }
+                }
+                return array;
+            case OBJECT:
+                JsonObject object = new JsonObject();
+                for (int name = node + 1; name < node + lengths[node]; name = next(name + 1)) {
+                    if (!isDropped(name + 1)) {
+                        object.add(getString(name), getElement(name + 1));
+                    }
+                }
+                return object;
+            case NAME:
+            case STRING:
+                return new JsonPrimitive(getString(node));
+            case NUMBER:
+                return (types[node] & SIMPLE) != 0
+                        ? new JsonPrimitive(Utf8Tokenizer.parseLong(bytes, offsets[node], offsets[node] + lengths[node]))
+                        : new JsonPrimitive(new LazilyParsedNumber(numberText(node)));
+            case TRUE:
+                return new JsonPrimitive(true);
+            case FALSE:
+                return new JsonPrimitive(false);
+            case RAW:
+                return RAW_BACKEND.parse(bytes, offsets[node], lengths[node]);
+            default:
+                return JsonNull.INSTANCE;
+        }
+    }
+
+    /**
+     * Record a corrected value of a node. The value is written instead of the node, and replaces the subtree of an
+     * array or an object.
+     *
+     * @param node  node index.
+     * @param value corrected value, null to remove the override.
+     */
+    public void setOverride(int node, JsonElement value) {
+        checkNode(node);
+        int i = Arrays.binarySearch(overrideNodes, 0, overrideCount, node);
+        if (i >= 0) {
+            if (value != null) {
+                overrideValues[i] = value;
+            } else {
+                System.arraycopy(overrideNodes, i + 1, overrideNodes, i, overrideCount - i - 1);
+                System.arraycopy(overrideValues, i + 1, overrideValues, i, overrideCount - i - 1);
+                overrideValues[--overrideCount] = null;
+            }
+            return;
+        } else if (value == null) {
+            return;
+        }
+        i = -i - 1;
+        if (overrideCount == overrideNodes.length) {
+            overrideNodes = Arrays.copyOf(overrideNodes, overrideCount * 2);
+            overrideValues = Arrays.copyOf(overrideValues, overrideCount * 2);
+        }
+        System.arraycopy(overrideNodes, i, overrideNodes, i + 1, overrideCount - i);
+        System.arraycopy(overrideValues, i, overrideValues, i + 1, overrideCount - i);
+        overrideNodes[i] = node;
+        overrideValues[i] = value;
+        overrideCount++;
+    }
+
+    /**
+     * @param node node index.
+     * @return corrected value of the node, null if the node is not overridden.
+     */
+    public JsonElement getOverride(int node) {
+        if (overrideCount == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(overrideNodes, 0, overrideCount, node);
+        return i >= 0 ? overrideValues[i] : null;
+    }
+
+    /**
+     * @return number of overridden nodes.
+     */
+    public int getOverrideCount() {
+        return overrideCount;
+    }
+
+    /**
+     * Write the document with its overrides. Unchanged numbers are written with their original text.
+     *
+     * @param out writer receiving the document.
+     * @throws IOException Exception occurs while writing.
+     */
+    public void writeTo(JsonWriter out) throws IOException {
+        if (size == 0) {
+            throw new IllegalStateException("No document is parsed");
+        }
+        write(out, 0);
+    }
+
+    /**
+     * Write the document with its overrides as compact JSON text, as the engines write their output.
+     *
+     * @param out writer receiving the document. Not closed by this method.
+     * @throws IOException Exception occurs while writing.
+     */
+    public void writeTo(Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writeTo(writer);
+        writer.flush();
+    }
+
+    private void write(JsonWriter out, int node) throws IOException {
+        JsonElement override = getOverride(node);
+        if (override != null) {
+            elementAdapter.write(out, override);
+            return;
+        }
+        switch (types[node] & TYPE_MASK) {
+            case ARRAY:
+                out.beginArray();
+                for (int item = node + 1; item < node + lengths[node]; item = next(item)) {
+                    if (!isDropped(item)) {
+                        write(out, item);
+                    }
+                }
+                out.endArray();
+                break;
+            case OBJECT:
+                out.beginObject();
+                for (int name = node + 1; name < node + lengths[node]; name = next(name + 1)) {
+                    if (!isDropped(name + 1)) {
+                        out.name(getString(name));
+                        write(out, name + 1);
+                    }
+                }
+                out.endObject();
+                break;
+            case STRING:
+                out.value(getString(node));
+                break;
+            case NUMBER:
+                out.jsonValue(numberText(node));
+                break;
+            case TRUE:
+                out.value(true);
+                break;
+            case FALSE:
+                out.value(false);
+                break;
+            case RAW:
+                out.jsonValue(new String(bytes, offsets[node], lengths[node], StandardCharsets.UTF_8));
+                break;
+            default:
+                out.nullValue();
+                break;
+        }
+    }
+
+    private boolean isDropped(int node) {
+        return dropExcluded && (types[node] & EXCLUDED) != 0;
+    }
+
+    private String numberText(int node) {
+        return new String(bytes, offsets[node], lengths[node], StandardCharsets.ISO_8859_1);
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= size) {
+            throw new IndexOutOfBoundsException("Node " + node + " of " + size);
+        }
+    }
+
+    /**
+     * @return the document with its overrides as compact JSON text.
+     */
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "";
+        }
+        StringWriter out = new StringWriter();
+        try {
+            writeTo(out);
+        } catch (IOException ex) {
+            // a StringWriter does not throw
+            throw new IllegalStateException(ex);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package backend;
+
+import com.google.gson.JsonParseException;
+import exceptions.ErrorCode;
+
+/**
+ * Thrown while tokenizing a document which exceeds one of its {@link ParseLimits}. It is a JsonParseException, so
+ * callers handling malformed documents also stop on it, and the engine reports it with its own error code.
+ */
+public class LimitExceededException extends JsonParseException {
+
+    private final transient ErrorCode errorCode;
+    private final long limit;
+
+    /**
+     * @param errorCode code of the exceeded limit.
+     * @param limit     value of the exceeded limit.
+     */
+    public LimitExceededException(ErrorCode errorCode, long limit) {
+        super(errorCode.format(limit));
+        this.errorCode = errorCode;
+        this.limit = limit;
+    }
+
+    /**
+     * @return code of the exceeded limit.
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return value of the exceeded limit.
+     */
+    public long getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,163 @@
+package backend;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Gson reader checking {@link ParseLimits} as the tokens are read, so the trees built by the Gson parser and the
+ * documents corrected while streaming never exceed them. The input size counts the characters read from the
+ * reader, in chunks of the reader buffer. Strings and member names are checked once Gson has read them.
+ */
+public final class LimitedJsonReader extends JsonReader {
+
+    private final ParseLimits limits;
+    // kind and number of items or members read of each open array and object
+    private boolean[] arrays = new boolean[16];
+    private int[] counts = new int[16];
+    private int depth;
+
+    /**
+     * Create a reader.
+     *
+     * @param input  reader providing the JSON document.
+     * @param limits limits of the document.
+     */
+    public LimitedJsonReader(Reader input, ParseLimits limits) {
+        super(limits.getMaxInputBytes() != -1 ? new CountingReader(input, limits) : input);
+        this.limits = limits;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        value();
+        open(true);
+        super.beginArray();
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        super.endArray();
+        depth--;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        value();
+        open(false);
+        super.beginObject();
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        super.endObject();
+        depth--;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        String name = super.nextName();
+        limits.checkStringLength(name.length());
+        limits.checkObjectMembers(++counts[depth - 1]);
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        value();
+        String value = super.nextString();
+        limits.checkStringLength(value.length());
+        return value;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        value();
+        return super.nextBoolean();
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        value();
+        super.nextNull();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        value();
+        return super.nextDouble();
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        value();
+        return super.nextLong();
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        value();
+        return super.nextInt();
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        value();
+        super.skipValue();
+    }
+
+    /**
+     * Count a value read as an item of the current array.
+     */
+    private void value() {
+        if (depth > 0 && arrays[depth - 1]) {
+            limits.checkArrayLength(++counts[depth - 1]);
+        }
+    }
+
+    private void open(boolean array) {
+        limits.checkDepth(depth + 1);
+        if (depth == counts.length) {
+            arrays = Arrays.copyOf(arrays, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+        }
+        arrays[depth] = array;
+        counts[depth++] = 0;
+    }
+
+    /**
+     * Reader counting the characters read against the input size limit.
+     */
+    private static final class CountingReader extends FilterReader {
+
+        private final ParseLimits limits;
+        private long count;
+
+        private CountingReader(Reader input, ParseLimits limits) {
+            super(input);
+            this.limits = limits;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                limits.checkInputSize(++count);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+                limits.checkInputSize(count);
+            }
+            return read;
+        }
+    }
+}
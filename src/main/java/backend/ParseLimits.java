@@ -0,0 +1,158 @@
+package backend;
+
+import exceptions.ErrorCode;
+
+/**
+ * Hard limits on the size and the shape of an input document, checked while the document is tokenized, before its
+ * arrays, objects and strings are built. A limit of -1 means no limit. Depth and length limits are inclusive: a
+ * document nested exactly {@code maxDepth} levels deep is accepted.
+ * <p>
+ * The input size counts UTF-8 bytes for byte inputs and strings, and characters for readers. The length of a string
+ * or a member name is checked once the tokenizer has read the whole string, so the input size limit is what bounds
+ * the memory held by a single string. A value exceeding a limit is reported with a {@link LimitExceededException}.
+ * Limits are immutable and can be shared between threads.
+ */
+public final class ParseLimits {
+
+    /**
+     * Limits accepting every document.
+     */
+    public static final ParseLimits NONE = new ParseLimits(-1, -1, -1, -1, -1);
+
+    private final int maxDepth;
+    private final long maxInputBytes;
+    private final int maxStringLength;
+    private final int maxArrayLength;
+    private final int maxObjectMembers;
+
+    /**
+     * Create limits.
+     *
+     * @param maxDepth         maximum number of nested arrays and objects, -1 for no limit.
+     * @param maxInputBytes    maximum size of the document, -1 for no limit.
+     * @param maxStringLength  maximum number of characters of a string or a member name, -1 for no limit.
+     * @param maxArrayLength   maximum number of items of an array, -1 for no limit.
+     * @param maxObjectMembers maximum number of members of an object, -1 for no limit.
+     */
+    public ParseLimits(int maxDepth, long maxInputBytes, int maxStringLength, int maxArrayLength,
+                       int maxObjectMembers) {
+        this.maxDepth = maxDepth;
+        this.maxInputBytes = maxInputBytes;
+        this.maxStringLength = maxStringLength;
+        this.maxArrayLength = maxArrayLength;
+        this.maxObjectMembers = maxObjectMembers;
+    }
+
+    /**
+     * @return true if no limit is set.
+     */
+    public boolean isUnlimited() {
+        return maxDepth == -1 && maxInputBytes == -1 && maxStringLength == -1 && maxArrayLength == -1
+                && maxObjectMembers == -1;
+    }
+
+    /**
+     * @return true if the length of strings, arrays or objects is limited.
+     */
+    public boolean limitsLengths() {
+        return maxStringLength != -1 || maxArrayLength != -1 || maxObjectMembers != -1;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxInputBytes() {
+        return maxInputBytes;
+    }
+
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    public int getMaxArrayLength() {
+        return maxArrayLength;
+    }
+
+    public int getMaxObjectMembers() {
+        return maxObjectMembers;
+    }
+
+    /**
+     * @param depth number of arrays and objects open, including the one being opened.
+     * @throws LimitExceededException the depth exceeds the limit.
+     */
+    public void checkDepth(int depth) {
+        if (maxDepth != -1 && depth > maxDepth) {
+            throw new LimitExceededException(ErrorCode.MAX_DEPTH, maxDepth);
+        }
+    }
+
+    /**
+     * @param size number of bytes, or characters for readers, read so far.
+     * @throws LimitExceededException the size exceeds the limit.
+     */
+    public void checkInputSize(long size) {
+        if (maxInputBytes != -1 && size > maxInputBytes) {
+            throw new LimitExceededException(ErrorCode.MAX_INPUT_SIZE, maxInputBytes);
+        }
+    }
+
+    /**
+     * Check the UTF-8 size of a document given as a string, only counting the bytes when the number of characters
+     * does not decide.
+     *
+     * @param input JSON document.
+     * @throws LimitExceededException the size exceeds the limit.
+     */
+    public void checkInputSize(String input) {
+        if (maxInputBytes == -1 || input.length() * 3L <= maxInputBytes) {
+            return;
+        }
+        checkInputSize(input.length());
+        long size = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            // surrogate pairs are 2 characters and 4 bytes
+            size += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+        }
+        checkInputSize(size);
+    }
+
+    /**
+     * @param length number of characters of a string or a member name.
+     * @throws LimitExceededException the length exceeds the limit.
+     */
+    public void checkStringLength(int length) {
+        if (maxStringLength != -1 && length > maxStringLength) {
+            throw new LimitExceededException(ErrorCode.MAX_STRING_LENGTH, maxStringLength);
+        }
+    }
+
+    /**
+     * @param length number of items of an array read so far.
+     * @throws LimitExceededException the length exceeds the limit.
+     */
+    public void checkArrayLength(int length) {
+        if (maxArrayLength != -1 && length > maxArrayLength) {
+            throw new LimitExceededException(ErrorCode.MAX_ARRAY_LENGTH, maxArrayLength);
+        }
+    }
+
+    /**
+     * @param members number of members of an object read so far.
+     * @throws LimitExceededException the number of members exceeds the limit.
+     */
+    public void checkObjectMembers(int members) {
+        if (maxObjectMembers != -1 && members > maxObjectMembers) {
+            throw new LimitExceededException(ErrorCode.MAX_OBJECT_MEMBERS, maxObjectMembers);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParseLimits{maxDepth=" + maxDepth + ", maxInputBytes=" + maxInputBytes + ", maxStringLength="
+                + maxStringLength + ", maxArrayLength=" + maxArrayLength + ", maxObjectMembers=" + maxObjectMembers
+                + "}";
+    }
+}
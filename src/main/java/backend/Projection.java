@@ -0,0 +1,192 @@
+package backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of paths of a document to correct, given as JSON Pointers (RFC 6901) where a "*" segment matches any member
+ * name or array index, for example "/id" or "/items/*&#47;price". The values at the paths are corrected with their
+ * whole subtree, the arrays and objects on the way to them are only walked to reach them, and every other value is
+ * skipped by the tokenizer. Skipped values are either passed through unchanged or dropped from the output.
+ * <p>
+ * A projection is immutable and can be shared between threads.
+ */
+public final class Projection {
+
+    private final Node root;
+    private final boolean dropOthers;
+    private final List<String> paths;
+
+    private Projection(Node root, boolean dropOthers, List<String> paths) {
+        this.root = root;
+        this.dropOthers = dropOthers;
+        this.paths = paths;
+    }
+
+    /**
+     * Compile a projection.
+     *
+     * @param paths      JSON Pointers of the values to correct, "*" segments match any name or index. The empty
+     *                   pointer selects the whole document.
+     * @param dropOthers true to drop the skipped values from the output, false to pass them through unchanged.
+     * @return compiled projection.
+     * @throws IllegalArgumentException a path is not a JSON Pointer.
+     */
+    public static Projection compile(List<String> paths, boolean dropOthers) {
+        Node root = new Node();
+        for (String path : paths) {
+            if (path == null || !path.isEmpty() && path.charAt(0) != '/') {
+                throw new IllegalArgumentException("Path should be a JSON Pointer : " + path);
+            }
+            Node node = root;
+            if (!path.isEmpty()) {
+                for (String segment : path.substring(1).split("/", -1)) {
+                    node = segment.equals("*") ? node.anyChild() : node.namedChild(unescape(segment));
+                }
+            }
+            node.selected = true;
+        }
+        return new Projection(root.expand(), dropOthers,
+                Collections.unmodifiableList(new ArrayList<>(paths)));
+    }
+
+    /**
+     * Compile a projection, see {@link #compile(List, boolean)}.
+     *
+     * @param dropOthers true to drop the skipped values from the output, false to pass them through unchanged.
+     * @param paths      JSON Pointers of the values to correct.
+     * @return compiled projection.
+     */
+    public static Projection compile(boolean dropOthers, String... paths) {
+        return compile(Arrays.asList(paths), dropOthers);
+    }
+
+    private static String unescape(String segment) {
+        return segment.indexOf('~') < 0 ? segment : segment.replace("~1", "/").replace("~0", "~");
+    }
+
+    /**
+     * @return true if the skipped values are dropped from the output.
+     */
+    public boolean isDropOthers() {
+        return dropOthers;
+    }
+
+    /**
+     * @return paths of the projection.
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return state of the root of a document.
+     */
+    Node root() {
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        return "Projection" + paths + (dropOthers ? " dropping others" : "");
+    }
+
+    /**
+     * State of a value of a document: selected with its whole subtree, or on the way to selected values.
+     */
+    static final class Node {
+
+        private Map<String, Node> children;
+        private Node any;
+        private boolean selected;
+
+        /**
+         * @return true if the value is corrected with its whole subtree.
+         */
+        boolean isSelected() {
+            return selected;
+        }
+
+        /**
+         * @param key member name, or index of an array item.
+         * @return state of the child, null if the child is skipped.
+         */
+        Node child(String key) {
+            if (children != null) {
+                Node child = children.get(key);
+                if (child != null) {
+                    return child;
+                }
+            }
+            return any;
+        }
+
+        /**
+         * @return true if the children depend on their name or index, so {@link #child(String)} needs the key.
+         */
+        boolean isNamed() {
+            return children != null;
+        }
+
+        private Node namedChild(String key) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Node child = children.get(key);
+            if (child == null) {
+                child = new Node();
+                children.put(key, child);
+            }
+            return child;
+        }
+
+        private Node anyChild() {
+            if (any == null) {
+                any = new Node();
+            }
+            return any;
+        }
+
+        /**
+         * Merge the paths of the "*" child into every named child, so a key has a single state.
+         */
+        private Node expand() {
+            if (any != null) {
+                any = any.expand();
+            }
+            if (children != null) {
+                for (Map.Entry<String, Node> child : children.entrySet()) {
+                    child.setValue(merge(child.getValue(), any).expand());
+                }
+            }
+            return this;
+        }
+
+        private static Node merge(Node first, Node second) {
+            if (second == null) {
+                return first;
+            }
+            Node merged = new Node();
+            merged.selected = first.selected || second.selected;
+            if (first.children != null || second.children != null) {
+                merged.children = new HashMap<>();
+                if (first.children != null) {
+                    merged.children.putAll(first.children);
+                }
+                if (second.children != null) {
+                    for (Map.Entry<String, Node> child : second.children.entrySet()) {
+                        Node existing = merged.children.get(child.getKey());
+                        merged.children.put(child.getKey(), existing != null ? merge(existing, child.getValue())
+                                : child.getValue());
+                    }
+                }
+            }
+            merged.any = first.any == null ? second.any : merge(first.any, second.any);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package backend;
+
+import schema.CompiledSchema;
+import schema.DataType;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Schemas of the values of a document parsed for a schema, following "properties", "additionalProperties" and
+ * "items" the same way as the validators, to find the arrays and objects no validator looks into. Those subtrees are
+ * kept as raw bytes instead of being tokenized.
+ */
+final class RawSubtrees {
+
+    // Use without instantiating.
+    private RawSubtrees() {
+    }
+
+    /**
+     * @param schema schema of a value, null when the value is always tokenized.
+     * @return true if no validator looks into the value.
+     */
+    static boolean isUnconstrained(CompiledSchema schema) {
+        return schema != null && schema.getDataType() == DataType.UNKNOWN;
+    }
+
+    /**
+     * Schema giving the schemas of the children of a container.
+     *
+     * @param schema schema of the container, null when the container is always tokenized.
+     * @param array  the container is an array.
+     * @return schema of the container, or null when its children are always tokenized, because the validators
+     * correct the container as another type.
+     */
+    static CompiledSchema containerSchema(CompiledSchema schema, boolean array) {
+        if (schema == null) {
+            return null;
+        }
+        DataType type = schema.getDataType();
+        return array && type == DataType.ARRAY || !array && type == DataType.OBJECT ? schema : null;
+    }
+
+    /**
+     * @param schema object schema.
+     * @param key    member key.
+     * @return schema of the member value, a schema without a type when the value is not validated, or null when
+     * the value is always tokenized.
+     */
+    static CompiledSchema memberSchema(CompiledSchema schema, String key) {
+        for (Pattern pattern : schema.getPatternProperties().keySet()) {
+            if (pattern.matcher(key).find()) {
+                // validated by every matching schema and moved to the end of the object
+                return null;
+            }
+        }
+        CompiledSchema property = schema.getProperties().get(key);
+        if (property != null) {
+            return property;
+        }
+        if (schema.hasAdditionalProperties() && schema.hasProperties()
+                && schema.getAdditionalPropertiesAllowed() == null && schema.getAdditionalProperties() != null
+                && !schema.getAdditionalProperties().isEmpty()) {
+            return schema.getAdditionalProperties();
+        }
+        return CompiledSchema.ACCEPT_ALL;
+    }
+
+    /**
+     * Schema of an item, following "items" and "additionalItems" as {@code validators.ItemSchemas} does.
+     *
+     * @param schema array schema.
+     * @param index  index of the item.
+     * @return schema of the item, a schema without a type when the item is not validated.
+     */
+    static CompiledSchema itemSchema(CompiledSchema schema, int index) {
+        CompiledSchema level = schema;
+        int offset = 0;
+        while (true) {
+            List<CompiledSchema> schemas = level.getItemsArray();
+            if (schemas == null) {
+                return level.getItems() != null ? level.getItems() : CompiledSchema.ACCEPT_ALL;
+            }
+            for (int i = 0; i < schemas.size() && i <= index - offset; i++) {
+                if (!schemas.get(i).isEmpty() && schemas.get(i).getType() == null) {
+                    // items are not validated from this schema on
+                    return CompiledSchema.ACCEPT_ALL;
+                }
+            }
+            if (index - offset < schemas.size()) {
+                return schemas.get(index - offset);
+            } else if (level.getAdditionalItems() == null) {
+                return CompiledSchema.ACCEPT_ALL;
+            }
+            offset += schemas.size();
+            level = level.getAdditionalItems();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package backend;
+
+/**
+ * Block classifier testing one byte at a time, used when the vector API is not available.
+ */
+final class ScalarBlockClassifier implements BlockClassifier {
+
+    @Override
+    public void classify(byte[] bytes, int index, long[] masks) {
+        long backslash = 0;
+        long quote = 0;
+        long whitespace = 0;
+        long operator = 0;
+        long special = 0;
+        for (int i = 0; i < 64; i++) {
+            byte b = bytes[index + i];
+            long bit = 1L << i;
+            switch (b) {
+                case '\\':
+                    backslash |= bit;
+                    break;
+                case '"':
+                    quote |= bit;
+                    break;
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    whitespace |= bit;
+                    break;
+                case '{':
+                case '}':
+                case '[':
+                case ']':
+                case ':':
+                case ',':
+                    operator |= bit;
+                    break;
+                default:
+                    break;
+            }
+            // signed compare, bytes of non ASCII characters are negative
+            if (b < 0x20) {
+                special |= bit;
+            }
+        }
+        masks[BACKSLASH] = backslash;
+        masks[QUOTE] = quote;
+        masks[WHITESPACE] = whitespace;
+        masks[OPERATOR] = operator;
+        masks[SPECIAL] = special;
+    }
+}
@@ -0,0 +1,215 @@
+package backend;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Arrays;
+
+/**
+ * Index of the structural positions of a UTF-8 JSON document, built in a first pass over its bytes as simdjson
+ * does. The bytes are classified 64 at a time into bit masks, and the masks give the positions of the operators
+ * outside strings, of every unescaped quote and of the first byte of the other values, so a tokenizer can jump from
+ * token to token instead of testing every byte. The index also marks the bytes inside strings which need decoding,
+ * backslashes, control characters and non ASCII bytes, so strings without them are copied without looking at their
+ * bytes again.
+ * <p>
+ * Blocks are classified with the vector API (jdk.incubator.vector) when the running JVM provides it, which needs
+ * JDK 17 or later and "--add-modules jdk.incubator.vector", otherwise one byte at a time. Both give the same index.
+ */
+public final class StructuralIndex {
+
+    // Logger instance
+    private static final Log logger = LogFactory.getLog(StructuralIndex.class);
+
+    private static final BlockClassifier SCALAR_CLASSIFIER = new ScalarBlockClassifier();
+    // null when the running JVM does not provide the vector API
+    private static final BlockClassifier VECTOR_CLASSIFIER = findVectorClassifier();
+
+    private static BlockClassifier findVectorClassifier() {
+        try {
+            return (BlockClassifier) Class.forName("backend.VectorBlockClassifier").getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Vector API is not available, structural indexes are built one byte at a time : " + ex);
+            }
+            return null;
+        }
+    }
+
+    private final int offset;
+    private final int[] positions;
+    private final int size;
+    // bytes inside strings which need decoding, one word per block
+    private final long[] special;
+
+    private StructuralIndex(int offset, int[] positions, int size, long[] special) {
+        this.offset = offset;
+        this.positions = positions;
+        this.size = size;
+        this.special = special;
+    }
+
+    /**
+     * Check whether structural indexes are built with the vector API.
+     *
+     * @return true if the vector API is used.
+     */
+    public static boolean isVectorized() {
+        return VECTOR_CLASSIFIER != null;
+    }
+
+    /**
+     * Build the index of a range of a byte array, with the vector API when it is available.
+     *
+     * @param bytes  UTF-8 bytes of the document.
+     * @param offset offset of the first byte of the document.
+     * @param length number of bytes of the document.
+     * @return structural index.
+     */
+    public static StructuralIndex build(byte[] bytes, int offset, int length) {
+        return build(VECTOR_CLASSIFIER != null ? VECTOR_CLASSIFIER : SCALAR_CLASSIFIER, bytes, offset, length);
+    }
+
+    /**
+     * Build the index of a range of a byte array one byte at a time, without the vector API.
+     *
+     * @param bytes  UTF-8 bytes of the document.
+     * @param offset offset of the first byte of the document.
+     * @param length number of bytes of the document.
+     * @return structural index.
+     */
+    public static StructuralIndex buildScalar(byte[] bytes, int offset, int length) {
+        return build(SCALAR_CLASSIFIER, bytes, offset, length);
+    }
+
+    private static StructuralIndex build(BlockClassifier classifier, byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("Invalid range " + offset + ", " + length + " of " + bytes.length +
+                    " bytes");
+        }
+        int blocks = (length + 63) >>> 6;
+        long[] special = new long[blocks];
+        int[] positions = new int[Math.max(16, length >>> 3)];
+        int size = 0;
+        long[] masks = new long[BlockClassifier.MASK_COUNT];
+        byte[] tail = null;
+        // state carried from the previous block
+        boolean escapedCarry = false;
+        long inStringCarry = 0;
+        long valueCarry = 0;
+        for (int block = 0; block < blocks; block++) {
+            int index = offset + (block << 6);
+            int remaining = offset + length - index;
+            long valid;
+            if (remaining >= 64) {
+                classifier.classify(bytes, index, masks);
+                valid = -1L;
+            } else {
+                if (tail == null) {
+                    tail = new byte[64];
+                }
+                System.arraycopy(bytes, index, tail, 0, remaining);
+                Arrays.fill(tail, remaining, 64, (byte) ' ');
+                classifier.classify(tail, 0, masks);
+                valid = (1L << remaining) - 1;
+            }
+            long backslash = masks[BlockClassifier.BACKSLASH] & valid;
+
+            // a backslash escapes the next byte, unless it is escaped itself
+            long escaped = 0;
+            long unescapedBackslash = backslash;
+            if (escapedCarry) {
+                escaped = 1L;
+                unescapedBackslash &= ~1L;
+            }
+            escapedCarry = false;
+            while (unescapedBackslash != 0) {
+                int bit = Long.numberOfTrailingZeros(unescapedBackslash);
+                if (bit == 63) {
+                    escapedCarry = true;
+                    break;
+                }
+                escaped |= 1L << (bit + 1);
+                unescapedBackslash &= ~(3L << bit);
+            }
+
+            long quote = masks[BlockClassifier.QUOTE] & valid & ~escaped;
+            // bytes from an opening quote up to its closing quote, excluded
+            long inString = prefixXor(quote) ^ inStringCarry;
+            inStringCarry = inString >> 63;
+            long operator = masks[BlockClassifier.OPERATOR] & valid & ~inString;
+            // bytes of numbers and literals, and any unexpected byte outside strings
+            long value = valid & ~(masks[BlockClassifier.OPERATOR] | masks[BlockClassifier.WHITESPACE] | quote)
+                    & ~inString;
+            long valueStart = value & ~((value << 1) | valueCarry);
+            valueCarry = value >>> 63;
+            special[block] = (backslash | masks[BlockClassifier.SPECIAL]) & valid & inString;
+
+            long structural = operator | quote | valueStart;
+            while (structural != 0) {
+                if (size == positions.length) {
+                    positions = Arrays.copyOf(positions, size * 2);
+                }
+                positions[size++] = index + Long.numberOfTrailingZeros(structural);
+                structural &= structural - 1;
+            }
+        }
+        return new StructuralIndex(offset, positions, size, special);
+    }
+
+    private static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+
+    /**
+     * @return number of structural positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i index of a structural position.
+     * @return offset in the byte array of the structural position.
+     */
+    public int get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Position " + i + " of " + size);
+        }
+        return positions[i];
+    }
+
+    /**
+     * Check whether a range inside a string holds a byte which needs decoding, a backslash, a control character or
+     * a byte of a non ASCII character.
+     *
+     * @param from offset in the byte array of the first byte of the range.
+     * @param to   offset in the byte array after the last byte of the range.
+     * @return true if a byte of the range needs decoding.
+     */
+    public boolean hasSpecial(int from, int to) {
+        int first = from - offset;
+        int last = to - offset;
+        for (int word = first >>> 6; word < special.length && word << 6 < last; word++) {
+            long bits = special[word];
+            int start = word << 6;
+            if (start < first) {
+                bits &= -1L << (first - start);
+            }
+            if (last - start < 64) {
+                bits &= (1L << (last - start)) - 1;
+            }
+            if (bits != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
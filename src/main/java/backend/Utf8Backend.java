@@ -0,0 +1,238 @@
+package backend;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.internal.LazilyParsedNumber;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Backend building trees from UTF-8 bytes with a {@link Utf8Tokenizer}, without decoding the document to characters.
+ * Integers which fit in a long are parsed from their bytes, other numbers keep their text so they are written back
+ * unchanged. Unlike the Gson backend it only accepts strict JSON (RFC 8259): comments, single quotes, unquoted
+ * strings and NaN are rejected as malformed. It suits byte inputs, strings and readers are encoded to UTF-8 first.
+ * Strings are decoded while the tree is built, as the values of a Gson tree are decoded. Nesting too deep for the
+ * stack is reported as malformed, as the Gson parser does.
+ * <p>
+ * An indexed backend builds a {@link StructuralIndex} of each document before building its tree, which pays off for
+ * large documents, especially with the vector API.
+ */
+public final class Utf8Backend implements JsonBackend {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final boolean indexed;
+    private final ParseLimits limits;
+
+    /**
+     * Create a backend scanning the bytes one at a time.
+     */
+    public Utf8Backend() {
+        this(false);
+    }
+
+    /**
+     * Create a backend.
+     *
+     * @param indexed true to build a structural index of each document first.
+     */
+    public Utf8Backend(boolean indexed) {
+        this(indexed, ParseLimits.NONE);
+    }
+
+    /**
+     * Create a backend checking limits while it tokenizes the documents.
+     *
+     * @param indexed true to build a structural index of each document first.
+     * @param limits  limits of the documents.
+     */
+    public Utf8Backend(boolean indexed, ParseLimits limits) {
+        this.indexed = indexed;
+        this.limits = limits;
+    }
+
+    @Override
+    public JsonBackend withLimits(ParseLimits limits) {
+        return new Utf8Backend(indexed, limits);
+    }
+
+    @Override
+    public JsonElement parse(String input) {
+        limits.checkInputSize(input);
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return parse(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public JsonElement parse(Reader input) {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        try {
+            for (int count = input.read(buffer); count != -1; count = input.read(buffer)) {
+                text.append(buffer, 0, count);
+                limits.checkInputSize(text.length());
+            }
+        } catch (IOException ex) {
+            throw new JsonIOException(ex);
+        }
+        // the size of a reader is counted in characters
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        return tokenize(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public JsonElement parse(InputStream input) {
+        byte[] bytes = new byte[READ_BUFFER_SIZE];
+        int length = 0;
+        try {
+            for (int count = input.read(bytes, length, bytes.length - length); count != -1;
+                 count = input.read(bytes, length, bytes.length - length)) {
+                length += count;
+                limits.checkInputSize(length);
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+            }
+        } catch (IOException ex) {
+            throw new JsonIOException(ex);
+        }
+        return parse(bytes, 0, length);
+    }
+
+    @Override
+    public JsonElement parse(ByteBuffer input) {
+        if (input.hasArray()) {
+            return parse(input.array(), input.arrayOffset() + input.position(), input.remaining());
+        }
+        byte[] bytes = new byte[input.remaining()];
+        input.duplicate().get(bytes);
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Parse a range of a byte array as a UTF-8 JSON document.
+     *
+     * @param bytes  UTF-8 bytes of the document.
+     * @param offset offset of the first byte of the document.
+     * @param length number of bytes of the document.
+     * @return parsed tree, JsonNull for an empty document.
+     */
+    public JsonElement parse(byte[] bytes, int offset, int length) {
+        limits.checkInputSize(length);
+        return tokenize(bytes, offset, length);
+    }
+
+    private JsonElement tokenize(byte[] bytes, int offset, int length) {
+        Utf8Tokenizer tokenizer = indexed ? Utf8Tokenizer.indexed(bytes, offset, length)
+                : new Utf8Tokenizer(bytes, offset, length);
+        try {
+            Utf8Tokenizer.Token token = tokenizer.next();
+            if (token == Utf8Tokenizer.Token.END_DOCUMENT) {
+                return JsonNull.INSTANCE;
+            }
+            JsonElement root = value(tokenizer, token, 0);
+            if (tokenizer.next() != Utf8Tokenizer.Token.END_DOCUMENT) {
+                throw new ParseException("Did not consume the entire document", tokenizer.getOffset());
+            }
+            return root;
+        } catch (ParseException ex) {
+            throw new JsonSyntaxException(ex.getMessage() + " at offset " + (ex.getErrorOffset() - offset), ex);
+        } catch (StackOverflowError ex) {
+            throw new JsonSyntaxException("Document is nested too deep at offset "
+                    + (tokenizer.getOffset() - offset), ex);
+        }
+    }
+
+    /**
+     * @param depth number of arrays and objects holding the value.
+     */
+    private JsonElement value(Utf8Tokenizer tokenizer, Utf8Tokenizer.Token token, int depth) throws ParseException {
+        switch (token) {
+            case BEGIN_ARRAY:
+                limits.checkDepth(depth + 1);
+                return array(tokenizer, depth + 1);
+            case BEGIN_OBJECT:
+                limits.checkDepth(depth + 1);
+                return object(tokenizer, depth + 1);
+            case STRING:
+                return new JsonPrimitive(string(tokenizer));
+            case NUMBER:
+                return tokenizer.isLong() ? new JsonPrimitive(tokenizer.getLong())
+                        : new JsonPrimitive(new LazilyParsedNumber(tokenizer.getNumberText()));
+            case TRUE:
+                return new JsonPrimitive(true);
+            case FALSE:
+                return new JsonPrimitive(false);
+            case NULL:
+                return JsonNull.INSTANCE;
+            case END_DOCUMENT:
+                throw new ParseException("Unexpected end of the document", tokenizer.getOffset());
+            default:
+                throw new ParseException("Expected a value", tokenizer.getOffset());
+        }
+    }
+
+    private JsonArray array(Utf8Tokenizer tokenizer, int depth) throws ParseException {
+        JsonArray array = new JsonArray();
+        Utf8Tokenizer.Token token = tokenizer.next();
+        if (token == Utf8Tokenizer.Token.END_ARRAY) {
+            return array;
+        }
+        while (true) {
+            limits.checkArrayLength(array.size() + 1);
+            array.add(value(tokenizer, token, depth));
+            token = tokenizer.next();
+            if (token == Utf8Tokenizer.Token.END_ARRAY) {
+                return array;
+            }
+            expect(tokenizer, token, Utf8Tokenizer.Token.COMMA, "Expected ',' or ']'");
+            token = tokenizer.next();
+        }
+    }
+
+    private JsonObject object(Utf8Tokenizer tokenizer, int depth) throws ParseException {
+        JsonObject object = new JsonObject();
+        int members = 0;
+        Utf8Tokenizer.Token token = tokenizer.next();
+        if (token == Utf8Tokenizer.Token.END_OBJECT) {
+            return object;
+        }
+        while (true) {
+            expect(tokenizer, token, Utf8Tokenizer.Token.STRING, "Expected a member name");
+            limits.checkObjectMembers(++members);
+            String name = string(tokenizer);
+            expect(tokenizer, tokenizer.next(), Utf8Tokenizer.Token.COLON, "Expected ':'");
+            object.add(name, value(tokenizer, tokenizer.next(), depth));
+            token = tokenizer.next();
+            if (token == Utf8Tokenizer.Token.END_OBJECT) {
+                return object;
+            }
+            expect(tokenizer, token, Utf8Tokenizer.Token.COMMA, "Expected ',' or '}'");
+            token = tokenizer.next();
+        }
+    }
+
+    private String string(Utf8Tokenizer tokenizer) {
+        String value = tokenizer.getString();
+        limits.checkStringLength(value.length());
+        return value;
+    }
+
+    private static void expect(Utf8Tokenizer tokenizer, Utf8Tokenizer.Token token, Utf8Tokenizer.Token expected,
+                               String message) throws ParseException {
+        if (token != expected) {
+            throw new ParseException(message, tokenizer.getOffset());
+        }
+    }
+}
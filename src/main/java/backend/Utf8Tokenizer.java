@@ -0,0 +1,551 @@
+package backend;
+
+import exceptions.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Tokenizer reading a UTF-8 JSON document (RFC 8259) directly from a byte array, without decoding it to characters
+ * first. Structural characters, literals and numbers are recognized on the bytes, and the value of a string token is
+ * only decoded when {@link #getString()} is called. Strings made of ASCII characters without escapes are copied
+ * without decoding. Invalid UTF-8 sequences in strings are replaced by U+FFFD, as a decoding reader does.
+ * <p>
+ * An indexed tokenizer, see {@link #indexed(byte[], int, int)}, builds a {@link StructuralIndex} of the document
+ * first and jumps from token to token, copying strings without looking at their bytes again when the index shows
+ * they need no decoding. Both tokenizers give the same tokens and reject the same documents.
+ * <p>
+ * The tokenizer only checks the tokens, the order of the tokens is checked by the caller, see {@link Utf8Backend}.
+ * A tokenizer is not thread safe.
+ */
+public final class Utf8Tokenizer {
+
+    /**
+     * Token types.
+     */
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, COMMA, COLON, STRING, NUMBER, TRUE, FALSE, NULL,
+        END_DOCUMENT
+    }
+
+    // longest number text which always fits in a long
+    private static final int MAX_LONG_LENGTH = 18;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final byte[] bytes;
+    private final int limit;
+    // null when the bytes are scanned one at a time
+    private final StructuralIndex index;
+    private int cursor;
+    private int position;
+    // bounds of the current token
+    private int start;
+    private int end;
+    // current string has only ASCII characters and no escapes
+    private boolean plainString;
+    // current number has no fraction and no exponent
+    private boolean integral;
+    // brackets opened while skipping a value
+    private byte[] brackets;
+
+    /**
+     * Create a tokenizer reading a range of a byte array. A leading byte order mark is skipped.
+     *
+     * @param bytes  UTF-8 bytes of the document. Not copied, must not change while tokenizing.
+     * @param offset offset of the first byte of the document.
+     * @param length number of bytes of the document.
+     */
+    public Utf8Tokenizer(byte[] bytes, int offset, int length) {
+        this(bytes, offset, length, false);
+    }
+
+    private Utf8Tokenizer(byte[] bytes, int offset, int length, boolean indexed) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("Invalid range " + offset + ", " + length + " of " + bytes.length +
+                    " bytes");
+        }
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        if (length >= 3 && (bytes[offset] & 0xff) == 0xEF && (bytes[offset + 1] & 0xff) == 0xBB
+                && (bytes[offset + 2] & 0xff) == 0xBF) {
+            position += 3;
+        }
+        this.index = indexed ? StructuralIndex.build(bytes, position, limit - position) : null;
+    }
+
+    /**
+     * Create a tokenizer reading a range of a byte array through a structural index, built before the first token
+     * is read. A leading byte order mark is skipped.
+     *
+     * @param bytes  UTF-8 bytes of the document. Not copied, must not change while tokenizing.
+     * @param offset offset of the first byte of the document.
+     * @param length number of bytes of the document.
+     * @return indexed tokenizer.
+     */
+    public static Utf8Tokenizer indexed(byte[] bytes, int offset, int length) {
+        return new Utf8Tokenizer(bytes, offset, length, true);
+    }
+
+    /**
+     * Read the next token.
+     *
+     * @return token type, END_DOCUMENT once every byte is read.
+     * @throws ParseException the next bytes are not a valid token.
+     */
+    public Token next() throws ParseException {
+        if (index == null) {
+            while (position < limit && isWhitespace(bytes[position])) {
+                position++;
+            }
+        } else {
+            position = cursor < index.size() ? index.get(cursor++) : limit;
+        }
+        start = position;
+        if (position == limit) {
+            end = position;
+            return Token.END_DOCUMENT;
+        }
+        byte b = bytes[position];
+        switch (b) {
+            case '[':
+                return single(Token.BEGIN_ARRAY);
+            case ']':
+                return single(Token.END_ARRAY);
+            case '{':
+                return single(Token.BEGIN_OBJECT);
+            case '}':
+                return single(Token.END_OBJECT);
+            case ',':
+                return single(Token.COMMA);
+            case ':':
+                return single(Token.COLON);
+            case '"':
+                scanString();
+                return Token.STRING;
+            case 't':
+                return checkEnd(literal("true", Token.TRUE));
+            case 'f':
+                return checkEnd(literal("false", Token.FALSE));
+            case 'n':
+                return checkEnd(literal("null", Token.NULL));
+            default:
+                if (b == '-' || isDigit(b)) {
+                    scanNumber();
+                    return checkEnd(Token.NUMBER);
+                }
+                throw new ParseException("Unexpected character '" + (char) (b & 0xff) + "'", position);
+        }
+    }
+
+    /**
+     * Skip the array or the object of the current BEGIN_ARRAY or BEGIN_OBJECT token without building it. Its tokens
+     * and separators are checked, so a skipped value is strict JSON. Afterwards {@link #getOffset()} and the end of
+     * the token span the whole value, and the next token follows the value.
+     *
+     * @throws ParseException the value is malformed or does not end.
+     */
+    public void skipValue() throws ParseException {
+        skipValue(-1);
+    }
+
+    /**
+     * Skip the array or the object of the current BEGIN_ARRAY or BEGIN_OBJECT token, see {@link #skipValue()},
+     * checking how deep it is nested.
+     *
+     * @param maxDepth maximum number of nested arrays and objects of the value, including itself, -1 for no limit.
+     * @throws ParseException         the value is malformed or does not end.
+     * @throws LimitExceededException the value is nested deeper than the limit.
+     */
+    public void skipValue(int maxDepth) throws ParseException {
+        if (brackets == null) {
+            brackets = new byte[16];
+        }
+        int valueStart = start;
+        brackets[0] = bytes[start];
+        int depth = 1;
+        // true right after a bracket, where the array or the object may be closed
+        boolean opened = true;
+        while (true) {
+            Token token = next();
+            if (!opened || token != Token.END_ARRAY && token != Token.END_OBJECT) {
+                if (brackets[depth - 1] == '{') {
+                    expect(token, Token.STRING, "Expected a member name");
+                    expect(next(), Token.COLON, "Expected ':'");
+                    token = next();
+                }
+                if (token == Token.BEGIN_ARRAY || token == Token.BEGIN_OBJECT) {
+                    if (depth == maxDepth) {
+                        throw new LimitExceededException(ErrorCode.MAX_DEPTH, maxDepth);
+                    } else if (depth == brackets.length) {
+                        brackets = Arrays.copyOf(brackets, depth * 2);
+                    }
+                    brackets[depth++] = bytes[start];
+                    opened = true;
+                    continue;
+                } else if (token == Token.END_DOCUMENT) {
+                    throw new ParseException("Unexpected end of the document", limit);
+                } else if (token != Token.STRING && token != Token.NUMBER && token != Token.TRUE
+                        && token != Token.FALSE && token != Token.NULL) {
+                    throw new ParseException("Expected a value", start);
+                }
+                token = next();
+            }
+            // token follows a value, or closes an empty array or object
+            opened = false;
+            while (token == Token.END_ARRAY || token == Token.END_OBJECT) {
+                if (brackets[--depth] != (token == Token.END_ARRAY ? '[' : '{')) {
+                    throw new ParseException("Unexpected character '" + (char) bytes[start] + "'", start);
+                }
+                if (depth == 0) {
+                    start = valueStart;
+                    return;
+                }
+                token = next();
+            }
+            if (token == Token.END_DOCUMENT) {
+                throw new ParseException("Unexpected end of the document", limit);
+            }
+            expect(token, Token.COMMA, brackets[depth - 1] == '[' ? "Expected ',' or ']'" : "Expected ',' or '}'");
+        }
+    }
+
+    private void expect(Token token, Token expected, String message) throws ParseException {
+        if (token != expected) {
+            throw new ParseException(message, start);
+        }
+    }
+
+    /**
+     * The index only holds the first byte of a number or a literal, so the byte following it must start another
+     * token or be whitespace.
+     */
+    private Token checkEnd(Token token) throws ParseException {
+        if (index != null && position < limit) {
+            byte b = bytes[position];
+            if (!isWhitespace(b) && b != '"' && b != '{' && b != '}' && b != '[' && b != ']' && b != ':' && b != ',') {
+                throw new ParseException("Unexpected character '" + (char) (b & 0xff) + "'", position);
+            }
+        }
+        return token;
+    }
+
+    /**
+     * @return offset of the first byte of the current token.
+     */
+    public int getOffset() {
+        return start;
+    }
+
+    /**
+     * Decode the value of the current STRING token.
+     *
+     * @return string value.
+     */
+    public String getString() {
+        return decodeString(bytes, start, end, plainString);
+    }
+
+    /**
+     * Decode a string token.
+     *
+     * @param bytes UTF-8 bytes of the document.
+     * @param start offset of the opening quote.
+     * @param end   offset after the closing quote.
+     * @param plain the string has only ASCII characters and no escapes.
+     * @return string value.
+     */
+    static String decodeString(byte[] bytes, int start, int end, boolean plain) {
+        if (plain) {
+            return new String(bytes, start + 1, end - start - 2, StandardCharsets.ISO_8859_1);
+        }
+        int last = end - 1;
+        // a character never takes more chars than UTF-8 bytes, and escapes get shorter
+        char[] chars = new char[last - start - 1];
+        int count = 0;
+        int i = start + 1;
+        while (i < last) {
+            int b = bytes[i] & 0xff;
+            if (b == '\\') {
+                char escaped = (char) bytes[i + 1];
+                switch (escaped) {
+                    case 'b':
+                        chars[count++] = '\b';
+                        break;
+                    case 'f':
+                        chars[count++] = '\f';
+                        break;
+                    case 'n':
+                        chars[count++] = '\n';
+                        break;
+                    case 'r':
+                        chars[count++] = '\r';
+                        break;
+                    case 't':
+                        chars[count++] = '\t';
+                        break;
+                    case 'u':
+                        chars[count++] = (char) ((hex(bytes[i + 2]) << 12) | (hex(bytes[i + 3]) << 8)
+                                | (hex(bytes[i + 4]) << 4) | hex(bytes[i + 5]));
+                        i += 4;
+                        break;
+                    default:
+                        chars[count++] = escaped;
+                        break;
+                }
+                i += 2;
+            } else if (b < 0x80) {
+                chars[count++] = (char) b;
+                i++;
+            } else if (b >= 0xC2 && b < 0xE0 && isContinuation(bytes, i + 1, last)) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i + 1] & 0x3F));
+                i += 2;
+            } else if (b >= 0xE0 && b < 0xF0 && isContinuation(bytes, i + 1, last) && isContinuation(bytes, i + 2, last)) {
+                int c = ((b & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6) | (bytes[i + 2] & 0x3F);
+                if (c < 0x800 || Character.isSurrogate((char) c)) {
+                    chars[count++] = REPLACEMENT;
+                    i++;
+                } else {
+                    chars[count++] = (char) c;
+                    i += 3;
+                }
+            } else if (b >= 0xF0 && b < 0xF5 && isContinuation(bytes, i + 1, last) && isContinuation(bytes, i + 2, last)
+                    && isContinuation(bytes, i + 3, last)) {
+                int codePoint = ((b & 0x07) << 18) | ((bytes[i + 1] & 0x3F) << 12) | ((bytes[i + 2] & 0x3F) << 6)
+                        | (bytes[i + 3] & 0x3F);
+                if (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT) {
+                    chars[count++] = REPLACEMENT;
+                    i++;
+                } else {
+                    chars[count++] = Character.highSurrogate(codePoint);
+                    chars[count++] = Character.lowSurrogate(codePoint);
+                    i += 4;
+                }
+            } else {
+                chars[count++] = REPLACEMENT;
+                i++;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * @return true if the current NUMBER token is an integer which fits in a long, see {@link #getLong()}.
+     */
+    public boolean isLong() {
+        int length = end - start;
+        // "-0" is kept as text so it is written back unchanged
+        return integral && length <= MAX_LONG_LENGTH && !(bytes[start] == '-' && bytes[start + 1] == '0');
+    }
+
+    /**
+     * Parse the current NUMBER token from its bytes.
+     *
+     * @return value of the number.
+     * @throws IllegalStateException the number does not fit in a long.
+     */
+    public long getLong() {
+        if (!isLong()) {
+            throw new IllegalStateException("Number " + getNumberText() + " is not a long");
+        }
+        return parseLong(bytes, start, end);
+    }
+
+    /**
+     * Parse an integer token which fits in a long from its bytes.
+     */
+    static long parseLong(byte[] bytes, int start, int end) {
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return text of the current NUMBER token, as written in the document.
+     */
+    public String getNumberText() {
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @return offset after the last byte of the current token.
+     */
+    int getEnd() {
+        return end;
+    }
+
+    /**
+     * @return true if the current STRING token has only ASCII characters and no escapes.
+     */
+    boolean isPlainString() {
+        return plainString;
+    }
+
+    private Token single(Token token) {
+        position++;
+        end = position;
+        return token;
+    }
+
+    private Token literal(String text, Token token) throws ParseException {
+        if (position + text.length() > limit) {
+            throw new ParseException("Unexpected end of the document", limit);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (bytes[position + i] != text.charAt(i)) {
+                throw new ParseException("Unexpected character '" + (char) (bytes[position + i] & 0xff) + "'",
+                        position + i);
+            }
+        }
+        position += text.length();
+        end = position;
+        return token;
+    }
+
+    private void scanString() throws ParseException {
+        if (index != null) {
+            if (cursor == index.size()) {
+                throw new ParseException("Unterminated string", position);
+            }
+            int close = index.get(cursor);
+            if (!index.hasSpecial(position + 1, close)) {
+                cursor++;
+                position = close + 1;
+                end = position;
+                plainString = true;
+                return;
+            }
+        }
+        boolean plain = true;
+        int i = position + 1;
+        while (true) {
+            if (i >= limit) {
+                throw new ParseException("Unterminated string", position);
+            }
+            byte b = bytes[i];
+            if (b == '"') {
+                break;
+            } else if (b == '\\') {
+                plain = false;
+                i += escapeLength(i);
+            } else if (b >= 0 && b < 0x20) {
+                throw new ParseException("Unescaped control character in string", i);
+            } else {
+                // bytes of non ASCII characters are negative
+                plain &= b > 0;
+                i++;
+            }
+        }
+        if (index != null) {
+            // the closing quote found in the bytes is the next position of the index
+            cursor++;
+        }
+        position = i + 1;
+        end = position;
+        plainString = plain;
+    }
+
+    private int escapeLength(int i) throws ParseException {
+        if (i + 1 >= limit) {
+            throw new ParseException("Unterminated string", start);
+        }
+        switch (bytes[i + 1]) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return 2;
+            case 'u':
+                if (i + 5 >= limit) {
+                    throw new ParseException("Unterminated string", start);
+                }
+                for (int j = i + 2; j < i + 6; j++) {
+                    if (hex(bytes[j]) < 0) {
+                        throw new ParseException("Invalid unicode escape", i);
+                    }
+                }
+                return 6;
+            default:
+                throw new ParseException("Invalid escape sequence", i);
+        }
+    }
+
+    private void scanNumber() throws ParseException {
+        int i = position;
+        if (bytes[i] == '-') {
+            i++;
+        }
+        if (i < limit && bytes[i] == '0') {
+            i++;
+        } else if (i < limit && isDigit(bytes[i])) {
+            i = digits(i);
+        } else {
+            throw new ParseException("Invalid number", position);
+        }
+        boolean noFraction = true;
+        if (i < limit && bytes[i] == '.') {
+            noFraction = false;
+            i = requiredDigits(i + 1);
+        }
+        if (i < limit && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            noFraction = false;
+            i++;
+            if (i < limit && (bytes[i] == '+' || bytes[i] == '-')) {
+                i++;
+            }
+            i = requiredDigits(i);
+        }
+        position = i;
+        end = i;
+        integral = noFraction;
+    }
+
+    private int requiredDigits(int i) throws ParseException {
+        if (i >= limit || !isDigit(bytes[i])) {
+            throw new ParseException("Invalid number", start);
+        }
+        return digits(i);
+    }
+
+    private int digits(int i) {
+        while (i < limit && isDigit(bytes[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isContinuation(byte[] bytes, int i, int last) {
+        return i < last && (bytes[i] & 0xC0) == 0x80;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static int hex(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        } else if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        } else if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+}
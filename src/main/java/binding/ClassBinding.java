@@ -0,0 +1,228 @@
+package binding;
+
+import exceptions.ParserException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reflection metadata of a target class, either a plain class with a no argument constructor or a record.
+ * Computed once per class and shared between threads.
+ */
+class ClassBinding {
+
+    // Logger instance
+    private static Log logger = LogFactory.getLog(ClassBinding.class.getName());
+
+    private static final ConcurrentHashMap<Class<?>, ClassBinding> bindings = new ConcurrentHashMap<>();
+
+    // Class.isRecord and Class.getRecordComponents, null on JDKs without records
+    private static final Method IS_RECORD = findMethod(Class.class, "isRecord");
+    private static final Method GET_RECORD_COMPONENTS = findMethod(Class.class, "getRecordComponents");
+
+    /**
+     * Primitive kind of a field, used to set it without boxing.
+     */
+    enum Kind {
+        INT, LONG, SHORT, BYTE, DOUBLE, FLOAT, BOOLEAN, OBJECT
+    }
+
+    /**
+     * A field of a plain class.
+     */
+    static final class FieldBinding {
+        final Field field;
+        final Kind kind;
+        final Type type;
+
+        private FieldBinding(Field field) {
+            this.field = field;
+            this.kind = kindOf(field.getType());
+            this.type = field.getGenericType();
+        }
+    }
+
+    private final Class<?> type;
+    private final boolean record;
+    private final Constructor<?> constructor;
+    private final Map<String, FieldBinding> fields = new HashMap<>();
+    private final Map<String, Integer> componentIndexes = new HashMap<>();
+    private final Type[] componentTypes;
+    private final Class<?>[] componentClasses;
+
+    private ClassBinding(Class<?> type) throws ParserException {
+        this.type = type;
+        this.record = isRecord(type);
+        try {
+            if (record) {
+                Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+                componentTypes = new Type[components.length];
+                componentClasses = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    Class<?> componentClass = components[i].getClass();
+                    componentIndexes.put((String) componentClass.getMethod("getName").invoke(components[i]), i);
+                    componentTypes[i] = (Type) componentClass.getMethod("getGenericType").invoke(components[i]);
+                    componentClasses[i] = (Class<?>) componentClass.getMethod("getType").invoke(components[i]);
+                }
+                constructor = type.getDeclaredConstructor(componentClasses);
+            } else {
+                componentTypes = null;
+                componentClasses = null;
+                constructor = type.getDeclaredConstructor();
+                for (Class<?> current = type; current != null && current != Object.class;
+                     current = current.getSuperclass()) {
+                    for (Field field : current.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) &&
+                                !field.isSynthetic() && !fields.containsKey(field.getName())) {
+                            field.setAccessible(true);
+                            fields.put(field.getName(), new FieldBinding(field));
+                        }
+                    }
+                }
+            }
+            constructor.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            ParserException exception = new ParserException("Cannot bind JSON to " + type.getName(), ex);
+            logger.error(type.getName() + " should be a record or have a no argument constructor", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Get the binding of a class.
+     *
+     * @param type target class.
+     * @return class binding.
+     * @throws ParserException the class can not be instantiated.
+     */
+    static ClassBinding of(Class<?> type) throws ParserException {
+        ClassBinding binding = bindings.get(type);
+        if (binding == null) {
+            binding = new ClassBinding(type);
+            ClassBinding existing = bindings.putIfAbsent(type, binding);
+            if (existing != null) {
+                binding = existing;
+            }
+        }
+        return binding;
+    }
+
+    boolean isRecord() {
+        return record;
+    }
+
+    FieldBinding getField(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * Index of a record component.
+     *
+     * @param name component name.
+     * @return component index, -1 if the record has no such component.
+     */
+    int getComponentIndex(String name) {
+        Integer index = componentIndexes.get(name);
+        return index != null ? index : -1;
+    }
+
+    Type getComponentType(int index) {
+        return componentTypes[index];
+    }
+
+    /**
+     * Create the arguments of the record constructor, with default values for primitive components.
+     *
+     * @return constructor arguments.
+     */
+    Object[] newComponentValues() {
+        Object[] values = new Object[componentClasses.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = defaultValue(componentClasses[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Create an instance, using the no argument constructor of a plain class or the canonical constructor of a
+     * record.
+     *
+     * @param componentValues record components, null for a plain class.
+     * @return new instance.
+     * @throws ParserException the instance can not be created.
+     */
+    Object newInstance(Object[] componentValues) throws ParserException {
+        try {
+            return record ? constructor.newInstance(componentValues) : constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            ParserException exception = new ParserException("Cannot create an instance of " + type.getName(), ex);
+            logger.error("Error occurred while creating an instance of " + type.getName(), exception);
+            throw exception;
+        }
+    }
+
+    static boolean isRecord(Class<?> type) {
+        try {
+            return IS_RECORD != null && (Boolean) IS_RECORD.invoke(type);
+        } catch (ReflectiveOperationException ex) {
+            return false;
+        }
+    }
+
+    private static Kind kindOf(Class<?> type) {
+        if (type == int.class) {
+            return Kind.INT;
+        } else if (type == long.class) {
+            return Kind.LONG;
+        } else if (type == short.class) {
+            return Kind.SHORT;
+        } else if (type == byte.class) {
+            return Kind.BYTE;
+        } else if (type == double.class) {
+            return Kind.DOUBLE;
+        } else if (type == float.class) {
+            return Kind.FLOAT;
+        } else if (type == boolean.class) {
+            return Kind.BOOLEAN;
+        }
+        return Kind.OBJECT;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        switch (kindOf(type)) {
+            case INT:
+                return 0;
+            case LONG:
+                return 0L;
+            case SHORT:
+                return (short) 0;
+            case BYTE:
+                return (byte) 0;
+            case DOUBLE:
+                return 0d;
+            case FLOAT:
+                return 0f;
+            case BOOLEAN:
+                return false;
+            default:
+                return type == char.class ? '\0' : null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package binding;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.internal.bind.JsonTreeReader;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
+import utils.DataTypeConverter;
+import validators.BooleanValidator;
+import validators.ElementValidator;
+import validators.NullValidator;
+import validators.NumericValidator;
+import validators.StringValidator;
+import validators.ValidationContext;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * This class binds a JSON document to Java objects while reading it, correcting each value according to the schema.
+ * No JSON tree is built. Numbers and booleans are set on primitive fields with the primitive setters, so no
+ * JsonPrimitive or boxed value is created for them.
+ * Supported targets are classes with a no argument constructor, records (on JDKs providing them), Maps with String
+ * keys, Collections and arrays. Values without a schema type are bound with Gson.
+ * As in the object validator, a member is corrected with its declared property, then with every matching pattern
+ * property, and with additionalProperties when it matches neither. A member with more than one schema is read as a
+ * tree and corrected with each schema but the last, which is applied while binding.
+ */
+public class SchemaBinder {
+
+    // Use without instantiating.
+    private SchemaBinder() {
+    }
+
+    // Logger instance
+    private static Log logger = LogFactory.getLog(SchemaBinder.class.getName());
+
+    // Binds values without a schema type
+    private static final Gson gson = new Gson();
+
+    /**
+     * Bind a JSON document to an instance of the given type.
+     *
+     * @param in     reader positioned at the start of a value.
+     * @param schema compiled JSON schema.
+     * @param type   target type.
+     * @return bound value.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or the value can not be bound.
+     * @throws IOException        Exception occurs while reading.
+     */
+    public static Object bind(JsonReader in, CompiledSchema schema, Type type) throws ValidatorException,
+            ParserException, IOException {
+        if (schema.isRejectAll()) {
+            throw new ValidatorException(ErrorCode.FALSE_SCHEMA);
+        } else if (!schema.isAcceptAll() && schema.getType() == null) {
+            throw new ValidatorException(ErrorCode.MISSING_TYPE);
+        }
+        return read(in, schema, type);
+    }
+
+    /**
+     * Read a value according to its schema.
+     *
+     * @param in     reader.
+     * @param schema schema of the value, null or without a type for an unconstrained value.
+     * @param type   target type.
+     * @return bound value.
+     */
+    private static Object read(JsonReader in, CompiledSchema schema, Type type) throws ValidatorException,
+            ParserException, IOException {
+        if (schema == null || schema.isAcceptAll() || schema.getType() == null) {
+            return gson.getAdapter(TypeToken.get(type)).read(in);
+        }
+        Class<?> raw = rawType(type);
+        switch (schema.getDataType()) {
+            case NUMERIC:
+                String number = scalarText(in);
+                return boxNumber(schema, number, NumericValidator.checkNumeric(schema, number), raw);
+            case BOOLEAN:
+                boolean flag = BooleanValidator.checkBoolean(schema, scalarText(in));
+                return raw == String.class ? String.valueOf(flag) : Boolean.valueOf(flag);
+            case STRING:
+                return StringValidator.checkNominal(schema, scalarText(in));
+            case NULL:
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else {
+                    NullValidator.validateNull(schema, scalarText(in));
+                }
+                return null;
+            case ARRAY:
+                return readArray(in, schema, type, raw);
+            case OBJECT:
+                return readObject(in, schema, type, raw);
+            default:
+                return gson.getAdapter(TypeToken.get(type)).read(in);
+        }
+    }
+
+    /**
+     * Read a value into a field, using the primitive setters for numbers and booleans.
+     */
+    private static void readField(JsonReader in, CompiledSchema schema, Object target, ClassBinding.FieldBinding
+            binding) throws ValidatorException, ParserException, IOException {
+        try {
+            if (schema != null && !schema.isAcceptAll() && schema.getType() != null &&
+                    binding.kind != ClassBinding.Kind.OBJECT) {
+                switch (schema.getDataType()) {
+                    case NUMERIC:
+                        String number = scalarText(in);
+                        double value = NumericValidator.checkNumeric(schema, number);
+                        switch (binding.kind) {
+                            case INT:
+                                binding.field.setInt(target, toInt(schema, number, value));
+                                return;
+                            case LONG:
+                                binding.field.setLong(target, toLong(schema, number, value));
+                                return;
+                            case SHORT:
+                                binding.field.setShort(target, (short) toInt(schema, number, value));
+                                return;
+                            case BYTE:
+                                binding.field.setByte(target, (byte) toInt(schema, number, value));
+                                return;
+                            case DOUBLE:
+                                binding.field.setDouble(target, value);
+                                return;
+                            case FLOAT:
+                                binding.field.setFloat(target, (float) value);
+                                return;
+                            default:
+                                throw cannotBind(number, binding.field.getType());
+                        }
+                    case BOOLEAN:
+                        boolean flag = BooleanValidator.checkBoolean(schema, scalarText(in));
+                        if (binding.kind != ClassBinding.Kind.BOOLEAN) {
+                            throw cannotBind(String.valueOf(flag), binding.field.getType());
+                        }
+                        binding.field.setBoolean(target, flag);
+                        return;
+                    default:
+                        break;
+                }
+            }
+            Object value = read(in, schema, binding.type);
+            if (value != null || binding.kind == ClassBinding.Kind.OBJECT) {
+                binding.field.set(target, value);
+            }
+        } catch (IllegalAccessException | IllegalArgumentException ex) {
+            ParserException exception = new ParserException("Cannot bind the value of " + in.getPath() +
+                    " to the field " + binding.field.getName(), ex);
+            logger.error("Type of the field " + binding.field + " does not match the schema", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Read the text of a scalar. Structures are not scalars and fail the conversion.
+     */
+    private static String scalarText(JsonReader in) throws IOException, ParserException {
+        JsonToken token = in.peek();
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return in.nextString();
+            case BOOLEAN:
+                return String.valueOf(in.nextBoolean());
+            case NULL:
+                in.nextNull();
+                return null;
+            default:
+                throw new ParserException(ErrorCode.NOT_A_VALUE, token);
+        }
+    }
+
+    /**
+     * Get the value of an integer, narrowing numbers only when they have no fraction.
+     */
+    private static int toInt(CompiledSchema schema, String number, double value) throws ParserException {
+        if (schema.isInteger()) {
+            return DataTypeConverter.convertToInt(number);
+        }
+        if (value != (int) value) {
+            throw cannotBind(number, int.class);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Get the value of a long, narrowing numbers only when they have no fraction. Integers are checked as the
+     * validators check them before they are widened.
+     */
+    private static long toLong(CompiledSchema schema, String number, double value) throws ParserException {
+        if (schema.isInteger()) {
+            return DataTypeConverter.convertToInt(number);
+        }
+        if (value != (long) value) {
+            throw cannotBind(number, long.class);
+        }
+        return (long) value;
+    }
+
+    private static Object boxNumber(CompiledSchema schema, String number, double value, Class<?> type)
+            throws ParserException {
+        if (type == Integer.class || type == int.class) {
+            return toInt(schema, number, value);
+        } else if (type == Long.class || type == long.class) {
+            return toLong(schema, number, value);
+        } else if (type == Short.class || type == short.class) {
+            return (short) toInt(schema, number, value);
+        } else if (type == Byte.class || type == byte.class) {
+            return (byte) toInt(schema, number, value);
+        } else if (type == Double.class || type == double.class) {
+            return value;
+        } else if (type == Float.class || type == float.class) {
+            return (float) value;
+        } else if (type == BigDecimal.class) {
+            return schema.isInteger() ? BigDecimal.valueOf(toLong(schema, number, value)) : BigDecimal.valueOf(value);
+        } else if (type == String.class) {
+            return schema.isInteger() ? String.valueOf(toLong(schema, number, value)) : String.valueOf(value);
+        } else if (type.isAssignableFrom(Integer.class) && schema.isInteger()) {
+            return toInt(schema, number, value);
+        } else if (type.isAssignableFrom(Double.class)) {
+            return value;
+        }
+        throw cannotBind(number, type);
+    }
+
+    /**
+     * Read an array, wrapping a single value inside an array.
+     */
+    private static Object readArray(JsonReader in, CompiledSchema schema, Type type, Class<?> raw)
+            throws ValidatorException, ParserException, IOException {
+        Type elementType = elementType(type, raw);
+        List<Object> values = new ArrayList<>();
+        if (in.peek() == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                int index = values.size();
+                try {
+                    values.add(read(in, itemSchema(schema, index), elementType));
+                } catch (ValidatorException | ParserException ex) {
+                    ex.prependPath(index);
+                    throw ex;
+                }
+            }
+            in.endArray();
+        } else {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Structural corrections : Wrapping the value at " + in.getPath() + " inside an array");
+            }
+            values.add(read(in, itemSchema(schema, 0), elementType));
+        }
+        checkItems(values, schema);
+        if (raw.isArray()) {
+            Object array = Array.newInstance(raw.getComponentType(), values.size());
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) != null || !raw.getComponentType().isPrimitive()) {
+                    Array.set(array, i, values.get(i));
+                }
+            }
+            return array;
+        }
+        Collection<Object> collection = newCollection(raw);
+        collection.addAll(values);
+        return collection;
+    }
+
+    /**
+     * Find the schema of an array item from items, an items array and additionalItems.
+     *
+     * @return item schema, null if the item is not constrained.
+     */
+    private static CompiledSchema itemSchema(CompiledSchema schema, int index) throws ValidatorException {
+        CompiledSchema current = schema;
+        int offset = 0;
+        while (true) {
+            List<CompiledSchema> itemsArray = current.getItemsArray();
+            if (itemsArray != null) {
+                for (CompiledSchema itemSchema : itemsArray) {
+                    if (!itemSchema.isEmpty() && itemSchema.getType() == null) {
+                        throw new ValidatorException(ErrorCode.ITEMS_MISSING_TYPE);
+                    }
+                }
+                if (index - offset < itemsArray.size()) {
+                    CompiledSchema itemSchema = itemsArray.get(index - offset);
+                    return itemSchema.isEmpty() ? null : itemSchema;
+                }
+                if (!current.isAdditionalItemsAllowed()) {
+                    throw new ValidatorException(ErrorCode.ADDITIONAL_ITEMS);
+                }
+                if (current.getAdditionalItems() == null) {
+                    return null;
+                }
+                offset += itemsArray.size();
+                current = current.getAdditionalItems();
+            } else if (current.getItems() != null) {
+                if (current.getItems().getType() == null) {
+                    throw new ValidatorException(ErrorCode.ARRAY_SCHEMA_MISSING_TYPE);
+                }
+                return current.getItems();
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Validate the structure of a bound array against its constraints.
+     */
+    private static void checkItems(List<Object> values, CompiledSchema schema) throws ValidatorException {
+        if (schema.getMinItems() != -1 && values.size() < schema.getMinItems()) {
+            throw new ValidatorException(ErrorCode.MIN_ITEMS);
+        }
+        if (schema.getMaxItems() != -1 && values.size() > schema.getMaxItems()) {
+            throw new ValidatorException(ErrorCode.MAX_ITEMS);
+        }
+        if (schema.isUniqueItems()) {
+            Set<Object> temporarySet = new HashSet<>();
+            for (Object value : values) {
+                if (!temporarySet.add(value)) {
+                    throw new ValidatorException(ErrorCode.UNIQUE_ITEMS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read an object into a Map, a record or a plain class.
+     */
+    private static Object readObject(JsonReader reader, CompiledSchema schema, Type type, Class<?> raw)
+            throws ValidatorException, ParserException, IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new ValidatorException(ErrorCode.NOT_AN_OBJECT);
+        }
+        boolean isMap = raw == Object.class || Map.class.isAssignableFrom(raw);
+        Type valueType = isMap ? mapValueType(type) : null;
+        Map<String, Object> map = null;
+        ClassBinding binding = null;
+        Object instance = null;
+        Object[] components = null;
+        if (isMap) {
+            map = newMap(raw);
+        } else {
+            binding = ClassBinding.of(raw);
+            if (binding.isRecord()) {
+                components = binding.newComponentValues();
+            } else {
+                instance = binding.newInstance(null);
+            }
+        }
+        List<String> required = schema.getRequired();
+        boolean[] seen = required.isEmpty() ? null : new boolean[required.size()];
+        int count = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            count++;
+            if (seen != null) {
+                int requiredIndex = required.indexOf(name);
+                if (requiredIndex != -1) {
+                    seen[requiredIndex] = true;
+                }
+            }
+            try {
+                List<CompiledSchema> memberSchemas = memberSchemas(name, schema);
+                CompiledSchema memberSchema = memberSchemas.isEmpty() ? null
+                        : memberSchemas.get(memberSchemas.size() - 1);
+                JsonReader in = memberSchemas.size() > 1 ? correctedReader(reader, memberSchemas,
+                        isDeclared(name, schema)) : reader;
+                if (isMap) {
+                    map.put(name, read(in, memberSchema, valueType));
+                } else if (binding.isRecord()) {
+                    int index = binding.getComponentIndex(name);
+                    if (index == -1) {
+                        read(in, memberSchema, Object.class);
+                    } else {
+                        Object value = read(in, memberSchema, binding.getComponentType(index));
+                        if (value != null) {
+                            components[index] = value;
+                        }
+                    }
+                } else {
+                    ClassBinding.FieldBinding field = binding.getField(name);
+                    if (field == null) {
+                        // members without a field are still validated
+                        read(in, memberSchema, Object.class);
+                    } else {
+                        readField(in, memberSchema, instance, field);
+                    }
+                }
+            } catch (ValidatorException | ParserException ex) {
+                ex.prependPath(name);
+                throw ex;
+            }
+        }
+        reader.endObject();
+        if (seen != null) {
+            for (boolean present : seen) {
+                if (!present) {
+                    throw new ValidatorException(ErrorCode.REQUIRED);
+                }
+            }
+        }
+        checkProperties(count, schema);
+        if (isMap) {
+            return map;
+        }
+        return binding.isRecord() ? binding.newInstance(components) : instance;
+    }
+
+    /**
+     * Find the schemas of an object member, in the order they correct it.
+     *
+     * @return member schemas, empty if the member is not constrained.
+     */
+    private static List<CompiledSchema> memberSchemas(String name, CompiledSchema schema) throws ValidatorException {
+        List<CompiledSchema> schemas = new ArrayList<>(1);
+        if (isDeclared(name, schema)) {
+            schemas.add(schema.getProperties().get(name));
+        }
+        boolean matched = false;
+        for (Map.Entry<Pattern, CompiledSchema> pattern : schema.getPatternProperties().entrySet()) {
+            if (pattern.getKey().matcher(name).find()) {
+                if (pattern.getValue().getType() == null) {
+                    throw new ValidatorException(ErrorCode.OBJECT_SCHEMA_MISSING_TYPE);
+                }
+                schemas.add(pattern.getValue());
+                matched = true;
+            }
+        }
+        // additionalProperties has no effect without properties, as in the object validator
+        if (matched || schema.getPropertyNames().contains(name) || !schema.hasAdditionalProperties()
+                || !schema.hasProperties()) {
+            return schemas;
+        }
+        if (schema.getAdditionalPropertiesAllowed() != null) {
+            if (!schema.getAdditionalPropertiesAllowed()) {
+                throw new ValidatorException(ErrorCode.ADDITIONAL_PROPERTIES);
+            }
+            return schemas;
+        }
+        CompiledSchema additionalSchema = schema.getAdditionalProperties();
+        if (additionalSchema == null || additionalSchema.isEmpty()) {
+            return schemas;
+        }
+        if (additionalSchema.getType() == null) {
+            throw new ValidatorException(ErrorCode.ARRAY_SCHEMA_MISSING_TYPE);
+        }
+        schemas.add(additionalSchema);
+        return schemas;
+    }
+
+    /**
+     * @return true if the member is declared in "properties" with a type.
+     */
+    private static boolean isDeclared(String name, CompiledSchema schema) {
+        CompiledSchema propertySchema = schema.getProperties().get(name);
+        return propertySchema != null && propertySchema.getType() != null;
+    }
+
+    /**
+     * Read a member with more than one schema as a tree, and correct it with each schema but the last.
+     *
+     * @param in       reader positioned before the value.
+     * @param schemas  member schemas, in the order they correct the member.
+     * @param declared true if the first schema is the declared property.
+     * @return reader of the corrected value.
+     */
+    private static JsonReader correctedReader(JsonReader in, List<CompiledSchema> schemas, boolean declared)
+            throws ValidatorException, ParserException, IOException {
+        JsonElement value = gson.getAdapter(JsonElement.class).read(in);
+        ValidationContext context = new ValidationContext();
+        for (int i = 0; i < schemas.size() - 1; i++) {
+            // pattern and additional properties are validated on their JSON text, as in the object validator
+            value = ElementValidator.validate(schemas.get(i), value, i > 0 || !declared, context);
+        }
+        return new JsonTreeReader(value);
+    }
+
+    private static void checkProperties(int count, CompiledSchema schema) throws ValidatorException {
+        if (schema.getMinProperties() != -1 && count < schema.getMinProperties()) {
+            throw new ValidatorException(ErrorCode.MIN_PROPERTIES);
+        }
+        if (schema.getMaxProperties() != -1 && count > schema.getMaxProperties()) {
+            throw new ValidatorException(ErrorCode.MAX_PROPERTIES);
+        }
+    }
+
+    private static ParserException cannotBind(String value, Class<?> type) {
+        return new ParserException(ErrorCode.CANNOT_BIND, value, type.getName());
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        } else if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type elementType(Type type, Class<?> raw) {
+        if (type instanceof GenericArrayType) {
+            return ((GenericArrayType) type).getGenericComponentType();
+        } else if (raw.isArray()) {
+            return raw.getComponentType();
+        } else if (type instanceof ParameterizedType) {
+            return ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    private static Type mapValueType(Type type) {
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getActualTypeArguments().length == 2) {
+            return ((ParameterizedType) type).getActualTypeArguments()[1];
+        }
+        return Object.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Class<?> raw) throws ParserException {
+        if (raw.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>();
+        } else if (raw.isAssignableFrom(LinkedHashSet.class)) {
+            return new LinkedHashSet<>();
+        } else if (raw.isAssignableFrom(TreeSet.class) || raw == SortedSet.class) {
+            return new TreeSet<>();
+        }
+        try {
+            return (Collection<Object>) raw.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            ParserException exception = new ParserException("Cannot bind an array to " + raw.getName(), ex);
+            logger.error("Array target " + raw.getName() + " should be a collection or an array", exception);
+            throw exception;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> newMap(Class<?> raw) throws ParserException {
+        if (raw.isAssignableFrom(LinkedHashMap.class)) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return (Map<String, Object>) raw.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            ParserException exception = new ParserException("Cannot bind an object to " + raw.getName(), ex);
+            logger.error("Object target " + raw.getName() + " should be a map, a record or a class", exception);
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package exceptions;
+
+/**
+ * Codes of the errors raised while correcting a JSON input. Each code has the schema keyword which failed and the
+ * template of its message, formatted with {@link String#format(String, Object...)} only when the message is read.
+ */
+public enum ErrorCode {
+
+    // type conversions
+    NOT_A_NUMBER("type", "\"%s\" is not a number"),
+    NULL_NUMBER("type", "Expected a number but found null"),
+    NOT_AN_INTEGER("type", "NumberFormatException: %s"),
+    EMPTY_INTEGER("type", "Empty value cannot convert to int"),
+    NOT_A_DOUBLE("type", "NumberFormatException: %s"),
+    EMPTY_DOUBLE("type", "Empty value cannot convert to double"),
+    NOT_A_BOOLEAN("type", "Cannot convert the sting : %s to boolean"),
+    EMPTY_BOOLEAN("type", "Cannot convert an empty string to boolean"),
+    NULL_BOOLEAN("type", "Expected a boolean but found null"),
+    NULL_STRING("type", "Expected string but found null"),
+    NOT_NULL("type", "Expected a null but found a value"),
+    NOT_AN_OBJECT("type", "Expected a json object input"),
+    NOT_A_VALUE("type", "Expected a value but found %s"),
+    CANNOT_BIND("type", "Cannot bind %s to %s"),
+
+    // numeric constraints
+    MULTIPLE_OF("multipleOf", "Number %s is not a multiple of %s"),
+    MINIMUM("minimum", "Number %s is less than the minimum allowed value"),
+    MAXIMUM("maximum", "Number %s is greater than the maximum allowed value"),
+    EXCLUSIVE_MINIMUM("exclusiveMinimum", "Number %s is less than the minimum allowed value"),
+    EXCLUSIVE_MAXIMUM("exclusiveMaximum", "Number %s is greater than the maximum allowed value"),
+    NUMBER_ENUM("enum", "Number \"%s\" not contains any element from the enum"),
+    NUMBER_CONST("const", "Number \"%s\" is not equal to the const value"),
+
+    // boolean constraints
+    BOOLEAN_ENUM("enum", "input \"%s\" not contains any element from the enum"),
+    BOOLEAN_CONST("const", "String \"%s\" is not equal to the const value"),
+
+    // string constraints
+    MAX_LENGTH("maxLength", "String \"%s\" violated the max length constraint"),
+    MIN_LENGTH("minLength", "String \"%s\" violated the min length constraint"),
+    PATTERN("pattern", "String \"%s\" violated the regex constraint %s"),
+    STRING_ENUM("enum", "String \"%s\" not contains any element from the enum"),
+    STRING_CONST("const", "String \"%s\" is not equal to the const value"),
+
+    // array constraints
+    MIN_ITEMS("minItems", "Array violated the minItems constraint"),
+    MAX_ITEMS("maxItems", "Array violated the maxItems constraint"),
+    UNIQUE_ITEMS("uniqueItems", "Array violated the uniqueItems constraint"),
+    ADDITIONAL_ITEMS("additionalItems", "Array contains additional items than in the schema"),
+
+    // object constraints
+    REQUIRED("required", "Object does not have all the elements required in the schema"),
+    MIN_PROPERTIES("minProperties", "Object violates the minimum number of properties constraint"),
+    MAX_PROPERTIES("maxProperties", "Object violates the maximum number of properties constraint"),
+    ADDITIONAL_PROPERTIES("additionalProperties", "Object has additional properties than allowed in schema"),
+
+    // schema errors found while validating
+    FALSE_SCHEMA("false", "JSON schema is not valid for all elements"),
+    MISSING_TYPE("type", "JSON schema should contain a type declaration"),
+    ITEMS_MISSING_TYPE("items", "Array items should contain a type declaration"),
+    ARRAY_SCHEMA_MISSING_TYPE("items", "Schema for array must have a type declaration"),
+    OBJECT_SCHEMA_MISSING_TYPE("patternProperties", "Schema for object must have a type declaration"),
+
+    // input which is not valid JSON
+    MALFORMED_JSON(null, "%s"),
+
+    // JSON Patch operation which can not be applied
+    INVALID_PATCH(null, "%s"),
+
+    // input exceeding the parse limits of the engine
+    MAX_DEPTH(null, "Document is nested deeper than the limit of %s"),
+    MAX_INPUT_SIZE(null, "Document is larger than the limit of %s"),
+    MAX_STRING_LENGTH(null, "String is longer than the limit of %s characters"),
+    MAX_ARRAY_LENGTH(null, "Array has more items than the limit of %s"),
+    MAX_OBJECT_MEMBERS(null, "Object has more members than the limit of %s"),
+    MAX_PUSH_BUFFER(null, "Value kept by the push parser is longer than the limit of %s characters"),
+
+    // errors raised without a code, for example invalid arguments
+    OTHER(null, "%s");
+
+    private final String keyword;
+    private final String template;
+
+    ErrorCode(String keyword, String template) {
+        this.keyword = keyword;
+        this.template = template;
+    }
+
+    /**
+     * Schema keyword which failed.
+     *
+     * @return keyword, null if the error is not related to a keyword.
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Format the message of this error.
+     *
+     * @param arguments message arguments.
+     * @return message.
+     */
+    public String format(Object... arguments) {
+        return arguments == null || arguments.length == 0 ? template : String.format(template, arguments);
+    }
+}
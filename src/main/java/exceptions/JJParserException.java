@@ -0,0 +1,123 @@
+package exceptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class of the exceptions raised while correcting a JSON input.
+ * Exceptions created with an {@link ErrorCode} do not capture a stack trace and format their message only when it
+ * is read, so failing inputs cost about as much as valid ones. The JSON Pointer of the failing value is collected
+ * while the exception leaves the nested validators.
+ */
+public abstract class JJParserException extends Exception {
+
+    private final ErrorCode errorCode;
+    private final Object[] arguments;
+    private String message;
+    // path segments from the failing value up to the root
+    private List<Object> reversedPath;
+
+    protected JJParserException() {
+        this.errorCode = ErrorCode.OTHER;
+        this.arguments = null;
+    }
+
+    protected JJParserException(String message) {
+        super(message);
+        this.errorCode = ErrorCode.OTHER;
+        this.arguments = null;
+    }
+
+    protected JJParserException(String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = ErrorCode.OTHER;
+        this.arguments = null;
+    }
+
+    protected JJParserException(Throwable cause) {
+        super(cause);
+        this.errorCode = ErrorCode.OTHER;
+        this.arguments = null;
+    }
+
+    protected JJParserException(String message, Throwable cause, boolean enableSuppression,
+                                boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+        this.errorCode = ErrorCode.OTHER;
+        this.arguments = null;
+    }
+
+    /**
+     * Create a stackless exception with a lazily formatted message.
+     *
+     * @param errorCode error code.
+     * @param arguments message arguments.
+     */
+    protected JJParserException(ErrorCode errorCode, Object... arguments) {
+        this(errorCode, null, arguments);
+    }
+
+    /**
+     * Create a stackless exception with a lazily formatted message, caused by another exception.
+     *
+     * @param errorCode error code.
+     * @param cause     cause of this exception.
+     * @param arguments message arguments.
+     */
+    protected JJParserException(ErrorCode errorCode, Throwable cause, Object... arguments) {
+        super(null, cause, false, false);
+        this.errorCode = errorCode;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public String getMessage() {
+        if (errorCode == ErrorCode.OTHER) {
+            return super.getMessage();
+        }
+        if (message == null) {
+            message = errorCode.format(arguments);
+        }
+        return message;
+    }
+
+    /**
+     * Code of this error, {@link ErrorCode#OTHER} for exceptions created with a message.
+     *
+     * @return error code.
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Add the segment of an enclosing array or object to the path of the failing value.
+     *
+     * @param segment array index or object key.
+     * @return this exception.
+     */
+    public JJParserException prependPath(Object segment) {
+        if (reversedPath == null) {
+            reversedPath = new ArrayList<>(4);
+        }
+        reversedPath.add(segment);
+        return this;
+    }
+
+    /**
+     * JSON Pointer (RFC 6901) of the failing value, relative to the validated document. Empty for the document
+     * itself.
+     *
+     * @return JSON Pointer.
+     */
+    public String getPath() {
+        if (reversedPath == null) {
+            return "";
+        }
+        StringBuilder path = new StringBuilder();
+        for (int i = reversedPath.size() - 1; i >= 0; i--) {
+            path.append('/').append(reversedPath.get(i).toString().replace("~", "~0").replace("/", "~1"));
+        }
+        return path.toString();
+    }
+}
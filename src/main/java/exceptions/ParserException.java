@@ -3,7 +3,7 @@ package exceptions;
 /**
  * Exception for data type related errors.
  */
-public class ParserException extends Exception {
+public class ParserException extends JJParserException {
 
     public ParserException() {
         // TODO Auto-generated constructor stub
@@ -23,4 +23,25 @@ public class ParserException extends Exception {
         super(message, cause);
         // TODO Auto-generated constructor stub
     }
+
+    /**
+     * Create a stackless exception with a lazily formatted message.
+     *
+     * @param errorCode error code.
+     * @param arguments message arguments.
+     */
+    public ParserException(ErrorCode errorCode, Object... arguments) {
+        super(errorCode, arguments);
+    }
+
+    /**
+     * Create a stackless exception with a lazily formatted message, caused by another exception.
+     *
+     * @param errorCode error code.
+     * @param cause     cause of this exception.
+     * @param arguments message arguments.
+     */
+    public ParserException(ErrorCode errorCode, Throwable cause, Object... arguments) {
+        super(errorCode, cause, arguments);
+    }
 }
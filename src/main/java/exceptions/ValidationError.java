@@ -0,0 +1,72 @@
+package exceptions;
+
+/**
+ * An error found while correcting a JSON input, returned by the non throwing methods instead of being thrown.
+ * The message is formatted only when it is read.
+ */
+public final class ValidationError {
+
+    private final JJParserException exception;
+
+    /**
+     * Create an error from the exception raised by a validator.
+     *
+     * @param exception validator or parser exception.
+     */
+    public ValidationError(JJParserException exception) {
+        if (exception == null) {
+            throw new IllegalArgumentException("Exception should not be null");
+        }
+        this.exception = exception;
+    }
+
+    /**
+     * Code of this error.
+     *
+     * @return error code, {@link ErrorCode#OTHER} for errors without a dedicated code.
+     */
+    public ErrorCode getErrorCode() {
+        return exception.getErrorCode();
+    }
+
+    /**
+     * Schema keyword which failed.
+     *
+     * @return keyword, null if the error is not related to a keyword.
+     */
+    public String getKeyword() {
+        return exception.getErrorCode().getKeyword();
+    }
+
+    /**
+     * JSON Pointer (RFC 6901) of the failing value, empty for the document itself.
+     *
+     * @return JSON Pointer.
+     */
+    public String getPath() {
+        return exception.getPath();
+    }
+
+    /**
+     * Error message, formatted on the first call.
+     *
+     * @return error message.
+     */
+    public String getMessage() {
+        return exception.getMessage();
+    }
+
+    /**
+     * Exception equivalent to this error, thrown by the throwing methods.
+     *
+     * @return validator or parser exception.
+     */
+    public JJParserException getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return getPath() + " : " + getMessage();
+    }
+}
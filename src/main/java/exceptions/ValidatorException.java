@@ -3,7 +3,7 @@ package exceptions;
 /**
  * Exception for validation rule violations.
  */
-public class ValidatorException extends Exception {
+public class ValidatorException extends JJParserException {
 
     public ValidatorException() {
     }
@@ -23,8 +23,14 @@ public class ValidatorException extends Exception {
     public ValidatorException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
         super(message, cause, enableSuppression, writableStackTrace);
     }
-}
-
-
-
 
+    /**
+     * Create a stackless exception with a lazily formatted message.
+     *
+     * @param errorCode error code.
+     * @param arguments message arguments.
+     */
+    public ValidatorException(ErrorCode errorCode, Object... arguments) {
+        super(errorCode, arguments);
+    }
+}
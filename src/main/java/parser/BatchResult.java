@@ -0,0 +1,62 @@
+package parser;
+
+/**
+ * Result of one input of a batch. Holds either the corrected JSON string or the error raised for that input.
+ */
+public final class BatchResult {
+
+    private final int index;
+    private final String output;
+    private final Exception error;
+
+    private BatchResult(int index, String output, Exception error) {
+        this.index = index;
+        this.output = output;
+        this.error = error;
+    }
+
+    static BatchResult success(int index, String output) {
+        return new BatchResult(index, output, null);
+    }
+
+    static BatchResult failure(int index, Exception error) {
+        return new BatchResult(index, null, error);
+    }
+
+    /**
+     * Position of the input in the batch.
+     *
+     * @return input index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Corrected JSON string, null if the input failed.
+     *
+     * @return corrected JSON string.
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Error raised for the input, usually a ValidatorException or a ParserException. Null if the input succeeded.
+     *
+     * @return error.
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "BatchResult{index=" + index + ", output=" + output + "}" :
+                "BatchResult{index=" + index + ", error=" + error + "}";
+    }
+}
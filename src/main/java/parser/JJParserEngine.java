@@ -0,0 +1,1528 @@
+package parser;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParseException;
+import com.google.gson.internal.Streams;
+import backend.GsonBackend;
+import backend.JsonBackend;
+import backend.JsonTape;
+import backend.LimitExceededException;
+import backend.LimitedJsonReader;
+import backend.ParseLimits;
+import backend.Projection;
+import binding.SchemaBinder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import exceptions.ErrorCode;
+import exceptions.JJParserException;
+import exceptions.ParserException;
+import exceptions.ValidationError;
+import exceptions.ValidatorException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
+import schema.DataType;
+import schema.SchemaCache;
+import validators.ArrayElementReader;
+import validators.ArrayValidator;
+import validators.BooleanValidator;
+import validators.NullValidator;
+import validators.NumericValidator;
+import validators.PatchValidator;
+import validators.PatchedPaths;
+import validators.ObjectValidator;
+import validators.StreamingValidator;
+import validators.StringValidator;
+import validators.TapeValidator;
+import validators.ValidationContext;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Configurable, thread safe parser instance. Create one engine per service and share it between threads.
+ * Each thread keeps its own scratch collections and output buffer, which are reused for every document parsed by
+ * that thread, so sustained load does not allocate them again per document.
+ * {@link JavaJsonParser} is a static facade over a default engine.
+ */
+public class JJParserEngine {
+
+    // Logger instance
+    private static Log logger = LogFactory.getLog(JJParserEngine.class.getName());
+
+    // Writes corrected elements exactly like JsonElement.toString()
+    private static final Gson gson = new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
+
+    // number of chunks a batch is split into per worker thread
+    private static final int BATCH_CHUNKS_PER_WORKER = 4;
+
+    /**
+     * Scratch state owned by a single thread.
+     */
+    private static final class Scratch {
+        private final ValidationContext context;
+        private StringBuilder buffer;
+        // created on first use by engines with raw passthrough
+        private JsonTape tape;
+
+        private Scratch(ValidationContext context, int initialBufferSize) {
+            this.context = context;
+            this.buffer = new StringBuilder(initialBufferSize);
+        }
+    }
+
+    private final SchemaCache schemaCache;
+    private final boolean reuseScratchState;
+    private final int initialBufferSize;
+    private final int maxRetainedBufferSize;
+    private final int parallelThreshold;
+    private final ForkJoinPool parallelPool;
+    private final Executor asyncExecutor;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final int maxErrors;
+    private final boolean copyOnWrite;
+    private final JsonBackend backend;
+    private final boolean rawPassthrough;
+    private final ParseLimits limits;
+    private final int maxPushBuffer;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Create an engine with default options.
+     */
+    public JJParserEngine() {
+        this(new ParserOptions());
+    }
+
+    /**
+     * Create an engine with the given options.
+     *
+     * @param options engine options, copied by the engine.
+     */
+    public JJParserEngine(ParserOptions options) {
+        ParserOptions copy = new ParserOptions(options);
+        this.schemaCache = copy.getSchemaCache() != null ? copy.getSchemaCache() : new SchemaCache();
+        this.reuseScratchState = copy.isReuseScratchState();
+        this.initialBufferSize = copy.getInitialBufferSize();
+        this.maxRetainedBufferSize = copy.getMaxRetainedBufferSize();
+        this.parallelThreshold = copy.getParallelThreshold();
+        this.parallelPool = copy.getParallelPool() != null ? copy.getParallelPool() : ForkJoinPool.commonPool();
+        this.asyncExecutor = copy.getAsyncExecutor() != null ? copy.getAsyncExecutor() : ForkJoinPool.commonPool();
+        this.maxInFlight = copy.getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxErrors = copy.getMaxErrors();
+        this.copyOnWrite = copy.isCopyOnWrite();
+        this.limits = new ParseLimits(copy.getMaxDepth(), copy.getMaxInputBytes(), copy.getMaxStringLength(),
+                copy.getMaxArrayLength(), copy.getMaxObjectMembers());
+        JsonBackend configured = copy.getBackend() != null ? copy.getBackend() : new GsonBackend();
+        this.backend = limits.isUnlimited() ? configured : configured.withLimits(limits);
+        this.rawPassthrough = copy.isRawPassthrough();
+        this.maxPushBuffer = copy.getMaxPushBuffer();
+        this.scratch = new ThreadLocal<Scratch>() {
+            @Override
+            protected Scratch initialValue() {
+                return newScratch();
+            }
+        };
+    }
+
+    /**
+     * Compile a JSON schema string using the schema cache of this engine.
+     *
+     * @param inputSchema JSON schema as a string. Can be an object or a boolean.
+     * @return compiled schema.
+     * @throws ValidatorException Schema is invalid.
+     * @throws ParserException    Exception occurs while parsing a keyword value.
+     */
+    public CompiledSchema compile(String inputSchema) throws ValidatorException, ParserException {
+        return schemaCache.get(inputSchema, JavaJsonParser::compile);
+    }
+
+    /**
+     * This method parse a given JSON string according to the given schema. Both as string.
+     *
+     * @param inputString input String.
+     * @param inputSchema input Schema, compiled through the schema cache of this engine.
+     * @return corrected String.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public String parseJson(String inputString, String inputSchema) throws ValidatorException, ParserException {
+        if (inputString != null && !inputString.isEmpty() && inputSchema != null && !inputSchema.isEmpty()) {
+            return parseJson(inputString, compile(inputSchema));
+        } else {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input json and schema should not be null", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * This method will parse a given JSON string according to a compiled schema.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return corrected JSON string.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public String parseJson(String inputString, CompiledSchema schema) throws ValidatorException, ParserException {
+        return unwrap(tryParseJson(inputString, schema));
+    }
+
+    /**
+     * This method will parse a given JSON string according to a compiled schema without throwing for invalid
+     * inputs. Errors are created without a stack trace and their message is formatted only when it is read, so an
+     * invalid input costs about as much as a valid one. Engines created with a maximum error count above 1 return
+     * every error found, see {@link ParserOptions#setMaxErrors(int)}.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return result holding either the corrected JSON string or the error.
+     */
+    public ValidationResult<String> tryParseJson(String inputString, CompiledSchema schema) {
+        if (inputString == null || inputString.isEmpty() || schema == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        if (schema.isAcceptAll()) {
+            return ValidationResult.valid(inputString);
+        }
+        Scratch state = acquireScratch();
+        if (rawPassthrough) {
+            return tryParseRaw(inputString.getBytes(StandardCharsets.UTF_8), schema, null, state);
+        }
+        state.context.clearErrors();
+        JsonElement result;
+        try {
+            result = correct(schema, inputString, null, state.context);
+        } catch (ValidatorException | ParserException ex) {
+            return invalid(state.context, ex);
+        } catch (JsonParseException ex) {
+            return invalid(state.context, malformed(ex));
+        }
+        if (!state.context.getErrors().isEmpty()) {
+            return invalid(state.context, null);
+        }
+        if (result == null) {
+            return ValidationResult.valid(null);
+        }
+        StringBuilder buffer = state.buffer;
+        buffer.setLength(0);
+        try {
+            gson.toJson(result, buffer);
+            return ValidationResult.valid(buffer.toString());
+        } finally {
+            if (buffer.capacity() > maxRetainedBufferSize) {
+                state.buffer = new StringBuilder(initialBufferSize);
+            }
+        }
+    }
+
+    /**
+     * This method will correct only the values at the paths of a projection, see {@link Projection}. The other
+     * values are skipped while tokenizing and passed through unchanged or dropped, and the arrays and objects which
+     * do not hold a projected path are copied without being parsed, as with
+     * {@link ParserOptions#setRawPassthrough(boolean)}. Duplicate member names are kept.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @param projection  paths of the values to correct.
+     * @return corrected JSON string.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public String parseJson(String inputString, CompiledSchema schema, Projection projection)
+            throws ValidatorException, ParserException {
+        return unwrap(tryParseJson(inputString, schema, projection));
+    }
+
+    /**
+     * This method will correct only the values at the paths of a projection without throwing for invalid inputs,
+     * see {@link #parseJson(String, CompiledSchema, Projection)}. The paths of the errors are the paths in the
+     * whole document.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @param projection  paths of the values to correct.
+     * @return result holding either the corrected JSON string or the errors.
+     */
+    public ValidationResult<String> tryParseJson(String inputString, CompiledSchema schema, Projection projection) {
+        if (inputString == null || inputString.isEmpty() || schema == null || projection == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        if (schema.isAcceptAll()) {
+            return ValidationResult.valid(inputString);
+        }
+        return tryParseRaw(inputString.getBytes(StandardCharsets.UTF_8), schema, projection, acquireScratch());
+    }
+
+    /**
+     * Correct a UTF-8 document on the tape of the current thread, copying the unconstrained arrays and objects as
+     * they are, see {@link ParserOptions#setRawPassthrough(boolean)}.
+     */
+    private ValidationResult<String> tryParseRaw(byte[] input, CompiledSchema schema, Projection projection,
+                                                 Scratch state) {
+        StringBuilder buffer = state.buffer;
+        buffer.setLength(0);
+        try {
+            ValidationResult<Boolean> result = correctRaw(input, schema, projection, state);
+            if (!result.isValid()) {
+                return ValidationResult.invalid(result.getErrors());
+            } else if (!result.getOutput()) {
+                return ValidationResult.valid(null);
+            }
+            state.tape.writeTo(gson.newJsonWriter(Streams.writerForAppendable(buffer)));
+            return ValidationResult.valid(buffer.toString());
+        } catch (IOException ex) {
+            // appending to a StringBuilder does not throw
+            throw new IllegalStateException(ex);
+        } finally {
+            releaseTape(state);
+            if (buffer.capacity() > maxRetainedBufferSize) {
+                state.buffer = new StringBuilder(initialBufferSize);
+            }
+        }
+    }
+
+    /**
+     * Parse a UTF-8 document into the tape of the current thread for a schema and an optional projection, and
+     * correct it.
+     *
+     * @return valid result holding false when the schema type is not supported, or the errors found.
+     */
+    private ValidationResult<Boolean> correctRaw(byte[] input, CompiledSchema schema, Projection projection,
+                                                 Scratch state) {
+        if (state.tape == null) {
+            state.tape = new JsonTape(false, limits);
+        }
+        ValidationContext context = state.context;
+        context.clearErrors();
+        boolean supported;
+        try {
+            state.tape.parse(input, 0, input.length, schema, projection);
+            supported = correct(state.tape, schema, context);
+        } catch (ValidatorException | ParserException ex) {
+            return invalid(context, ex);
+        } catch (JsonParseException ex) {
+            return invalid(context, malformed(ex));
+        }
+        return context.getErrors().isEmpty() ? ValidationResult.valid(supported) : invalid(context, null);
+    }
+
+    /**
+     * Release the document of the tape of the current thread, and the tape itself when it grew too large.
+     */
+    private void releaseTape(Scratch state) {
+        if (state.tape != null) {
+            if (state.tape.size() > maxRetainedBufferSize) {
+                state.tape = null;
+            } else {
+                state.tape.clear();
+            }
+        }
+    }
+
+    /**
+     * This method will parse a JSON document read from a reader and write the corrected document to a writer.
+     * The input is parsed exactly once and the result is never converted to an intermediate string.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output writer to write the corrected JSON document. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public void parseJson(Reader input, CompiledSchema schema, Writer output) throws ValidatorException,
+            ParserException {
+        if (output == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Output writer should not be null", exception);
+            throw exception;
+        }
+        write(parseJsonElement(input, schema), output);
+    }
+
+    /**
+     * This method will parse a UTF-8 JSON document read from a stream and write the corrected document to a stream.
+     *
+     * @param input  stream providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output stream to write the corrected JSON document as UTF-8. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public void parseJson(InputStream input, CompiledSchema schema, OutputStream output) throws ValidatorException,
+            ParserException {
+        if (input == null || output == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input and output streams should not be null", exception);
+            throw exception;
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (!rawPassthrough || schema == null) {
+            write(parseJsonElement(input, schema), writer);
+            return;
+        }
+        Scratch state = acquireScratch();
+        try {
+            if (unwrap(correctRaw(readBytes(input), schema, null, state))) {
+                state.tape.writeTo(gson.newJsonWriter(writer));
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            ParserException exception = new ParserException("Error occurred while writing the output", ex);
+            logger.error("Error occurred while writing the corrected JSON", exception);
+            throw exception;
+        } finally {
+            releaseTape(state);
+        }
+    }
+
+    private byte[] readBytes(InputStream input) throws ParserException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try {
+            for (int count = input.read(buffer); count != -1; count = input.read(buffer)) {
+                bytes.write(buffer, 0, count);
+                limits.checkInputSize(bytes.size());
+            }
+        } catch (LimitExceededException ex) {
+            throw malformed(ex);
+        } catch (IOException ex) {
+            ParserException exception = new ParserException("Error occurred while reading the input", ex);
+            logger.error("Error occurred while reading the input JSON", exception);
+            throw exception;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void write(JsonElement result, Writer output) throws ParserException {
+        if (result != null) {
+            try {
+                gson.toJson(result, output);
+                output.flush();
+            } catch (IOException | JsonIOException ex) {
+                ParserException exception = new ParserException("Error occurred while writing the output", ex);
+                logger.error("Error occurred while writing the corrected JSON", exception);
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * This method will parse a JSON document read from a reader and return the corrected document as a tree.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @return corrected JSON element, null if the schema type is not supported.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading.
+     */
+    public JsonElement parseJsonElement(Reader input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        if (input == null || schema == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input reader and schema should not be null", exception);
+            throw exception;
+        }
+        JsonElement element;
+        try {
+            element = backend.parse(input);
+        } catch (LimitExceededException ex) {
+            throw malformed(ex);
+        } catch (JsonIOException ex) {
+            ParserException exception = new ParserException("Error occurred while reading the input", ex);
+            logger.error("Error occurred while reading the input JSON", exception);
+            throw exception;
+        }
+        // the parsed tree is private to this call, so it is always corrected in place
+        return unwrap(tryParseJsonElement(element, schema, false));
+    }
+
+    /**
+     * This method will parse a UTF-8 JSON document read from a stream and return the corrected document as a tree.
+     *
+     * @param input  stream providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @return corrected JSON element, null if the schema type is not supported.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading.
+     */
+    public JsonElement parseJsonElement(InputStream input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        if (input == null || schema == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input stream and schema should not be null", exception);
+            throw exception;
+        }
+        JsonElement element;
+        try {
+            element = backend.parse(input);
+        } catch (LimitExceededException ex) {
+            throw malformed(ex);
+        } catch (JsonIOException ex) {
+            ParserException exception = new ParserException("Error occurred while reading the input", ex);
+            logger.error("Error occurred while reading the input JSON", exception);
+            throw exception;
+        }
+        return unwrap(tryParseJsonElement(element, schema, false));
+    }
+
+    /**
+     * This method will parse the remaining bytes of a buffer as a UTF-8 JSON document and return the corrected
+     * document as a tree. With the {@link backend.Utf8Backend} the bytes are tokenized without decoding the document
+     * to characters.
+     *
+     * @param input  buffer holding the JSON document. Its position is not changed.
+     * @param schema compiled JSON schema.
+     * @return corrected JSON element, null if the schema type is not supported.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public JsonElement parseJsonElement(ByteBuffer input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        if (input == null || schema == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input buffer and schema should not be null", exception);
+            throw exception;
+        }
+        JsonElement element;
+        try {
+            element = backend.parse(input);
+        } catch (LimitExceededException ex) {
+            throw malformed(ex);
+        }
+        return unwrap(tryParseJsonElement(element, schema, false));
+    }
+
+    /**
+     * This method will correct a JSON document token by token while reading it, writing the corrected tokens to a
+     * writer without building a tree of the document. Memory depends on the nesting depth instead of the size of the
+     * document, only the values which can not be corrected in a single pass are read into a local tree, see
+     * {@link StreamingValidator}. The output is the same as the output of
+     * {@link #parseJson(Reader, CompiledSchema, Writer)}, except that duplicate member names are kept. The output is
+     * incomplete when an exception is thrown.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output writer to write the corrected JSON document. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public void streamJson(Reader input, CompiledSchema schema, Writer output) throws ValidatorException,
+            ParserException {
+        if (input == null || schema == null || output == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input reader, schema and output writer should not be null", exception);
+            throw exception;
+        }
+        JsonReader reader = newReader(input);
+        ValidationContext context = acquireScratch().context;
+        context.clearErrors();
+        JJParserException thrown = null;
+        try {
+            JsonWriter writer = gson.newJsonWriter(output);
+            stream(reader, writer, schema, context);
+            if (context.getErrors().isEmpty()) {
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    ParserException exception = new ParserException("Unexpected content after the JSON document");
+                    logger.error("Input has content after " + reader.getPath(), exception);
+                    throw exception;
+                }
+                writer.flush();
+                return;
+            }
+        } catch (ValidatorException | ParserException ex) {
+            thrown = ex;
+        } catch (LimitExceededException ex) {
+            thrown = malformed(ex);
+        } catch (MalformedJsonException | EOFException ex) {
+            thrown = new ParserException(ErrorCode.MALFORMED_JSON, ex, ex.getMessage());
+        } catch (IOException ex) {
+            ParserException exception = new ParserException("Error occurred while streaming the JSON document", ex);
+            logger.error("Error occurred while streaming the JSON document", exception);
+            throw exception;
+        }
+        unwrap(invalid(context, thrown));
+    }
+
+    /**
+     * This method will correct a UTF-8 JSON document token by token while reading it from a stream, see
+     * {@link #streamJson(Reader, CompiledSchema, Writer)}.
+     *
+     * @param input  stream providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output stream to write the corrected JSON document as UTF-8. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public void streamJson(InputStream input, CompiledSchema schema, OutputStream output) throws ValidatorException,
+            ParserException {
+        if (input == null || output == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input and output streams should not be null", exception);
+            throw exception;
+        }
+        streamJson(new InputStreamReader(input, StandardCharsets.UTF_8), schema,
+                new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Iterate lazily over the corrected items of a top-level JSON array. Items are read one at a time when the
+     * iterator advances, so memory depends on the size of one item instead of the size of the array, see
+     * {@link JsonArrayIterator}. To write the corrected array to an output instead, use
+     * {@link #streamJson(Reader, CompiledSchema, Writer)}. The iterator uses its own validation context, so it may be
+     * consumed on any thread, and stops at the first violation of each item.
+     *
+     * @param input  reader providing the JSON array. Closed by closing the iterator.
+     * @param schema compiled array schema.
+     * @return iterator over the corrected items.
+     * @throws ValidatorException The schema of the items has no type.
+     * @throws ParserException    Invalid inputs or the schema does not declare an array.
+     */
+    public JsonArrayIterator iterateArray(Reader input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        if (input == null || schema == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input reader and schema should not be null", exception);
+            throw exception;
+        }
+        if (schema.getDataType() != DataType.ARRAY) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Schema should declare an array type", exception);
+            throw exception;
+        }
+        JsonReader reader = newReader(input);
+        return new JsonArrayIterator(reader, new ArrayElementReader(reader, schema,
+                new ValidationContext(parallelPool, parallelThreshold)));
+    }
+
+    /**
+     * Iterate lazily over the corrected items of a top-level UTF-8 JSON array read from a stream, see
+     * {@link #iterateArray(Reader, CompiledSchema)}.
+     *
+     * @param input  stream providing the JSON array. Closed by closing the iterator.
+     * @param schema compiled array schema.
+     * @return iterator over the corrected items.
+     * @throws ValidatorException The schema of the items has no type.
+     * @throws ParserException    Invalid inputs or the schema does not declare an array.
+     */
+    public JsonArrayIterator iterateArray(InputStream input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        if (input == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input stream should not be null", exception);
+            throw exception;
+        }
+        return iterateArray(new InputStreamReader(input, StandardCharsets.UTF_8), schema);
+    }
+
+    /**
+     * Create a non-blocking push parser correcting a UTF-8 JSON document fed in chunks and writing the corrected
+     * output as soon as it is produced, see {@link JsonPushParser}. The parser uses its own validation context and
+     * stops at the first violation.
+     *
+     * @param schema compiled JSON schema.
+     * @param output writer receiving the corrected JSON document. Flushed after each chunk but not closed.
+     * @return push parser.
+     * @throws ParserException Invalid inputs.
+     */
+    public JsonPushParser newPushParser(CompiledSchema schema, Writer output) throws ParserException {
+        if (schema == null || output == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Schema and output writer should not be null", exception);
+            throw exception;
+        }
+        try {
+            return new JsonPushParser(schema, gson.newJsonWriter(output), new ValidationContext(parallelPool,
+                    parallelThreshold), maxPushBuffer, limits);
+        } catch (IOException ex) {
+            ParserException exception = new ParserException("Error occurred while writing the output", ex);
+            logger.error("Error occurred while creating the output writer", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Create a non-blocking push parser writing the corrected document to a stream as UTF-8, see
+     * {@link #newPushParser(CompiledSchema, Writer)}.
+     *
+     * @param schema compiled JSON schema.
+     * @param output stream receiving the corrected JSON document. Flushed after each chunk but not closed.
+     * @return push parser.
+     * @throws ParserException Invalid inputs.
+     */
+    public JsonPushParser newPushParser(CompiledSchema schema, OutputStream output) throws ParserException {
+        if (output == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Output stream should not be null", exception);
+            throw exception;
+        }
+        return newPushParser(schema, new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Stream the root value of a document, handling the root schema the same way as {@link #correct}.
+     */
+    static void stream(JsonReader reader, JsonWriter writer, CompiledSchema schema,
+                       ValidationContext context) throws IOException, ValidatorException, ParserException {
+        if (schema.isAcceptAll()) {
+            StreamingValidator.copy(reader, writer);
+            return;
+        } else if (schema.isRejectAll()) {
+            throw new ValidatorException(ErrorCode.FALSE_SCHEMA);
+        } else if (schema.getType() == null) {
+            throw new ValidatorException(ErrorCode.MISSING_TYPE);
+        }
+        switch (schema.getDataType()) {
+            case OBJECT:
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    throw new ValidatorException(ErrorCode.NOT_AN_OBJECT);
+                }
+                StreamingValidator.validate(reader, writer, schema, true, context);
+                break;
+            case BOOLEAN:
+            case STRING:
+            case NUMERIC:
+            case NULL:
+            case ARRAY:
+                StreamingValidator.validate(reader, writer, schema, true, context);
+                break;
+            default:
+                // unsupported root types give no output
+                reader.skipValue();
+                break;
+        }
+    }
+
+    /**
+     * This method will correct a document parsed into a tape, recording the corrected values as overrides of the
+     * tape instead of building a tree of the document, see {@link TapeValidator}. Writing the tape gives the output
+     * of {@link #parseJson(String, CompiledSchema)}. A tape left by an exception holds the overrides recorded before
+     * the violation.
+     *
+     * @param tape   parsed document, see {@link JsonTape#parse(byte[], int, int)}.
+     * @param schema compiled JSON schema.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public void correctTape(JsonTape tape, CompiledSchema schema) throws ValidatorException, ParserException {
+        unwrap(tryCorrectTape(tape, schema));
+    }
+
+    /**
+     * This method will correct a document parsed into a tape without throwing for invalid inputs, see
+     * {@link #correctTape(JsonTape, CompiledSchema)}.
+     *
+     * @param tape   parsed document.
+     * @param schema compiled JSON schema.
+     * @return valid result without output, or the errors found.
+     */
+    public ValidationResult<Void> tryCorrectTape(JsonTape tape, CompiledSchema schema) {
+        if (tape == null || tape.size() == 0 || schema == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        ValidationContext context = acquireScratch().context;
+        context.clearErrors();
+        try {
+            correct(tape, schema, context);
+        } catch (ValidatorException | ParserException ex) {
+            return invalid(context, ex);
+        }
+        return context.getErrors().isEmpty() ? ValidationResult.<Void>valid(null) : invalid(context, null);
+    }
+
+    /**
+     * Correct the root node of a tape, handling the root schema the same way as {@link #correct}.
+     *
+     * @return false if the root schema type is not supported.
+     */
+    private static boolean correct(JsonTape tape, CompiledSchema schema, ValidationContext context)
+            throws ValidatorException, ParserException {
+        if (schema.isAcceptAll()) {
+            return true;
+        } else if (schema.isRejectAll()) {
+            throw new ValidatorException(ErrorCode.FALSE_SCHEMA);
+        } else if (schema.getType() == null) {
+            throw new ValidatorException(ErrorCode.MISSING_TYPE);
+        }
+        switch (schema.getDataType()) {
+            case OBJECT:
+                if (tape.getType(0) != JsonTape.OBJECT) {
+                    throw new ValidatorException(ErrorCode.NOT_AN_OBJECT);
+                }
+                TapeValidator.validate(tape, 0, schema, true, context);
+                break;
+            case BOOLEAN:
+            case STRING:
+            case NUMERIC:
+            case NULL:
+            case ARRAY:
+                TapeValidator.validate(tape, 0, schema, true, context);
+                break;
+            default:
+                // unsupported root types leave the tape unchanged
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method will correct an already parsed JSON element according to a compiled schema.
+     * Arrays and objects are corrected in place, the returned element may be the input itself. Copy on write engines
+     * leave the input unchanged and return a tree sharing its unchanged arrays and objects.
+     *
+     * @param input  JSON element.
+     * @param schema compiled JSON schema.
+     * @return corrected JSON element, null if the schema type is not supported.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public JsonElement parseJsonElement(JsonElement input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return unwrap(tryParseJsonElement(input, schema));
+    }
+
+    /**
+     * This method will correct an already parsed JSON element according to a compiled schema without throwing for
+     * invalid inputs. Arrays and objects are corrected in place, the output may be the input itself. Copy on write
+     * engines leave the input unchanged and return a tree sharing its unchanged arrays and objects.
+     *
+     * @param input  JSON element.
+     * @param schema compiled JSON schema.
+     * @return result holding either the corrected JSON element or the error.
+     */
+    public ValidationResult<JsonElement> tryParseJsonElement(JsonElement input, CompiledSchema schema) {
+        return tryParseJsonElement(input, schema, copyOnWrite);
+    }
+
+    private ValidationResult<JsonElement> tryParseJsonElement(JsonElement input, CompiledSchema schema,
+                                                              boolean copyOnWrite) {
+        if (input == null || schema == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        ValidationContext context = acquireScratch().context;
+        context.clearErrors();
+        context.setCopyOnWrite(copyOnWrite);
+        JsonElement result;
+        try {
+            result = correct(schema, null, input, context);
+        } catch (ValidatorException | ParserException ex) {
+            return invalid(context, ex);
+        } finally {
+            context.setCopyOnWrite(false);
+        }
+        return context.getErrors().isEmpty() ? ValidationResult.valid(result) : invalid(context, null);
+    }
+
+    /**
+     * This method will correct a JSON string and return only the corrections, as a JSON Patch (RFC 6902) document.
+     * The input is corrected in copy on write mode and the corrected tree is compared with the input, skipping the
+     * subtrees both share, so the output size and the serialization cost depend on the number of corrections
+     * instead of the size of the document. Applying the patch to the input gives the output of
+     * {@link #parseJson(String, CompiledSchema)}, except for the order of object members.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return JSON array of patch operations, "[]" if the input needs no correction.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public String parseJsonPatch(String inputString, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return unwrap(tryParseJsonPatch(inputString, schema));
+    }
+
+    /**
+     * This method will correct a JSON string and return only the corrections as a JSON Patch document, without
+     * throwing for invalid inputs, see {@link #parseJsonPatch(String, CompiledSchema)}.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return result holding either the JSON array of patch operations or the error.
+     */
+    public ValidationResult<String> tryParseJsonPatch(String inputString, CompiledSchema schema) {
+        if (inputString == null || inputString.isEmpty() || schema == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        JsonElement input;
+        try {
+            input = backend.parse(inputString);
+        } catch (JsonParseException ex) {
+            return ValidationResult.invalid(new ValidationError(malformed(ex)));
+        }
+        ValidationResult<JsonArray> patch = tryDiff(input, schema);
+        return patch.isValid() ? ValidationResult.valid(gson.toJson(patch.getOutput()))
+                : ValidationResult.<String>invalid(patch.getErrors());
+    }
+
+    /**
+     * This method will correct an already parsed JSON element and return only the corrections as JSON Patch
+     * operations. The element is left unchanged.
+     *
+     * @param input  JSON element.
+     * @param schema compiled JSON schema.
+     * @return array of patch operations, empty if the input needs no correction.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public JsonArray parseJsonPatch(JsonElement input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return unwrap(tryDiff(input, schema));
+    }
+
+    private ValidationResult<JsonArray> tryDiff(JsonElement input, CompiledSchema schema) {
+        ValidationResult<JsonElement> result = tryParseJsonElement(input, schema, true);
+        if (!result.isValid()) {
+            return ValidationResult.invalid(result.getErrors());
+        }
+        JsonElement corrected = result.getOutput();
+        return ValidationResult.valid(corrected != null ? JsonPatch.diff(input, corrected) : new JsonArray());
+    }
+
+    /**
+     * This method will apply a JSON Patch (RFC 6902) to a document already corrected according to a schema, and
+     * correct again only the paths the patch touched. Added and replaced values are corrected with their whole
+     * subtree, and the arrays and objects on the way to them only have their structural keywords checked, so the
+     * cost depends on the size of the patch and not on the size of the document. The document is left unchanged,
+     * only the arrays and objects on the paths of the operations are copied.
+     *
+     * @param document document corrected according to the schema.
+     * @param schema   compiled JSON schema.
+     * @param patch    array of JSON Patch operations.
+     * @return patched and corrected document.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing, or the patch can not be applied.
+     */
+    public JsonElement applyPatch(JsonElement document, CompiledSchema schema, JsonArray patch)
+            throws ValidatorException, ParserException {
+        return unwrap(tryApplyPatch(document, schema, patch));
+    }
+
+    /**
+     * This method will apply a JSON Patch to a corrected document without throwing for invalid inputs, see
+     * {@link #applyPatch(JsonElement, CompiledSchema, JsonArray)}. A patch which can not be applied gives an
+     * {@link ErrorCode#INVALID_PATCH} error.
+     *
+     * @param document document corrected according to the schema.
+     * @param schema   compiled JSON schema.
+     * @param patch    array of JSON Patch operations.
+     * @return result holding either the patched and corrected document or the errors.
+     */
+    public ValidationResult<JsonElement> tryApplyPatch(JsonElement document, CompiledSchema schema,
+                                                       JsonArray patch) {
+        if (document == null || schema == null || patch == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        PatchedPaths touched = new PatchedPaths();
+        JsonElement patched;
+        try {
+            patched = JsonPatch.apply(document, patch, touched);
+        } catch (ParserException ex) {
+            return ValidationResult.invalid(new ValidationError(ex));
+        }
+        if (touched.isDocumentReplaced() || schema.getType() == null) {
+            return tryParseJsonElement(patched, schema, true);
+        }
+        ValidationContext context = acquireScratch().context;
+        context.clearErrors();
+        context.setCopyOnWrite(true);
+        JsonElement result;
+        try {
+            result = PatchValidator.validate(patched, schema, touched, context);
+        } catch (ValidatorException | ParserException ex) {
+            return invalid(context, ex);
+        } finally {
+            context.setCopyOnWrite(false);
+        }
+        return context.getErrors().isEmpty() ? ValidationResult.valid(result) : invalid(context, null);
+    }
+
+    /**
+     * Check a JSON string against a compiled schema without correcting it. No corrected values are created, the
+     * parsed tree is never modified and no output is written, so this is the cheapest way to get a yes or no answer.
+     * The check returns at the first violation, unless the engine collects more errors.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return valid result without output, or the errors found.
+     */
+    public ValidationResult<Void> validateOnly(String inputString, CompiledSchema schema) {
+        if (inputString == null || inputString.isEmpty() || schema == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        return check(schema, inputString, null);
+    }
+
+    /**
+     * Check an already parsed JSON element against a compiled schema without correcting it. The element is left
+     * unchanged.
+     *
+     * @param input  JSON element.
+     * @param schema compiled JSON schema.
+     * @return valid result without output, or the errors found.
+     */
+    public ValidationResult<Void> validateOnly(JsonElement input, CompiledSchema schema) {
+        if (input == null || schema == null) {
+            return ValidationResult.invalid(new ValidationError(new ParserException("Invalid inputs")));
+        }
+        return check(schema, null, input);
+    }
+
+    private ValidationResult<Void> check(CompiledSchema schema, String inputString, JsonElement input) {
+        if (schema.isAcceptAll()) {
+            return ValidationResult.valid(null);
+        }
+        ValidationContext context = acquireScratch().context;
+        context.clearErrors();
+        context.setReadOnly(true);
+        try {
+            correct(schema, inputString, input, context);
+        } catch (ValidatorException | ParserException ex) {
+            return invalid(context, ex);
+        } catch (JsonParseException ex) {
+            return invalid(context, malformed(ex));
+        } finally {
+            context.setReadOnly(false);
+        }
+        return context.getErrors().isEmpty() ? ValidationResult.<Void>valid(null) : invalid(context, null);
+    }
+
+    /**
+     * Create the result of an invalid input from the errors collected by a context and the error which stopped the
+     * walk.
+     *
+     * @param context validation context of the walk.
+     * @param thrown  error thrown out of the walk, null if the walk completed.
+     * @param <T>     type of the output.
+     * @return invalid result.
+     */
+    private <T> ValidationResult<T> invalid(ValidationContext context, JJParserException thrown) {
+        if (!context.isCollectingErrors()) {
+            return ValidationResult.invalid(new ValidationError(thrown));
+        }
+        List<ValidationError> errors = new ArrayList<>(context.getErrors().size() + 1);
+        for (JJParserException error : context.getErrors()) {
+            errors.add(new ValidationError(error));
+        }
+        if (thrown != null && errors.size() < maxErrors) {
+            errors.add(new ValidationError(thrown));
+        }
+        return ValidationResult.invalid(errors);
+    }
+
+    /**
+     * Bind a JSON string to an instance of the given class, correcting the values according to the schema while
+     * reading. No JSON tree is built, see {@link SchemaBinder}.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @param type        target class, a class with a no argument constructor, a record, a Map or a List.
+     * @param <T>         target type.
+     * @return bound instance.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or the value can not be bound.
+     */
+    public <T> T bind(String inputString, CompiledSchema schema, Class<T> type) throws ValidatorException,
+            ParserException {
+        if (inputString == null || inputString.isEmpty()) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input json should not be null", exception);
+            throw exception;
+        }
+        return bind(new StringReader(inputString), schema, type);
+    }
+
+    /**
+     * Bind a JSON document read from a reader to an instance of the given class, correcting the values according to
+     * the schema while reading.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param type   target class, a class with a no argument constructor, a record, a Map or a List.
+     * @param <T>    target type.
+     * @return bound instance.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing, while reading or the value can not be bound.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T bind(Reader input, CompiledSchema schema, Class<T> type) throws ValidatorException,
+            ParserException {
+        return (T) bind(input, schema, (Type) type);
+    }
+
+    /**
+     * Bind a JSON document read from a reader to an instance of a generic type, for example a List of a class.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param type   target type.
+     * @return bound instance.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing, while reading or the value can not be bound.
+     */
+    public Object bind(Reader input, CompiledSchema schema, Type type) throws ValidatorException, ParserException {
+        if (input == null || schema == null || type == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Input reader, schema and target type should not be null", exception);
+            throw exception;
+        }
+        JsonReader reader = newReader(input);
+        try {
+            Object result = SchemaBinder.bind(reader, schema, type);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                ParserException exception = new ParserException("Unexpected content after the JSON document");
+                logger.error("Input has content after " + reader.getPath(), exception);
+                throw exception;
+            }
+            return result;
+        } catch (LimitExceededException ex) {
+            throw malformed(ex);
+        } catch (MalformedJsonException | EOFException ex) {
+            throw new ParserException(ErrorCode.MALFORMED_JSON, ex, ex.getMessage());
+        } catch (IOException ex) {
+            ParserException exception = new ParserException("Error occurred while reading the input", ex);
+            logger.error("Error occurred while reading the input JSON", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Correct a batch of JSON strings sharing one schema in parallel on the common fork/join pool.
+     * An input failing validation does not stop the batch, its error is reported in its result.
+     *
+     * @param inputs input JSON strings.
+     * @param schema compiled JSON schema.
+     * @return one result per input, in input order.
+     * @throws ParserException Invalid inputs or the batch was interrupted.
+     */
+    public List<BatchResult> parseJsonBatch(List<String> inputs, CompiledSchema schema) throws ParserException {
+        return parseJsonBatch(inputs, schema, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Correct a batch of JSON strings sharing one schema in parallel on the given executor.
+     * A ForkJoinPool is used through fork/join tasks, any other executor receives one task per chunk of inputs.
+     * An input failing validation does not stop the batch, its error is reported in its result.
+     *
+     * @param inputs   input JSON strings.
+     * @param schema   compiled JSON schema.
+     * @param executor executor running the batch.
+     * @return one result per input, in input order.
+     * @throws ParserException Invalid inputs or the batch was interrupted.
+     */
+    public List<BatchResult> parseJsonBatch(List<String> inputs, CompiledSchema schema, Executor executor)
+            throws ParserException {
+        if (inputs == null || schema == null || executor == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("Batch inputs, schema and executor should not be null", exception);
+            throw exception;
+        }
+        BatchResult[] results = new BatchResult[inputs.size()];
+        if (results.length == 0) {
+            return Collections.emptyList();
+        }
+        if (executor instanceof ForkJoinPool) {
+            ForkJoinPool pool = (ForkJoinPool) executor;
+            pool.invoke(new BatchTask(inputs, schema, results, 0, results.length,
+                    chunkSize(results.length, pool.getParallelism())));
+        } else {
+            runChunks(inputs, schema, results, executor);
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Correct a batch of JSON strings sharing one schema in parallel on the given executor.
+     *
+     * @param inputs   input JSON strings.
+     * @param schema   compiled JSON schema.
+     * @param executor executor running the batch.
+     * @return one result per input, in input order.
+     * @throws ParserException Invalid inputs or the batch was interrupted.
+     */
+    public List<BatchResult> parseJsonBatch(String[] inputs, CompiledSchema schema, Executor executor)
+            throws ParserException {
+        return parseJsonBatch(inputs != null ? Arrays.asList(inputs) : null, schema, executor);
+    }
+
+    /**
+     * Run a batch on a plain executor, one task per chunk, and wait for all of them.
+     */
+    private void runChunks(final List<String> inputs, final CompiledSchema schema, final BatchResult[] results,
+                           Executor executor) throws ParserException {
+        int chunkSize = chunkSize(results.length, Runtime.getRuntime().availableProcessors());
+        int chunks = (results.length + chunkSize - 1) / chunkSize;
+        final CountDownLatch latch = new CountDownLatch(chunks);
+        for (int start = 0; start < results.length; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, results.length);
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            parseRange(inputs, schema, results, from, to);
+                        } finally {
+                            latch.countDown();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                // run on the calling thread when the executor does not accept more tasks
+                parseRange(inputs, schema, results, from, to);
+                latch.countDown();
+            }
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            ParserException exception = new ParserException("Batch processing was interrupted", ex);
+            logger.error("Interrupted while waiting for the batch to complete", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Correct the inputs in [from, to) and store their results.
+     */
+    private void parseRange(List<String> inputs, CompiledSchema schema, BatchResult[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            try {
+                results[i] = BatchResult.success(i, parseJson(inputs.get(i), schema));
+            } catch (Exception ex) {
+                results[i] = BatchResult.failure(i, ex);
+            }
+        }
+    }
+
+    /**
+     * Split a batch into a few chunks per worker, so idle workers can steal work without one task per input.
+     */
+    private static int chunkSize(int size, int parallelism) {
+        return Math.max(1, size / (Math.max(1, parallelism) * BATCH_CHUNKS_PER_WORKER));
+    }
+
+    /**
+     * Fork/join task correcting a range of batch inputs.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private final List<String> inputs;
+        private final CompiledSchema schema;
+        private final BatchResult[] results;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private BatchTask(List<String> inputs, CompiledSchema schema, BatchResult[] results, int from, int to,
+                          int chunkSize) {
+            this.inputs = inputs;
+            this.schema = schema;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                parseRange(inputs, schema, results, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(inputs, schema, results, from, middle, chunkSize),
+                        new BatchTask(inputs, schema, results, middle, to, chunkSize));
+            }
+        }
+    }
+
+    /**
+     * Correct a JSON string asynchronously on the executor of this engine.
+     * When the maximum number of in flight documents is reached, the returned future fails immediately with a
+     * RejectedExecutionException.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return future completed with the corrected JSON string, or exceptionally with the validation error.
+     */
+    public CompletableFuture<String> parseJsonAsync(final String inputString, final CompiledSchema schema) {
+        return submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return parseJson(inputString, schema);
+            }
+        });
+    }
+
+    /**
+     * Correct a JSON string asynchronously on the executor of this engine. The schema is compiled through the schema
+     * cache of this engine before the document is submitted.
+     *
+     * @param inputString input JSON string.
+     * @param inputSchema input schema.
+     * @return future completed with the corrected JSON string, or exceptionally with the validation error.
+     */
+    public CompletableFuture<String> parseJsonAsync(String inputString, String inputSchema) {
+        CompiledSchema schema;
+        try {
+            if (inputSchema == null || inputSchema.isEmpty()) {
+                ParserException exception = new ParserException("Invalid inputs");
+                logger.error("Input json and schema should not be null", exception);
+                throw exception;
+            }
+            schema = compile(inputSchema);
+        } catch (ValidatorException | ParserException ex) {
+            return failedFuture(ex);
+        }
+        return parseJsonAsync(inputString, schema);
+    }
+
+    /**
+     * Correct an already parsed JSON element asynchronously on the executor of this engine.
+     *
+     * @param input  JSON element, corrected in place.
+     * @param schema compiled JSON schema.
+     * @return future completed with the corrected JSON element, or exceptionally with the validation error.
+     */
+    public CompletableFuture<JsonElement> parseJsonElementAsync(final JsonElement input, final CompiledSchema schema) {
+        return submit(new Callable<JsonElement>() {
+            @Override
+            public JsonElement call() throws Exception {
+                return parseJsonElement(input, schema);
+            }
+        });
+    }
+
+    /**
+     * Number of documents accepted by the asynchronous methods and not yet completed.
+     *
+     * @return in flight documents.
+     */
+    public int getInFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Run a task on the executor of this engine, holding an in flight permit until it completes.
+     */
+    private <T> CompletableFuture<T> submit(final Callable<T> task) {
+        if (!inFlight.tryAcquire()) {
+            RejectedExecutionException exception = new RejectedExecutionException("Too many documents in flight, " +
+                    "maximum is " + maxInFlight);
+            logger.error("Rejected an asynchronous document since the engine is at capacity", exception);
+            return failedFuture(exception);
+        }
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            asyncExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        T result = task.call();
+                        inFlight.release();
+                        future.complete(result);
+                    } catch (Throwable ex) {
+                        inFlight.release();
+                        future.completeExceptionally(ex);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.release();
+            logger.error("Executor rejected an asynchronous document", ex);
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable ex) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+
+    /**
+     * Get the scratch state for the current call, shared by every call of the current thread when reuse is enabled.
+     *
+     * @return scratch state.
+     */
+    private Scratch acquireScratch() {
+        return reuseScratchState ? scratch.get() : newScratch();
+    }
+
+    private Scratch newScratch() {
+        return new Scratch(new ValidationContext(parallelThreshold > 0 ? parallelPool : null, parallelThreshold,
+                maxErrors), initialBufferSize);
+    }
+
+    /**
+     * Correct a JSON input according to a compiled schema. The input is given either as a string or as an already
+     * parsed element. A string is only parsed when the schema needs a tree, scalar validators use the raw string.
+     *
+     * @param schema      compiled JSON schema.
+     * @param inputString input as a string, null if the input is given as an element.
+     * @param input       input as an element, null if the input is given as a string.
+     * @param context     validation context of the current thread.
+     * @return corrected JSON element, null if the schema type is not supported. Not meaningful in read only mode.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    private JsonElement correct(CompiledSchema schema, String inputString, JsonElement input,
+                                ValidationContext context) throws ValidatorException, ParserException {
+        if (schema.isAcceptAll()) {
+            return input != null ? input : backend.parse(inputString);
+        } else if (schema.isRejectAll()) {
+            throw new ValidatorException(ErrorCode.FALSE_SCHEMA);
+        } else if (schema.getType() == null) {
+            throw new ValidatorException(ErrorCode.MISSING_TYPE);
+        }
+        if (inputString != null && !limits.isUnlimited() && schema.getDataType() != DataType.ARRAY
+                && schema.getDataType() != DataType.OBJECT) {
+            checkScalarLimits(inputString);
+        }
+        switch (schema.getDataType()) {
+            case BOOLEAN:
+                if (context.isReadOnly()) {
+                    BooleanValidator.checkBoolean(schema, asText(inputString, input));
+                    return input;
+                }
+                return BooleanValidator.validateBoolean(schema, asText(inputString, input));
+            case STRING:
+                if (context.isReadOnly()) {
+                    StringValidator.checkNominal(schema, asText(inputString, input));
+                    return input;
+                }
+                return StringValidator.validateNominal(schema, asText(inputString, input));
+            case NUMERIC:
+                if (context.isReadOnly()) {
+                    NumericValidator.checkNumeric(schema, asText(inputString, input));
+                    return input;
+                }
+                return NumericValidator.validateNumeric(schema, asText(inputString, input));
+            case NULL:
+                NullValidator.validateNull(schema, asText(inputString, input));
+                return JsonNull.INSTANCE;
+            case ARRAY:
+                return ArrayValidator.validateArray(input != null ? input : backend.parse(inputString), schema,
+                        context);
+            case OBJECT:
+                JsonElement tree = input != null ? input : backend.parse(inputString);
+                if (tree.isJsonObject()) {
+                    return ObjectValidator.validateObject(tree.getAsJsonObject(), schema, context);
+                }
+                throw new ValidatorException(ErrorCode.NOT_AN_OBJECT);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Check the parse limits for a scalar root given as a string, which the scalar validators read without
+     * tokenizing it.
+     *
+     * @param inputString scalar JSON document.
+     */
+    private void checkScalarLimits(String inputString) {
+        limits.checkInputSize(inputString);
+        String text = inputString.trim();
+        if (limits.getMaxStringLength() != -1 && text.length() - 2 > limits.getMaxStringLength()
+                && text.charAt(0) == '"') {
+            // count an escape sequence as the character it stands for
+            int length = 0;
+            for (int i = 1; i < text.length() - 1; i++, length++) {
+                if (text.charAt(i) == '\\') {
+                    i += text.charAt(i + 1) == 'u' ? 5 : 1;
+                }
+            }
+            limits.checkStringLength(length);
+        }
+    }
+
+    /**
+     * Create a reader for a document read by the Gson tokenizer, checking the parse limits of the engine.
+     */
+    private JsonReader newReader(Reader input) {
+        JsonReader reader = limits.isUnlimited() ? new JsonReader(input) : new LimitedJsonReader(input, limits);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Error of a document which is not valid JSON, or which exceeds a parse limit of the engine.
+     */
+    static ParserException malformed(JsonParseException ex) {
+        if (ex instanceof LimitExceededException) {
+            LimitExceededException exceeded = (LimitExceededException) ex;
+            return new ParserException(exceeded.getErrorCode(), ex, exceeded.getLimit());
+        }
+        return new ParserException(ErrorCode.MALFORMED_JSON, ex, ex.getMessage());
+    }
+
+    /**
+     * Return the output of a result, or throw its error as the throwing methods always did. Malformed JSON is
+     * rethrown as the original Gson exception.
+     *
+     * @param result validation result.
+     * @param <T>    type of the output.
+     * @return corrected output.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    private static <T> T unwrap(ValidationResult<T> result) throws ValidatorException, ParserException {
+        if (result.isValid()) {
+            return result.getOutput();
+        }
+        JJParserException exception = result.getError().getException();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Input is not valid at '" + exception.getPath() + "' : " + exception.getMessage());
+        }
+        if (exception.getErrorCode() == ErrorCode.MALFORMED_JSON && exception.getCause() instanceof
+                RuntimeException) {
+            throw (RuntimeException) exception.getCause();
+        } else if (exception instanceof ValidatorException) {
+            throw (ValidatorException) exception;
+        }
+        throw (ParserException) exception;
+    }
+
+    private static String asText(String inputString, JsonElement input) {
+        return inputString != null ? inputString : input.toString();
+    }
+
+    public SchemaCache getSchemaCache() {
+        return schemaCache;
+    }
+}
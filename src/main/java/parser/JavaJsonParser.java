@@ -1,17 +1,28 @@
 package parser;
 
+import backend.JsonTape;
+import backend.Projection;
 import com.google.gson.*;
 import contants.ValidatorConstants;
 import exceptions.ParserException;
 import exceptions.ValidatorException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import utils.GSONDataTypeConverter;
-import validators.*;
+import schema.CompiledSchema;
+import schema.SchemaCache;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * This class will parse a given JSON input according to a given schema.
- * Supported inout formats - String and Gson JsonObject
+ * Supported input formats - String, Reader, InputStream and Gson JsonElement
+ * For configurable instances see {@link JJParserEngine}.
  */
 public class JavaJsonParser {
 
@@ -25,8 +36,36 @@ public class JavaJsonParser {
     // JSON parser instance
     private static JsonParser parser = new JsonParser();
 
+    // Engine used by the static methods
+    private static final JJParserEngine engine = new JJParserEngine();
+
+    // Compiled schemas of the schema strings given to parseJson(String, String)
+    private static volatile SchemaCache schemaCache = new SchemaCache();
+
+    /**
+     * Replace the cache used by {@link #parseJson(String, String)}. Use a cache with maximum size 0 to disable it.
+     *
+     * @param cache schema cache.
+     */
+    public static void setSchemaCache(SchemaCache cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException("Schema cache should not be null");
+        }
+        schemaCache = cache;
+    }
+
+    /**
+     * Get the cache used by {@link #parseJson(String, String)}, for example to read its statistics.
+     *
+     * @return schema cache.
+     */
+    public static SchemaCache getSchemaCache() {
+        return schemaCache;
+    }
+
     /**
      * This method parse a given JSON string according to the given schema. Both as string.
+     * Compiled schemas are cached by their content, see {@link #setSchemaCache(SchemaCache)}.
      *
      * @param inputString input String.
      * @param inputSchema input Schema.
@@ -36,37 +75,7 @@ public class JavaJsonParser {
      */
     public static String parseJson(String inputString, String inputSchema) throws ValidatorException, ParserException {
         if (inputString != null && !inputString.isEmpty() && inputSchema != null && !inputSchema.isEmpty()) {
-            JsonObject schemaObject;
-            JsonElement schema = null;
-            try {
-                schema = parser.parse(inputSchema);
-            } catch (JsonSyntaxException ex) {
-                ValidatorException exception = new ValidatorException("Invalid JSON schema " + ex.getMessage());
-                logger.error("Invalid JSON schema : " + ex.getMessage(), exception);
-                throw exception;
-            }
-            if (schema.isJsonObject()) {
-                // Handling empty JSON objects - valid for all inputs
-                if(schema.toString().replaceAll("\\s+","").equals("{}")) {
-                    return inputString;
-                }
-                schemaObject = schema.getAsJsonObject();
-            } else if (schema.isJsonPrimitive()) {
-                // if schema is primitive it should be a boolean
-                boolean valid = schema.getAsBoolean();
-                if (valid) {
-                    return inputString;
-                } else {
-                    ValidatorException exception = new ValidatorException("JSON schema is not valid for all elements");
-                    logger.error("JSON schema is false, so all validations will fail", exception);
-                    throw exception;
-                }
-            } else {
-                ValidatorException exception = new ValidatorException("Unexpected JSON schema");
-                logger.error("JSON schema should be an object or boolean", exception);
-                throw exception;
-            }
-            return parseJson(inputString, schemaObject);
+            return engine.parseJson(inputString, schemaCache.get(inputSchema, JavaJsonParser::compile));
         } else {
             ParserException exception = new ParserException("Invalid inputs");
             logger.error("Input json and schema should not be null", exception);
@@ -76,57 +85,375 @@ public class JavaJsonParser {
 
     /**
      * This method will parse a given JSON string according to the given schema. Schema as an Object.
-     * Can use this method when using caching.
+     * Can use this method when using caching, preferably with a schema returned by {@link #compile(String)}. A
+     * JsonObject schema is serialized on every call and looked up in the schema cache by its serialized content. A
+     * copy of it is compiled, so later changes to the JsonObject do not change the cached schema.
      *
      * @param inputString input JSON string.
-     * @param schema      already parsed JSON schema.
+     * @param schema      already parsed JSON schema, either a JsonObject or a CompiledSchema.
      * @return corrected JSON string.
      * @throws ValidatorException Exception occurs in validation process.
      * @throws ParserException    Exception occurs in data type parsing.
      */
     public static String parseJson(String inputString, Object schema) throws ValidatorException, ParserException {
-        if (inputString != null && !inputString.isEmpty() && schema instanceof JsonObject) {
-            JsonElement result = null;
-            JsonObject schemaObject = (JsonObject) schema;
-            if (((JsonObject) schema).has(ValidatorConstants.TYPE_KEY)) {
-                String type = schemaObject.get(ValidatorConstants.TYPE_KEY).toString().replaceAll(
-                        ValidatorConstants.REGEX, "");
-                if (ValidatorConstants.BOOLEAN_KEYS.contains(type)) {
-                    result = BooleanValidator.validateBoolean(schemaObject, inputString);
-                } else if (ValidatorConstants.NOMINAL_KEYS.contains(type)) {
-                    result = StringValidator.validateNominal(schemaObject, inputString);
-                } else if (ValidatorConstants.NUMERIC_KEYS.contains(type)) {
-                    result = NumericValidator.validateNumeric(schemaObject, inputString);
-                } else if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
-                    result = ArrayValidator.validateArray(GSONDataTypeConverter.getMapFromString(inputString),
-                            schemaObject);
-                } else if (ValidatorConstants.NULL_KEYS.contains(type)) {
-                    NullValidator.validateNull(schemaObject, inputString);
-                    result = JsonNull.INSTANCE;
-                } else if (ValidatorConstants.OBJECT_KEYS.contains(type)) {
-                    JsonElement input = parser.parse(inputString);
-                    if (input.isJsonObject()) {
-                        result = ObjectValidator.validateObject(input.getAsJsonObject(), schemaObject);
-                    } else {
-                        ValidatorException exception = new ValidatorException("Expected a json object input");
-                        logger.error("Expected a JSON as input but found : " + inputString, exception);
-                        throw exception;
-                    }
-                }
-                if (result != null) {
-                    return result.toString();
-                }
-                return null;
-            } else {
+        if (inputString != null && !inputString.isEmpty() && schema instanceof CompiledSchema) {
+            return engine.parseJson(inputString, (CompiledSchema) schema);
+        } else if (inputString != null && !inputString.isEmpty() && schema instanceof JsonObject) {
+            if (!((JsonObject) schema).has(ValidatorConstants.TYPE_KEY)) {
                 ValidatorException exception = new ValidatorException("JSON schema should contain a type declaration");
                 logger.error("JSON schema does not contains a type : " + schema, exception);
                 throw exception;
             }
-        }
-        else {
+            JsonObject jsonSchema = (JsonObject) schema;
+            return engine.parseJson(inputString,
+                    schemaCache.get(jsonSchema.toString(), key -> CompiledSchema.compile(jsonSchema.deepCopy())));
+        } else {
             ParserException exception = new ParserException("Invalid inputs");
             logger.error("Input json and schema should not be null, schema should be a JSON object", exception);
             throw exception;
         }
     }
+
+    /**
+     * Compile a JSON schema string, so it can be reused for any number of parseJson calls from any thread.
+     *
+     * @param inputSchema JSON schema as a string. Can be an object or a boolean.
+     * @return compiled schema.
+     * @throws ValidatorException Schema is invalid.
+     * @throws ParserException    Exception occurs while parsing a keyword value.
+     */
+    public static CompiledSchema compile(String inputSchema) throws ValidatorException, ParserException {
+        if (inputSchema == null || inputSchema.isEmpty()) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("JSON schema should not be null", exception);
+            throw exception;
+        }
+        JsonElement schema;
+        try {
+            schema = parser.parse(inputSchema);
+        } catch (JsonSyntaxException ex) {
+            ValidatorException exception = new ValidatorException("Invalid JSON schema " + ex.getMessage());
+            logger.error("Invalid JSON schema : " + ex.getMessage(), exception);
+            throw exception;
+        }
+        if (schema.isJsonObject()) {
+            // Handling empty JSON objects - valid for all inputs
+            if (schema.getAsJsonObject().entrySet().isEmpty()) {
+                return CompiledSchema.ACCEPT_ALL;
+            }
+            return CompiledSchema.compile(schema.getAsJsonObject());
+        } else if (schema.isJsonPrimitive()) {
+            // if schema is primitive it should be a boolean
+            return schema.getAsBoolean() ? CompiledSchema.ACCEPT_ALL : CompiledSchema.REJECT_ALL;
+        } else {
+            ValidatorException exception = new ValidatorException("Unexpected JSON schema");
+            logger.error("JSON schema should be an object or boolean", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Compile a JSON schema object, so it can be reused for any number of parseJson calls from any thread.
+     * The compiled schema works on a copy, later changes to the given object do not affect it.
+     *
+     * @param schema JSON schema as an object.
+     * @return compiled schema.
+     * @throws ValidatorException Schema is invalid.
+     * @throws ParserException    Exception occurs while parsing a keyword value.
+     */
+    public static CompiledSchema compile(JsonObject schema) throws ValidatorException, ParserException {
+        if (schema == null) {
+            ParserException exception = new ParserException("Invalid inputs");
+            logger.error("JSON schema should not be null", exception);
+            throw exception;
+        }
+        if (schema.entrySet().isEmpty()) {
+            return CompiledSchema.ACCEPT_ALL;
+        }
+        return CompiledSchema.compile(schema.deepCopy());
+    }
+
+    /**
+     * This method will parse a JSON document read from a reader and write the corrected document to a writer.
+     * The input is parsed exactly once and the result is never converted to an intermediate string.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output writer to write the corrected JSON document. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public static void parseJson(Reader input, CompiledSchema schema, Writer output) throws ValidatorException,
+            ParserException {
+        engine.parseJson(input, schema, output);
+    }
+
+    /**
+     * This method will parse a UTF-8 JSON document read from a stream and write the corrected document to a stream.
+     *
+     * @param input  stream providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output stream to write the corrected JSON document as UTF-8. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public static void parseJson(InputStream input, CompiledSchema schema, OutputStream output) throws
+            ValidatorException, ParserException {
+        engine.parseJson(input, schema, output);
+    }
+
+    /**
+     * This method will correct a JSON document token by token while reading it, without building a tree of the
+     * document, see {@link JJParserEngine#streamJson(Reader, CompiledSchema, Writer)}.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output writer to write the corrected JSON document. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public static void streamJson(Reader input, CompiledSchema schema, Writer output) throws ValidatorException,
+            ParserException {
+        engine.streamJson(input, schema, output);
+    }
+
+    /**
+     * This method will correct a UTF-8 JSON document token by token while reading it from a stream, without building
+     * a tree of the document.
+     *
+     * @param input  stream providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @param output stream to write the corrected JSON document as UTF-8. Flushed but not closed by this method.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading and writing.
+     */
+    public static void streamJson(InputStream input, CompiledSchema schema, OutputStream output) throws
+            ValidatorException, ParserException {
+        engine.streamJson(input, schema, output);
+    }
+
+    /**
+     * Iterate lazily over the corrected items of a top-level UTF-8 JSON array, see
+     * {@link JJParserEngine#iterateArray(Reader, CompiledSchema)}.
+     *
+     * @param input  stream providing the JSON array. Closed by closing the iterator.
+     * @param schema compiled array schema.
+     * @return iterator over the corrected items.
+     * @throws ValidatorException The schema of the items has no type.
+     * @throws ParserException    Invalid inputs or the schema does not declare an array.
+     */
+    public static JsonArrayIterator iterateArray(InputStream input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return engine.iterateArray(input, schema);
+    }
+
+    /**
+     * Create a non-blocking push parser correcting a UTF-8 JSON document fed in chunks, see
+     * {@link JJParserEngine#newPushParser(CompiledSchema, Writer)}.
+     *
+     * @param schema compiled JSON schema.
+     * @param output writer receiving the corrected JSON document. Flushed after each chunk but not closed.
+     * @return push parser.
+     * @throws ParserException Invalid inputs.
+     */
+    public static JsonPushParser newPushParser(CompiledSchema schema, Writer output) throws ParserException {
+        return engine.newPushParser(schema, output);
+    }
+
+    /**
+     * Correct a document parsed into a tape, recording the corrected values as overrides of the tape, see
+     * {@link JJParserEngine#correctTape(JsonTape, CompiledSchema)}.
+     *
+     * @param tape   parsed document.
+     * @param schema compiled JSON schema.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static void correctTape(JsonTape tape, CompiledSchema schema) throws ValidatorException, ParserException {
+        engine.correctTape(tape, schema);
+    }
+
+    /**
+     * This method will parse a JSON document read from a reader and return the corrected document as a tree.
+     *
+     * @param input  reader providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @return corrected JSON element, null if the schema type is not supported.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading.
+     */
+    public static JsonElement parseJsonElement(Reader input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return engine.parseJsonElement(input, schema);
+    }
+
+    /**
+     * This method will parse a UTF-8 JSON document read from a stream and return the corrected document as a tree.
+     *
+     * @param input  stream providing the JSON document. Not closed by this method.
+     * @param schema compiled JSON schema.
+     * @return corrected JSON element, null if the schema type is not supported.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or while reading.
+     */
+    public static JsonElement parseJsonElement(InputStream input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return engine.parseJsonElement(input, schema);
+    }
+
+    /**
+     * This method will correct an already parsed JSON element according to a compiled schema.
+     * Arrays and objects are corrected in place, the returned element may be the input itself.
+     *
+     * @param input  JSON element.
+     * @param schema compiled JSON schema.
+     * @return corrected JSON element, null if the schema type is not supported.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static JsonElement parseJsonElement(JsonElement input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return engine.parseJsonElement(input, schema);
+    }
+
+    /**
+     * This method will parse a given JSON string according to a compiled schema without throwing for invalid
+     * inputs, see {@link JJParserEngine#tryParseJson(String, CompiledSchema)}.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return result holding either the corrected JSON string or the error.
+     */
+    public static ValidationResult<String> tryParseJson(String inputString, CompiledSchema schema) {
+        return engine.tryParseJson(inputString, schema);
+    }
+
+    /**
+     * This method will correct only the values at the paths of a projection, see
+     * {@link JJParserEngine#parseJson(String, CompiledSchema, Projection)}.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @param projection  paths of the values to correct.
+     * @return corrected JSON string.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static String parseJson(String inputString, CompiledSchema schema, Projection projection)
+            throws ValidatorException, ParserException {
+        return engine.parseJson(inputString, schema, projection);
+    }
+
+    /**
+     * This method will correct an already parsed JSON element according to a compiled schema without throwing for
+     * invalid inputs.
+     *
+     * @param input  JSON element.
+     * @param schema compiled JSON schema.
+     * @return result holding either the corrected JSON element or the error.
+     */
+    public static ValidationResult<JsonElement> tryParseJsonElement(JsonElement input, CompiledSchema schema) {
+        return engine.tryParseJsonElement(input, schema);
+    }
+
+    /**
+     * This method will apply a JSON Patch to a corrected document and correct again only the touched paths, see
+     * {@link JJParserEngine#applyPatch(JsonElement, CompiledSchema, JsonArray)}.
+     *
+     * @param document document corrected according to the schema.
+     * @param schema   compiled JSON schema.
+     * @param patch    array of JSON Patch operations.
+     * @return patched and corrected document.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing, or the patch can not be applied.
+     */
+    public static JsonElement applyPatch(JsonElement document, CompiledSchema schema, JsonArray patch)
+            throws ValidatorException, ParserException {
+        return engine.applyPatch(document, schema, patch);
+    }
+
+    /**
+     * This method will correct a JSON string and return only the corrections as a JSON Patch (RFC 6902) document,
+     * see {@link JJParserEngine#parseJsonPatch(String, CompiledSchema)}.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return JSON array of patch operations.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static String parseJsonPatch(String inputString, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return engine.parseJsonPatch(inputString, schema);
+    }
+
+    /**
+     * Check a JSON string against a compiled schema without correcting it, see
+     * {@link JJParserEngine#validateOnly(String, CompiledSchema)}.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return valid result without output, or the error found.
+     */
+    public static ValidationResult<Void> validateOnly(String inputString, CompiledSchema schema) {
+        return engine.validateOnly(inputString, schema);
+    }
+
+    /**
+     * Correct a batch of JSON strings sharing one schema in parallel on the common fork/join pool.
+     * An input failing validation does not stop the batch, its error is reported in its result.
+     *
+     * @param inputs input JSON strings.
+     * @param schema compiled JSON schema.
+     * @return one result per input, in input order.
+     * @throws ParserException Invalid inputs or the batch was interrupted.
+     */
+    public static List<BatchResult> parseJsonBatch(List<String> inputs, CompiledSchema schema) throws
+            ParserException {
+        return engine.parseJsonBatch(inputs, schema);
+    }
+
+    /**
+     * Correct a batch of JSON strings sharing one schema in parallel on the given executor or ForkJoinPool.
+     * An input failing validation does not stop the batch, its error is reported in its result.
+     *
+     * @param inputs   input JSON strings.
+     * @param schema   compiled JSON schema.
+     * @param executor executor running the batch.
+     * @return one result per input, in input order.
+     * @throws ParserException Invalid inputs or the batch was interrupted.
+     */
+    public static List<BatchResult> parseJsonBatch(List<String> inputs, CompiledSchema schema, Executor executor)
+            throws ParserException {
+        return engine.parseJsonBatch(inputs, schema, executor);
+    }
+
+    /**
+     * Correct a JSON string asynchronously on the common fork/join pool. Use a {@link JJParserEngine} to configure
+     * the executor and the maximum number of in flight documents.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @return future completed with the corrected JSON string, or exceptionally with the validation error.
+     */
+    public static CompletableFuture<String> parseJsonAsync(String inputString, CompiledSchema schema) {
+        return engine.parseJsonAsync(inputString, schema);
+    }
+
+    /**
+     * Bind a JSON string to an instance of the given class, correcting the values according to the schema while
+     * reading. No JSON tree is built.
+     *
+     * @param inputString input JSON string.
+     * @param schema      compiled JSON schema.
+     * @param type        target class, a class with a no argument constructor, a record, a Map or a List.
+     * @param <T>         target type.
+     * @return bound instance.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing or the value can not be bound.
+     */
+    public static <T> T bind(String inputString, CompiledSchema schema, Class<T> type) throws ValidatorException,
+            ParserException {
+        return engine.bind(inputString, schema, type);
+    }
 }
@@ -0,0 +1,144 @@
+package parser;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import exceptions.JJParserException;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import validators.ArrayElementReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over the corrected items of a top-level JSON array, reading one item at a time from the input so
+ * only the current item is kept in memory. Created by {@link JJParserEngine#iterateArray(java.io.Reader,
+ * schema.CompiledSchema)}.
+ * <p>
+ * A violation is thrown as a JsonParseException caused by the ValidatorException or ParserException, whose path
+ * starts with the index of the failing item. A failing item is skipped, so iterating may continue with the next item.
+ * "maxItems" fails on the item exceeding it and "minItems" fails when the end of the array is reached.
+ * Reading errors are thrown as a JsonIOException, malformed input as a JsonSyntaxException.
+ */
+public final class JsonArrayIterator implements Iterator<JsonElement>, Closeable {
+
+    // Logger instance
+    private static final Log logger = LogFactory.getLog(JsonArrayIterator.class);
+
+    private final JsonReader reader;
+    private final ArrayElementReader elements;
+    private boolean ended;
+
+    JsonArrayIterator(JsonReader reader, ArrayElementReader elements) {
+        this.reader = reader;
+        this.elements = elements;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ended) {
+            return false;
+        }
+        try {
+            if (elements.hasNext()) {
+                return true;
+            }
+            ended = true;
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                ParserException exception = new ParserException("Unexpected content after the JSON document");
+                logger.error("Input has content after " + reader.getPath(), exception);
+                throw new JsonParseException(exception.getMessage(), exception);
+            }
+            return false;
+        } catch (ValidatorException | ParserException ex) {
+            ended = true;
+            throw failure(ex);
+        } catch (IOException ex) {
+            ended = true;
+            throw failure(ex);
+        }
+    }
+
+    /**
+     * Read and correct the next item of the array.
+     *
+     * @return corrected item.
+     * @throws JsonParseException the item is not valid, caused by the ValidatorException or ParserException.
+     */
+    @Override
+    public JsonElement next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return elements.next();
+        } catch (ValidatorException | ParserException ex) {
+            throw failure(ex);
+        } catch (IOException ex) {
+            ended = true;
+            throw failure(ex);
+        }
+    }
+
+    /**
+     * @return number of items read so far, including failing items.
+     */
+    public int getCount() {
+        return elements.getCount();
+    }
+
+    /**
+     * Sequential stream over the remaining items. Closing the stream closes this iterator.
+     *
+     * @return stream of corrected items.
+     */
+    public Stream<JsonElement> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED
+                | Spliterator.NONNULL), false).onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException ex) {
+                        throw new JsonIOException(ex);
+                    }
+                });
+    }
+
+    /**
+     * Close the underlying input.
+     *
+     * @throws IOException Exception occurs while closing the input.
+     */
+    @Override
+    public void close() throws IOException {
+        ended = true;
+        reader.close();
+    }
+
+    private static JsonParseException failure(JJParserException ex) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Array item failed at " + ex.getPath() + " : " + ex.getMessage());
+        }
+        return new JsonParseException(ex.getMessage(), ex);
+    }
+
+    private static JsonParseException failure(IOException ex) {
+        if (ex instanceof MalformedJsonException) {
+            return new JsonSyntaxException(ex);
+        }
+        logger.error("Error occurred while reading the input JSON", ex);
+        return new JsonIOException(ex);
+    }
+}
@@ -0,0 +1,144 @@
+package parser;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gson type adapter factory correcting the JSON of registered types according to their schema while deserializing.
+ * The input is read once into a tree, corrected in place and bound to the target type, so a payload is not
+ * serialized and parsed again before binding. Serialization is not affected.
+ * <pre>
+ * Gson gson = new GsonBuilder().registerTypeAdapterFactory(
+ *         new JsonCorrectionTypeAdapterFactory().register(Order.class, schema)).create();
+ * </pre>
+ * Validation errors are thrown as a JsonParseException with the ValidatorException or ParserException as the cause.
+ */
+public class JsonCorrectionTypeAdapterFactory implements TypeAdapterFactory {
+
+    // Logger instance
+    private static Log logger = LogFactory.getLog(JsonCorrectionTypeAdapterFactory.class.getName());
+
+    private final JJParserEngine engine;
+    private final Map<Type, CompiledSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * Create a factory with an engine using default options.
+     */
+    public JsonCorrectionTypeAdapterFactory() {
+        this(new JJParserEngine());
+    }
+
+    /**
+     * Create a factory correcting values with the given engine.
+     *
+     * @param engine parser engine.
+     */
+    public JsonCorrectionTypeAdapterFactory(JJParserEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Engine should not be null");
+        }
+        this.engine = engine;
+    }
+
+    /**
+     * Correct the JSON of a class, and of any parameterized type of that class, according to a schema.
+     *
+     * @param type   target class.
+     * @param schema compiled JSON schema.
+     * @return this factory.
+     */
+    public JsonCorrectionTypeAdapterFactory register(Class<?> type, CompiledSchema schema) {
+        return register((Type) type, schema);
+    }
+
+    /**
+     * Correct the JSON of an exact type, for example a List of a class, according to a schema.
+     *
+     * @param type   target type.
+     * @param schema compiled JSON schema.
+     * @return this factory.
+     */
+    public JsonCorrectionTypeAdapterFactory register(TypeToken<?> type, CompiledSchema schema) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type and schema should not be null");
+        }
+        return register(type.getType(), schema);
+    }
+
+    private JsonCorrectionTypeAdapterFactory register(Type type, CompiledSchema schema) {
+        if (type == null || schema == null) {
+            throw new IllegalArgumentException("Type and schema should not be null");
+        }
+        schemas.put(type, schema);
+        return this;
+    }
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        CompiledSchema schema = schemas.get(type.getType());
+        if (schema == null) {
+            schema = schemas.get(type.getRawType());
+        }
+        if (schema == null) {
+            return null;
+        }
+        return new CorrectingTypeAdapter<>(gson.getDelegateAdapter(this, type), gson.getAdapter(JsonElement.class),
+                schema);
+    }
+
+    /**
+     * Adapter reading the JSON as a tree, correcting it and binding it with the delegate adapter.
+     */
+    private final class CorrectingTypeAdapter<T> extends TypeAdapter<T> {
+        private final TypeAdapter<T> delegate;
+        private final TypeAdapter<JsonElement> elementAdapter;
+        private final CompiledSchema schema;
+
+        private CorrectingTypeAdapter(TypeAdapter<T> delegate, TypeAdapter<JsonElement> elementAdapter,
+                                      CompiledSchema schema) {
+            this.delegate = delegate;
+            this.elementAdapter = elementAdapter;
+            this.schema = schema;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            JsonElement tree = elementAdapter.read(in);
+            JsonElement corrected;
+            try {
+                corrected = engine.parseJsonElement(tree, schema);
+            } catch (ValidatorException | ParserException ex) {
+                JsonParseException exception = new JsonParseException(ex.getMessage(), ex);
+                logger.error("Error occurred while correcting the JSON at " + in.getPath(), exception);
+                throw exception;
+            }
+            return delegate.fromJsonTree(corrected != null ? corrected : tree);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package parser;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import validators.PatchedPaths;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class builds the JSON Patch (RFC 6902) turning an input tree into its copy on write correction, and applies
+ * JSON Patch operations to a tree. Subtrees shared by both trees are skipped without being visited, and applying a
+ * patch only copies the arrays and objects on the paths of its operations, so the cost depends on the number of
+ * operations and not on the size of the document.
+ */
+final class JsonPatch {
+
+    // Use without instantiating.
+    private JsonPatch() {
+    }
+
+    /**
+     * Create the operations turning the input into the corrected tree.
+     *
+     * @param input     input tree, left unchanged by the correction.
+     * @param corrected corrected tree sharing its unchanged subtrees with the input.
+     * @return array of JSON Patch operations, empty if nothing was corrected.
+     */
+    static JsonArray diff(JsonElement input, JsonElement corrected) {
+        JsonArray patch = new JsonArray();
+        diff(input, corrected, new StringBuilder(), patch);
+        return patch;
+    }
+
+    private static void diff(JsonElement input, JsonElement corrected, StringBuilder path, JsonArray patch) {
+        if (input == corrected) {
+            return;
+        }
+        int length = path.length();
+        if (input.isJsonObject() && corrected.isJsonObject()) {
+            JsonObject before = input.getAsJsonObject();
+            JsonObject after = corrected.getAsJsonObject();
+            for (Map.Entry<String, JsonElement> member : after.entrySet()) {
+                appendKey(path, member.getKey());
+                JsonElement original = before.get(member.getKey());
+                if (original == null) {
+                    patch.add(operation("add", path, member.getValue()));
+                } else {
+                    diff(original, member.getValue(), path, patch);
+                }
+                path.setLength(length);
+            }
+            for (String key : before.keySet()) {
+                if (!after.has(key)) {
+                    patch.add(operation("remove", appendKey(path, key), null));
+                    path.setLength(length);
+                }
+            }
+        } else if (input.isJsonArray() && corrected.isJsonArray()
+                && input.getAsJsonArray().size() == corrected.getAsJsonArray().size()) {
+            JsonArray before = input.getAsJsonArray();
+            JsonArray after = corrected.getAsJsonArray();
+            for (int i = 0; i < after.size(); i++) {
+                path.append('/').append(i);
+                diff(before.get(i), after.get(i), path, patch);
+                path.setLength(length);
+            }
+        } else if (!sameScalar(input, corrected)) {
+            patch.add(operation("replace", path, corrected));
+        }
+    }
+
+    /**
+     * Scalars rebuilt by a validator are equal to the input if they serialize to the same JSON text.
+     */
+    private static boolean sameScalar(JsonElement input, JsonElement corrected) {
+        if (input.isJsonNull() || corrected.isJsonNull()) {
+            return input.isJsonNull() && corrected.isJsonNull();
+        }
+        if (!input.isJsonPrimitive() || !corrected.isJsonPrimitive()) {
+            return false;
+        }
+        JsonPrimitive before = input.getAsJsonPrimitive();
+        JsonPrimitive after = corrected.getAsJsonPrimitive();
+        if (before.isNumber() || after.isNumber()) {
+            // numbers of different types are equal in Gson, compare the serialized text instead
+            return before.isNumber() && after.isNumber() && before.toString().equals(after.toString());
+        }
+        return before.equals(after);
+    }
+
+    private static StringBuilder appendKey(StringBuilder path, String key) {
+        return path.append('/').append(key.replace("~", "~0").replace("/", "~1"));
+    }
+
+    private static JsonObject operation(String op, CharSequence path, JsonElement value) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("op", op);
+        operation.addProperty("path", path.toString());
+        if (value != null) {
+            operation.add("value", value);
+        }
+        return operation;
+    }
+
+    /**
+     * Apply JSON Patch operations to a tree without changing it. The patched tree shares every value which is not
+     * on the path of an operation with the input, and the added values with the patch.
+     *
+     * @param document input tree, left unchanged.
+     * @param patch    array of JSON Patch operations.
+     * @param touched  receives the paths changed by the operations.
+     * @return patched tree.
+     * @throws ParserException an operation is malformed, a path does not exist or a "test" operation failed.
+     */
+    static JsonElement apply(JsonElement document, JsonArray patch, PatchedPaths touched) throws ParserException {
+        Patcher patcher = new Patcher(document, touched);
+        for (int i = 0; i < patch.size(); i++) {
+            patcher.apply(patch.get(i), i);
+        }
+        return patcher.document;
+    }
+
+    /**
+     * Applies the operations of a patch, copying each array and object the first time it is changed.
+     */
+    private static final class Patcher {
+
+        private final PatchedPaths touched;
+        // arrays and objects created by this patch, changed in place by the next operations
+        private final Set<JsonElement> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+        private JsonElement document;
+        private int operation;
+
+        private Patcher(JsonElement document, PatchedPaths touched) {
+            this.document = document;
+            this.touched = touched;
+        }
+
+        private void apply(JsonElement element, int index) throws ParserException {
+            operation = index;
+            if (!element.isJsonObject()) {
+                throw invalid("operation should be an object");
+            }
+            JsonObject op = element.getAsJsonObject();
+            String name = member(op, "op");
+            List<String> path = pointer(member(op, "path"));
+            switch (name) {
+                case "add":
+                    add(path, value(op));
+                    break;
+                case "remove":
+                    remove(path);
+                    break;
+                case "replace":
+                    replace(path, value(op));
+                    break;
+                case "move":
+                    List<String> from = pointer(member(op, "from"));
+                    if (from.size() < path.size() && from.equals(path.subList(0, from.size()))) {
+                        throw invalid("cannot move a value into itself");
+                    }
+                    JsonElement moved = get(from);
+                    remove(from);
+                    add(path, moved);
+                    break;
+                case "copy":
+                    add(path, get(pointer(member(op, "from"))));
+                    break;
+                case "test":
+                    if (!get(path).equals(value(op))) {
+                        throw invalid("test failed at " + member(op, "path"));
+                    }
+                    break;
+                default:
+                    throw invalid("unknown operation " + name);
+            }
+        }
+
+        private void add(List<String> path, JsonElement value) throws ParserException {
+            if (path.isEmpty()) {
+                document = value;
+                touched.replaced(path);
+                return;
+            }
+            JsonElement parent = writableParent(path);
+            String key = path.get(path.size() - 1);
+            if (parent.isJsonObject()) {
+                parent.getAsJsonObject().add(key, value);
+                touched.replaced(path);
+            } else {
+                JsonArray array = parent.getAsJsonArray();
+                int index = key.equals("-") ? array.size() : index(key, array.size() + 1);
+                array.add(value);
+                for (int i = array.size() - 1; i > index; i--) {
+                    array.set(i, array.get(i - 1));
+                }
+                array.set(index, value);
+                touched.inserted(path.subList(0, path.size() - 1), index);
+            }
+        }
+
+        private void remove(List<String> path) throws ParserException {
+            if (path.isEmpty()) {
+                throw invalid("cannot remove the whole document");
+            }
+            JsonElement parent = writableParent(path);
+            String key = path.get(path.size() - 1);
+            if (parent.isJsonObject()) {
+                if (parent.getAsJsonObject().remove(key) == null) {
+                    throw missing(path);
+                }
+            } else {
+                parent.getAsJsonArray().remove(index(key, parent.getAsJsonArray().size()));
+            }
+            touched.removed(path.subList(0, path.size() - 1), key, parent.isJsonArray());
+        }
+
+        private void replace(List<String> path, JsonElement value) throws ParserException {
+            get(path);
+            if (path.isEmpty()) {
+                document = value;
+            } else {
+                set(writableParent(path), path.get(path.size() - 1), value);
+            }
+            touched.replaced(path);
+        }
+
+        private JsonElement get(List<String> path) throws ParserException {
+            JsonElement element = document;
+            for (String key : path) {
+                element = child(element, key, path);
+            }
+            return element;
+        }
+
+        /**
+         * Copy the arrays and objects on the way to the parent of a path which were not copied yet.
+         */
+        private JsonElement writableParent(List<String> path) throws ParserException {
+            document = writable(document);
+            JsonElement parent = document;
+            for (int i = 0; i < path.size() - 1; i++) {
+                JsonElement child = child(parent, path.get(i), path);
+                JsonElement copy = writable(child);
+                if (copy != child) {
+                    set(parent, path.get(i), copy);
+                }
+                parent = copy;
+            }
+            if (!parent.isJsonObject() && !parent.isJsonArray()) {
+                throw missing(path);
+            }
+            return parent;
+        }
+
+        private JsonElement writable(JsonElement element) {
+            if (copies.contains(element)) {
+                return element;
+            }
+            JsonElement copy;
+            if (element.isJsonObject()) {
+                JsonObject object = new JsonObject();
+                for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+                    object.add(member.getKey(), member.getValue());
+                }
+                copy = object;
+            } else if (element.isJsonArray()) {
+                JsonArray array = new JsonArray();
+                array.addAll(element.getAsJsonArray());
+                copy = array;
+            } else {
+                return element;
+            }
+            copies.add(copy);
+            return copy;
+        }
+
+        private JsonElement child(JsonElement parent, String key, List<String> path) throws ParserException {
+            JsonElement child = null;
+            if (parent.isJsonObject()) {
+                child = parent.getAsJsonObject().get(key);
+            } else if (parent.isJsonArray()) {
+                child = parent.getAsJsonArray().get(index(key, parent.getAsJsonArray().size()));
+            }
+            if (child == null) {
+                throw missing(path);
+            }
+            return child;
+        }
+
+        private void set(JsonElement parent, String key, JsonElement value) throws ParserException {
+            if (parent.isJsonObject()) {
+                parent.getAsJsonObject().add(key, value);
+            } else {
+                JsonArray array = parent.getAsJsonArray();
+                array.set(index(key, array.size()), value);
+            }
+        }
+
+        /**
+         * @return index of an array item, without leading zeros and below a limit.
+         */
+        private int index(String key, int limit) throws ParserException {
+            boolean digits = !key.isEmpty() && key.length() < 10 && (key.length() == 1 || key.charAt(0) != '0');
+            for (int i = 0; i < key.length() && digits; i++) {
+                digits = key.charAt(i) >= '0' && key.charAt(i) <= '9';
+            }
+            if (!digits || Integer.parseInt(key) >= limit) {
+                throw invalid("index " + key + " is out of bounds");
+            }
+            return Integer.parseInt(key);
+        }
+
+        private List<String> pointer(String pointer) throws ParserException {
+            if (pointer.isEmpty()) {
+                return Collections.emptyList();
+            } else if (pointer.charAt(0) != '/') {
+                throw invalid("path should be a JSON Pointer : " + pointer);
+            }
+            List<String> path = new ArrayList<>();
+            for (String token : pointer.substring(1).split("/", -1)) {
+                path.add(token.indexOf('~') < 0 ? token : token.replace("~1", "/").replace("~0", "~"));
+            }
+            return path;
+        }
+
+        private String member(JsonObject op, String name) throws ParserException {
+            JsonElement value = op.get(name);
+            if (value == null || !value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()) {
+                throw invalid("\"" + name + "\" should be a string");
+            }
+            return value.getAsString();
+        }
+
+        private JsonElement value(JsonObject op) throws ParserException {
+            JsonElement value = op.get("value");
+            if (value == null) {
+                throw invalid("\"value\" is missing");
+            }
+            return value;
+        }
+
+        private ParserException missing(List<String> path) {
+            StringBuilder pointer = new StringBuilder();
+            for (String key : path) {
+                appendKey(pointer, key);
+            }
+            return invalid("path " + pointer + " does not exist");
+        }
+
+        private ParserException invalid(String reason) {
+            return new ParserException(ErrorCode.INVALID_PATCH, "Operation " + operation + " : " + reason);
+        }
+    }
+}
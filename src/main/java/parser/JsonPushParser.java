@@ -0,0 +1,413 @@
+package parser;
+
+import backend.LimitedJsonReader;
+import backend.ParseLimits;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
+import schema.DataType;
+import validators.ArrayElementReader;
+import validators.ObjectMemberWriter;
+import validators.ValidationContext;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Non-blocking push parser correcting a UTF-8 JSON document fed in chunks, for example as they arrive from the
+ * network. Each call to {@link #feed(ByteBuffer)} advances the correction as far as the bytes received allow and
+ * writes the corrected output produced so far, without waiting for more input.
+ * <p>
+ * The root array or object is corrected one item or member at a time: an item or member is corrected and written as
+ * soon as its last byte is received, so only the current item or member is kept in memory. Other roots, and roots
+ * which do not have the shape declared by the schema, are kept until {@link #finish()} and corrected then. A root
+ * the schema always rejects fails on its first character, and the kept characters are limited, see
+ * {@link ParserOptions#setMaxPushBuffer(int)}. The parse limits of the engine are checked as the chunks are fed:
+ * the bytes received, the depth and the number of items or members of the root as they are scanned, and the limits
+ * inside each item or member when it is read.
+ * The output is the same as the output of {@link JJParserEngine#parseJson(java.io.Reader, CompiledSchema,
+ * java.io.Writer)}, except that duplicate member names are kept, as when streaming. A parser stops at the first
+ * violation, and the output is incomplete once an exception is thrown. A parser is not thread safe, chunks must be
+ * fed in order by one thread at a time.
+ */
+public final class JsonPushParser {
+
+    // Logger instance
+    private static final Log logger = LogFactory.getLog(JsonPushParser.class);
+
+    private static final JsonParser parser = new JsonParser();
+    // writes items using the settings of the output writer
+    private static final TypeAdapter<JsonElement> elementAdapter = new Gson().getAdapter(JsonElement.class);
+
+    private enum State {
+        BEFORE_ROOT, ITEMS, MEMBERS, DOCUMENT, AFTER_ROOT, FAILED
+    }
+
+    // comments accepted by the lenient reader: after a '/', "//" and "#" to the end of the line, and "/* */"
+    private enum Comment {
+        NONE, SLASH, LINE, BLOCK, BLOCK_STAR
+    }
+
+    private final CompiledSchema schema;
+    private final JsonWriter output;
+    private final ValidationContext context;
+    // maximum length of the unit, -1 for no limit
+    private final int maxBuffer;
+    private final ParseLimits limits;
+    // limits of the root read from the unit and of the items of a root array, the input size is checked as bytes
+    private final ParseLimits rootLimits;
+    private final ParseLimits itemLimits;
+    private long received;
+    // items or members of the root array or object
+    private int count;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    // bytes of a character split between two chunks
+    private ByteBuffer pendingBytes = ByteBuffer.allocate(0);
+    private CharBuffer chars = CharBuffer.allocate(0);
+    private State state = State.BEFORE_ROOT;
+    // text of the current item or member, or of the whole document
+    private final StringBuilder unit = new StringBuilder();
+    private int depth;
+    // quote opening the current string, 0 outside strings
+    private char quote;
+    private boolean escaped;
+    private Comment comment = Comment.NONE;
+    private boolean expectValue;
+    private ArrayElementReader items;
+    private ObjectMemberWriter members;
+
+    JsonPushParser(CompiledSchema schema, JsonWriter output, ValidationContext context, int maxBuffer,
+                   ParseLimits limits) {
+        this.schema = schema;
+        this.output = output;
+        this.context = context;
+        this.maxBuffer = maxBuffer;
+        this.limits = limits;
+        this.rootLimits = new ParseLimits(limits.getMaxDepth(), -1, limits.getMaxStringLength(),
+                limits.getMaxArrayLength(), limits.getMaxObjectMembers());
+        // items are one level below the root, deeper items are rejected while scanning
+        this.itemLimits = new ParseLimits(limits.getMaxDepth() == -1 ? -1 : Math.max(1, limits.getMaxDepth() - 1),
+                -1, limits.getMaxStringLength(), limits.getMaxArrayLength(), limits.getMaxObjectMembers());
+    }
+
+    /**
+     * Feed the next chunk of the document. The remaining bytes of the chunk are consumed, a character split between
+     * two chunks is decoded once its last byte is received.
+     *
+     * @param chunk next bytes of the document.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing, while writing or the input is malformed.
+     */
+    public void feed(ByteBuffer chunk) throws ValidatorException, ParserException {
+        checkOpen();
+        received += chunk.remaining();
+        if (limits.getMaxInputBytes() != -1 && received > limits.getMaxInputBytes()) {
+            throw fail(new ParserException(ErrorCode.MAX_INPUT_SIZE, limits.getMaxInputBytes()));
+        }
+        ByteBuffer bytes = chunk;
+        if (pendingBytes.hasRemaining()) {
+            bytes = ByteBuffer.allocate(pendingBytes.remaining() + chunk.remaining());
+            bytes.put(pendingBytes).put(chunk);
+            bytes.flip();
+        }
+        int capacity = (int) (bytes.remaining() * decoder.maxCharsPerByte()) + 1;
+        if (chars.capacity() < capacity) {
+            chars = CharBuffer.allocate(capacity);
+        }
+        chars.clear();
+        decoder.decode(bytes, chars, false);
+        pendingBytes = ByteBuffer.allocate(bytes.remaining());
+        pendingBytes.put(bytes).flip();
+        chars.flip();
+        process(chars);
+    }
+
+    /**
+     * Signal the end of the document, correcting and writing what is left.
+     *
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing, while writing or the document is incomplete.
+     */
+    public void finish() throws ValidatorException, ParserException {
+        checkOpen();
+        chars = CharBuffer.allocate((int) (pendingBytes.remaining() * decoder.maxCharsPerByte()) + 16);
+        decoder.decode(pendingBytes, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        process(chars);
+        try {
+            switch (state) {
+                case DOCUMENT:
+                    JsonReader reader = newReader(unit, rootLimits);
+                    JJParserEngine.stream(reader, output, schema, context);
+                    if (reader.peek() != JsonToken.END_DOCUMENT) {
+                        throw fail(new ParserException("Unexpected content after the JSON document"));
+                    }
+                    break;
+                case AFTER_ROOT:
+                    break;
+                default:
+                    throw fail(new ParserException(ErrorCode.MALFORMED_JSON, "Unexpected end of the JSON document"));
+            }
+            output.flush();
+            state = State.AFTER_ROOT;
+        } catch (ValidatorException | ParserException ex) {
+            fail(ex);
+            throw ex;
+        } catch (IOException ex) {
+            throw fail(new ParserException(ErrorCode.MALFORMED_JSON, ex, ex.getMessage()));
+        } catch (JsonParseException ex) {
+            throw fail(JJParserEngine.malformed(ex));
+        }
+    }
+
+    private void process(CharBuffer input) throws ValidatorException, ParserException {
+        try {
+            while (input.hasRemaining()) {
+                char c = input.get();
+                // the text of a scalar root is kept with its comments, nothing may follow the root
+                if (state == State.DOCUMENT || state == State.AFTER_ROOT || quote != 0 || !comment(c)) {
+                    process(c);
+                }
+            }
+            output.flush();
+        } catch (ValidatorException | ParserException ex) {
+            fail(ex);
+            throw ex;
+        } catch (IOException ex) {
+            throw fail(new ParserException(ErrorCode.MALFORMED_JSON, ex, ex.getMessage()));
+        } catch (JsonParseException ex) {
+            throw fail(JJParserEngine.malformed(ex));
+        }
+    }
+
+    /**
+     * Process a character outside comments according to the part of the document it belongs to.
+     */
+    private void process(char c) throws IOException, ValidatorException, ParserException {
+        switch (state) {
+            case BEFORE_ROOT:
+                if (!Character.isWhitespace(c)) {
+                    start(c);
+                }
+                break;
+            case ITEMS:
+            case MEMBERS:
+                scan(c);
+                break;
+            case DOCUMENT:
+                buffer(c);
+                break;
+            default:
+                if (!Character.isWhitespace(c)) {
+                    throw fail(new ParserException("Unexpected content after the JSON document"));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Skip a character of a comment outside strings. A comment is dropped from the kept characters, and ends as a
+     * whitespace so it still separates the tokens around it.
+     *
+     * @return true if the character is part of a comment.
+     */
+    private boolean comment(char c) throws IOException, ValidatorException, ParserException {
+        switch (comment) {
+            case SLASH:
+                if (c == '/' || c == '*') {
+                    comment = c == '/' ? Comment.LINE : Comment.BLOCK;
+                    return true;
+                }
+                // not a comment, the reader reports the slash
+                comment = Comment.NONE;
+                process('/');
+                return false;
+            case LINE:
+                if (c == '\n' || c == '\r') {
+                    comment = Comment.NONE;
+                    return false;
+                }
+                return true;
+            case BLOCK:
+                if (c == '*') {
+                    comment = Comment.BLOCK_STAR;
+                }
+                return true;
+            case BLOCK_STAR:
+                if (c == '/') {
+                    comment = Comment.NONE;
+                    process(' ');
+                } else if (c != '*') {
+                    comment = Comment.BLOCK;
+                }
+                return true;
+            default:
+                if (c == '/' || c == '#') {
+                    comment = c == '/' ? Comment.SLASH : Comment.LINE;
+                    return true;
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Choose how the root value is corrected from its first character.
+     */
+    private void start(char c) throws IOException, ValidatorException, ParserException {
+        if (schema.isRejectAll()) {
+            throw fail(new ValidatorException(ErrorCode.FALSE_SCHEMA));
+        } else if (!schema.isAcceptAll() && schema.getType() == null) {
+            throw fail(new ValidatorException(ErrorCode.MISSING_TYPE));
+        } else if (c != '{' && schema.getDataType() == DataType.OBJECT) {
+            throw fail(new ValidatorException(ErrorCode.NOT_AN_OBJECT));
+        }
+        if (c == '[' && schema.getType() != null && schema.getDataType() == DataType.ARRAY) {
+            items = new ArrayElementReader(schema, context);
+            output.beginArray();
+            state = State.ITEMS;
+            expectValue = false;
+        } else if (c == '{' && schema.getType() != null && schema.getDataType() == DataType.OBJECT) {
+            members = new ObjectMemberWriter(output, schema, context);
+            unit.append('{');
+            state = State.MEMBERS;
+            expectValue = false;
+        } else {
+            buffer(c);
+            state = State.DOCUMENT;
+        }
+    }
+
+    /**
+     * Scan a character of the root array or object, completing the current item or member at a comma or at the end
+     * of the root.
+     */
+    private void scan(char c) throws IOException, ValidatorException, ParserException {
+        if (quote != 0) {
+            buffer(c);
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            return;
+        }
+        boolean close = c == (state == State.ITEMS ? ']' : '}');
+        if (depth == 0 && (c == ',' || close)) {
+            if (hasUnit()) {
+                complete();
+            } else if (c == ',' || expectValue) {
+                throw fail(new ParserException(ErrorCode.MALFORMED_JSON, "Expected a value before '" + c + "'"));
+            }
+            expectValue = c == ',';
+            if (close) {
+                end();
+            }
+            return;
+        }
+        if (Character.isWhitespace(c) && !hasUnit()) {
+            return;
+        }
+        buffer(c);
+        if (c == '"' || c == '\'') {
+            quote = c;
+        } else if (c == '[' || c == '{') {
+            // the root is the first level
+            limits.checkDepth(++depth + 1);
+        } else if (c == ']' || c == '}') {
+            depth--;
+        }
+    }
+
+    /**
+     * Keep a character of the current unit, failing once the unit is longer than the limit.
+     */
+    private void buffer(char c) throws ParserException {
+        if (unit.length() == maxBuffer) {
+            throw fail(new ParserException(ErrorCode.MAX_PUSH_BUFFER, maxBuffer));
+        }
+        unit.append(c);
+    }
+
+    private boolean hasUnit() {
+        return unit.length() > (state == State.MEMBERS ? 1 : 0);
+    }
+
+    /**
+     * Correct and write the item or member completed by the last character.
+     */
+    private void complete() throws IOException, ValidatorException, ParserException {
+        if (state == State.ITEMS) {
+            limits.checkArrayLength(++count);
+            JsonReader reader = newReader(unit, itemLimits);
+            JsonElement item = parser.parse(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw fail(new ParserException(ErrorCode.MALFORMED_JSON, "Expected ',' after the item at index "
+                        + (count - 1)));
+            }
+            elementAdapter.write(output, items.correct(item));
+            unit.setLength(0);
+        } else {
+            limits.checkObjectMembers(++count);
+            JsonReader reader = newReader(unit.append('}'), rootLimits);
+            reader.beginObject();
+            members.member(reader.nextName(), reader);
+            if (reader.peek() != JsonToken.END_OBJECT) {
+                throw fail(new ParserException(ErrorCode.MALFORMED_JSON, "Expected ',' after the member at "
+                        + reader.getPath()));
+            }
+            unit.setLength(1);
+        }
+    }
+
+    private void end() throws IOException, ValidatorException, ParserException {
+        if (state == State.ITEMS) {
+            output.endArray();
+            items.end();
+        } else {
+            members.end();
+        }
+        unit.setLength(0);
+        state = State.AFTER_ROOT;
+    }
+
+    private static JsonReader newReader(CharSequence text, ParseLimits limits) {
+        StringReader input = new StringReader(text.toString());
+        JsonReader reader = limits.isUnlimited() ? new JsonReader(input) : new LimitedJsonReader(input, limits);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private void checkOpen() throws ParserException {
+        if (state == State.FAILED) {
+            throw new ParserException("The parser failed on a previous chunk");
+        }
+    }
+
+    private <T extends Exception> T fail(T exception) {
+        state = State.FAILED;
+        if (logger.isDebugEnabled()) {
+            logger.debug("Push parser failed : " + exception.getMessage());
+        }
+        return exception;
+    }
+}
@@ -0,0 +1,76 @@
+package parser;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory methods for executors used with the asynchronous parser API.
+ */
+public class ParserExecutors {
+
+    // Use without instantiating
+    private ParserExecutors() {
+    }
+
+    // Logger instance
+    private static Log logger = LogFactory.getLog(ParserExecutors.class.getName());
+
+    // Executors.newVirtualThreadPerTaskExecutor, null when the running JDK does not provide virtual threads
+    private static final Method VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+
+    private static Method findVirtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Check whether the running JDK provides virtual threads (JDK 21 and later).
+     *
+     * @return true if virtual threads are available.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each task.
+     *
+     * @return virtual thread executor.
+     * @throws UnsupportedOperationException the running JDK does not provide virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        if (VIRTUAL_THREAD_FACTORY == null) {
+            UnsupportedOperationException exception = new UnsupportedOperationException("Virtual threads are not " +
+                    "supported by the running JDK");
+            logger.error("Virtual threads require JDK 21 or later, running on " +
+                    System.getProperty("java.version"), exception);
+            throw exception;
+        }
+        try {
+            return (ExecutorService) VIRTUAL_THREAD_FACTORY.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            UnsupportedOperationException exception = new UnsupportedOperationException("Virtual threads are not " +
+                    "supported by the running JDK", ex);
+            logger.error("Error occurred while creating a virtual thread executor", exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Create a virtual thread executor when the running JDK supports it, otherwise return the given executor.
+     *
+     * @param fallback executor used on JDKs without virtual threads.
+     * @return virtual thread executor or the fallback.
+     */
+    public static Executor virtualThreadExecutorOr(Executor fallback) {
+        return isVirtualThreadSupported() ? newVirtualThreadExecutor() : fallback;
+    }
+}
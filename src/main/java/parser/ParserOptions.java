@@ -0,0 +1,387 @@
+package parser;
+
+import backend.JsonBackend;
+import schema.SchemaCache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options of a {@link JJParserEngine}. The engine copies the options when it is created, so changing an options
+ * instance later does not affect engines created from it.
+ */
+public class ParserOptions {
+
+    public static final int DEFAULT_INITIAL_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+    public static final int DEFAULT_MAX_PUSH_BUFFER = 1024 * 1024;
+
+    private SchemaCache schemaCache;
+    private boolean reuseScratchState = true;
+    private int initialBufferSize = DEFAULT_INITIAL_BUFFER_SIZE;
+    private int maxRetainedBufferSize = DEFAULT_MAX_RETAINED_BUFFER_SIZE;
+    private int parallelThreshold;
+    private ForkJoinPool parallelPool;
+    private Executor asyncExecutor;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private int maxErrors = 1;
+    private boolean copyOnWrite;
+    private JsonBackend backend;
+    private boolean rawPassthrough;
+    private int maxDepth = -1;
+    private long maxInputBytes = -1;
+    private int maxStringLength = -1;
+    private int maxArrayLength = -1;
+    private int maxObjectMembers = -1;
+    private int maxPushBuffer = DEFAULT_MAX_PUSH_BUFFER;
+
+    public ParserOptions() {
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other options to copy.
+     */
+    public ParserOptions(ParserOptions other) {
+        this.schemaCache = other.schemaCache;
+        this.reuseScratchState = other.reuseScratchState;
+        this.initialBufferSize = other.initialBufferSize;
+        this.maxRetainedBufferSize = other.maxRetainedBufferSize;
+        this.parallelThreshold = other.parallelThreshold;
+        this.parallelPool = other.parallelPool;
+        this.asyncExecutor = other.asyncExecutor;
+        this.maxInFlight = other.maxInFlight;
+        this.maxErrors = other.maxErrors;
+        this.copyOnWrite = other.copyOnWrite;
+        this.backend = other.backend;
+        this.rawPassthrough = other.rawPassthrough;
+        this.maxDepth = other.maxDepth;
+        this.maxInputBytes = other.maxInputBytes;
+        this.maxStringLength = other.maxStringLength;
+        this.maxArrayLength = other.maxArrayLength;
+        this.maxObjectMembers = other.maxObjectMembers;
+        this.maxPushBuffer = other.maxPushBuffer;
+    }
+
+    /**
+     * Cache for the schema strings given to the engine. A new cache with default limits is used when not set.
+     *
+     * @param schemaCache schema cache.
+     * @return this options instance.
+     */
+    public ParserOptions setSchemaCache(SchemaCache schemaCache) {
+        this.schemaCache = schemaCache;
+        return this;
+    }
+
+    /**
+     * Keep scratch collections and output buffers per thread and reuse them for the next document.
+     * When disabled, they are allocated for every document. Enabled by default.
+     *
+     * @param reuseScratchState reuse scratch state.
+     * @return this options instance.
+     */
+    public ParserOptions setReuseScratchState(boolean reuseScratchState) {
+        this.reuseScratchState = reuseScratchState;
+        return this;
+    }
+
+    /**
+     * Initial size in characters of the buffer used to serialize a corrected document to a string.
+     *
+     * @param initialBufferSize initial buffer size.
+     * @return this options instance.
+     */
+    public ParserOptions setInitialBufferSize(int initialBufferSize) {
+        if (initialBufferSize < 0) {
+            throw new IllegalArgumentException("Initial buffer size should not be negative");
+        }
+        this.initialBufferSize = initialBufferSize;
+        return this;
+    }
+
+    /**
+     * Largest output buffer in characters kept for reuse. Buffers which grew larger while serializing a big document
+     * are released, so a single large document does not pin memory for the lifetime of the thread.
+     *
+     * @param maxRetainedBufferSize maximum retained buffer size.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxRetainedBufferSize(int maxRetainedBufferSize) {
+        if (maxRetainedBufferSize < 0) {
+            throw new IllegalArgumentException("Maximum retained buffer size should not be negative");
+        }
+        this.maxRetainedBufferSize = maxRetainedBufferSize;
+        return this;
+    }
+
+    /**
+     * Minimum number of children of an array or object to validate them as fork/join subtasks. Elements keep their
+     * order and the error reported is the one of the first failing child, as in a sequential pass.
+     * 0 validates every document on the calling thread, which is the default.
+     *
+     * @param parallelThreshold parallel threshold.
+     * @return this options instance.
+     */
+    public ParserOptions setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold should not be negative");
+        }
+        this.parallelThreshold = parallelThreshold;
+        return this;
+    }
+
+    /**
+     * Pool running the subtasks of large arrays and objects. The common pool is used when not set.
+     *
+     * @param parallelPool fork/join pool.
+     * @return this options instance.
+     */
+    public ParserOptions setParallelPool(ForkJoinPool parallelPool) {
+        this.parallelPool = parallelPool;
+        return this;
+    }
+
+    /**
+     * Executor running the documents given to the asynchronous methods. The common fork/join pool is used when not
+     * set. See {@link ParserExecutors#newVirtualThreadExecutor()} for virtual threads on newer JDKs.
+     *
+     * @param asyncExecutor executor.
+     * @return this options instance.
+     */
+    public ParserOptions setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    /**
+     * Maximum number of documents accepted by the asynchronous methods and not yet completed. Further documents are
+     * rejected immediately with a failed future instead of being queued.
+     *
+     * @param maxInFlight maximum number of in flight documents, at least 1.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Maximum in flight documents should be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * Maximum number of errors reported for a document. With the default of 1 the walk stops at the first
+     * violation. Above 1 the walk continues after a violation and the try methods return every error found, until
+     * the maximum is reached. Collecting engines validate on the calling thread, see
+     * {@link #setParallelThreshold(int)}.
+     *
+     * @param maxErrors maximum number of errors, at least 1.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxErrors(int maxErrors) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("Maximum number of errors should be at least 1");
+        }
+        this.maxErrors = maxErrors;
+        return this;
+    }
+
+    /**
+     * Correct already parsed JSON elements without modifying them. The corrected tree shares every array and object
+     * which needed no correction with the input, and only the arrays and objects on the path to a corrected value are
+     * copied. Disabled by default, elements are then corrected in place.
+     *
+     * @param copyOnWrite true to leave input elements unchanged.
+     * @return this options instance.
+     */
+    public ParserOptions setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+        return this;
+    }
+
+    /**
+     * Backend parsing the input documents, see {@link JsonBackend}. The Gson backend is used when not set.
+     * The streaming, iterating and push parsing methods always read the input with Gson.
+     *
+     * @param backend JSON backend.
+     * @return this options instance.
+     */
+    public ParserOptions setBackend(JsonBackend backend) {
+        this.backend = backend;
+        return this;
+    }
+
+    /**
+     * Correct JSON strings and UTF-8 streams on a {@link backend.JsonTape} parsed for the schema, instead of a tree.
+     * The arrays and objects no validator looks into are only tokenized, to check they are well formed, and copied to
+     * the output as they are, keeping their whitespace and escapes, while the rest of the output is the same except
+     * that duplicate member names are kept. Objects with "patternProperties", or with "additionalProperties" next to
+     * "properties", are still corrected as trees. Only strict JSON (RFC 8259) is accepted. Disabled by default.
+     *
+     * @param rawPassthrough true to copy unconstrained arrays and objects without parsing them.
+     * @return this options instance.
+     */
+    public ParserOptions setRawPassthrough(boolean rawPassthrough) {
+        this.rawPassthrough = rawPassthrough;
+        return this;
+    }
+
+    /**
+     * Maximum number of nested arrays and objects of an input document, checked while the document is tokenized,
+     * before any tree is built. This also bounds the recursion of the validators. Exceeding documents are rejected
+     * with {@link exceptions.ErrorCode#MAX_DEPTH}. No limit by default.
+     *
+     * @param maxDepth maximum depth, at least 1, or -1 for no limit.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxDepth(int maxDepth) {
+        this.maxDepth = checkLimit(maxDepth, "Maximum depth");
+        return this;
+    }
+
+    /**
+     * Maximum size of an input document in UTF-8 bytes, characters for readers, checked while the document is read.
+     * Exceeding documents are rejected with {@link exceptions.ErrorCode#MAX_INPUT_SIZE}. No limit by default.
+     *
+     * @param maxInputBytes maximum size, at least 1, or -1 for no limit.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxInputBytes(long maxInputBytes) {
+        if (maxInputBytes < 1 && maxInputBytes != -1) {
+            throw new IllegalArgumentException("Maximum input size should be at least 1, or -1 for no limit");
+        }
+        this.maxInputBytes = maxInputBytes;
+        return this;
+    }
+
+    /**
+     * Maximum number of characters of a string or a member name of an input document. Exceeding documents are
+     * rejected with {@link exceptions.ErrorCode#MAX_STRING_LENGTH}. No limit by default. The length is checked once the
+     * whole string is read, set {@link #setMaxInputBytes(long)} as well to bound the memory a string can take.
+     *
+     * @param maxStringLength maximum length, at least 1, or -1 for no limit.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxStringLength(int maxStringLength) {
+        this.maxStringLength = checkLimit(maxStringLength, "Maximum string length");
+        return this;
+    }
+
+    /**
+     * Maximum number of items of an array of an input document. Exceeding documents are rejected with
+     * {@link exceptions.ErrorCode#MAX_ARRAY_LENGTH}. No limit by default.
+     *
+     * @param maxArrayLength maximum number of items, at least 1, or -1 for no limit.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxArrayLength(int maxArrayLength) {
+        this.maxArrayLength = checkLimit(maxArrayLength, "Maximum array length");
+        return this;
+    }
+
+    /**
+     * Maximum number of members of an object of an input document. Exceeding documents are rejected with
+     * {@link exceptions.ErrorCode#MAX_OBJECT_MEMBERS}. No limit by default.
+     *
+     * @param maxObjectMembers maximum number of members, at least 1, or -1 for no limit.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxObjectMembers(int maxObjectMembers) {
+        this.maxObjectMembers = checkLimit(maxObjectMembers, "Maximum number of object members");
+        return this;
+    }
+
+    /**
+     * Maximum number of characters a push parser keeps before correcting them: the current item or member of a
+     * root array or object, or the whole document for other roots. Exceeding documents are rejected with
+     * {@link exceptions.ErrorCode#MAX_PUSH_BUFFER} as soon as the limit is reached. 1 MiB characters by default.
+     *
+     * @param maxPushBuffer maximum number of buffered characters, at least 1, or -1 for no limit.
+     * @return this options instance.
+     */
+    public ParserOptions setMaxPushBuffer(int maxPushBuffer) {
+        this.maxPushBuffer = checkLimit(maxPushBuffer, "Maximum push buffer");
+        return this;
+    }
+
+    private static int checkLimit(int limit, String name) {
+        if (limit < 1 && limit != -1) {
+            throw new IllegalArgumentException(name + " should be at least 1, or -1 for no limit");
+        }
+        return limit;
+    }
+
+    public SchemaCache getSchemaCache() {
+        return schemaCache;
+    }
+
+    public boolean isReuseScratchState() {
+        return reuseScratchState;
+    }
+
+    public int getInitialBufferSize() {
+        return initialBufferSize;
+    }
+
+    public int getMaxRetainedBufferSize() {
+        return maxRetainedBufferSize;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public ForkJoinPool getParallelPool() {
+        return parallelPool;
+    }
+
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    public JsonBackend getBackend() {
+        return backend;
+    }
+
+    public boolean isRawPassthrough() {
+        return rawPassthrough;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxInputBytes() {
+        return maxInputBytes;
+    }
+
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    public int getMaxArrayLength() {
+        return maxArrayLength;
+    }
+
+    public int getMaxObjectMembers() {
+        return maxObjectMembers;
+    }
+
+    public int getMaxPushBuffer() {
+        return maxPushBuffer;
+    }
+}
@@ -0,0 +1,90 @@
+package parser;
+
+import exceptions.ErrorCode;
+import exceptions.ValidationError;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of correcting a JSON input without throwing, either the corrected output or the errors found. Engines
+ * stopping at the first violation report a single error.
+ *
+ * @param <T> type of the corrected output.
+ */
+public final class ValidationResult<T> {
+
+    private final T output;
+    private final List<ValidationError> errors;
+
+    private ValidationResult(T output, List<ValidationError> errors) {
+        this.output = output;
+        this.errors = errors;
+    }
+
+    static <T> ValidationResult<T> valid(T output) {
+        return new ValidationResult<>(output, Collections.<ValidationError>emptyList());
+    }
+
+    static <T> ValidationResult<T> invalid(ValidationError error) {
+        return new ValidationResult<>(null, Collections.singletonList(error));
+    }
+
+    static <T> ValidationResult<T> invalid(List<ValidationError> errors) {
+        return new ValidationResult<>(null, Collections.unmodifiableList(errors));
+    }
+
+    /**
+     * @return true if the input was corrected successfully.
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * @return corrected output, null if the input is not valid.
+     */
+    public T getOutput() {
+        return output;
+    }
+
+    /**
+     * @return first error in document order, null if the input is valid.
+     */
+    public ValidationError getError() {
+        return errors.isEmpty() ? null : errors.get(0);
+    }
+
+    /**
+     * @return all errors found in document order, empty if the input is valid.
+     */
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return code of the first error, null if the input is valid.
+     */
+    public ErrorCode getErrorCode() {
+        return isValid() ? null : errors.get(0).getErrorCode();
+    }
+
+    /**
+     * @return JSON Pointer of the first failing value, null if the input is valid.
+     */
+    public String getPath() {
+        return isValid() ? null : errors.get(0).getPath();
+    }
+
+    /**
+     * @return message of the first error formatted on demand, null if the input is valid.
+     */
+    public String getMessage() {
+        return isValid() ? null : errors.get(0).getMessage();
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "ValidationResult{valid, output=" + output + "}" : "ValidationResult{errors=" + errors + "}";
+    }
+}
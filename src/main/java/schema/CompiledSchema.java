@@ -0,0 +1,607 @@
+package schema;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import contants.ValidatorConstants;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import utils.DataTypeConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, pre-parsed representation of a JSON schema object.
+ * Every keyword used by the validators is parsed once into a typed field, so the same instance can be used to
+ * validate any number of inputs from any number of threads.
+ */
+public final class CompiledSchema {
+
+    private static final String MULTIPLE_OF = "multipleOf";
+    private static final String MINIMUM_VALUE = "minimum";
+    private static final String MAXIMUM_VALUE = "maximum";
+    private static final String EXCLUSIVE_MINIMUM = "exclusiveMinimum";
+    private static final String EXCLUSIVE_MAXIMUM = "exclusiveMaximum";
+    private static final String MIN_LENGTH = "minLength";
+    private static final String MAX_LENGTH = "maxLength";
+    private static final String STR_PATTERN = "pattern";
+    private static final String MIN_ITEMS = "minItems";
+    private static final String MAX_ITEMS = "maxItems";
+    private static final String UNIQUE_ITEMS = "uniqueItems";
+    private static final String ADDITIONAL_ITEMS = "additionalItems";
+    private static final String PROPERTIES = "properties";
+    private static final String ADDITIONAL_PROPERTIES = "additionalProperties";
+    private static final String MAX_PROPERTIES = "maxProperties";
+    private static final String MIN_PROPERTIES = "minProperties";
+    private static final String PATTERN_PROPERTIES = "patternProperties";
+    private static final String REQUIRED = "required";
+    private static final String INTEGER_STRING = "integer";
+
+    // Schema which is valid for every input. Ex:- true
+    public static final CompiledSchema ACCEPT_ALL = new CompiledSchema(Boolean.TRUE);
+
+    // Schema which is invalid for every input. Ex:- false
+    public static final CompiledSchema REJECT_ALL = new CompiledSchema(Boolean.FALSE);
+
+    private final JsonObject source;
+    private final Boolean booleanSchema;
+    private final String type;
+    private final DataType dataType;
+    private final boolean empty;
+
+    // numeric keywords
+    private final Double multipleOf;
+    private final Double minimum;
+    private final Double maximum;
+    private final Double exclusiveMinimum;
+    private final Double exclusiveMaximum;
+    private final boolean numericKeywordsValid;
+
+    // string keywords
+    private final int minLength;
+    private final int maxLength;
+    private final Pattern pattern;
+    private final boolean stringKeywordsValid;
+
+    // enum and const keywords
+    private final boolean hasEnum;
+    private final Set<Double> numericEnum;
+    private final Set<String> stringEnum;
+    private final Set<Boolean> booleanEnum;
+    private final boolean hasConst;
+    private final Double numericConst;
+    private final String stringConst;
+    private final Boolean booleanConst;
+
+    // array keywords
+    private final int minItems;
+    private final int maxItems;
+    private final boolean uniqueItems;
+    private final boolean additionalItemsAllowed;
+    private final CompiledSchema additionalItems;
+    private final CompiledSchema items;
+    private final List<CompiledSchema> itemsArray;
+
+    // object keywords
+    private final List<String> required;
+    private final int minProperties;
+    private final int maxProperties;
+    private final boolean hasProperties;
+    private final Set<String> propertyNames;
+    private final Map<String, CompiledSchema> properties;
+    private final Map<Pattern, CompiledSchema> patternProperties;
+    private final boolean hasAdditionalProperties;
+    private final Boolean additionalPropertiesAllowed;
+    private final CompiledSchema additionalProperties;
+
+    /**
+     * Compile a given JSON schema object and all of its sub schemas.
+     *
+     * @param schema JSON schema as an object.
+     * @return compiled schema.
+     * @throws ValidatorException Schema contains an invalid constraint.
+     * @throws ParserException    Exception occurs while parsing a keyword value.
+     */
+    public static CompiledSchema compile(JsonObject schema) throws ValidatorException, ParserException {
+        return new CompiledSchema(schema);
+    }
+
+    private CompiledSchema(Boolean booleanSchema) {
+        this.source = null;
+        this.booleanSchema = booleanSchema;
+        this.type = null;
+        this.dataType = DataType.UNKNOWN;
+        this.empty = true;
+        this.multipleOf = null;
+        this.minimum = null;
+        this.maximum = null;
+        this.exclusiveMinimum = null;
+        this.exclusiveMaximum = null;
+        this.numericKeywordsValid = true;
+        this.minLength = -1;
+        this.maxLength = -1;
+        this.pattern = null;
+        this.stringKeywordsValid = true;
+        this.hasEnum = false;
+        this.numericEnum = Collections.emptySet();
+        this.stringEnum = Collections.emptySet();
+        this.booleanEnum = Collections.emptySet();
+        this.hasConst = false;
+        this.numericConst = null;
+        this.stringConst = null;
+        this.booleanConst = null;
+        this.minItems = -1;
+        this.maxItems = -1;
+        this.uniqueItems = false;
+        this.additionalItemsAllowed = true;
+        this.additionalItems = null;
+        this.items = null;
+        this.itemsArray = null;
+        this.required = Collections.emptyList();
+        this.minProperties = -1;
+        this.maxProperties = -1;
+        this.hasProperties = false;
+        this.propertyNames = Collections.emptySet();
+        this.properties = Collections.emptyMap();
+        this.patternProperties = Collections.emptyMap();
+        this.hasAdditionalProperties = false;
+        this.additionalPropertiesAllowed = null;
+        this.additionalProperties = null;
+    }
+
+    private CompiledSchema(JsonObject schema) throws ValidatorException, ParserException {
+        this.source = schema;
+        this.booleanSchema = null;
+        this.empty = schema.entrySet().isEmpty();
+        if (schema.has(ValidatorConstants.TYPE_KEY)) {
+            this.type = schema.get(ValidatorConstants.TYPE_KEY).toString().replaceAll(ValidatorConstants.REGEX, "");
+        } else {
+            this.type = null;
+        }
+        this.dataType = DataType.fromTypeName(type);
+
+        // numeric and string keywords, a keyword which cannot be read fails only the values validated by them
+        Double[] numericKeywords;
+        boolean numericValid = true;
+        try {
+            numericKeywords = readNumericKeywords(schema);
+        } catch (ParserException | RuntimeException ex) {
+            numericKeywords = new Double[5];
+            numericValid = false;
+        }
+        this.multipleOf = numericKeywords[0];
+        this.minimum = numericKeywords[1];
+        this.maximum = numericKeywords[2];
+        this.exclusiveMinimum = numericKeywords[3];
+        this.exclusiveMaximum = numericKeywords[4];
+        this.numericKeywordsValid = numericValid;
+
+        int minLengthValue = -1;
+        int maxLengthValue = -1;
+        Pattern patternValue = null;
+        boolean stringValid = true;
+        try {
+            minLengthValue = readInt(schema, MIN_LENGTH);
+            maxLengthValue = readInt(schema, MAX_LENGTH);
+            patternValue = readPattern(schema);
+        } catch (ParserException | RuntimeException ex) {
+            stringValid = false;
+        }
+        this.minLength = minLengthValue;
+        this.maxLength = maxLengthValue;
+        this.pattern = patternValue;
+        this.stringKeywordsValid = stringValid;
+
+        // enum keyword, split by the type of the elements so lookups do not create JsonPrimitives
+        Set<Double> numbers = new HashSet<>();
+        Set<String> strings = new HashSet<>();
+        Set<Boolean> booleans = new HashSet<>();
+        boolean enumPresent = false;
+        if (schema.has(ValidatorConstants.ENUM)) {
+            if (!schema.get(ValidatorConstants.ENUM).isJsonArray()) {
+                throw new ValidatorException("Invalid enum constraint in the schema");
+            }
+            JsonArray enumElements = schema.getAsJsonArray(ValidatorConstants.ENUM);
+            enumPresent = enumElements.size() > 0;
+            for (JsonElement element : enumElements) {
+                if (element.isJsonPrimitive()) {
+                    JsonPrimitive primitive = element.getAsJsonPrimitive();
+                    if (primitive.isNumber()) {
+                        numbers.add(normalize(primitive.getAsDouble()));
+                    } else if (primitive.isString()) {
+                        strings.add(primitive.getAsString());
+                    } else if (primitive.isBoolean()) {
+                        booleans.add(primitive.getAsBoolean());
+                    }
+                }
+            }
+        }
+        this.hasEnum = enumPresent;
+        this.numericEnum = Collections.unmodifiableSet(numbers);
+        this.stringEnum = Collections.unmodifiableSet(strings);
+        this.booleanEnum = Collections.unmodifiableSet(booleans);
+
+        // const keyword, kept in every form a validator may compare it with
+        this.hasConst = schema.has(ValidatorConstants.CONST);
+        JsonPrimitive constValue = null;
+        if (hasConst && schema.get(ValidatorConstants.CONST).isJsonPrimitive()) {
+            constValue = schema.getAsJsonPrimitive(ValidatorConstants.CONST);
+        }
+        this.stringConst = constValue == null ? null : constValue.getAsString();
+        this.booleanConst = constValue == null ? null : constValue.getAsBoolean();
+        Double constNumber = null;
+        if (constValue != null) {
+            try {
+                constNumber = constValue.getAsDouble();
+            } catch (NumberFormatException ignore) {
+                // const is not numeric, numeric inputs will never be equal to it
+            }
+        }
+        this.numericConst = constNumber;
+
+        // array keywords
+        String uniqueItemsString = readString(schema, UNIQUE_ITEMS);
+        this.uniqueItems = uniqueItemsString != null && DataTypeConverter.convertToBoolean(uniqueItemsString);
+        this.minItems = readCount(schema, MIN_ITEMS);
+        this.maxItems = readCount(schema, MAX_ITEMS);
+        boolean allowAdditionalItems = true;
+        CompiledSchema additionalItemsSchema = null;
+        if (schema.has(ADDITIONAL_ITEMS)) {
+            JsonElement tempElement = schema.get(ADDITIONAL_ITEMS);
+            if (tempElement.isJsonPrimitive() && !tempElement.getAsBoolean()) {
+                allowAdditionalItems = false;
+            } else if (tempElement.isJsonObject() && !tempElement.getAsJsonObject().entrySet().isEmpty()) {
+                // wrapping the additionalItems schema inside a json array schema, validated as a separate array
+                JsonObject wrapper = new JsonObject();
+                wrapper.addProperty(ValidatorConstants.TYPE_KEY, "array");
+                wrapper.add(ValidatorConstants.ITEM_KEY, tempElement);
+                additionalItemsSchema = new CompiledSchema(wrapper);
+            }
+        }
+        this.additionalItemsAllowed = allowAdditionalItems;
+        this.additionalItems = additionalItemsSchema;
+        CompiledSchema itemsObject = null;
+        List<CompiledSchema> itemsList = null;
+        if (schema.has(ValidatorConstants.ITEM_KEY)) {
+            JsonElement itemsElement = schema.get(ValidatorConstants.ITEM_KEY);
+            if (itemsElement.isJsonArray()) {
+                itemsList = new ArrayList<>();
+                for (JsonElement element : itemsElement.getAsJsonArray()) {
+                    if (!element.isJsonObject()) {
+                        throw new ValidatorException("Array items should be JSON schema objects");
+                    }
+                    itemsList.add(new CompiledSchema(element.getAsJsonObject()));
+                }
+                itemsList = Collections.unmodifiableList(itemsList);
+            } else if (itemsElement.isJsonObject()) {
+                itemsObject = new CompiledSchema(itemsElement.getAsJsonObject());
+            }
+        }
+        this.items = itemsObject;
+        this.itemsArray = itemsList;
+
+        // object keywords
+        List<String> requiredList = new ArrayList<>();
+        if (schema.has(REQUIRED) && schema.get(REQUIRED).isJsonArray()) {
+            for (JsonElement element : schema.getAsJsonArray(REQUIRED)) {
+                requiredList.add(element.getAsString());
+            }
+        }
+        this.required = Collections.unmodifiableList(requiredList);
+        this.minProperties = readInt(schema, MIN_PROPERTIES);
+        this.maxProperties = readInt(schema, MAX_PROPERTIES);
+        this.hasProperties = schema.has(PROPERTIES);
+        Set<String> names = new LinkedHashSet<>();
+        Map<String, CompiledSchema> propertySchemas = new LinkedHashMap<>();
+        if (hasProperties) {
+            if (!schema.get(PROPERTIES).isJsonObject()) {
+                throw new ValidatorException("Invalid properties constraint in the schema");
+            }
+            for (Map.Entry<String, JsonElement> entry : schema.getAsJsonObject(PROPERTIES).entrySet()) {
+                names.add(entry.getKey());
+                if (entry.getValue().isJsonObject()) {
+                    propertySchemas.put(entry.getKey(), new CompiledSchema(entry.getValue().getAsJsonObject()));
+                }
+            }
+        }
+        this.propertyNames = Collections.unmodifiableSet(names);
+        this.properties = Collections.unmodifiableMap(propertySchemas);
+        Map<Pattern, CompiledSchema> patternSchemas = new LinkedHashMap<>();
+        if (schema.has(PATTERN_PROPERTIES)) {
+            for (Map.Entry<String, JsonElement> entry : schema.getAsJsonObject(PATTERN_PROPERTIES).entrySet()) {
+                patternSchemas.put(Pattern.compile(entry.getKey()),
+                        new CompiledSchema(entry.getValue().getAsJsonObject()));
+            }
+        }
+        this.patternProperties = Collections.unmodifiableMap(patternSchemas);
+        this.hasAdditionalProperties = schema.has(ADDITIONAL_PROPERTIES);
+        Boolean allowAdditionalProperties = null;
+        CompiledSchema additionalPropertiesSchema = null;
+        if (hasAdditionalProperties) {
+            JsonElement tempElement = schema.get(ADDITIONAL_PROPERTIES);
+            if (tempElement.isJsonPrimitive()) {
+                allowAdditionalProperties = DataTypeConverter.convertToBoolean(tempElement.getAsString());
+            } else if (tempElement.isJsonObject()) {
+                additionalPropertiesSchema = new CompiledSchema(tempElement.getAsJsonObject());
+            }
+        }
+        this.additionalPropertiesAllowed = allowAdditionalProperties;
+        this.additionalProperties = additionalPropertiesSchema;
+    }
+
+    /**
+     * Read a keyword as a string without enclosing quotes.
+     *
+     * @param schema JSON schema.
+     * @param key    keyword.
+     * @return keyword value, null if the keyword is absent or empty.
+     */
+    private static String readString(JsonObject schema, String key) {
+        if (schema.has(key)) {
+            String value = DataTypeConverter.removeEnclosingQuotes(schema.get(key).getAsString());
+            if (!value.isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static Double[] readNumericKeywords(JsonObject schema) throws ParserException {
+        return new Double[]{readDouble(schema, MULTIPLE_OF), readDouble(schema, MINIMUM_VALUE),
+                readDouble(schema, MAXIMUM_VALUE), readDouble(schema, EXCLUSIVE_MINIMUM),
+                readDouble(schema, EXCLUSIVE_MAXIMUM)};
+    }
+
+    private static Pattern readPattern(JsonObject schema) {
+        String patternString = readString(schema, STR_PATTERN);
+        return patternString == null ? null : Pattern.compile(patternString);
+    }
+
+    private static Double readDouble(JsonObject schema, String key) throws ParserException {
+        String value = readString(schema, key);
+        return value == null ? null : DataTypeConverter.convertToDouble(value);
+    }
+
+    private static int readInt(JsonObject schema, String key) throws ParserException {
+        String value = readString(schema, key);
+        return value == null ? -1 : DataTypeConverter.convertToInt(value);
+    }
+
+    /**
+     * Read a keyword which must be a non negative integer.
+     *
+     * @param schema JSON schema.
+     * @param key    keyword.
+     * @return keyword value, -1 if the keyword is absent or empty.
+     * @throws ValidatorException keyword value is negative.
+     * @throws ParserException    keyword value is not an integer.
+     */
+    private static int readCount(JsonObject schema, String key) throws ValidatorException, ParserException {
+        int value = readInt(schema, key);
+        if (value < 0 && readString(schema, key) != null) {
+            throw new ValidatorException("Invalid " + key + " constraint in the schema");
+        }
+        return value;
+    }
+
+    /**
+     * Map negative zero to zero, so set lookups treat them as equal like JsonPrimitive does.
+     *
+     * @param value double value.
+     * @return normalized value.
+     */
+    public static Double normalize(double value) {
+        return value == 0.0d ? 0.0d : value;
+    }
+
+    /**
+     * Throw the error of a numeric keyword which could not be read when the schema was compiled. The keyword is read
+     * again, so every call throws a new exception.
+     *
+     * @throws ParserException a numeric keyword value is not a number.
+     */
+    public void checkNumericKeywords() throws ParserException {
+        if (!numericKeywordsValid) {
+            try {
+                readNumericKeywords(source);
+            } catch (RuntimeException ex) {
+                throw new ParserException("Invalid numeric constraint in the schema", ex);
+            }
+        }
+    }
+
+    /**
+     * Throw the error of a string keyword which could not be read when the schema was compiled. The keyword is read
+     * again, so every call throws a new exception.
+     *
+     * @throws ParserException a length is not an integer or the pattern is not a regular expression.
+     */
+    public void checkStringKeywords() throws ParserException {
+        if (!stringKeywordsValid) {
+            try {
+                readInt(source, MIN_LENGTH);
+                readInt(source, MAX_LENGTH);
+                readPattern(source);
+            } catch (RuntimeException ex) {
+                throw new ParserException("Invalid string constraint in the schema", ex);
+            }
+        }
+    }
+
+    public boolean isAcceptAll() {
+        return Boolean.TRUE.equals(booleanSchema);
+    }
+
+    public boolean isRejectAll() {
+        return Boolean.FALSE.equals(booleanSchema);
+    }
+
+    public JsonObject getSource() {
+        return source;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public boolean isInteger() {
+        return INTEGER_STRING.equals(type);
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public Double getMultipleOf() {
+        return multipleOf;
+    }
+
+    public Double getMinimum() {
+        return minimum;
+    }
+
+    public Double getMaximum() {
+        return maximum;
+    }
+
+    public Double getExclusiveMinimum() {
+        return exclusiveMinimum;
+    }
+
+    public Double getExclusiveMaximum() {
+        return exclusiveMaximum;
+    }
+
+    public int getMinLength() {
+        return minLength;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public boolean hasEnum() {
+        return hasEnum;
+    }
+
+    public Set<Double> getNumericEnum() {
+        return numericEnum;
+    }
+
+    public Set<String> getStringEnum() {
+        return stringEnum;
+    }
+
+    public Set<Boolean> getBooleanEnum() {
+        return booleanEnum;
+    }
+
+    public boolean hasConst() {
+        return hasConst;
+    }
+
+    public Double getNumericConst() {
+        return numericConst;
+    }
+
+    public String getStringConst() {
+        return stringConst;
+    }
+
+    public Boolean getBooleanConst() {
+        return booleanConst;
+    }
+
+    public int getMinItems() {
+        return minItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public boolean isUniqueItems() {
+        return uniqueItems;
+    }
+
+    public boolean isAdditionalItemsAllowed() {
+        return additionalItemsAllowed;
+    }
+
+    public CompiledSchema getAdditionalItems() {
+        return additionalItems;
+    }
+
+    public CompiledSchema getItems() {
+        return items;
+    }
+
+    public List<CompiledSchema> getItemsArray() {
+        return itemsArray;
+    }
+
+    public List<String> getRequired() {
+        return required;
+    }
+
+    public int getMinProperties() {
+        return minProperties;
+    }
+
+    public int getMaxProperties() {
+        return maxProperties;
+    }
+
+    public boolean hasProperties() {
+        return hasProperties;
+    }
+
+    public Set<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    public Map<String, CompiledSchema> getProperties() {
+        return properties;
+    }
+
+    public Map<Pattern, CompiledSchema> getPatternProperties() {
+        return patternProperties;
+    }
+
+    public boolean hasAdditionalProperties() {
+        return hasAdditionalProperties;
+    }
+
+    public Boolean getAdditionalPropertiesAllowed() {
+        return additionalPropertiesAllowed;
+    }
+
+    public CompiledSchema getAdditionalProperties() {
+        return additionalProperties;
+    }
+
+    @Override
+    public String toString() {
+        if (booleanSchema != null) {
+            return booleanSchema.toString();
+        }
+        return source.toString();
+    }
+}
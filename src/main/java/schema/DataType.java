@@ -0,0 +1,42 @@
+package schema;
+
+import contants.ValidatorConstants;
+
+/**
+ * Data types a JSON schema node can declare, resolved once when the schema is compiled.
+ */
+public enum DataType {
+
+    BOOLEAN,
+    STRING,
+    NUMERIC,
+    ARRAY,
+    OBJECT,
+    NULL,
+    UNKNOWN;
+
+    /**
+     * Resolve the data type for a given "type" keyword value.
+     *
+     * @param type value of the type keyword without enclosing quotes.
+     * @return matching data type, UNKNOWN if the type is not supported.
+     */
+    public static DataType fromTypeName(String type) {
+        if (type == null) {
+            return UNKNOWN;
+        } else if (ValidatorConstants.BOOLEAN_KEYS.contains(type)) {
+            return BOOLEAN;
+        } else if (ValidatorConstants.NOMINAL_KEYS.contains(type)) {
+            return STRING;
+        } else if (ValidatorConstants.NUMERIC_KEYS.contains(type)) {
+            return NUMERIC;
+        } else if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
+            return ARRAY;
+        } else if (ValidatorConstants.NULL_KEYS.contains(type)) {
+            return NULL;
+        } else if (ValidatorConstants.OBJECT_KEYS.contains(type)) {
+            return OBJECT;
+        }
+        return UNKNOWN;
+    }
+}
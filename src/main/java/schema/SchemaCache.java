@@ -0,0 +1,187 @@
+package schema;
+
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Size bounded, thread safe cache of compiled schemas keyed by the schema string.
+ * Lookups do not take a lock. When the number of entries or the total weight goes above its limit, the least
+ * recently used entries are evicted.
+ */
+public class SchemaCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 32L * 1024 * 1024;
+
+    /**
+     * Compiles a schema string when it is not found in the cache.
+     */
+    public interface Loader {
+        CompiledSchema load(String schema) throws ValidatorException, ParserException;
+    }
+
+    /**
+     * Cache entry with its weight and the time it was last used.
+     */
+    private static final class Entry {
+        private final CompiledSchema schema;
+        private final long weight;
+        private volatile long lastAccess;
+
+        private Entry(CompiledSchema schema, long weight, long lastAccess) {
+            this.schema = schema;
+            this.weight = weight;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final ToLongFunction<String> weigher;
+
+    // logical clock used to order entries by their last access
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Create a cache with the default limits, weighing each schema by its length.
+     */
+    public SchemaCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Create a cache weighing each schema by its length.
+     *
+     * @param maximumSize   maximum number of schemas, 0 disables caching.
+     * @param maximumWeight maximum total length of the cached schema strings.
+     */
+    public SchemaCache(int maximumSize, long maximumWeight) {
+        this(maximumSize, maximumWeight, String::length);
+    }
+
+    /**
+     * Create a cache with a custom weigher.
+     *
+     * @param maximumSize   maximum number of schemas, 0 disables caching.
+     * @param maximumWeight maximum total weight of the cached schemas.
+     * @param weigher       computes the weight of a schema string.
+     */
+    public SchemaCache(int maximumSize, long maximumWeight, ToLongFunction<String> weigher) {
+        if (maximumSize < 0 || maximumWeight < 0 || weigher == null) {
+            throw new IllegalArgumentException("Invalid schema cache limits");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Get the compiled schema for a given schema string, compiling it with the loader if it is not cached.
+     *
+     * @param schema schema string.
+     * @param loader compiles the schema on a cache miss.
+     * @return compiled schema.
+     * @throws ValidatorException Schema is invalid, invalid schemas are not cached.
+     * @throws ParserException    Exception occurs while parsing a keyword value.
+     */
+    public CompiledSchema get(String schema, Loader loader) throws ValidatorException, ParserException {
+        Entry entry = entries.get(schema);
+        if (entry != null) {
+            entry.lastAccess = clock.incrementAndGet();
+            hitCount.incrementAndGet();
+            return entry.schema;
+        }
+        missCount.incrementAndGet();
+        CompiledSchema compiled = loader.load(schema);
+        long weight = weigher.applyAsLong(schema);
+        if (maximumSize == 0 || weight > maximumWeight) {
+            return compiled;
+        }
+        Entry existing = entries.putIfAbsent(schema, new Entry(compiled, weight, clock.incrementAndGet()));
+        if (existing != null) {
+            // another thread compiled the same schema first
+            return existing.schema;
+        }
+        if (totalWeight.addAndGet(weight) > maximumWeight || entries.size() > maximumSize) {
+            evict();
+        }
+        return compiled;
+    }
+
+    /**
+     * Remove least recently used entries until the cache is within its limits.
+     */
+    private synchronized void evict() {
+        while (totalWeight.get() > maximumWeight || entries.size() > maximumSize) {
+            Map.Entry<String, Entry> eldest = null;
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                totalWeight.addAndGet(-eldest.getValue().weight);
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Remove all entries. Statistics are not reset.
+     */
+    public synchronized void clear() {
+        for (String key : entries.keySet()) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                totalWeight.addAndGet(-removed.weight);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getWeight() {
+        return totalWeight.get();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaCache{size=" + size() + ", weight=" + getWeight() + ", hits=" + getHitCount() + ", misses=" +
+                getMissCount() + ", evictions=" + getEvictionCount() + "}";
+    }
+}
@@ -1,6 +1,7 @@
 package utils;
 
 import contants.ValidatorConstants;
+import exceptions.ErrorCode;
 import exceptions.ParserException;
 
 /**
@@ -12,39 +13,55 @@ public class DataTypeConverter {
     private DataTypeConverter() {
     }
 
+    /**
+     * Remove a leading and a trailing double quote from the given string, if present.
+     * Equivalent to replacing {@link ValidatorConstants#REGEX} without compiling a regular expression on every call.
+     *
+     * @param value input string.
+     * @return string without enclosing quotes.
+     */
+    public static String removeEnclosingQuotes(String value) {
+        int start = value.startsWith("\"") ? 1 : 0;
+        int end = value.length();
+        if (end > start && value.charAt(end - 1) == '"') {
+            end--;
+        }
+        return value.substring(start, end);
+    }
+
     public static Boolean convertToBoolean(String value) throws ParserException {
         if (value != null && !value.isEmpty()) {
-            value = value.replaceAll(ValidatorConstants.QUOTE_REPLACE_REGEX, "");
+            value = removeEnclosingQuotes(value);
             if (value.equals("true") || value.equals("false")) {
                 return Boolean.parseBoolean(value);
             }
-            throw new ParserException("Cannot convert the sting : " + value + " to boolean");
+            throw new ParserException(ErrorCode.NOT_A_BOOLEAN, value);
         }
-        throw new ParserException("Cannot convert an empty string to boolean");
+        throw new ParserException(ErrorCode.EMPTY_BOOLEAN);
     }
 
     public static int convertToInt(String value) throws ParserException {
         if (value != null && !value.isEmpty()) {
-            value = value.replaceAll(ValidatorConstants.QUOTE_REPLACE_REGEX, "");
+            value = removeEnclosingQuotes(value);
             try {
                 return Integer.parseInt(value.trim());
             } catch (NumberFormatException nfe) {
-                throw new ParserException("NumberFormatException: " + nfe.getMessage());
+                throw new ParserException(ErrorCode.NOT_AN_INTEGER, nfe.getMessage());
             }
         }
-        throw new ParserException("Empty value cannot convert to int");
+        throw new ParserException(ErrorCode.EMPTY_INTEGER);
     }
 
     public static double convertToDouble(String value) throws ParserException {
         if (value != null && !value.isEmpty()) {
-            value = value.replaceAll(ValidatorConstants.QUOTE_REPLACE_REGEX, "");
+            value = removeEnclosingQuotes(value);
             try {
                 return Double.parseDouble(value.trim());
             } catch (NumberFormatException nfe) {
-                throw new ParserException("NumberFormatException: " + nfe.getMessage());
+                throw new ParserException(ErrorCode.NOT_A_DOUBLE, nfe.getMessage());
             }
         }
-        throw new ParserException("Empty value cannot convert to double");
+        throw new ParserException(ErrorCode.EMPTY_DOUBLE);
     }
 }
 
@@ -15,6 +15,9 @@ public class GSONDataTypeConverter {
     private GSONDataTypeConverter() {
     }
 
+    // JSON parser instance, stateless and safe to share
+    private static final JsonParser parser = new JsonParser();
+
     /**
      * Given a string contains a json array, this method will return the Map.
      * This is where the single element array correction happens.
@@ -23,12 +26,11 @@ public class GSONDataTypeConverter {
      * @return map entry of json array.
      */
     public static Map.Entry<String, JsonElement> getMapFromString(String input) {
-        JsonParser parser = new JsonParser();
         JsonObject temp = new JsonObject();
         JsonElement inputElement = parser.parse(input);
         JsonArray arrayObject = null;
         if (inputElement.isJsonArray()) {
-            arrayObject = (JsonArray) parser.parse(input);
+            arrayObject = inputElement.getAsJsonArray();
         } else if (inputElement.isJsonPrimitive() || inputElement.isJsonObject()) {
             arrayObject = new JsonArray();
             arrayObject.add(inputElement);
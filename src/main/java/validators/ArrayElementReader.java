@@ -0,0 +1,163 @@
+package validators;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This class reads the items of an array one at a time and corrects each item according to the "items" of an array
+ * schema, so only one item is kept in memory. "maxItems" is checked when the item exceeding it is read and
+ * "minItems" once the end of the array is reached. With "uniqueItems" every item read is kept to find duplicates.
+ * A value which is not an array is read as an array of one element, as the array validator wraps it.
+ * A failing item is consumed, so reading may continue with the next item. Items read by the caller may be given
+ * to {@link #correct(JsonElement)} instead, followed by {@link #end()} at the end of the array.
+ */
+public final class ArrayElementReader {
+
+    // reads items using the settings of the reader
+    private static final TypeAdapter<JsonElement> elementAdapter = new Gson().getAdapter(JsonElement.class);
+
+    private final JsonReader in;
+    private final CompiledSchema schema;
+    private final ValidationContext context;
+    private final Set<JsonElement> items;
+    private final ItemSchemas itemSchemas;
+    private boolean started;
+    private boolean wrapped;
+    private boolean ended;
+    private int count;
+
+    /**
+     * Create a reader of the array starting at the current position of a JsonReader.
+     *
+     * @param in      reader positioned before the array.
+     * @param schema  compiled array schema.
+     * @param context validation context used for the items, stopping at the first error.
+     * @throws ValidatorException The schema of the items has no type.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public ArrayElementReader(JsonReader in, CompiledSchema schema, ValidationContext context)
+            throws ValidatorException, ParserException {
+        this.in = in;
+        this.schema = schema;
+        this.context = context;
+        this.items = schema.isUniqueItems() ? new HashSet<JsonElement>() : null;
+        this.itemSchemas = new ItemSchemas(schema, context);
+    }
+
+    /**
+     * Create a reader correcting the items read by the caller.
+     *
+     * @param schema  compiled array schema.
+     * @param context validation context used for the items, stopping at the first error.
+     * @throws ValidatorException The schema of the items has no type.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public ArrayElementReader(CompiledSchema schema, ValidationContext context) throws ValidatorException,
+            ParserException {
+        this(null, schema, context);
+    }
+
+    /**
+     * Check whether another item follows. Reaching the end of the array checks the minimum number of items.
+     *
+     * @return true if another item follows.
+     * @throws IOException        Exception occurs while reading.
+     * @throws ValidatorException The array has less items than the minimum.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public boolean hasNext() throws IOException, ValidatorException, ParserException {
+        if (!started) {
+            wrapped = in.peek() != JsonToken.BEGIN_ARRAY;
+            if (!wrapped) {
+                in.beginArray();
+            }
+            started = true;
+        }
+        if (ended) {
+            return false;
+        }
+        if (wrapped ? count == 0 : in.hasNext()) {
+            return true;
+        }
+        ended = true;
+        if (!wrapped) {
+            in.endArray();
+        }
+        end();
+        return false;
+    }
+
+    /**
+     * Read and correct the next item.
+     *
+     * @return corrected item.
+     * @throws IOException        Exception occurs while reading.
+     * @throws ValidatorException Exception occurs in validation process, with the index of the item in its path.
+     * @throws ParserException    Exception occurs in data type parsing, with the index of the item in its path.
+     */
+    public JsonElement next() throws IOException, ValidatorException, ParserException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return correct(elementAdapter.read(in));
+    }
+
+    /**
+     * Correct the next item, read by the caller.
+     *
+     * @param item next item of the array.
+     * @return corrected item.
+     * @throws ValidatorException Exception occurs in validation process, with the index of the item in its path.
+     * @throws ParserException    Exception occurs in data type parsing, with the index of the item in its path.
+     */
+    public JsonElement correct(JsonElement item) throws ValidatorException, ParserException {
+        int index = count++;
+        if (schema.getMaxItems() != -1 && count > schema.getMaxItems()) {
+            context.report(new ValidatorException(ErrorCode.MAX_ITEMS), null);
+        }
+        if (items != null && !items.add(item)) {
+            context.report(new ValidatorException(ErrorCode.UNIQUE_ITEMS), null);
+        }
+        CompiledSchema itemSchema = itemSchemas.get(index);
+        if (itemSchema == null) {
+            return item;
+        }
+        try {
+            return ElementValidator.validate(itemSchema, item, false, context);
+        } catch (ValidatorException | ParserException ex) {
+            ex.prependPath(index);
+            throw ex;
+        }
+    }
+
+    /**
+     * Check the minimum number of items once the end of the array is reached.
+     *
+     * @throws ValidatorException The array has less items than the minimum.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public void end() throws ValidatorException, ParserException {
+        if (schema.getMinItems() != -1 && count < schema.getMinItems()) {
+            context.report(new ValidatorException(ErrorCode.MIN_ITEMS), null);
+        }
+    }
+
+    /**
+     * @return number of items read so far.
+     */
+    public int getCount() {
+        return count;
+    }
+}
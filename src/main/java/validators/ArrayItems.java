@@ -0,0 +1,78 @@
+package validators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+/**
+ * Items of an array being validated. Corrected items are written to the input array, to a copy of it created on the
+ * first change when the context is copy on write, or not written at all when the context is read only.
+ * A single element is wrapped inside an array, except in read only mode where it is seen as an array of one element.
+ */
+final class ArrayItems {
+
+    private final JsonElement source;
+    private final boolean readOnly;
+    // array receiving the corrected items, null until the first change in copy on write mode
+    private JsonArray target;
+
+    ArrayItems(JsonElement input, ValidationContext context) {
+        this.source = input;
+        this.readOnly = context.isReadOnly();
+        if (!input.isJsonArray()) {
+            if (!readOnly) {
+                target = new JsonArray();
+                target.add(input);
+            }
+        } else if (!readOnly && !context.isCopyOnWrite()) {
+            target = input.getAsJsonArray();
+        }
+    }
+
+    int size() {
+        if (target != null) {
+            return target.size();
+        }
+        return source.isJsonArray() ? source.getAsJsonArray().size() : 1;
+    }
+
+    JsonElement get(int index) {
+        if (target != null) {
+            return target.get(index);
+        }
+        return source.isJsonArray() ? source.getAsJsonArray().get(index) : source;
+    }
+
+    /**
+     * Replace an item with its corrected value.
+     *
+     * @param index index of the item.
+     * @param value corrected value.
+     */
+    void set(int index, JsonElement value) {
+        if (readOnly) {
+            return;
+        }
+        if (target == null) {
+            JsonArray array = source.getAsJsonArray();
+            if (array.get(index) == value) {
+                return;
+            }
+            // first change, the input array is shared and copied
+            target = new JsonArray(array.size());
+            target.addAll(array);
+        }
+        target.set(index, value);
+    }
+
+    /**
+     * Corrected array.
+     *
+     * @return the input array, its copy, or null for a single element in read only mode.
+     */
+    JsonArray getResult() {
+        if (target != null) {
+            return target;
+        }
+        return source.isJsonArray() ? source.getAsJsonArray() : null;
+    }
+}
@@ -1,15 +1,17 @@
 package validators;
 
-import com.google.gson.*;
-import contants.ValidatorConstants;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import exceptions.ErrorCode;
 import exceptions.ParserException;
 import exceptions.ValidatorException;
-import utils.DataTypeConverter;
-import utils.GSONDataTypeConverter;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -25,12 +27,6 @@ public class ArrayValidator {
     // Logger instance
     private static Log logger = LogFactory.getLog(ArrayValidator.class.getName());
 
-    private static final String MIN_ITEMS = "minItems";
-    private static final String MAX_ITEMS = "maxItems";
-    private static final String ITEMS = "items";
-    private static final String UNIQUE_ITEMS = "uniqueItems";
-    private static final String ADDITIONAL_ITEMS = "additionalItems";
-
     /**
      * This method will validates an input array according to a given schema.
      *
@@ -42,160 +38,110 @@ public class ArrayValidator {
      */
     public static JsonArray validateArray(Map.Entry<String, JsonElement> input, JsonObject
             schema) throws ValidatorException, ParserException {
-        JsonParser parser;
-        int minItems = -1;
-        int maxItems = -1;
-        boolean uniqueItems = false;
-        boolean notAllowAdditional = false;
-        // parsing the properties related to arrays from the schema, if they exists.
-        if (schema.has(UNIQUE_ITEMS)) {
-            String uniqueItemsString = schema.get(UNIQUE_ITEMS).getAsString().replaceAll(ValidatorConstants.REGEX, "");
-            if (!uniqueItemsString.isEmpty()) {
-                uniqueItems = DataTypeConverter.convertToBoolean(uniqueItemsString);
-            }
-        }
-        if (schema.has(MIN_ITEMS)) {
-            String minItemsString = schema.get(MIN_ITEMS).getAsString().replaceAll(ValidatorConstants.REGEX, "");
-            if (!minItemsString.isEmpty()) {
-                minItems = DataTypeConverter.convertToInt(minItemsString);
-                if (minItems < 0) {
-                    throw new ValidatorException("Invalid minItems constraint in the schema");
-                }
-            }
-        }
-        if (schema.has(MAX_ITEMS)) {
-            String maxItemsString = schema.get(MAX_ITEMS).getAsString().replaceAll(ValidatorConstants.REGEX, "");
-            if (!maxItemsString.isEmpty()) {
-                maxItems = DataTypeConverter.convertToInt(maxItemsString);
-                if (maxItems < 0) {
-                    throw new ValidatorException("Invalid maxItems constraint in the schema");
-                }
-            }
-        }
+        return validateArray(input.getValue(), CompiledSchema.compile(schema));
+    }
 
-        // parsing additionalItems
-        // We are wrapping the additionalItems schema inside a json array schema object and calling this same method
-        // again
-        JsonObject additionalItemsSchema = null;
-        if (schema.has(ADDITIONAL_ITEMS)) {
-            JsonElement tempElement = schema.get(ADDITIONAL_ITEMS);
-            if (tempElement.isJsonPrimitive() && !tempElement.getAsBoolean()) {
-                notAllowAdditional = true;
-            } else if (tempElement.isJsonObject() && !tempElement.getAsJsonObject().entrySet().isEmpty()) {
-                String jsonString = "{\"type\": \"array\",\"items\": " + schema.get(ADDITIONAL_ITEMS).toString() + "}";
-                parser = new JsonParser();
-                additionalItemsSchema = parser.parse(jsonString).getAsJsonObject();
-            }
-        }
+    /**
+     * This method will validates an input element according to a given compiled array schema.
+     *
+     * @param input  input element, wrapped inside an array if it is not an array.
+     * @param schema compiled JSON schema.
+     * @return Validated JSON array.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static JsonArray validateArray(JsonElement input, CompiledSchema schema) throws ValidatorException,
+            ParserException {
+        return validateArray(input, schema, new ValidationContext());
+    }
 
+    /**
+     * This method will validates an input element according to a given compiled array schema, reusing the scratch
+     * collections of the given context.
+     *
+     * @param input   input element, wrapped inside an array if it is not an array.
+     * @param schema  compiled JSON schema.
+     * @param context validation context of the current thread.
+     * @return Validated JSON array. In read only mode the input array, or null if the input is a single element.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static JsonArray validateArray(JsonElement input, CompiledSchema schema, ValidationContext context)
+            throws ValidatorException, ParserException {
         // Convert the input to an array. If possible, do the single element array correction. Ex 45 -> [45]
-        // else throw an error
-        JsonArray inputArray;
-        if (input.getValue().isJsonArray()) {
-            inputArray = input.getValue().getAsJsonArray();
-        } else {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Structural corrections : Wrapping " + input.getValue().toString() + " inside an array");
-            }
-            inputArray = singleElementArrayCorrection(input.getValue());
-            if (logger.isDebugEnabled()) {
-                logger.debug("Structural correction converting an");
-            }
+        if (!input.isJsonArray() && !context.isReadOnly() && logger.isDebugEnabled()) {
+            logger.debug("Structural corrections : Wrapping " + input.toString() + " inside an array");
         }
+        ArrayItems items = new ArrayItems(input, context);
 
         // Structural validations
-        doStructuralValidations(inputArray, minItems, maxItems, uniqueItems);
+        doStructuralValidations(items, schema.getMinItems(), schema.getMaxItems(), schema.isUniqueItems(), context);
 
         // processing the items property in JSON array.
-        if (schema.has(ITEMS)) {
-            // Items must be either a valid JSON Schema or an array of valid JSON Schemas.
-            if (schema.get(ITEMS).isJsonArray()) {
-                // Items - valid JSON array.
-                JsonArray schemaArray = schema.get(ITEMS).getAsJsonArray();
-                processSchemaWithItemsArray(inputArray, schemaArray, additionalItemsSchema, notAllowAdditional);
-                // take all instances from json array and iteratively validate them.
-            } else if (schema.get(ITEMS).isJsonObject()) {
-                // Item is a JSON object
-                JsonObject schemaObject = schema.get(ITEMS).getAsJsonObject();
-                processSchemaWithOneItem(inputArray, schemaObject);
-            }
-        }
-        return inputArray;
+        processItems(items, 0, schema, context);
+        return items.getResult();
     }
 
     /**
-     * JSON structure correction. Convert single elements to arrays.
+     * Validate the items of an array starting from a given index, according to the items keyword of a schema.
+     * Items must be either a valid JSON Schema or an array of valid JSON Schemas.
      *
-     * @param element JsonElement payload.
-     * @return Json array.
+     * @param items      input data as json array.
+     * @param offset     index of the first item to validate.
+     * @param schema     compiled JSON schema containing the items keyword.
+     * @param context    validation context of the current thread.
+     * @throws ValidatorException validation exception occurs.
+     * @throws ParserException    parsing exception occurs.
      */
-    private static JsonArray singleElementArrayCorrection(JsonElement element) {
-        JsonArray array = new JsonArray();
-        array.add(element);
-        return array;
+    private static void processItems(ArrayItems items, int offset, CompiledSchema schema,
+                                     ValidationContext context) throws ValidatorException, ParserException {
+        if (schema.getItemsArray() != null) {
+            processSchemaWithItemsArray(items, offset, schema.getItemsArray(), schema.getAdditionalItems(),
+                    !schema.isAdditionalItemsAllowed(), context);
+        } else if (schema.getItems() != null) {
+            processSchemaWithOneItem(items, offset, schema.getItems(), context);
+        }
     }
 
     /**
      * Validate JSON array when both items and schema are arrays.
      * Ex:- {"type":"array", "items":[{"type": "boolean"},{"type": "numeric"}]}
      *
-     * @param inputArray  input data as json array.
-     * @param schemaArray inout schema as json array.
+     * @param items                 input data as json array.
+     * @param offset                index of the item matching the first schema.
+     * @param schemaArray           compiled schemas of the items.
+     * @param additionalItemsSchema compiled schema for the items after the schema array, may be null.
+     * @param notAllowAdditional    additional items are not allowed.
+     * @param context               validation context of the current thread.
      * @throws ValidatorException validation exception occurs.
      * @throws ParserException    parsing exception occurs.
      */
-    private static void processSchemaWithItemsArray(JsonArray inputArray, JsonArray schemaArray, JsonObject
-            additionalItemsSchema, boolean notAllowAdditional) throws ValidatorException, ParserException {
-        if (notAllowAdditional && inputArray.size() > schemaArray.size()) {
-            ValidatorException exception = new ValidatorException("Array contains additional items than in the schema");
-            logger.error("Array : " + inputArray.toString() + " has more items than allowed in the schema", exception);
-            throw exception;
+    private static void processSchemaWithItemsArray(ArrayItems items, int offset, List<CompiledSchema>
+            schemaArray, CompiledSchema additionalItemsSchema, boolean notAllowAdditional, ValidationContext context)
+            throws ValidatorException, ParserException {
+        if (notAllowAdditional && items.size() - offset > schemaArray.size()) {
+            context.report(new ValidatorException(ErrorCode.ADDITIONAL_ITEMS), null);
         }
-        int i = 0;
-        for (JsonElement element : schemaArray) {
-            JsonObject tempObj = element.getAsJsonObject();
+        int i = offset;
+        for (CompiledSchema itemSchema : schemaArray) {
+            if (context.isStopped()) {
+                return;
+            }
             // Checking for empty input schema Ex:- {}
-            if (!tempObj.entrySet().isEmpty()) {
-                if (tempObj.has(ValidatorConstants.TYPE_KEY)) {
-                    String type = tempObj.get(ValidatorConstants.TYPE_KEY).toString().replaceAll(ValidatorConstants
-                            .REGEX, "");
-                    if (ValidatorConstants.BOOLEAN_KEYS.contains(type)) {
-                        inputArray.set(i, BooleanValidator.validateBoolean(tempObj, inputArray.get(i).getAsString()));
-                    } else if (ValidatorConstants.NOMINAL_KEYS.contains(type)) {
-                        inputArray.set(i, StringValidator.validateNominal(tempObj, inputArray.get(i).getAsString()));
-                    } else if (ValidatorConstants.NUMERIC_KEYS.contains(type)) {
-                        inputArray.set(i, NumericValidator.validateNumeric(tempObj, inputArray.get(i).getAsString()));
-                    } else if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
-                        inputArray.set(i, ArrayValidator.validateArray(
-                                GSONDataTypeConverter.getMapFromString(inputArray.get(i).toString()), tempObj));
-                    } else if (ValidatorConstants.NULL_KEYS.contains(type)) {
-                        if (inputArray.get(i) != null) {
-                            NullValidator.validateNull(tempObj, inputArray.get(i).toString());
-                        }
-                        inputArray.set(i, JsonNull.INSTANCE);
-                    } else if (ValidatorConstants.OBJECT_KEYS.contains(type)) {
-                        inputArray.set(i, ObjectValidator.validateObject(inputArray.get(i).getAsJsonObject(), tempObj));
-                    }
-                } else {
-                    ValidatorException exception = new ValidatorException("Array items should contain a type declaration");
-                    logger.error("Array items should contain a type declaration " + tempObj.toString(), exception);
-                    throw exception;
+            if (!itemSchema.isEmpty()) {
+                if (itemSchema.getType() == null) {
+                    context.report(new ValidatorException(ErrorCode.ITEMS_MISSING_TYPE), null);
+                    return;
+                }
+                if (i < items.size()) {
+                    validateItem(items, i, itemSchema, context);
                 }
             }
             i++;
         }
-        // additional schema validating the reset of the array
-        if (additionalItemsSchema != null && inputArray.size() > schemaArray.size()) {
-            JsonArray extraArray = new JsonArray();
-            for (int j = i; j < inputArray.size(); j++) {
-                extraArray.add(inputArray.get(j));
-            }
-            extraArray = ArrayValidator.validateArray(GSONDataTypeConverter.getMapFromJsonArray(extraArray),
-                    additionalItemsSchema);
-            // putting back the values again after validation
-            for (int j = 0; j < extraArray.size(); j++) {
-                inputArray.set(i + j, extraArray.get(j));
-            }
+        // additional schema validating the rest of the array in place
+        if (additionalItemsSchema != null && i < items.size()) {
+            processItems(items, i, additionalItemsSchema, context);
         }
     }
 
@@ -203,88 +149,84 @@ public class ArrayValidator {
      * Validate JSON array when items is a single JSON object.
      * Ex:- {"type":"array", "items":{"type": "boolean"}}
      *
-     * @param inputArray   input data as json array.
-     * @param schemaObject input schema as json object.
+     * @param items        input data as json array.
+     * @param offset       index of the first item to validate.
+     * @param schemaObject compiled schema of the items.
+     * @param context      validation context of the current thread.
      * @throws ValidatorException validation exception occurs.
      * @throws ParserException    parsing exception occurs.
      */
-    private static void processSchemaWithOneItem(JsonArray inputArray, JsonObject schemaObject) throws
-            ValidatorException, ParserException {
-        if (schemaObject.has(ValidatorConstants.TYPE_KEY)) {
-            String type = schemaObject.get(ValidatorConstants.TYPE_KEY).toString().replaceAll(ValidatorConstants
-                    .REGEX, "");
-            int i = 0;
-            if (ValidatorConstants.BOOLEAN_KEYS.contains(type)) {
-                for (JsonElement element : inputArray) {
-                    inputArray.set(i, BooleanValidator.validateBoolean(schemaObject, element.getAsString()));
-                    i++;
-                }
-            } else if (ValidatorConstants.NUMERIC_KEYS.contains(type)) {
-                for (JsonElement element : inputArray) {
-                    inputArray.set(i, NumericValidator.validateNumeric(schemaObject, element.getAsString()));
-                    i++;
-                }
-            } else if (ValidatorConstants.NOMINAL_KEYS.contains(type)) {
-                for (JsonElement element : inputArray) {
-                    inputArray.set(i, StringValidator.validateNominal(schemaObject, element.getAsString()));
-                    i++;
+    private static void processSchemaWithOneItem(ArrayItems items, int offset, CompiledSchema schemaObject,
+                                                 ValidationContext context)
+            throws ValidatorException, ParserException {
+        if (schemaObject.getType() != null) {
+            if (context.isParallel(items.size() - offset)) {
+                JsonElement[] values = new JsonElement[items.size() - offset];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = items.get(offset + i);
                 }
-            } else if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
-                for (JsonElement element : inputArray) {
-                    inputArray.set(i, ArrayValidator.validateArray(GSONDataTypeConverter.getMapFromString(
-                            element.getAsString()), schemaObject));
-                    i++;
-                }
-            } else if (ValidatorConstants.OBJECT_KEYS.contains(type)) {
-                for (JsonElement element : inputArray) {
-                    inputArray.set(i, ObjectValidator.validateObject(element.getAsJsonObject(), schemaObject));
-                    i++;
-                }
-            } else if (ValidatorConstants.NULL_KEYS.contains(type)) {
-                for (JsonElement element : inputArray) {
-                    if (element != null) {
-                        NullValidator.validateNull(schemaObject, element.toString());
-                    }
-                    inputArray.set(i, JsonNull.INSTANCE);
-                    i++;
+                ParallelValidation.validate(values, null, schemaObject, false, i -> offset + i, context);
+                for (int i = 0; i < values.length; i++) {
+                    items.set(offset + i, values[i]);
                 }
+                return;
+            }
+            for (int i = offset; i < items.size() && !context.isStopped(); i++) {
+                validateItem(items, i, schemaObject, context);
             }
         } else {
-            ValidatorException exception = new ValidatorException("Schema for array must have a type declaration");
-            logger.error("Schema for array must have a type declaration " + schemaObject.toString(), exception);
-            throw exception;
+            context.report(new ValidatorException(ErrorCode.ARRAY_SCHEMA_MISSING_TYPE), null);
+        }
+    }
+
+    /**
+     * Validate and replace an item of an array, adding its index to the path of a failure. A failing item is kept
+     * unchanged when errors are collected.
+     *
+     * @param items      input data as json array.
+     * @param index      index of the item.
+     * @param schema     compiled schema of the item.
+     * @param context    validation context of the current thread.
+     * @throws ValidatorException validation exception occurs.
+     * @throws ParserException    parsing exception occurs.
+     */
+    private static void validateItem(ArrayItems items, int index, CompiledSchema schema,
+                                     ValidationContext context) throws ValidatorException, ParserException {
+        int mark = context.errorMark();
+        try {
+            JsonElement result = ElementValidator.validate(schema, items.get(index), false, context);
+            items.set(index, result);
+        } catch (ValidatorException | ParserException ex) {
+            context.report(ex, index);
         }
+        context.leaveChild(mark, index);
     }
 
     /**
      * This method validates the structure of given JSON array against constraints.
      *
-     * @param inputArray  input JSON array.
+     * @param items       input JSON array.
      * @param minItems    minimum items allowed.
      * @param maxItems    maximum items allowed.
      * @param uniqueItems array items should be unique.
+     * @param context     validation context of the current thread.
      * @throws ValidatorException validation exception occurs.
+     * @throws ParserException    parsing exception occurs.
      */
-    private static void doStructuralValidations(JsonArray inputArray, int minItems, int maxItems, boolean
-            uniqueItems) throws ValidatorException {
-        final String errorMsg = "Error occurs while validating the structure of array : ";
-        if (minItems != -1 && inputArray.size() < minItems) {
-            ValidatorException exception = new ValidatorException("Array violated the minItems constraint");
-            logger.error(errorMsg + inputArray.toString(), exception);
-            throw exception;
+    private static void doStructuralValidations(ArrayItems items, int minItems, int maxItems, boolean
+            uniqueItems, ValidationContext context) throws ValidatorException, ParserException {
+        if (minItems != -1 && items.size() < minItems) {
+            context.report(new ValidatorException(ErrorCode.MIN_ITEMS), null);
         }
-        if (maxItems != -1 && inputArray.size() > maxItems) {
-            ValidatorException exception = new ValidatorException("Array violated the maxItems constraint");
-            logger.error(errorMsg + inputArray.toString(), exception);
-            throw exception;
+        if (maxItems != -1 && items.size() > maxItems) {
+            context.report(new ValidatorException(ErrorCode.MAX_ITEMS), null);
         }
         if (uniqueItems) {
             Set<JsonElement> temporarySet = new HashSet();
-            for (JsonElement element : inputArray) {
-                if (!temporarySet.add(element)) {
-                    ValidatorException exception = new ValidatorException("Array violated the uniqueItems constraint");
-                    logger.error(errorMsg + inputArray.toString(), exception);
-                    throw exception;
+            for (int i = 0; i < items.size(); i++) {
+                if (!temporarySet.add(items.get(i))) {
+                    context.report(new ValidatorException(ErrorCode.UNIQUE_ITEMS), null);
+                    return;
                 }
             }
         }
@@ -1,13 +1,11 @@
 package validators;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import contants.ValidatorConstants;
+import exceptions.ErrorCode;
 import exceptions.ParserException;
 import exceptions.ValidatorException;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
 import utils.DataTypeConverter;
 
 /**
@@ -19,8 +17,6 @@ public class BooleanValidator {
     private BooleanValidator() {
     }
 
-    private static Log logger = LogFactory.getLog(BooleanValidator.class.getName());
-
     /**
      * Validate a boolean string according to a given schema.
      *
@@ -32,31 +28,46 @@ public class BooleanValidator {
      */
     public static JsonPrimitive validateBoolean(JsonObject inputObject, String value) throws ValidatorException,
             ParserException {
+        return validateBoolean(CompiledSchema.compile(inputObject), value);
+    }
+
+    /**
+     * Validate a boolean string according to a given compiled schema.
+     *
+     * @param schema compiled json schema.
+     * @param value  boolean string.
+     * @return JsonPrimitive contains the parsed boolean.
+     * @throws ValidatorException exception occurs in validation.
+     * @throws ParserException    exception occurs when parsing.
+     */
+    public static JsonPrimitive validateBoolean(CompiledSchema schema, String value) throws ValidatorException,
+            ParserException {
+        return new JsonPrimitive(checkBoolean(schema, value));
+    }
+
+    /**
+     * Validate a boolean string according to a given compiled schema, without creating a JSON element.
+     *
+     * @param schema compiled json schema.
+     * @param value  boolean string.
+     * @return parsed boolean.
+     * @throws ValidatorException exception occurs in validation.
+     * @throws ParserException    exception occurs when parsing.
+     */
+    public static boolean checkBoolean(CompiledSchema schema, String value) throws ValidatorException,
+            ParserException {
         if (value == null) {
-            ValidatorException exception = new ValidatorException("Expected a boolean but found null");
-            logger.error("Received null input to be validated with : " + inputObject.toString(), exception);
-            throw exception;
+            throw new ValidatorException(ErrorCode.NULL_BOOLEAN);
         }
         Boolean parsedValue = DataTypeConverter.convertToBoolean(value);
         // Enum validations
-        if (inputObject.has(ValidatorConstants.ENUM)) {
-            JsonArray enumElements = inputObject.getAsJsonArray(ValidatorConstants.ENUM);
-            if (enumElements.size() > 0 && !enumElements.contains(new JsonPrimitive(parsedValue))) {
-                ValidatorException exception = new ValidatorException("input \"" + value + "\" not contains any " +
-                        "element from the enum");
-                logger.error("Input : " + value + " not contains any value from the enum : " +
-                        enumElements.toString(), exception);
-                throw exception;
-            }
+        if (schema.hasEnum() && !schema.getBooleanEnum().contains(parsedValue)) {
+            throw new ValidatorException(ErrorCode.BOOLEAN_ENUM, value);
         }
         //Const validation
-        if (inputObject.has(ValidatorConstants.CONST) && !parsedValue.equals(inputObject.getAsJsonPrimitive
-                (ValidatorConstants.CONST).getAsBoolean())) {
-            ValidatorException exception = new ValidatorException("String \"" + value + "\" is not equal to the const" +
-                    " value");
-            logger.error("Input " + value + " not contains the value from const", exception);
-            throw exception;
+        if (schema.hasConst() && !parsedValue.equals(schema.getBooleanConst())) {
+            throw new ValidatorException(ErrorCode.BOOLEAN_CONST, value);
         }
-        return new JsonPrimitive(parsedValue);
+        return parsedValue;
     }
 }
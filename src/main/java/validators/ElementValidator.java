@@ -0,0 +1,130 @@
+package validators;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+
+/**
+ * This class dispatches a nested JSON element to the validator matching the type of its compiled schema.
+ */
+public class ElementValidator {
+
+    // Use without instantiating.
+    private ElementValidator() {
+    }
+
+    /**
+     * Validate a nested JSON element according to its compiled schema.
+     *
+     * @param schema      compiled schema with a type declaration.
+     * @param element     input element.
+     * @param useJsonText pass scalars to validators as JSON text (with quotes) instead of their string value.
+     * @param context     validation context of the current thread.
+     * @return corrected element, or the input element if the schema type is not supported, the context is read
+     * only or the context is copy on write and the element needed no correction.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static JsonElement validate(CompiledSchema schema, JsonElement element, boolean useJsonText,
+                                       ValidationContext context) throws ValidatorException, ParserException {
+        if (context.isReadOnly()) {
+            check(schema, element, useJsonText, context);
+            return element;
+        }
+        switch (schema.getDataType()) {
+            case BOOLEAN:
+                return share(element, BooleanValidator.validateBoolean(schema, scalarValue(element, useJsonText)),
+                        context);
+            case STRING:
+                return share(element, StringValidator.validateNominal(schema, scalarValue(element, useJsonText)),
+                        context);
+            case NUMERIC:
+                return share(element, NumericValidator.validateNumeric(schema, scalarValue(element, useJsonText)),
+                        context);
+            case ARRAY:
+                return ArrayValidator.validateArray(element, schema, context);
+            case OBJECT:
+                return ObjectValidator.validateObject(asObject(element), schema, context);
+            case NULL:
+                NullValidator.validateNull(schema, element.toString());
+                return context.isCopyOnWrite() && element.isJsonNull() ? element : JsonNull.INSTANCE;
+            default:
+                return element;
+        }
+    }
+
+    /**
+     * In copy on write mode, return the input scalar instead of an equal corrected one, so that its parent is not
+     * copied.
+     */
+    private static JsonElement share(JsonElement element, JsonElement result, ValidationContext context) {
+        if (!context.isCopyOnWrite() || !element.isJsonPrimitive() || !result.isJsonPrimitive()) {
+            return result;
+        }
+        JsonPrimitive input = element.getAsJsonPrimitive();
+        JsonPrimitive output = result.getAsJsonPrimitive();
+        if (input.isNumber() || output.isNumber()) {
+            // numbers of different types are equal in Gson, compare the serialized text instead
+            return input.isNumber() && output.isNumber() && input.toString().equals(output.toString()) ? element
+                    : result;
+        }
+        return input.equals(output) ? element : result;
+    }
+
+    /**
+     * Check a nested JSON element without creating a corrected element.
+     */
+    private static void check(CompiledSchema schema, JsonElement element, boolean useJsonText,
+                              ValidationContext context) throws ValidatorException, ParserException {
+        switch (schema.getDataType()) {
+            case BOOLEAN:
+                BooleanValidator.checkBoolean(schema, scalarValue(element, useJsonText));
+                break;
+            case STRING:
+                StringValidator.checkNominal(schema, scalarValue(element, useJsonText));
+                break;
+            case NUMERIC:
+                NumericValidator.checkNumeric(schema, scalarValue(element, useJsonText));
+                break;
+            case ARRAY:
+                ArrayValidator.validateArray(element, schema, context);
+                break;
+            case OBJECT:
+                ObjectValidator.validateObject(asObject(element), schema, context);
+                break;
+            case NULL:
+                NullValidator.validateNull(schema, element.toString());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static JsonObject asObject(JsonElement element) throws ValidatorException {
+        if (!element.isJsonObject()) {
+            throw new ValidatorException(ErrorCode.NOT_AN_OBJECT);
+        }
+        return element.getAsJsonObject();
+    }
+
+    /**
+     * Text of a scalar, an array of a single item giving the text of its item. Other arrays and objects are not
+     * scalars and fail the validation, null gives null.
+     */
+    private static String scalarValue(JsonElement element, boolean useJsonText) throws ValidatorException {
+        if (element.isJsonArray() && element.getAsJsonArray().size() == 1) {
+            return scalarValue(element.getAsJsonArray().get(0), useJsonText);
+        } else if (element.isJsonArray() || element.isJsonObject()) {
+            throw new ValidatorException(ErrorCode.NOT_A_VALUE, element.isJsonArray() ? "an array" : "an object");
+        }
+        if (useJsonText) {
+            return element.toString();
+        }
+        return element.isJsonNull() ? null : element.getAsString();
+    }
+}
@@ -0,0 +1,77 @@
+package validators;
+
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+
+import java.util.List;
+
+/**
+ * Schemas of the items of a streamed array, following the "items" and "additionalItems" keywords the same way
+ * as the tree validator.
+ */
+final class ItemSchemas {
+
+    private final ValidationContext context;
+    private CompiledSchema level;
+    // index of the item matching the first schema of the level
+    private int offset;
+    // index from which items are not validated, after a schema without a type
+    private int stop = Integer.MAX_VALUE;
+
+    ItemSchemas(CompiledSchema schema, ValidationContext context) throws ValidatorException, ParserException {
+        this.context = context;
+        enter(schema, 0);
+    }
+
+    private void enter(CompiledSchema schema, int index) throws ValidatorException, ParserException {
+        level = schema;
+        offset = index;
+        if (schema.getItemsArray() != null) {
+            List<CompiledSchema> schemas = schema.getItemsArray();
+            for (int i = 0; i < schemas.size(); i++) {
+                if (!schemas.get(i).isEmpty() && schemas.get(i).getType() == null) {
+                    stop = index + i;
+                    context.report(new ValidatorException(ErrorCode.ITEMS_MISSING_TYPE), null);
+                    return;
+                }
+            }
+        } else if (schema.getItems() != null) {
+            if (schema.getItems().getType() == null) {
+                stop = index;
+                context.report(new ValidatorException(ErrorCode.ARRAY_SCHEMA_MISSING_TYPE), null);
+            }
+        } else {
+            stop = index;
+        }
+    }
+
+    /**
+     * @param index index of the item.
+     * @return schema of the item, null if the item is not validated.
+     */
+    CompiledSchema get(int index) throws ValidatorException, ParserException {
+        List<CompiledSchema> schemas = level.getItemsArray();
+        if (schemas != null && index - offset == schemas.size()) {
+            if (!level.isAdditionalItemsAllowed()) {
+                context.report(new ValidatorException(ErrorCode.ADDITIONAL_ITEMS), null);
+            }
+            if (index < stop && level.getAdditionalItems() != null) {
+                enter(level.getAdditionalItems(), index);
+                return get(index);
+            }
+        }
+        if (index >= stop) {
+            return null;
+        }
+        if (schemas == null) {
+            return level.getItems();
+        }
+        if (index - offset < schemas.size()) {
+            CompiledSchema itemSchema = schemas.get(index - offset);
+            return itemSchema.isEmpty() ? null : itemSchema;
+        }
+        return null;
+    }
+}
@@ -1,9 +1,9 @@
 package validators;
 
 import com.google.gson.JsonObject;
+import exceptions.ErrorCode;
 import exceptions.ValidatorException;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
 
 /**
  * This class validate null values against a given schema.
@@ -14,9 +14,6 @@ public class NullValidator {
     private NullValidator() {
     }
 
-    // Logger instance
-    private static Log logger = LogFactory.getLog(NullValidator.class.getName());
-
     /**
      * Validate a null input against schema.
      *
@@ -26,11 +23,23 @@ public class NullValidator {
      * @throws ValidatorException exception occurs in validation.
      */
     public static void validateNull(JsonObject inputObject, String value) throws ValidatorException {
+        checkNull(value);
+    }
+
+    /**
+     * Validate a null input against a compiled schema.
+     *
+     * @param schema compiled input schema.
+     * @param value  null value.
+     * @throws ValidatorException exception occurs in validation.
+     */
+    public static void validateNull(CompiledSchema schema, String value) throws ValidatorException {
+        checkNull(value);
+    }
+
+    private static void checkNull(String value) throws ValidatorException {
         if (value != null && !(value.equals("null") || value.equals("\"null\""))) {
-            ValidatorException exception = new ValidatorException("Expected a null but found a value");
-            logger.error("Received not null input" + value + " to be validated with : " + inputObject
-                    .toString(), exception);
-            throw exception;
+            throw new ValidatorException(ErrorCode.NOT_NULL);
         }
     }
 }
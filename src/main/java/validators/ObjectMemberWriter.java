@@ -0,0 +1,244 @@
+package validators;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * This class corrects the members of an object one at a time and writes them to a JsonWriter. Members which move
+ * to the end of the object, the members matching "patternProperties" or validated by "additionalProperties", are
+ * kept until the end of the object, the other members are written as they are given. "required" and the number of
+ * properties are checked at the end of the object.
+ */
+public final class ObjectMemberWriter {
+
+    // reads and writes subtrees using the settings of the reader and the writer
+    private static final TypeAdapter<JsonElement> elementAdapter = new Gson().getAdapter(JsonElement.class);
+
+    private final JsonWriter out;
+    private final CompiledSchema schema;
+    private final ValidationContext context;
+    private final List<Map.Entry<Pattern, CompiledSchema>> patterns = new ArrayList<>();
+    // Input keys are only tracked when "properties" is declared, so additionalProperties has no effect without it
+    private final boolean tracksAdditional;
+    private final boolean additionalForbidden;
+    private final CompiledSchema additionalSchema;
+    private final Set<String> requiredKeys;
+    private boolean additionalReported;
+    private Map<String, JsonElement> moved;
+    private int count;
+
+    /**
+     * Start writing a corrected object.
+     *
+     * @param out     writer receiving the corrected object.
+     * @param schema  compiled object schema.
+     * @param context validation context of the current thread.
+     * @throws IOException        Exception occurs while writing.
+     * @throws ValidatorException A pattern schema has no type.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public ObjectMemberWriter(JsonWriter out, CompiledSchema schema, ValidationContext context) throws IOException,
+            ValidatorException, ParserException {
+        this.out = out;
+        this.schema = schema;
+        this.context = context;
+        for (Map.Entry<Pattern, CompiledSchema> pattern : schema.getPatternProperties().entrySet()) {
+            if (pattern.getValue().getType() != null) {
+                patterns.add(pattern);
+            } else {
+                context.report(new ValidatorException(ErrorCode.OBJECT_SCHEMA_MISSING_TYPE), null);
+            }
+        }
+        this.tracksAdditional = schema.hasAdditionalProperties() && schema.hasProperties();
+        this.additionalForbidden = tracksAdditional && Boolean.FALSE.equals(schema.getAdditionalPropertiesAllowed());
+        this.additionalSchema = tracksAdditional && schema.getAdditionalPropertiesAllowed() == null
+                && schema.getAdditionalProperties() != null && !schema.getAdditionalProperties().isEmpty()
+                ? schema.getAdditionalProperties() : null;
+        this.requiredKeys = schema.getRequired().isEmpty() ? null : new HashSet<String>();
+        out.beginObject();
+    }
+
+    /**
+     * Correct a member whose value is read from a reader.
+     *
+     * @param key member key.
+     * @param in  reader positioned before the value.
+     * @throws IOException        Exception occurs while reading or writing.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public void member(String key, JsonReader in) throws IOException, ValidatorException, ParserException {
+        count++;
+        if (requiredKeys != null && schema.getRequired().contains(key)) {
+            requiredKeys.add(key);
+        }
+        CompiledSchema propertySchema = schema.getProperties().get(key);
+        if (propertySchema != null && propertySchema.getType() == null) {
+            propertySchema = null;
+        }
+        boolean additional = tracksAdditional && isAdditionalProperty(key);
+        if (additional && !additionalReported) {
+            if (additionalForbidden) {
+                context.report(new ValidatorException(ErrorCode.ADDITIONAL_PROPERTIES), null);
+                additionalReported = true;
+            } else if (additionalSchema != null && additionalSchema.getType() == null) {
+                context.report(new ValidatorException(ErrorCode.ARRAY_SCHEMA_MISSING_TYPE), null);
+                additionalReported = true;
+            }
+        }
+        List<CompiledSchema> patternSchemas = matchingSchemas(key);
+        boolean additionalMoves = additional && additionalSchema != null && additionalSchema.getType() != null;
+        if (patternSchemas.isEmpty() && !additionalMoves) {
+            out.name(key);
+            int mark = context.errorMark();
+            try {
+                if (propertySchema != null) {
+                    StreamingValidator.validate(in, out, propertySchema, false, context);
+                } else {
+                    StreamingValidator.copy(in, out);
+                }
+            } catch (ValidatorException | ParserException ex) {
+                context.report(ex, key);
+            }
+            context.leaveChild(mark, key);
+            return;
+        }
+        // the member moves to the end of the object, its value is kept until the object ends
+        JsonElement value = elementAdapter.read(in);
+        if (propertySchema != null) {
+            value = validateMember(value, key, propertySchema, false);
+        }
+        for (CompiledSchema patternSchema : patternSchemas) {
+            value = validateMember(value, key, patternSchema, true);
+        }
+        if (additionalMoves) {
+            value = validateMember(value, key, additionalSchema, true);
+        }
+        if (moved == null) {
+            moved = new LinkedHashMap<>();
+        }
+        moved.put(key, value);
+    }
+
+    /**
+     * Write the moved members and end the object, then check the required keys and the number of properties.
+     *
+     * @throws IOException        Exception occurs while writing.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public void end() throws IOException, ValidatorException, ParserException {
+        if (moved != null) {
+            for (String key : movedOrder(moved.keySet())) {
+                out.name(key);
+                elementAdapter.write(out, moved.get(key));
+            }
+        }
+        out.endObject();
+
+        if (requiredKeys != null) {
+            for (String requiredKey : schema.getRequired()) {
+                if (!requiredKeys.contains(requiredKey)) {
+                    context.report(new ValidatorException(ErrorCode.REQUIRED), null);
+                    break;
+                }
+            }
+        }
+        if (schema.getMinProperties() != -1 && count < schema.getMinProperties()) {
+            context.report(new ValidatorException(ErrorCode.MIN_PROPERTIES), null);
+        }
+        if (schema.getMaxProperties() != -1 && count > schema.getMaxProperties()) {
+            context.report(new ValidatorException(ErrorCode.MAX_PROPERTIES), null);
+        }
+    }
+
+    /**
+     * Validate a kept member value, keeping the value unchanged if it fails and errors are collected.
+     */
+    private JsonElement validateMember(JsonElement value, String key, CompiledSchema memberSchema,
+                                       boolean useJsonText) throws ValidatorException, ParserException {
+        int mark = context.errorMark();
+        JsonElement result = value;
+        try {
+            result = ElementValidator.validate(memberSchema, value, useJsonText, context);
+        } catch (ValidatorException | ParserException ex) {
+            context.report(ex, key);
+        }
+        context.leaveChild(mark, key);
+        return result;
+    }
+
+    private List<CompiledSchema> matchingSchemas(String key) {
+        List<CompiledSchema> schemas = null;
+        for (Map.Entry<Pattern, CompiledSchema> pattern : patterns) {
+            if (pattern.getKey().matcher(key).find()) {
+                if (schemas == null) {
+                    schemas = new ArrayList<>();
+                }
+                schemas.add(pattern.getValue());
+            }
+        }
+        return schemas != null ? schemas : Collections.<CompiledSchema>emptyList();
+    }
+
+    private boolean isAdditionalProperty(String key) {
+        if (schema.getPropertyNames().contains(key)) {
+            return false;
+        }
+        for (Pattern pattern : schema.getPatternProperties().keySet()) {
+            if (pattern.matcher(key).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Order of the moved members at the end of the object. The tree validators move the members matching each
+     * pattern to the end in turn, then the additional properties, and members which never move stay in front.
+     */
+    private List<String> movedOrder(Set<String> keys) {
+        List<String> order = new ArrayList<>(keys);
+        List<String> matching = new ArrayList<>();
+        for (Map.Entry<Pattern, CompiledSchema> pattern : patterns) {
+            for (String key : order) {
+                if (pattern.getKey().matcher(key).find()) {
+                    matching.add(key);
+                }
+            }
+            moveToEnd(order, matching);
+        }
+        if (additionalSchema != null) {
+            for (String key : order) {
+                if (isAdditionalProperty(key)) {
+                    matching.add(key);
+                }
+            }
+            moveToEnd(order, matching);
+        }
+        return order;
+    }
+
+    private static void moveToEnd(List<String> order, List<String> keys) {
+        order.removeAll(keys);
+        order.addAll(keys);
+        keys.clear();
+    }
+}
@@ -0,0 +1,140 @@
+package validators;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Members of an object being validated. Corrected values are written to the input object, to a copy of it created
+ * on the first change when the context is copy on write, or not written at all when the context is read only.
+ */
+final class ObjectMembers {
+
+    private final JsonObject source;
+    private final boolean readOnly;
+    private final boolean copyOnWrite;
+    // copy receiving the corrected values in copy on write mode, null until the first change
+    private JsonObject copy;
+
+    ObjectMembers(JsonObject input, ValidationContext context) {
+        this.source = input;
+        this.readOnly = context.isReadOnly();
+        this.copyOnWrite = !readOnly && context.isCopyOnWrite();
+    }
+
+    /**
+     * Object holding the current values, the copy once it is created.
+     *
+     * @return current object.
+     */
+    JsonObject current() {
+        return copy != null ? copy : source;
+    }
+
+    boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * Replace the value of a member in place, keeping its position.
+     *
+     * @param entry member of the input object.
+     * @param value corrected value.
+     */
+    void replace(Map.Entry<String, JsonElement> entry, JsonElement value) {
+        if (readOnly) {
+            return;
+        }
+        if (!copyOnWrite) {
+            entry.setValue(value);
+        } else if (value != entry.getValue()) {
+            // adding an existing key keeps its position
+            ensureCopy().add(entry.getKey(), value);
+        }
+    }
+
+    /**
+     * Replace the value of a member by removing and adding it again, which moves the key to the end of the object.
+     *
+     * @param key   member key.
+     * @param value corrected value.
+     */
+    void move(String key, JsonElement value) {
+        if (readOnly) {
+            return;
+        }
+        JsonObject target = copyOnWrite ? ensureCopy() : source;
+        target.remove(key);
+        target.add(key, value);
+    }
+
+    /**
+     * Move a list of members to the end of the object in order, with their corrected values. In copy on write mode
+     * the object is only copied if a value changed or if the keys are not already the last keys in this order.
+     *
+     * @param keys   member keys.
+     * @param values corrected values, null for the members which failed validation and stay in place.
+     */
+    void moveAll(List<String> keys, JsonElement[] values) {
+        if (readOnly) {
+            return;
+        }
+        if (copyOnWrite && copy == null && !changes(keys, values)) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                move(keys.get(i), values[i]);
+            }
+        }
+    }
+
+    /**
+     * Corrected object.
+     *
+     * @return the input object or its copy.
+     */
+    JsonObject getResult() {
+        return current();
+    }
+
+    private boolean changes(List<String> keys, JsonElement[] values) {
+        int moved = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                if (values[i] != source.get(keys.get(i))) {
+                    return true;
+                }
+                moved++;
+            }
+        }
+        // moving the keys keeps the order only if they already are the last keys, in the same order
+        int skipped = source.size() - moved;
+        int position = 0;
+        int next = 0;
+        for (String key : source.keySet()) {
+            if (position++ < skipped) {
+                continue;
+            }
+            while (values[next] == null) {
+                next++;
+            }
+            if (!key.equals(keys.get(next++))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private JsonObject ensureCopy() {
+        if (copy == null) {
+            copy = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : source.entrySet()) {
+                copy.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return copy;
+    }
+}
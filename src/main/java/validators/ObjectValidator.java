@@ -1,21 +1,16 @@
 package validators;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
-import contants.ValidatorConstants;
+import exceptions.ErrorCode;
 import exceptions.ParserException;
 import exceptions.ValidatorException;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-import utils.DataTypeConverter;
-import utils.GSONDataTypeConverter;
+import schema.CompiledSchema;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -27,15 +22,6 @@ public class ObjectValidator {
     private ObjectValidator() {
     }
 
-    // Logger instance
-    private static Log logger = LogFactory.getLog(ObjectValidator.class.getName());
-
-    private final static String ADDITIONAL_PROPERTIES = "additionalProperties";
-    private final static String MAX_PROPERTIES = "maxProperties";
-    private final static String MIN_PROPERTIES = "minProperties";
-    private final static String PATTERN_PROPERTIES = "patternProperties";
-    private final static String REQUIRED = "required";
-
     /**
      * This method will validate a given JSON input object according to
      *
@@ -47,221 +33,226 @@ public class ObjectValidator {
      */
     public static JsonObject validateObject(JsonObject object, JsonObject schema) throws ParserException,
             ValidatorException {
-        int minimumProperties = -1;
-        int maximumProperties = -1;
+        return validateObject(object, CompiledSchema.compile(schema));
+    }
+
+    /**
+     * This method will validate a given JSON input object according to a compiled schema.
+     *
+     * @param object JSON Object
+     * @param schema compiled JSON schema
+     * @return validated object
+     * @throws ParserException    Exception occurred in data type conversions.
+     * @throws ValidatorException Exception occurred in schema validations.
+     */
+    public static JsonObject validateObject(JsonObject object, CompiledSchema schema) throws ParserException,
+            ValidatorException {
+        return validateObject(object, schema, new ValidationContext());
+    }
+
+    /**
+     * This method will validate a given JSON input object according to a compiled schema, reusing the scratch
+     * collections of the given context.
+     *
+     * @param object  JSON Object
+     * @param schema  compiled JSON schema
+     * @param context validation context of the current thread.
+     * @return validated object
+     * @throws ParserException    Exception occurred in data type conversions.
+     * @throws ValidatorException Exception occurred in schema validations.
+     */
+    public static JsonObject validateObject(JsonObject object, CompiledSchema schema, ValidationContext context)
+            throws ParserException, ValidatorException {
         // check whether all the required elements are present.
-        // keyword MUST be an array. Elements of this array, if any, MUST be strings, and MUST be unique.
-        if (schema.has(REQUIRED) && schema.get(REQUIRED).isJsonArray()) {
-            JsonArray requiredArray = schema.getAsJsonArray(REQUIRED);
-            for (JsonElement element : requiredArray) {
-                if (!object.has(element.getAsString())) {
-                    ValidatorException exception = new ValidatorException("Object does not have all the elements " +
-                            "required in the schema");
-                    logger.error("Input object : " + object.toString() + " does not contains all the elements " +
-                            "required in the schema : " + schema.toString(), exception);
-                    throw exception;
-                }
-            }
-        }
-        if (schema.has(MIN_PROPERTIES)) {
-            String minPropertiesString = schema.get(MIN_PROPERTIES).getAsString().replaceAll
-                    (ValidatorConstants.REGEX, "");
-            if (!minPropertiesString.isEmpty()) {
-                minimumProperties = DataTypeConverter.convertToInt(minPropertiesString);
-            }
-        }
-        if (schema.has(MAX_PROPERTIES)) {
-            String maxPropertiesString = schema.get(MAX_PROPERTIES).getAsString().replaceAll
-                    (ValidatorConstants.REGEX, "");
-            if (!maxPropertiesString.isEmpty()) {
-                maximumProperties = DataTypeConverter.convertToInt(maxPropertiesString);
+        for (String requiredKey : schema.getRequired()) {
+            if (!object.has(requiredKey)) {
+                context.report(new ValidatorException(ErrorCode.REQUIRED), null);
+                break;
             }
         }
-        JsonObject schemaObject = null;
-        if (schema.has("properties")) {
-            schemaObject = (JsonObject) schema.get("properties");
-        }
         Set<Map.Entry<String, JsonElement>> entryInput = object.entrySet();
+        ObjectMembers members = new ObjectMembers(object, context);
 
         // doing structural validation
-        doStructuralValidation(maximumProperties, minimumProperties, entryInput);
-
-        ArrayList<String> inputProperties = new ArrayList();
-        ArrayList<String> patternProperties = new ArrayList();
-        ArrayList<String> schemaProperties = new ArrayList();
-
-        if (schemaObject != null && !schemaObject.entrySet().isEmpty()) {
-            for (Map.Entry<String, JsonElement> entry : schemaObject.entrySet()) {
-                if (object.has(entry.getKey())) {
-                    schemaProperties.add(entry.getKey());
-                }
-            }
-        }
+        doStructuralValidation(schema.getMaxProperties(), schema.getMinProperties(), entryInput, context);
 
         // validate children elements according to the schema only if properties are defined for each item.
-        processSchemaProperties(schemaObject, entryInput, inputProperties);
+        if (schema.hasProperties()) {
+            processSchemaProperties(schema.getProperties(), entryInput, members, context);
+        }
 
         // handling pattern properties
-        if (schema.has(PATTERN_PROPERTIES)) {
-            processPatternProperties(object, schema, patternProperties);
+        if (!schema.getPatternProperties().isEmpty()) {
+            processPatternProperties(members, schema.getPatternProperties(), context);
         }
 
         // handling additionalProperties
-        processAdditionalProperties(object, schema, inputProperties, patternProperties, schemaProperties);
+        // Input keys are only tracked when "properties" is declared, so additionalProperties has no effect without it
+        if (schema.hasAdditionalProperties() && schema.hasProperties()) {
+            processAdditionalProperties(members, schema, context);
+        }
 
-        return object;
+        return members.getResult();
     }
 
     /**
      * This method will process a given JSON object according to "properties" in respective JSON schema.
      *
-     * @param schemaObject    JSON schema.
-     * @param entryInput      JSON input as map.
-     * @param inputProperties array which should be updated with matching properties in schema.
+     * @param properties compiled schemas of the properties.
+     * @param entryInput JSON input as map.
+     * @param members    members receiving the corrected values.
+     * @param context    validation context of the current thread.
      * @throws ParserException    Exception occurred in data type conversions.
      * @throws ValidatorException Exception occurred in schema validations.
      */
-    private static void processSchemaProperties(JsonObject schemaObject, Set<Map.Entry<String, JsonElement>>
-            entryInput, ArrayList<String> inputProperties) throws ValidatorException, ParserException {
-        if (schemaObject != null) {
-            // Calling validation for internal items.
-            for (Map.Entry<String, JsonElement> entry : entryInput) {
-                String keyValue = entry.getKey();
-                inputProperties.add(keyValue);
-                if (schemaObject.has(keyValue) && schemaObject.get(keyValue).isJsonObject()) {
-                    JsonObject schemaObj = schemaObject.getAsJsonObject(keyValue);
-                    if (schemaObj.has(ValidatorConstants.TYPE_KEY)) {
-                        String type = schemaObj.get(ValidatorConstants.TYPE_KEY).toString().replaceAll
-                                (ValidatorConstants.REGEX, "");
-                        validateAndUpdateEntriesMap(schemaObject, entry, type);
-                    }
+    private static void processSchemaProperties(Map<String, CompiledSchema> properties, Set<Map.Entry<String,
+            JsonElement>> entryInput, ObjectMembers members, ValidationContext context) throws ValidatorException,
+            ParserException {
+        if (context.isParallel(entryInput.size())) {
+            processSchemaPropertiesInParallel(properties, entryInput, members, context);
+            return;
+        }
+        // Calling validation for internal items.
+        for (Map.Entry<String, JsonElement> entry : entryInput) {
+            if (context.isStopped()) {
+                return;
+            }
+            CompiledSchema propertySchema = properties.get(entry.getKey());
+            if (propertySchema != null && propertySchema.getType() != null) {
+                int mark = context.errorMark();
+                try {
+                    members.replace(entry, ElementValidator.validate(propertySchema, entry.getValue(), false,
+                            context));
+                } catch (ValidatorException | ParserException ex) {
+                    context.report(ex, entry.getKey());
                 }
+                context.leaveChild(mark, entry.getKey());
             }
         }
     }
 
     /**
-     * This method will validate and update the entries of input object map.
+     * Validate the declared properties of a wide object as fork/join subtasks.
      *
-     * @param schemaObject JSON schema.
-     * @param entry        entry from the map.
-     * @param type         data type.
+     * @param properties compiled schemas of the properties.
+     * @param entryInput JSON input as map.
+     * @param members    members receiving the corrected values.
+     * @param context    validation context of the current thread.
      * @throws ParserException    Exception occurred in data type conversions.
      * @throws ValidatorException Exception occurred in schema validations.
      */
-    private static void validateAndUpdateEntriesMap(JsonObject schemaObject, Map.Entry<String, JsonElement> entry,
-                                                    String type) throws ValidatorException, ParserException {
-        if (schemaObject.has(entry.getKey()) && schemaObject.get(entry.getKey()).isJsonObject()) {
-            JsonObject schema = schemaObject.get(entry.getKey()).getAsJsonObject();
-            if (ValidatorConstants.BOOLEAN_KEYS.contains(type)) {
-                entry.setValue(BooleanValidator.validateBoolean(schema, entry.getValue().getAsString()));
-            } else if (ValidatorConstants.NOMINAL_KEYS.contains(type)) {
-                entry.setValue(StringValidator.validateNominal(schema, entry.getValue().getAsString()));
-            } else if (ValidatorConstants.NUMERIC_KEYS.contains(type)) {
-                entry.setValue(NumericValidator.validateNumeric(schema, entry.getValue().getAsString()));
-            } else if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
-                entry.setValue(ArrayValidator.validateArray(GSONDataTypeConverter.getMapFromString(entry.getValue()
-                        .toString()), schema));
-            } else if (ValidatorConstants.OBJECT_KEYS.contains(type)) {
-                entry.setValue(ObjectValidator.validateObject(entry.getValue().getAsJsonObject(), schema));
-            } else if (ValidatorConstants.NULL_KEYS.contains(type)) {
-                if (entry.getValue() != null) {
-                    NullValidator.validateNull(schema, entry.getValue().toString());
-                }
-                entry.setValue(JsonNull.INSTANCE);
+    private static void processSchemaPropertiesInParallel(Map<String, CompiledSchema> properties,
+                                                          Set<Map.Entry<String, JsonElement>> entryInput,
+                                                          ObjectMembers members, ValidationContext context)
+            throws ValidatorException, ParserException {
+        List<Map.Entry<String, JsonElement>> entries = new ArrayList<>();
+        List<CompiledSchema> schemas = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : entryInput) {
+            CompiledSchema propertySchema = properties.get(entry.getKey());
+            if (propertySchema != null && propertySchema.getType() != null) {
+                entries.add(entry);
+                schemas.add(propertySchema);
             }
         }
+        JsonElement[] values = new JsonElement[entries.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = entries.get(i).getValue();
+        }
+        ParallelValidation.validate(values, schemas.toArray(new CompiledSchema[0]), null, false,
+                i -> entries.get(i).getKey(), context);
+        for (int i = 0; i < values.length; i++) {
+            members.replace(entries.get(i), values[i]);
+        }
     }
 
     /**
-     * This method will handle the additional properties constraint.
+     * This method will handle the additional properties constraint. Additional properties are the keys which are
+     * neither declared in "properties" nor matching any of the "patternProperties".
      *
-     * @param object            input JSON object.
-     * @param schema            JSON schema.
-     * @param inputProperties   array which contains all keys of input object.
-     * @param patternProperties array which contains all matching keys with pattern properties.
-     * @param schemaProperties  array which contains all schema keys.
+     * @param members input JSON object members.
+     * @param schema  compiled JSON schema.
+     * @param context validation context of the current thread.
      * @throws ParserException    Exception occurred in data type conversions.
      * @throws ValidatorException Exception occurred in schema validations.
      */
-    private static void processAdditionalProperties(JsonObject object, JsonObject schema, ArrayList<String>
-            inputProperties, ArrayList<String> patternProperties, ArrayList<String> schemaProperties)
+    private static void processAdditionalProperties(ObjectMembers members, CompiledSchema schema,
+                                                    ValidationContext context)
             throws ParserException, ValidatorException {
-        if (schema.has(ADDITIONAL_PROPERTIES)) {
-            inputProperties.removeAll(schemaProperties);
-            inputProperties.removeAll(patternProperties);
-            if (schema.get(ADDITIONAL_PROPERTIES).isJsonPrimitive()) {
-                boolean allowAdditional = DataTypeConverter.convertToBoolean(schema.get(ADDITIONAL_PROPERTIES)
-                        .getAsString());
-                if (!allowAdditional && !inputProperties.isEmpty()) {
-                    ValidatorException exception = new ValidatorException("Object has additional properties than " +
-                            "allowed in schema");
-                    logger.error("Input object " + object.toString() + " has additional properties than schema " +
-                            schema.toString() + " and additional properties are not allowed", exception);
-                    throw exception;
+        if (schema.getAdditionalPropertiesAllowed() != null) {
+            if (!schema.getAdditionalPropertiesAllowed()) {
+                for (String key : members.current().keySet()) {
+                    if (isAdditionalProperty(key, schema)) {
+                        context.report(new ValidatorException(ErrorCode.ADDITIONAL_PROPERTIES), null);
+                        return;
+                    }
+                }
+            }
+        } else if (schema.getAdditionalProperties() != null) {
+            CompiledSchema additionalSchema = schema.getAdditionalProperties();
+            if (additionalSchema.isEmpty()) {
+                return;
+            }
+            // keys are collected first, since validating a value moves its key to the end of the object
+            List<String> additionalKeys = context.borrowKeyList();
+            try {
+                for (String key : members.current().keySet()) {
+                    if (isAdditionalProperty(key, schema)) {
+                        additionalKeys.add(key);
+                    }
                 }
-            } else if (schema.get(ADDITIONAL_PROPERTIES).isJsonObject()) {
-                JsonObject additionalSchema = schema.get(ADDITIONAL_PROPERTIES).getAsJsonObject();
-                validateMultipleObjectsUsingOneSchema(inputProperties, object, additionalSchema);
+                validateMultipleObjectsUsingOneSchema(additionalKeys, members, additionalSchema, context);
+            } finally {
+                context.returnKeyList(additionalKeys);
             }
         }
     }
 
+    private static boolean isAdditionalProperty(String key, CompiledSchema schema) {
+        if (schema.getPropertyNames().contains(key)) {
+            return false;
+        }
+        for (Pattern pattern : schema.getPatternProperties().keySet()) {
+            if (pattern.matcher(key).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * This  method will process input objects matching with "patternProperties" regular expression.
      *
-     * @param object            input JSON object.
-     * @param schema            input schema.
-     * @param patternProperties arrayList which should be updated with matching keys of patternProperty.
+     * @param members  input JSON object members.
+     * @param patterns compiled schemas for each pattern.
+     * @param context  validation context of the current thread.
      * @throws ParserException    Exception occurred in data type conversions.
      * @throws ValidatorException Exception occurred in schema validations.
      */
-    private static void processPatternProperties(JsonObject object, JsonObject schema, ArrayList<String>
-            patternProperties) throws ParserException, ValidatorException {
-        Set<String> inputObjectKeyset = object.keySet();
-        JsonObject patternsObject = schema.getAsJsonObject(PATTERN_PROPERTIES);
-        Set<Map.Entry<String, JsonElement>> patterns = patternsObject.entrySet();
-        for (Map.Entry<String, JsonElement> pattern : patterns) {
-            String regex = pattern.getKey();
-            JsonObject tempSchema = pattern.getValue().getAsJsonObject();
-            if (tempSchema.has(ValidatorConstants.TYPE_KEY)) {
-                String type = tempSchema.get(ValidatorConstants.TYPE_KEY).getAsString().replaceAll(ValidatorConstants
-                        .REGEX, "");
+    private static void processPatternProperties(ObjectMembers members, Map<Pattern, CompiledSchema> patterns,
+                                                 ValidationContext context)
+            throws ParserException, ValidatorException {
+        for (Map.Entry<Pattern, CompiledSchema> pattern : patterns.entrySet()) {
+            if (context.isStopped()) {
+                return;
+            }
+            CompiledSchema tempSchema = pattern.getValue();
+            if (tempSchema.getType() != null) {
                 // get the list of keys matched the regular expression
-                ArrayList<String> matchingKeys = getMatchRegexAgainstStringSet(inputObjectKeyset, regex);
-                for (String key : matchingKeys) {
-                    // updating patternProperties array for later use in additional properties.
-                    if (!patternProperties.contains(key)) {
-                        patternProperties.add(key);
+                List<String> matchingKeys = context.borrowKeyList();
+                try {
+                    for (String key : members.current().keySet()) {
+                        if (pattern.getKey().matcher(key).find()) {
+                            matchingKeys.add(key);
+                        }
                     }
-                    parseAndReplaceValues(object, tempSchema, type, key);
+                    parseAndReplaceValues(members, tempSchema, matchingKeys, context);
+                } finally {
+                    context.returnKeyList(matchingKeys);
                 }
             } else {
-                ValidatorException exception = new ValidatorException("Schema for object must have a type declaration");
-                logger.error("Schema for object must have a type declaration " + tempSchema.toString(), exception);
-                throw exception;
-            }
-        }
-    }
-
-    /**
-     * Get matching set of keys inside object, for a given regular expression.
-     *
-     * @param keyset set of keys inside object.
-     * @param regex  regular expression.
-     * @return array of matching keys.
-     */
-    private static ArrayList<String> getMatchRegexAgainstStringSet(Set<String> keyset, String regex) {
-        ArrayList<String> matchingKeys = new ArrayList<>();
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher;
-        for (String item : keyset) {
-            matcher = pattern.matcher(item);
-            if (matcher.find()) {
-                matchingKeys.add(item);
+                context.report(new ValidatorException(ErrorCode.OBJECT_SCHEMA_MISSING_TYPE), null);
             }
         }
-        return matchingKeys;
     }
 
     /**
@@ -270,85 +261,122 @@ public class ObjectValidator {
      * @param maximumProperties maximum number of properties allowed.
      * @param minimumProperties minimum number of properties allowed.
      * @param entryInput        input object as a Map.
+     * @param context           validation context of the current thread.
      * @throws ValidatorException validation exception occurs.
+     * @throws ParserException    parsing exception occurs.
      */
     private static void doStructuralValidation(int maximumProperties, int minimumProperties, Set<Map.Entry<String,
-            JsonElement>> entryInput) throws ValidatorException {
+            JsonElement>> entryInput, ValidationContext context) throws ValidatorException, ParserException {
         int numOfProperties = entryInput.size();
 
         if (minimumProperties != -1 && numOfProperties < minimumProperties) {
-            ValidatorException exception = new ValidatorException("Object violates the minimum number of properties " +
-                    "constraint");
-            logger.error("Input object has less number of properties than allowed minimum " + minimumProperties,
-                    exception);
-            throw exception;
+            context.report(new ValidatorException(ErrorCode.MIN_PROPERTIES), null);
         }
         if (maximumProperties != -1 && numOfProperties > maximumProperties) {
-            ValidatorException exception = new ValidatorException("Object violates the maximum number of properties " +
-                    "constraint");
-            logger.error("Input object has higher number of properties than allowed maximum " + maximumProperties,
-                    exception);
-            throw exception;
+            context.report(new ValidatorException(ErrorCode.MAX_PROPERTIES), null);
         }
     }
 
     /**
-     * Given a single schema object and array of keys, this method will validate all input object keys
+     * Given a single schema object and list of keys, this method will validate all input object keys
      * according to the schema.
      *
-     * @param keysArray array of keys.
-     * @param input     input object.
-     * @param schema    schema object.
+     * @param keys    list of keys.
+     * @param members input object members.
+     * @param schema  compiled schema object.
+     * @param context validation context of the current thread.
      */
-    private static void validateMultipleObjectsUsingOneSchema(ArrayList<String> keysArray, JsonObject input,
-                                                              JsonObject schema) throws ValidatorException,
-            ParserException {
-        if (!schema.entrySet().isEmpty() && !keysArray.isEmpty()) {
-            if (schema.has(ValidatorConstants.TYPE_KEY)) {
-                String type = schema.get(ValidatorConstants.TYPE_KEY).toString().replaceAll
-                        (ValidatorConstants.REGEX, "");
-                for (String key : keysArray) {
-                    parseAndReplaceValues(input, schema, type, key);
-                }
+    private static void validateMultipleObjectsUsingOneSchema(List<String> keys, ObjectMembers members,
+                                                              CompiledSchema schema, ValidationContext context)
+            throws ValidatorException, ParserException {
+        if (!keys.isEmpty()) {
+            if (schema.getType() != null) {
+                parseAndReplaceValues(members, schema, keys, context);
             } else {
-                ValidatorException exception = new ValidatorException("Schema for array must have a type declaration");
-                logger.error("Schema for array must have a type declaration " + schema.toString(), exception);
-                throw exception;
+                context.report(new ValidatorException(ErrorCode.ARRAY_SCHEMA_MISSING_TYPE), null);
             }
         }
     }
 
     /**
-     * This method will parse and replace specific object defined by the key.
+     * This method will parse and replace specific object defined by the key. A failing value is kept unchanged
+     * when errors are collected.
      *
-     * @param input  input object.
-     * @param schema JSON schema.
-     * @param type   type of the object.
-     * @param key    key of the specific object/ element.
+     * @param members input object members.
+     * @param schema  compiled JSON schema.
+     * @param key     key of the specific object/ element.
+     * @param context validation context of the current thread.
      * @throws ParserException    Exception occurred in data type conversions.
      * @throws ValidatorException Exception occurred in schema validations.
      */
-    private static void parseAndReplaceValues(JsonObject input, JsonObject schema, String type, String key) throws
-            ParserException, ValidatorException {
+    private static void parseAndReplaceValues(ObjectMembers members, CompiledSchema schema, String key,
+                                              ValidationContext context) throws ParserException, ValidatorException {
+        JsonElement result = validateMember(members, schema, key, context);
+        if (result != null) {
+            members.move(key, result);
+        }
+    }
+
+    /**
+     * Validate the value of a member, adding its key to the path of a failure.
+     *
+     * @param members input object members.
+     * @param schema  compiled JSON schema.
+     * @param key     key of the member.
+     * @param context validation context of the current thread.
+     * @return corrected value, null if the value failed and errors are collected.
+     * @throws ParserException    Exception occurred in data type conversions.
+     * @throws ValidatorException Exception occurred in schema validations.
+     */
+    private static JsonElement validateMember(ObjectMembers members, CompiledSchema schema, String key,
+                                              ValidationContext context) throws ParserException, ValidatorException {
+        int mark = context.errorMark();
         JsonElement result = null;
-        if (ValidatorConstants.NUMERIC_KEYS.contains(type)) {
-            result = NumericValidator.validateNumeric(schema, input.get(key).toString());
-        } else if (ValidatorConstants.NOMINAL_KEYS.contains(type)) {
-            result = StringValidator.validateNominal(schema, input.get(key).toString());
-        } else if (ValidatorConstants.BOOLEAN_KEYS.contains(type)) {
-            result = BooleanValidator.validateBoolean(schema, input.get(key).toString());
-        } else if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
-            result = ArrayValidator.validateArray(GSONDataTypeConverter.getMapFromString(
-                    input.get(key).toString()), schema);
-        } else if (ValidatorConstants.OBJECT_KEYS.contains(type)) {
-            result = ObjectValidator.validateObject(input.get(key).getAsJsonObject(), schema);
-        } else if (ValidatorConstants.NULL_KEYS.contains(type)) {
-            if (input.get(key) != null) {
-                NullValidator.validateNull(schema, input.get(key).toString());
+        try {
+            result = ElementValidator.validate(schema, members.current().get(key), true, context);
+        } catch (ValidatorException | ParserException ex) {
+            context.report(ex, key);
+        }
+        context.leaveChild(mark, key);
+        return result;
+    }
+
+    /**
+     * This method will parse and replace the objects defined by a list of keys, in the order of the keys.
+     * Large lists are validated as fork/join subtasks, and the values are replaced once all of them are valid.
+     * In copy on write mode the values are also replaced once all of them are validated, so the object is only
+     * copied if the replacement changes it.
+     *
+     * @param members input object members.
+     * @param schema  compiled JSON schema.
+     * @param keys    keys of the objects/ elements.
+     * @param context validation context of the current thread.
+     * @throws ParserException    Exception occurred in data type conversions.
+     * @throws ValidatorException Exception occurred in schema validations.
+     */
+    private static void parseAndReplaceValues(ObjectMembers members, CompiledSchema schema, List<String> keys,
+                                              ValidationContext context) throws ParserException, ValidatorException {
+        boolean parallel = context.isParallel(keys.size());
+        if (!parallel && !members.isCopyOnWrite()) {
+            for (String key : keys) {
+                if (context.isStopped()) {
+                    return;
+                }
+                parseAndReplaceValues(members, schema, key, context);
+            }
+            return;
+        }
+        JsonElement[] values = new JsonElement[keys.size()];
+        if (parallel) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = members.current().get(keys.get(i));
+            }
+            ParallelValidation.validate(values, null, schema, true, keys::get, context);
+        } else {
+            for (int i = 0; i < values.length && !context.isStopped(); i++) {
+                values[i] = validateMember(members, schema, keys.get(i), context);
             }
-            result = JsonNull.INSTANCE;
         }
-        input.remove(key);
-        input.add(key, result);
+        members.moveAll(keys, values);
     }
 }
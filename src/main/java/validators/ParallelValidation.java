@@ -0,0 +1,145 @@
+package validators;
+
+import com.google.gson.JsonElement;
+import exceptions.JJParserException;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Validates the children of a large array or object as fork/join subtasks. Results are written back by index, so
+ * element order is kept, and the error reported is the one of the first failing child, as in a sequential pass.
+ */
+class ParallelValidation {
+
+    // number of subtasks per worker thread
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    // Use without instantiating.
+    private ParallelValidation() {
+    }
+
+    /**
+     * Failure of the child with the lowest index seen so far.
+     */
+    private static final class Failure {
+        private final int index;
+        private final Exception exception;
+
+        private Failure(int index, Exception exception) {
+            this.index = index;
+            this.exception = exception;
+        }
+    }
+
+    /**
+     * Validate the given values in parallel, replacing each value with its corrected element.
+     *
+     * @param values      values to validate, replaced in place by the corrected elements.
+     * @param schemas     schema of each value, or null to use the same schema for all values.
+     * @param schema      schema of all values, used when schemas is null.
+     * @param useJsonText pass scalars to validators as JSON text.
+     * @param segments    path segment of each value, the array index or object key.
+     * @param context     validation context of the calling thread.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    static void validate(JsonElement[] values, CompiledSchema[] schemas, CompiledSchema schema, boolean useJsonText,
+                         IntFunction<Object> segments, ValidationContext context)
+            throws ValidatorException, ParserException {
+        ForkJoinPool pool = context.getParallelPool();
+        int chunkSize = Math.max(1, values.length / (pool.getParallelism() * CHUNKS_PER_WORKER));
+        AtomicReference<Failure> failure = new AtomicReference<>();
+        ValidationTask task = new ValidationTask(values, schemas, schema, useJsonText, context, failure, 0,
+                values.length, chunkSize);
+        if (ForkJoinTask.getPool() == pool) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+        Failure first = failure.get();
+        if (first != null) {
+            if (first.exception instanceof JJParserException) {
+                ((JJParserException) first.exception).prependPath(segments.apply(first.index));
+            }
+            if (first.exception instanceof ValidatorException) {
+                throw (ValidatorException) first.exception;
+            } else if (first.exception instanceof ParserException) {
+                throw (ParserException) first.exception;
+            }
+            throw (RuntimeException) first.exception;
+        }
+    }
+
+    /**
+     * Fork/join task validating a range of values.
+     */
+    private static final class ValidationTask extends RecursiveAction {
+        private final JsonElement[] values;
+        private final CompiledSchema[] schemas;
+        private final CompiledSchema schema;
+        private final boolean useJsonText;
+        private final ValidationContext context;
+        private final AtomicReference<Failure> failure;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private ValidationTask(JsonElement[] values, CompiledSchema[] schemas, CompiledSchema schema,
+                               boolean useJsonText, ValidationContext context, AtomicReference<Failure> failure,
+                               int from, int to, int chunkSize) {
+            this.values = values;
+            this.schemas = schemas;
+            this.schema = schema;
+            this.useJsonText = useJsonText;
+            this.context = context;
+            this.failure = failure;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ValidationTask(values, schemas, schema, useJsonText, context, failure, from, middle,
+                        chunkSize), new ValidationTask(values, schemas, schema, useJsonText, context, failure,
+                        middle, to, chunkSize));
+                return;
+            }
+            // scratch collections are not thread safe, so each subtask uses its own context
+            ValidationContext local = context.fork();
+            for (int i = from; i < to; i++) {
+                Failure current = failure.get();
+                if (current != null && current.index < i) {
+                    // an earlier child already failed, later children can not change the reported error
+                    return;
+                }
+                try {
+                    values[i] = ElementValidator.validate(schemas != null ? schemas[i] : schema, values[i],
+                            useJsonText, local);
+                } catch (ValidatorException | ParserException | RuntimeException ex) {
+                    recordFailure(i, ex);
+                    return;
+                }
+            }
+        }
+
+        private void recordFailure(int index, Exception exception) {
+            Failure candidate = new Failure(index, exception);
+            while (true) {
+                Failure current = failure.get();
+                if ((current != null && current.index < index) || failure.compareAndSet(current, candidate)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package validators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+import schema.DataType;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * This class validates again a corrected document after a JSON Patch was applied to it, visiting only the paths
+ * touched by the patch. Replaced and added values are corrected with their whole subtree. The arrays and objects on
+ * the way to them only have their structural keywords checked: "required", "minProperties", "maxProperties",
+ * "additionalProperties", "minItems", "maxItems", "additionalItems" and "uniqueItems". Items of an array with an
+ * "items" array whose position changed are corrected again, since their schema changed with their position.
+ * <p>
+ * The context must be in copy on write mode, the document is left unchanged and the corrected document shares
+ * every value which needed no correction with it. Members corrected with "patternProperties" or
+ * "additionalProperties" keep their position instead of moving to the end of their object.
+ */
+public class PatchValidator {
+
+    // Use without instantiating.
+    private PatchValidator() {
+    }
+
+    /**
+     * Correct the touched paths of a patched document.
+     *
+     * @param document patched document, which was corrected according to the schema before being patched.
+     * @param schema   compiled schema with a type declaration.
+     * @param paths    paths touched by the patch, not including the whole document.
+     * @param context  validation context of the current thread, in copy on write mode.
+     * @return corrected document, the input document if nothing was corrected.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static JsonElement validate(JsonElement document, CompiledSchema schema, PatchedPaths paths,
+                                       ValidationContext context) throws ValidatorException, ParserException {
+        return validate(document, schema, paths.root(), context);
+    }
+
+    private static JsonElement validate(JsonElement element, CompiledSchema schema, PatchedPaths.Node node,
+                                        ValidationContext context) throws ValidatorException, ParserException {
+        if (node.isReplaced()) {
+            return ElementValidator.validate(schema, element, false, context);
+        } else if (schema.getDataType() == DataType.OBJECT && element.isJsonObject()) {
+            return validateObject(element.getAsJsonObject(), schema, node, context);
+        } else if (schema.getDataType() == DataType.ARRAY && element.isJsonArray()) {
+            return validateArray(element.getAsJsonArray(), schema, node, context);
+        }
+        return element;
+    }
+
+    /**
+     * Check the structural keywords of an object and correct its touched members with every schema applying to
+     * them, in the order of {@link ObjectValidator}.
+     */
+    private static JsonElement validateObject(JsonObject object, CompiledSchema schema, PatchedPaths.Node node,
+                                              ValidationContext context)
+            throws ValidatorException, ParserException {
+        for (String requiredKey : schema.getRequired()) {
+            if (!object.has(requiredKey)) {
+                context.report(new ValidatorException(ErrorCode.REQUIRED), null);
+                break;
+            }
+        }
+        if (schema.getMinProperties() != -1 && object.size() < schema.getMinProperties()) {
+            context.report(new ValidatorException(ErrorCode.MIN_PROPERTIES), null);
+        }
+        if (schema.getMaxProperties() != -1 && object.size() > schema.getMaxProperties()) {
+            context.report(new ValidatorException(ErrorCode.MAX_PROPERTIES), null);
+        }
+        boolean tracksAdditional = schema.hasAdditionalProperties() && schema.hasProperties();
+        JsonObject result = object;
+        for (Map.Entry<String, PatchedPaths.Node> child : node.children().entrySet()) {
+            if (context.isStopped()) {
+                break;
+            }
+            String key = child.getKey();
+            JsonElement value = object.get(key);
+            if (value == null) {
+                continue;
+            }
+            boolean additional = tracksAdditional && isAdditionalProperty(key, schema);
+            if (additional && Boolean.FALSE.equals(schema.getAdditionalPropertiesAllowed())) {
+                context.report(new ValidatorException(ErrorCode.ADDITIONAL_PROPERTIES), null);
+                continue;
+            }
+            JsonElement corrected = value;
+            int mark = context.errorMark();
+            try {
+                CompiledSchema propertySchema = schema.getProperties().get(key);
+                if (propertySchema != null && propertySchema.getType() != null) {
+                    corrected = validate(corrected, propertySchema, child.getValue(), context);
+                }
+                for (Map.Entry<Pattern, CompiledSchema> pattern : schema.getPatternProperties().entrySet()) {
+                    if (pattern.getValue().getType() != null && pattern.getKey().matcher(key).find()) {
+                        corrected = validate(corrected, pattern.getValue(), child.getValue(), context);
+                    }
+                }
+                CompiledSchema additionalSchema = schema.getAdditionalProperties();
+                if (additional && schema.getAdditionalPropertiesAllowed() == null && additionalSchema != null
+                        && !additionalSchema.isEmpty() && additionalSchema.getType() != null) {
+                    corrected = validate(corrected, additionalSchema, child.getValue(), context);
+                }
+            } catch (ValidatorException | ParserException ex) {
+                context.report(ex, key);
+            }
+            context.leaveChild(mark, key);
+            if (corrected != value) {
+                if (result == object) {
+                    result = copy(object);
+                }
+                result.add(key, corrected);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isAdditionalProperty(String key, CompiledSchema schema) {
+        if (schema.getPropertyNames().contains(key)) {
+            return false;
+        }
+        for (Pattern pattern : schema.getPatternProperties().keySet()) {
+            if (pattern.matcher(key).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check the structural keywords of an array and correct its touched items, and every item whose position
+     * changed when the items are validated by position.
+     */
+    private static JsonElement validateArray(JsonArray array, CompiledSchema schema, PatchedPaths.Node node,
+                                             ValidationContext context)
+            throws ValidatorException, ParserException {
+        if (schema.getMinItems() != -1 && array.size() < schema.getMinItems()) {
+            context.report(new ValidatorException(ErrorCode.MIN_ITEMS), null);
+        }
+        if (schema.getMaxItems() != -1 && array.size() > schema.getMaxItems()) {
+            context.report(new ValidatorException(ErrorCode.MAX_ITEMS), null);
+        }
+        int limit = itemsLimit(schema);
+        if (limit != -1 && array.size() > limit) {
+            context.report(new ValidatorException(ErrorCode.ADDITIONAL_ITEMS), null);
+        }
+        if (schema.isUniqueItems()) {
+            Set<JsonElement> items = new HashSet<>();
+            for (JsonElement item : array) {
+                if (!items.add(item)) {
+                    context.report(new ValidatorException(ErrorCode.UNIQUE_ITEMS), null);
+                    break;
+                }
+            }
+        }
+        JsonArray result = array;
+        int moved = schema.getItemsArray() != null && node.getShiftedFrom() != -1 ? node.getShiftedFrom()
+                : array.size();
+        for (int index = moved; index < array.size() && !context.isStopped(); index++) {
+            PatchedPaths.Node child = node.children().get(String.valueOf(index));
+            result = validateItem(array, result, index, schema, child != null ? child : PatchedPaths.Node.REPLACED, context);
+        }
+        for (Map.Entry<String, PatchedPaths.Node> child : node.children().entrySet()) {
+            int index = Integer.parseInt(child.getKey());
+            if (context.isStopped()) {
+                break;
+            } else if (index < moved && index < array.size()) {
+                result = validateItem(array, result, index, schema, child.getValue(), context);
+            }
+        }
+        return result;
+    }
+
+    private static JsonArray validateItem(JsonArray array, JsonArray result, int index, CompiledSchema schema,
+                                          PatchedPaths.Node node, ValidationContext context)
+            throws ValidatorException, ParserException {
+        CompiledSchema itemSchema = itemSchema(schema, index);
+        if (itemSchema == null) {
+            return result;
+        }
+        JsonElement item = array.get(index);
+        JsonElement corrected = item;
+        int mark = context.errorMark();
+        try {
+            corrected = validate(item, itemSchema, node, context);
+        } catch (ValidatorException | ParserException ex) {
+            context.report(ex, index);
+        }
+        context.leaveChild(mark, index);
+        if (corrected == item) {
+            return result;
+        }
+        if (result == array) {
+            result = new JsonArray();
+            result.addAll(array);
+        }
+        result.set(index, corrected);
+        return result;
+    }
+
+    /**
+     * Schema of an item, following "items" and "additionalItems" as {@link ItemSchemas} does.
+     *
+     * @return schema of the item, null if the item is not validated.
+     */
+    private static CompiledSchema itemSchema(CompiledSchema schema, int index) {
+        CompiledSchema level = schema;
+        int offset = 0;
+        while (true) {
+            List<CompiledSchema> schemas = level.getItemsArray();
+            if (schemas == null) {
+                CompiledSchema items = level.getItems();
+                return items != null && items.getType() != null ? items : null;
+            }
+            for (int i = 0; i < schemas.size() && i <= index - offset; i++) {
+                if (!schemas.get(i).isEmpty() && schemas.get(i).getType() == null) {
+                    return null;
+                }
+            }
+            if (index - offset < schemas.size()) {
+                CompiledSchema itemSchema = schemas.get(index - offset);
+                return itemSchema.isEmpty() ? null : itemSchema;
+            } else if (level.getAdditionalItems() == null) {
+                return null;
+            }
+            offset += schemas.size();
+            level = level.getAdditionalItems();
+        }
+    }
+
+    /**
+     * @return number of items allowed by "additionalItems": false, -1 if any number of items is allowed.
+     */
+    private static int itemsLimit(CompiledSchema schema) {
+        CompiledSchema level = schema;
+        int offset = 0;
+        while (level.getItemsArray() != null) {
+            offset += level.getItemsArray().size();
+            if (!level.isAdditionalItemsAllowed()) {
+                return offset;
+            } else if (level.getAdditionalItems() == null) {
+                break;
+            }
+            level = level.getAdditionalItems();
+        }
+        return -1;
+    }
+
+    private static JsonObject copy(JsonObject object) {
+        JsonObject copy = new JsonObject();
+        for (Map.Entry<String, JsonElement> member : object.entrySet()) {
+            copy.add(member.getKey(), member.getValue());
+        }
+        return copy;
+    }
+}
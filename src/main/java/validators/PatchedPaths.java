@@ -0,0 +1,163 @@
+package validators;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paths of a document touched by a JSON Patch, recorded while the patch is applied so that only those paths are
+ * validated again. A replaced path is validated with its whole subtree, and the arrays and objects on the way to it
+ * only have their structural keywords checked. Indices of array items are shifted as items are added and removed,
+ * so the recorded paths always point to the items of the patched document.
+ */
+public final class PatchedPaths {
+
+    private final Node root = new Node();
+
+    /**
+     * Record a value replaced or added at a path.
+     *
+     * @param path tokens of the path, empty for the whole document.
+     */
+    public void replaced(List<String> path) {
+        Node node = walk(path, path.size());
+        if (node != null) {
+            node.replaced = true;
+            node.children = null;
+        }
+    }
+
+    /**
+     * Record an item inserted into an array, shifting the recorded paths of the next items.
+     *
+     * @param array tokens of the path of the array.
+     * @param index index of the inserted item.
+     */
+    public void inserted(List<String> array, int index) {
+        Node node = walk(array, array.size());
+        if (node != null) {
+            node.shift(index, 1);
+            node.children().put(String.valueOf(index), new Node(true));
+        }
+    }
+
+    /**
+     * Record a member or an item removed from its parent, shifting the recorded paths of the next items of an
+     * array.
+     *
+     * @param parent tokens of the path of the parent.
+     * @param key    member name, or index of the item.
+     * @param array  the parent is an array.
+     */
+    public void removed(List<String> parent, String key, boolean array) {
+        Node node = walk(parent, parent.size());
+        if (node == null) {
+            return;
+        } else if (array) {
+            node.shift(Integer.parseInt(key), -1);
+        } else if (node.children != null) {
+            node.children.remove(key);
+        }
+    }
+
+    /**
+     * @return true if the whole document was replaced.
+     */
+    public boolean isDocumentReplaced() {
+        return root.replaced;
+    }
+
+    /**
+     * @return state of the root of the document.
+     */
+    Node root() {
+        return root;
+    }
+
+    /**
+     * Find or create the node of a path, returning null if the path is inside a replaced value.
+     */
+    private Node walk(List<String> path, int length) {
+        Node node = root;
+        for (int i = 0; i < length; i++) {
+            if (node.replaced) {
+                return null;
+            }
+            Node child = node.children().get(path.get(i));
+            if (child == null) {
+                child = new Node(false);
+                node.children.put(path.get(i), child);
+            }
+            node = child;
+        }
+        return node.replaced ? null : node;
+    }
+
+    /**
+     * State of a value of the patched document: replaced with its whole subtree, or on the way to replaced values.
+     */
+    static final class Node {
+
+        // state of the values moved to another position, corrected with their whole subtree
+        static final Node REPLACED = new Node(true);
+
+        private Map<String, Node> children;
+        private boolean replaced;
+        // index of the first item whose position changed, -1 if no item was inserted or removed
+        private int shiftedFrom = -1;
+
+        private Node() {
+        }
+
+        private Node(boolean replaced) {
+            this.replaced = replaced;
+        }
+
+        /**
+         * @return true if the value is validated with its whole subtree.
+         */
+        boolean isReplaced() {
+            return replaced;
+        }
+
+        /**
+         * @return index of the first item of an array whose position changed, -1 if none.
+         */
+        int getShiftedFrom() {
+            return shiftedFrom;
+        }
+
+        /**
+         * @return touched children by member name or item index.
+         */
+        Map<String, Node> children() {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children;
+        }
+
+        /**
+         * Move the children of an array from an index on, dropping the removed item.
+         */
+        private void shift(int index, int delta) {
+            shiftedFrom = shiftedFrom == -1 ? index : Math.min(shiftedFrom, index);
+            if (children == null || children.isEmpty()) {
+                return;
+            }
+            Map<String, Node> shifted = new HashMap<>();
+            for (Iterator<Map.Entry<String, Node>> it = children.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Node> child = it.next();
+                int position = Integer.parseInt(child.getKey());
+                if (position >= index) {
+                    it.remove();
+                    if (delta > 0 || position > index) {
+                        shifted.put(String.valueOf(position + delta), child.getValue());
+                    }
+                }
+            }
+            children.putAll(shifted);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package validators;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+
+import java.io.IOException;
+
+/**
+ * This class corrects a JSON document token by token, reading from a JsonReader and writing the corrected tokens
+ * to a JsonWriter, without building a tree of the document. Arrays and objects are streamed, so the memory used
+ * depends on the nesting depth and not on the size of the document. Only the values which can not be corrected in
+ * a single pass are read into a local tree and corrected by the tree validators:
+ * <ul>
+ * <li>scalars, which are small.</li>
+ * <li>arrays with "uniqueItems", since every item has to be compared.</li>
+ * <li>members matching "patternProperties" or validated by "additionalProperties", since they move to the end of
+ * the object.</li>
+ * <li>values which do not have the shape declared by their schema.</li>
+ * </ul>
+ * The output is the same as the output of the tree validators, except that duplicate member names are kept: a tree
+ * keeps only the last value of a name, while every member is written as it is read. A document violating several
+ * constraints may report another violation first, since violations are found in document order. The written output
+ * is incomplete when a violation is found and should be discarded.
+ */
+public class StreamingValidator {
+
+    // Use without instantiating.
+    private StreamingValidator() {
+    }
+
+    // reads and writes subtrees using the settings of the reader and the writer
+    private static final TypeAdapter<JsonElement> elementAdapter = new Gson().getAdapter(JsonElement.class);
+
+    /**
+     * Correct the next value of a reader according to a compiled schema and write the corrected value.
+     *
+     * @param in          reader positioned before the value.
+     * @param out         writer receiving the corrected value.
+     * @param schema      compiled schema with a type declaration.
+     * @param useJsonText pass scalars to validators as JSON text (with quotes) instead of their string value.
+     * @param context     validation context of the current thread.
+     * @throws IOException        Exception occurs while reading or writing.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static void validate(JsonReader in, JsonWriter out, CompiledSchema schema, boolean useJsonText,
+                                ValidationContext context) throws IOException, ValidatorException, ParserException {
+        JsonToken token = in.peek();
+        switch (schema.getDataType()) {
+            case ARRAY:
+                if (!schema.isUniqueItems()) {
+                    // any other value is wrapped inside an array
+                    validateArray(in, out, schema, token != JsonToken.BEGIN_ARRAY, context);
+                    return;
+                }
+                break;
+            case OBJECT:
+                if (token == JsonToken.BEGIN_OBJECT) {
+                    validateObject(in, out, schema, context);
+                    return;
+                }
+                break;
+            case BOOLEAN:
+            case STRING:
+            case NUMERIC:
+            case NULL:
+                break;
+            default:
+                copy(in, out);
+                return;
+        }
+        JsonElement element = elementAdapter.read(in);
+        JsonElement result;
+        try {
+            result = ElementValidator.validate(schema, element, useJsonText, context);
+        } catch (ValidatorException | ParserException ex) {
+            // a failing value is kept unchanged when errors are collected
+            elementAdapter.write(out, element);
+            throw ex;
+        }
+        elementAdapter.write(out, result);
+    }
+
+    /**
+     * Copy the next value of a reader to a writer without correcting it.
+     *
+     * @param in  reader positioned before the value.
+     * @param out writer receiving the value.
+     * @throws IOException Exception occurs while reading or writing.
+     */
+    public static void copy(JsonReader in, JsonWriter out) throws IOException {
+        int depth = 0;
+        do {
+            switch (in.peek()) {
+                case BEGIN_ARRAY:
+                    in.beginArray();
+                    out.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    in.endArray();
+                    out.endArray();
+                    depth--;
+                    break;
+                case BEGIN_OBJECT:
+                    in.beginObject();
+                    out.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    in.endObject();
+                    out.endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    out.name(in.nextName());
+                    break;
+                case STRING:
+                    out.value(in.nextString());
+                    break;
+                case NUMBER:
+                    out.jsonValue(in.nextString());
+                    break;
+                case BOOLEAN:
+                    out.value(in.nextBoolean());
+                    break;
+                case NULL:
+                    in.nextNull();
+                    out.nullValue();
+                    break;
+                default:
+                    throw new IOException("Unexpected end of the JSON document");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Stream the items of an array, checking the number of items once the array is read.
+     *
+     * @param in      reader positioned before the array.
+     * @param out     writer receiving the corrected array.
+     * @param schema  compiled array schema.
+     * @param wrapped the value is a single element wrapped inside an array.
+     * @param context validation context of the current thread.
+     */
+    private static void validateArray(JsonReader in, JsonWriter out, CompiledSchema schema, boolean wrapped,
+                                      ValidationContext context) throws IOException, ValidatorException,
+            ParserException {
+        ItemSchemas itemSchemas = new ItemSchemas(schema, context);
+        if (!wrapped) {
+            in.beginArray();
+        }
+        out.beginArray();
+        int count = 0;
+        while (wrapped ? count == 0 : in.hasNext()) {
+            if (context.isStopped()) {
+                return;
+            }
+            CompiledSchema itemSchema = itemSchemas.get(count);
+            int mark = context.errorMark();
+            try {
+                if (itemSchema != null) {
+                    validate(in, out, itemSchema, false, context);
+                } else {
+                    copy(in, out);
+                }
+            } catch (ValidatorException | ParserException ex) {
+                context.report(ex, count);
+            }
+            context.leaveChild(mark, count);
+            count++;
+        }
+        if (!wrapped) {
+            in.endArray();
+        }
+        out.endArray();
+        if (schema.getMinItems() != -1 && count < schema.getMinItems()) {
+            context.report(new ValidatorException(ErrorCode.MIN_ITEMS), null);
+        }
+        if (schema.getMaxItems() != -1 && count > schema.getMaxItems()) {
+            context.report(new ValidatorException(ErrorCode.MAX_ITEMS), null);
+        }
+    }
+
+    /**
+     * Stream the members of an object, see {@link ObjectMemberWriter}.
+     *
+     * @param in      reader positioned before the object.
+     * @param out     writer receiving the corrected object.
+     * @param schema  compiled object schema.
+     * @param context validation context of the current thread.
+     */
+    private static void validateObject(JsonReader in, JsonWriter out, CompiledSchema schema,
+                                       ValidationContext context) throws IOException, ValidatorException,
+            ParserException {
+        ObjectMemberWriter members = new ObjectMemberWriter(out, schema, context);
+        in.beginObject();
+        while (in.hasNext()) {
+            if (context.isStopped()) {
+                return;
+            }
+            members.member(in.nextName(), in);
+        }
+        in.endObject();
+        members.end();
+    }
+}
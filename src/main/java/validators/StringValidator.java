@@ -1,12 +1,13 @@
 package validators;
 
-import com.google.gson.*;
-import contants.ValidatorConstants;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import exceptions.ErrorCode;
 import exceptions.ParserException;
 import exceptions.ValidatorException;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-import utils.DataTypeConverter;
+import schema.CompiledSchema;
+
+import java.util.regex.Pattern;
 
 /**
  * This class validate strings against the given schema object.
@@ -17,13 +18,6 @@ public class StringValidator {
     private StringValidator() {
     }
 
-    // Logger instance
-    private static Log logger = LogFactory.getLog(StringValidator.class.getName());
-
-    private static final String MIN_LENGTH = "minLength";
-    private static final String MAX_LENGTH = "maxLength";
-    private static final String STR_PATTERN = "pattern";
-
     /**
      * Validate a given string against its schema.
      *
@@ -35,70 +29,58 @@ public class StringValidator {
      */
     public static JsonPrimitive validateNominal(JsonObject inputObject, String value) throws ValidatorException,
             ParserException {
+        return validateNominal(CompiledSchema.compile(inputObject), value);
+    }
+
+    /**
+     * Validate a given string against its compiled schema.
+     *
+     * @param schema compiled json schema.
+     * @param value  input string.
+     * @return if valid return a JsonPrimitive created using input string.
+     * @throws ValidatorException Didn't met validation criteria.
+     * @throws ParserException    A string keyword of the schema could not be read.
+     */
+    public static JsonPrimitive validateNominal(CompiledSchema schema, String value) throws ValidatorException,
+            ParserException {
+        return new JsonPrimitive(checkNominal(schema, value));
+    }
+
+    /**
+     * Validate a given string against its compiled schema, without creating a JSON element.
+     *
+     * @param schema compiled json schema.
+     * @param value  input string.
+     * @return the input string if valid.
+     * @throws ValidatorException Didn't met validation criteria.
+     * @throws ParserException    A string keyword of the schema could not be read.
+     */
+    public static String checkNominal(CompiledSchema schema, String value) throws ValidatorException,
+            ParserException {
         if (value == null) {
-            ValidatorException exception = new ValidatorException("Expected string but found null");
-            logger.error("Expected a string in the schema " + inputObject.toString() + " but found null input",
-                    exception);
-            throw exception;
+            throw new ValidatorException(ErrorCode.NULL_STRING);
         }
+        schema.checkStringKeywords();
         // String length validations
-        if (inputObject.has(MAX_LENGTH)) {
-            String maxLengthString = inputObject.get(MAX_LENGTH).getAsString().replaceAll(ValidatorConstants.REGEX, "");
-            if (!maxLengthString.isEmpty()) {
-                int maxLength = DataTypeConverter.convertToInt(maxLengthString);
-                if (value.length() > maxLength) {
-                    ValidatorException exception = new ValidatorException("String \"" + value + "\" violated the max " +
-                            "length constraint");
-                    logger.error("input string : " + value + " violated the maxLength constraint defined in : " +
-                            inputObject.toString(), exception);
-                    throw exception;
-                }
-            }
+        if (schema.getMaxLength() != -1 && value.length() > schema.getMaxLength()) {
+            throw new ValidatorException(ErrorCode.MAX_LENGTH, value);
         }
-        if (inputObject.has(MIN_LENGTH)) {
-            String minLengthString = inputObject.get(MIN_LENGTH).getAsString().replaceAll(ValidatorConstants.REGEX, "");
-            if (!minLengthString.isEmpty()) {
-                int minLength = DataTypeConverter.convertToInt(minLengthString);
-                if (value.length() < minLength) {
-                    ValidatorException exception = new ValidatorException("String \"" + value + "\" violated the min " +
-                            "length constraint");
-                    logger.error("input string : " + value + " violated the minLength constraint defined in : " +
-                            inputObject.toString(), exception);
-                    throw exception;
-                }
-            }
+        if (schema.getMinLength() != -1 && value.length() < schema.getMinLength()) {
+            throw new ValidatorException(ErrorCode.MIN_LENGTH, value);
         }
         // String pattern validations
-        if (inputObject.has(STR_PATTERN)) {
-            String patternString = inputObject.get(STR_PATTERN).getAsString().replaceAll(ValidatorConstants.REGEX, "");
-            if (!patternString.isEmpty() && !value.matches(patternString)) {
-                ValidatorException exception = new ValidatorException("String \"" + value + "\" violated the regex " +
-                        "constraint " + patternString);
-                logger.error("input string : " + value + " not matching with any regex defined in : " + inputObject
-                        .toString(), exception);
-                throw exception;
-            }
+        Pattern pattern = schema.getPattern();
+        if (pattern != null && !pattern.matcher(value).matches()) {
+            throw new ValidatorException(ErrorCode.PATTERN, value, pattern.pattern());
         }
         // Enum validations
-        if (inputObject.has(ValidatorConstants.ENUM)) {
-            JsonArray enumElements = inputObject.getAsJsonArray(ValidatorConstants.ENUM);
-            if (enumElements.size() > 0 && !enumElements.contains(new JsonPrimitive(value))) {
-                ValidatorException exception = new ValidatorException("String \"" + value + "\" not contains any " +
-                        "element from the enum");
-                logger.error("input string : " + value + " not contains any value defined in the enum of : " +
-                        inputObject.toString(), exception);
-                throw exception;
-            }
+        if (schema.hasEnum() && !schema.getStringEnum().contains(value)) {
+            throw new ValidatorException(ErrorCode.STRING_ENUM, value);
         }
         //Const validation
-        if (inputObject.has(ValidatorConstants.CONST) && !value.equals(inputObject.getAsJsonPrimitive
-                (ValidatorConstants.CONST).getAsString())) {
-            ValidatorException exception = new ValidatorException("String \"" + value + "\" is not equal to the const" +
-                    " value");
-            logger.error("input string : " + value + " not contains the const value defined in : " + inputObject
-                    .toString(), exception);
-            throw exception;
+        if (schema.hasConst() && !value.equals(schema.getStringConst())) {
+            throw new ValidatorException(ErrorCode.STRING_CONST, value);
         }
-        return new JsonPrimitive(value);
+        return value;
     }
 }
@@ -0,0 +1,269 @@
+package validators;
+
+import backend.JsonTape;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import schema.CompiledSchema;
+import schema.DataType;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * This class corrects a document parsed into a {@link JsonTape}, recording the corrected values as overrides of
+ * the tape instead of building a tree of the document. Arrays and objects are walked on the tape, and scalars are
+ * corrected one at a time, so only the corrected values are allocated. The values which can not be corrected in
+ * place are read into a local tree, corrected by the tree validators and recorded as one override:
+ * <ul>
+ * <li>arrays with "uniqueItems", since every item has to be compared.</li>
+ * <li>objects with "patternProperties" or with "additionalProperties" next to "properties", since their members
+ * may move to the end of the object.</li>
+ * <li>values which do not have the shape declared by their schema.</li>
+ * </ul>
+ * The written tape is the same as the output of the tree validators, except that duplicate member names are kept.
+ * <p>
+ * Values excluded by the projection a tape was parsed with are not corrected. The arrays and objects on the way to
+ * the projected paths only route their children to their schemas with "properties", "patternProperties",
+ * "additionalProperties", "items" and "additionalItems", their other keywords are not checked and their members
+ * keep their order.
+ */
+public class TapeValidator {
+
+    // Use without instantiating.
+    private TapeValidator() {
+    }
+
+    /**
+     * Correct a node of a tape according to a compiled schema.
+     *
+     * @param tape        parsed document.
+     * @param node        index of the node.
+     * @param schema      compiled schema with a type declaration.
+     * @param useJsonText pass scalars to validators as JSON text (with quotes) instead of their string value.
+     * @param context     validation context of the current thread.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public static void validate(JsonTape tape, int node, CompiledSchema schema, boolean useJsonText,
+                                ValidationContext context) throws ValidatorException, ParserException {
+        if (tape.isExcluded(node)) {
+            return;
+        } else if (tape.isPartial(node)) {
+            if (schema.getDataType() == DataType.ARRAY && tape.getType(node) == JsonTape.ARRAY) {
+                validatePartialArray(tape, node, schema, context);
+                return;
+            } else if (schema.getDataType() == DataType.OBJECT && tape.getType(node) == JsonTape.OBJECT) {
+                validatePartialObject(tape, node, schema, context);
+                return;
+            }
+        }
+        switch (schema.getDataType()) {
+            case ARRAY:
+                if (!schema.isUniqueItems() && tape.getType(node) == JsonTape.ARRAY) {
+                    validateArray(tape, node, schema, context);
+                    return;
+                }
+                break;
+            case OBJECT:
+                if (tape.getType(node) == JsonTape.OBJECT && schema.getPatternProperties().isEmpty()
+                        && !(schema.hasAdditionalProperties() && schema.hasProperties())) {
+                    validateObject(tape, node, schema, context);
+                    return;
+                }
+                break;
+            case BOOLEAN:
+            case STRING:
+            case NUMERIC:
+            case NULL:
+                break;
+            default:
+                return;
+        }
+        JsonElement element = tape.getElement(node);
+        JsonElement result = ElementValidator.validate(schema, element, useJsonText, context);
+        if (isChanged(element, result)) {
+            tape.setOverride(node, result);
+        }
+    }
+
+    /**
+     * Scalars equal to their input are not recorded. Arrays and objects may have been corrected in place, so they
+     * are always recorded.
+     */
+    private static boolean isChanged(JsonElement element, JsonElement result) {
+        if (element == result) {
+            return element.isJsonArray() || element.isJsonObject();
+        } else if (!element.isJsonPrimitive() || !result.isJsonPrimitive()) {
+            return !(element.isJsonNull() && result.isJsonNull());
+        }
+        JsonPrimitive input = element.getAsJsonPrimitive();
+        JsonPrimitive output = result.getAsJsonPrimitive();
+        if (input.isNumber() || output.isNumber()) {
+            // numbers of different types are equal in Gson, compare the serialized text instead
+            return !(input.isNumber() && output.isNumber() && input.toString().equals(output.toString()));
+        }
+        return !input.equals(output);
+    }
+
+    /**
+     * Correct the items of an array, checking the number of items once the array is walked.
+     */
+    private static void validateArray(JsonTape tape, int node, CompiledSchema schema, ValidationContext context)
+            throws ValidatorException, ParserException {
+        ItemSchemas itemSchemas = new ItemSchemas(schema, context);
+        int end = tape.next(node);
+        int count = 0;
+        for (int item = node + 1; item < end; item = tape.next(item)) {
+            if (context.isStopped()) {
+                return;
+            }
+            CompiledSchema itemSchema = itemSchemas.get(count);
+            if (itemSchema != null) {
+                int mark = context.errorMark();
+                try {
+                    validate(tape, item, itemSchema, false, context);
+                } catch (ValidatorException | ParserException ex) {
+                    context.report(ex, count);
+                }
+                context.leaveChild(mark, count);
+            }
+            count++;
+        }
+        if (schema.getMinItems() != -1 && count < schema.getMinItems()) {
+            context.report(new ValidatorException(ErrorCode.MIN_ITEMS), null);
+        }
+        if (schema.getMaxItems() != -1 && count > schema.getMaxItems()) {
+            context.report(new ValidatorException(ErrorCode.MAX_ITEMS), null);
+        }
+    }
+
+    /**
+     * Correct the projected items of an array on the way to the projected paths.
+     */
+    private static void validatePartialArray(JsonTape tape, int node, CompiledSchema schema,
+                                             ValidationContext context) throws ValidatorException, ParserException {
+        ItemSchemas itemSchemas = new ItemSchemas(schema, context);
+        int end = tape.next(node);
+        int count = 0;
+        for (int item = node + 1; item < end; item = tape.next(item), count++) {
+            if (context.isStopped()) {
+                return;
+            }
+            // schemas are followed in order, even for the excluded items
+            CompiledSchema itemSchema = itemSchemas.get(count);
+            if (itemSchema != null && !tape.isExcluded(item)) {
+                validateChild(tape, item, itemSchema, count, context);
+            }
+        }
+    }
+
+    /**
+     * Correct the projected members of an object on the way to the projected paths. A member is corrected with its
+     * declared property schema, or else the first matching pattern schema, or else the additional properties schema.
+     */
+    private static void validatePartialObject(JsonTape tape, int node, CompiledSchema schema,
+                                              ValidationContext context) throws ValidatorException, ParserException {
+        int end = tape.next(node);
+        for (int name = node + 1; name < end; name = tape.next(name + 1)) {
+            if (context.isStopped()) {
+                return;
+            } else if (tape.isExcluded(name + 1)) {
+                continue;
+            }
+            String key = tape.getString(name);
+            CompiledSchema memberSchema = memberSchema(schema, key);
+            if (memberSchema != null) {
+                validateChild(tape, name + 1, memberSchema, key, context);
+            }
+        }
+    }
+
+    private static CompiledSchema memberSchema(CompiledSchema schema, String key) {
+        CompiledSchema propertySchema = schema.getProperties().get(key);
+        if (propertySchema != null) {
+            return propertySchema.getType() != null ? propertySchema : null;
+        }
+        boolean matched = false;
+        for (Map.Entry<Pattern, CompiledSchema> pattern : schema.getPatternProperties().entrySet()) {
+            if (pattern.getKey().matcher(key).find()) {
+                if (pattern.getValue().getType() != null) {
+                    return pattern.getValue();
+                }
+                matched = true;
+            }
+        }
+        CompiledSchema additionalSchema = schema.getAdditionalProperties();
+        if (!matched && schema.hasProperties() && schema.getAdditionalPropertiesAllowed() == null
+                && additionalSchema != null && additionalSchema.getType() != null) {
+            return additionalSchema;
+        }
+        return null;
+    }
+
+    private static void validateChild(JsonTape tape, int node, CompiledSchema schema, Object segment,
+                                      ValidationContext context) throws ValidatorException, ParserException {
+        int mark = context.errorMark();
+        try {
+            validate(tape, node, schema, false, context);
+        } catch (ValidatorException | ParserException ex) {
+            context.report(ex, segment);
+        }
+        context.leaveChild(mark, segment);
+    }
+
+    /**
+     * Correct the declared properties of an object whose members never move, then check the required keys and the
+     * number of properties. Member names are only decoded when the schema declares properties or required keys.
+     */
+    private static void validateObject(JsonTape tape, int node, CompiledSchema schema, ValidationContext context)
+            throws ValidatorException, ParserException {
+        Set<String> requiredKeys = schema.getRequired().isEmpty() ? null : new HashSet<String>();
+        boolean readsNames = requiredKeys != null || schema.hasProperties();
+        int end = tape.next(node);
+        int count = 0;
+        for (int name = node + 1; name < end; name = tape.next(name + 1)) {
+            if (context.isStopped()) {
+                return;
+            }
+            count++;
+            if (!readsNames) {
+                continue;
+            }
+            String key = tape.getString(name);
+            if (requiredKeys != null && schema.getRequired().contains(key)) {
+                requiredKeys.add(key);
+            }
+            CompiledSchema propertySchema = schema.getProperties().get(key);
+            if (propertySchema == null || propertySchema.getType() == null) {
+                continue;
+            }
+            int mark = context.errorMark();
+            try {
+                validate(tape, name + 1, propertySchema, false, context);
+            } catch (ValidatorException | ParserException ex) {
+                context.report(ex, key);
+            }
+            context.leaveChild(mark, key);
+        }
+
+        if (requiredKeys != null) {
+            for (String requiredKey : schema.getRequired()) {
+                if (!requiredKeys.contains(requiredKey)) {
+                    context.report(new ValidatorException(ErrorCode.REQUIRED), null);
+                    break;
+                }
+            }
+        }
+        if (schema.getMinProperties() != -1 && count < schema.getMinProperties()) {
+            context.report(new ValidatorException(ErrorCode.MIN_PROPERTIES), null);
+        }
+        if (schema.getMaxProperties() != -1 && count > schema.getMaxProperties()) {
+            context.report(new ValidatorException(ErrorCode.MAX_PROPERTIES), null);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package validators;
+
+import exceptions.JJParserException;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mutable state of a single validation walk. Holds scratch collections which are reused for every nested value,
+ * so validating a document does not allocate new collections per object.
+ * A context must only be used by one thread at a time, but can be reused for any number of documents.
+ * A context created with a maximum error count above 1 keeps walking after a violation and collects the errors
+ * instead of throwing them, until the maximum is reached.
+ */
+public class ValidationContext {
+
+    // lists larger than this are dropped instead of being kept for reuse
+    private static final int MAX_RETAINED_LIST_SIZE = 1024;
+
+    private final ArrayDeque<List<String>> keyLists = new ArrayDeque<>();
+    private final ForkJoinPool parallelPool;
+    private final int parallelThreshold;
+    private final int maxErrors;
+    // errors collected in the current walk, null when the walk stops at the first error
+    private final List<JJParserException> errors;
+    // check the input without writing corrected values back
+    private boolean readOnly;
+    // leave the input unchanged and copy only the arrays and objects containing a corrected value
+    private boolean copyOnWrite;
+
+    /**
+     * Create a context validating every array and object on the calling thread.
+     */
+    public ValidationContext() {
+        this(null, 0);
+    }
+
+    /**
+     * Create a context validating the children of large arrays and objects as fork/join subtasks.
+     *
+     * @param parallelPool      pool running the subtasks, null to validate sequentially.
+     * @param parallelThreshold minimum number of children of an array or object to validate it in parallel,
+     *                          0 to validate sequentially.
+     */
+    public ValidationContext(ForkJoinPool parallelPool, int parallelThreshold) {
+        this(parallelPool, parallelThreshold, 1);
+    }
+
+    /**
+     * Create a context collecting up to a given number of errors. Errors are collected on the calling thread, so
+     * a collecting context never validates in parallel.
+     *
+     * @param parallelPool      pool running the subtasks, null to validate sequentially.
+     * @param parallelThreshold minimum number of children of an array or object to validate it in parallel,
+     *                          0 to validate sequentially.
+     * @param maxErrors         maximum number of errors collected before the walk stops, 1 to throw the first
+     *                          error.
+     */
+    public ValidationContext(ForkJoinPool parallelPool, int parallelThreshold, int maxErrors) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold should not be negative");
+        }
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("Maximum number of errors should be at least 1");
+        }
+        this.maxErrors = maxErrors;
+        this.errors = maxErrors > 1 ? new ArrayList<JJParserException>() : null;
+        this.parallelPool = parallelPool;
+        this.parallelThreshold = parallelPool != null && errors == null ? parallelThreshold : 0;
+    }
+
+    /**
+     * Create an empty context with the same settings, for a subtask running on another thread.
+     *
+     * @return new context.
+     */
+    ValidationContext fork() {
+        ValidationContext context = new ValidationContext(parallelPool, parallelThreshold);
+        context.readOnly = readOnly;
+        context.copyOnWrite = copyOnWrite;
+        return context;
+    }
+
+    /**
+     * Check whether a given number of children should be validated in parallel.
+     *
+     * @param size number of children.
+     * @return true to validate the children as fork/join subtasks.
+     */
+    boolean isParallel(int size) {
+        return parallelThreshold > 0 && size >= parallelThreshold && size > 1;
+    }
+
+    ForkJoinPool getParallelPool() {
+        return parallelPool;
+    }
+
+    /**
+     * Borrow an empty list of keys. Must be given back with {@link #returnKeyList(List)} once the caller is done,
+     * nested validations borrow their own lists.
+     *
+     * @return empty list.
+     */
+    List<String> borrowKeyList() {
+        List<String> list = keyLists.pollFirst();
+        return list != null ? list : new ArrayList<String>();
+    }
+
+    /**
+     * Give back a list borrowed with {@link #borrowKeyList()}.
+     *
+     * @param list borrowed list.
+     */
+    void returnKeyList(List<String> list) {
+        if (list.size() <= MAX_RETAINED_LIST_SIZE) {
+            list.clear();
+            keyLists.offerFirst(list);
+        }
+    }
+
+    /**
+     * Switch the read only mode. In read only mode the validators only check the input. Corrected values are not
+     * created and nothing is written back, so the input is left unchanged and validators return the input elements.
+     *
+     * @param readOnly true to check the input without correcting it.
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Switch the copy on write mode. In copy on write mode the input is never modified. Validators return a new
+     * array or object only if one of its values was corrected, and unchanged values are shared with the input, so
+     * only the paths leading to a correction are copied. Read only mode takes precedence.
+     *
+     * @param copyOnWrite true to correct the input without modifying it.
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * Check whether this context collects errors instead of throwing them.
+     *
+     * @return true if errors are collected.
+     */
+    public boolean isCollectingErrors() {
+        return errors != null;
+    }
+
+    /**
+     * Errors collected since the last call to {@link #clearErrors()}, in document order.
+     *
+     * @return collected errors, empty if this context does not collect errors.
+     */
+    public List<JJParserException> getErrors() {
+        return errors != null ? Collections.unmodifiableList(errors) : Collections.<JJParserException>emptyList();
+    }
+
+    /**
+     * Forget the collected errors, before validating another document.
+     */
+    public void clearErrors() {
+        if (errors != null) {
+            errors.clear();
+        }
+    }
+
+    /**
+     * Report a violation. Without error collection the error is thrown, with the segment of the failing child
+     * added to its path. Otherwise it is collected and its path is completed by {@link #leaveChild(int, Object)}.
+     *
+     * @param error   error found.
+     * @param segment array index or object key of the failing child, null if the error is about the current value.
+     * @throws ValidatorException the error, when errors are not collected.
+     * @throws ParserException    the error, when errors are not collected.
+     */
+    void report(JJParserException error, Object segment) throws ValidatorException, ParserException {
+        if (errors == null) {
+            if (segment != null) {
+                error.prependPath(segment);
+            }
+            if (error instanceof ValidatorException) {
+                throw (ValidatorException) error;
+            }
+            throw (ParserException) error;
+        }
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Position in the collected errors, taken before validating a child.
+     *
+     * @return number of errors collected so far.
+     */
+    int errorMark() {
+        return errors != null ? errors.size() : 0;
+    }
+
+    /**
+     * Add the segment of a child to the paths of the errors collected while validating it.
+     *
+     * @param mark    position returned by {@link #errorMark()} before validating the child.
+     * @param segment array index or object key of the child.
+     */
+    void leaveChild(int mark, Object segment) {
+        if (errors != null) {
+            for (int i = mark; i < errors.size(); i++) {
+                errors.get(i).prependPath(segment);
+            }
+        }
+    }
+
+    /**
+     * Check whether the maximum number of errors is reached, so the walk should stop.
+     *
+     * @return true if no more errors can be collected.
+     */
+    boolean isStopped() {
+        return errors != null && errors.size() >= maxErrors;
+    }
+}
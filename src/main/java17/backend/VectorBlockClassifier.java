@@ -0,0 +1,43 @@
+package backend;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Block classifier comparing whole vectors of bytes with the vector API. Loaded by {@link StructuralIndex} when the
+ * running JVM provides the jdk.incubator.vector module.
+ */
+final class VectorBlockClassifier implements BlockClassifier {
+
+    // widest vectors of at most 64 bytes, so each mask fits in a long
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.vectorByteSize() > 64
+            ? ByteVector.SPECIES_512 : ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public void classify(byte[] bytes, int index, long[] masks) {
+        long backslash = 0;
+        long quote = 0;
+        long whitespace = 0;
+        long operator = 0;
+        long special = 0;
+        for (int i = 0; i < 64; i += SPECIES.length()) {
+            ByteVector vector = ByteVector.fromArray(SPECIES, bytes, index + i);
+            backslash |= vector.eq((byte) '\\').toLong() << i;
+            quote |= vector.eq((byte) '"').toLong() << i;
+            VectorMask<Byte> space = vector.eq((byte) ' ').or(vector.eq((byte) '\t')).or(vector.eq((byte) '\n'))
+                    .or(vector.eq((byte) '\r'));
+            whitespace |= space.toLong() << i;
+            VectorMask<Byte> brackets = vector.eq((byte) '{').or(vector.eq((byte) '}')).or(vector.eq((byte) '['))
+                    .or(vector.eq((byte) ']')).or(vector.eq((byte) ':')).or(vector.eq((byte) ','));
+            operator |= brackets.toLong() << i;
+            // signed compare, bytes of non ASCII characters are negative
+            special |= vector.lt((byte) 0x20).toLong() << i;
+        }
+        masks[BACKSLASH] = backslash;
+        masks[QUOTE] = quote;
+        masks[WHITESPACE] = whitespace;
+        masks[OPERATOR] = operator;
+        masks[SPECIAL] = special;
+    }
+}
@@ -0,0 +1,64 @@
+package parser;
+
+/**
+ * Result of one item of a document stream. Holds either the corrected document or the error raised for that item.
+ *
+ * @param <T> type of the corrected document.
+ */
+public final class CorrectionResult<T> {
+
+    private final long sequence;
+    private final T output;
+    private final Exception error;
+
+    private CorrectionResult(long sequence, T output, Exception error) {
+        this.sequence = sequence;
+        this.output = output;
+        this.error = error;
+    }
+
+    static <T> CorrectionResult<T> success(long sequence, T output) {
+        return new CorrectionResult<>(sequence, output, null);
+    }
+
+    static <T> CorrectionResult<T> failure(long sequence, Exception error) {
+        return new CorrectionResult<>(sequence, null, error);
+    }
+
+    /**
+     * Position of the item in the stream, starting from 0.
+     *
+     * @return item sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Corrected document, null if the item failed.
+     *
+     * @return corrected document.
+     */
+    public T getOutput() {
+        return output;
+    }
+
+    /**
+     * Error raised for the item, usually a ValidatorException or a ParserException. Null if the item succeeded.
+     *
+     * @return error.
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "CorrectionResult{sequence=" + sequence + ", output=" + output + "}" :
+                "CorrectionResult{sequence=" + sequence + ", error=" + error + "}";
+    }
+}
@@ -0,0 +1,340 @@
+package parser;
+
+import com.google.gson.JsonElement;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import schema.CompiledSchema;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flow processor correcting a stream of JSON documents according to one compiled schema.
+ * Items are corrected concurrently, up to the configured parallelism, and published in the order they were
+ * received. Items are only requested from upstream while fewer than the buffer size are waiting to be published,
+ * so a slow subscriber slows down the upstream publisher instead of growing a queue.
+ * An item failing validation is published as a failed {@link CorrectionResult}, the subscription continues.
+ * A processor supports one subscriber.
+ *
+ * @param <T> type of the input documents.
+ * @param <R> type of the corrected documents.
+ */
+public class JsonCorrectionProcessor<T, R> implements Flow.Processor<T, CorrectionResult<R>> {
+
+    // Logger instance
+    private static Log logger = LogFactory.getLog(JsonCorrectionProcessor.class.getName());
+
+    /**
+     * Corrects one document.
+     */
+    private interface Corrector<T, R> {
+        R correct(T input) throws ValidatorException, ParserException;
+    }
+
+    /**
+     * Item received from upstream, in stream order.
+     */
+    private static final class Slot<T, R> {
+        private final long sequence;
+        private final T input;
+        private volatile CorrectionResult<R> result;
+
+        private Slot(long sequence, T input) {
+            this.sequence = sequence;
+            this.input = input;
+        }
+    }
+
+    private final Corrector<T, R> corrector;
+    private final Executor executor;
+    private final int parallelism;
+    private final int bufferSize;
+
+    // signals from any thread
+    private final ConcurrentLinkedQueue<T> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super CorrectionResult<R>> downstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile boolean cancelled;
+
+    // state only touched inside drain()
+    private final ArrayDeque<Slot<T, R>> pending = new ArrayDeque<>();
+    private final ArrayDeque<Slot<T, R>> notStarted = new ArrayDeque<>();
+    private long nextSequence;
+    private long emitted;
+    private long outstanding;
+    private boolean terminated;
+
+    private JsonCorrectionProcessor(Corrector<T, R> corrector, Executor executor, int parallelism, int bufferSize) {
+        if (executor == null || parallelism < 1 || bufferSize < parallelism) {
+            throw new IllegalArgumentException("Invalid processor configuration, parallelism should be at least 1 " +
+                    "and the buffer size at least the parallelism");
+        }
+        this.corrector = corrector;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Create a processor for JSON strings running on the common fork/join pool, buffering twice the parallelism.
+     *
+     * @param engine      engine correcting the documents.
+     * @param schema      compiled JSON schema.
+     * @param parallelism maximum number of documents corrected at the same time.
+     * @return processor.
+     */
+    public static JsonCorrectionProcessor<String, String> forStrings(JJParserEngine engine, CompiledSchema schema,
+                                                                     int parallelism) {
+        return forStrings(engine, schema, parallelism, 2 * parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a processor for JSON strings.
+     *
+     * @param engine      engine correcting the documents.
+     * @param schema      compiled JSON schema.
+     * @param parallelism maximum number of documents corrected at the same time.
+     * @param bufferSize  maximum number of documents received and not yet published, at least the parallelism.
+     * @param executor    executor correcting the documents.
+     * @return processor.
+     */
+    public static JsonCorrectionProcessor<String, String> forStrings(final JJParserEngine engine,
+                                                                     final CompiledSchema schema, int parallelism,
+                                                                     int bufferSize, Executor executor) {
+        checkEngine(engine, schema);
+        return new JsonCorrectionProcessor<>(input -> engine.parseJson(input, schema), executor, parallelism,
+                bufferSize);
+    }
+
+    /**
+     * Create a processor for parsed JSON elements running on the common fork/join pool, buffering twice the
+     * parallelism. Elements are corrected in place.
+     *
+     * @param engine      engine correcting the documents.
+     * @param schema      compiled JSON schema.
+     * @param parallelism maximum number of documents corrected at the same time.
+     * @return processor.
+     */
+    public static JsonCorrectionProcessor<JsonElement, JsonElement> forElements(JJParserEngine engine,
+                                                                                CompiledSchema schema,
+                                                                                int parallelism) {
+        return forElements(engine, schema, parallelism, 2 * parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a processor for parsed JSON elements. Elements are corrected in place.
+     *
+     * @param engine      engine correcting the documents.
+     * @param schema      compiled JSON schema.
+     * @param parallelism maximum number of documents corrected at the same time.
+     * @param bufferSize  maximum number of documents received and not yet published, at least the parallelism.
+     * @param executor    executor correcting the documents.
+     * @return processor.
+     */
+    public static JsonCorrectionProcessor<JsonElement, JsonElement> forElements(final JJParserEngine engine,
+                                                                                final CompiledSchema schema,
+                                                                                int parallelism, int bufferSize,
+                                                                                Executor executor) {
+        checkEngine(engine, schema);
+        return new JsonCorrectionProcessor<>(input -> engine.parseJsonElement(input, schema), executor,
+                parallelism, bufferSize);
+    }
+
+    private static void checkEngine(JJParserEngine engine, CompiledSchema schema) {
+        if (engine == null || schema == null) {
+            throw new IllegalArgumentException("Engine and schema should not be null");
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CorrectionResult<R>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber should not be null");
+        }
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("Processor supports only one subscriber"));
+                return;
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    upstreamError = new IllegalArgumentException("Requested items should be positive, got " + n);
+                    upstreamDone = true;
+                    cancelUpstream();
+                } else {
+                    addRequested(n);
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (upstream != null) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+        }
+        if (cancelled) {
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(T item) {
+        incoming.offer(item);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    private void addRequested(long n) {
+        while (true) {
+            long current = requested.get();
+            long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            if (requested.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Move the stream forward. Only one thread runs the loop at a time, other callers make it run once more.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            if (!terminated) {
+                drainOnce();
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void drainOnce() {
+        Flow.Subscriber<? super CorrectionResult<R>> subscriber = downstream;
+        if (cancelled) {
+            terminated = true;
+            incoming.clear();
+            pending.clear();
+            notStarted.clear();
+            return;
+        }
+        T item;
+        while ((item = incoming.poll()) != null) {
+            outstanding--;
+            Slot<T, R> slot = new Slot<>(nextSequence++, item);
+            pending.offer(slot);
+            notStarted.offer(slot);
+        }
+        while (!notStarted.isEmpty() && running.get() < parallelism) {
+            start(notStarted.poll());
+        }
+        if (subscriber == null) {
+            return;
+        }
+        while (!pending.isEmpty() && pending.peek().result != null && emitted < requested.get()) {
+            subscriber.onNext(pending.poll().result);
+            emitted++;
+        }
+        if (upstreamDone && incoming.isEmpty() && (pending.isEmpty() || upstreamError != null)) {
+            terminated = true;
+            pending.clear();
+            notStarted.clear();
+            if (upstreamError != null) {
+                subscriber.onError(upstreamError);
+            } else {
+                subscriber.onComplete();
+            }
+            return;
+        }
+        Flow.Subscription subscription = upstream;
+        long missing = bufferSize - pending.size() - outstanding;
+        if (subscription != null && !upstreamDone && missing > 0) {
+            outstanding += missing;
+            subscription.request(missing);
+        }
+    }
+
+    private void start(final Slot<T, R> slot) {
+        running.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    slot.result = CorrectionResult.success(slot.sequence, corrector.correct(slot.input));
+                } catch (Exception ex) {
+                    slot.result = CorrectionResult.failure(slot.sequence, ex);
+                } finally {
+                    running.decrementAndGet();
+                }
+                drain();
+            });
+        } catch (RejectedExecutionException ex) {
+            logger.error("Executor rejected stream item " + slot.sequence, ex);
+            running.decrementAndGet();
+            slot.result = CorrectionResult.failure(slot.sequence, ex);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package integrationTests;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Test;
+import parser.JJParserEngine;
+import parser.ParserOptions;
+import schema.CompiledSchema;
+
+/**
+ * This class will test the copy on write mode correcting JSON elements without modifying them.
+ */
+public class TestCopyOnWrite {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"properties\": {\"name\": {\"type\": " +
+            "\"string\"}, \"address\": {\"type\": \"object\", \"properties\": {\"city\": {\"type\": \"string\"}, " +
+            "\"zip\": {\"type\": \"integer\"}}}, \"grades\": {\"type\": \"array\", \"items\": {\"type\": " +
+            "\"object\", \"properties\": {\"maths\": {\"type\": \"integer\"}}}}, \"tags\": {\"type\": \"array\", " +
+            "\"items\": {\"type\": \"string\"}}}}";
+
+    private static final String INPUT = "{\"name\":\"Ann\",\"address\":{\"city\":\"Colombo\",\"zip\":10}," +
+            "\"grades\":[{\"maths\":90},{\"maths\":\"80\"},{\"maths\":70}],\"tags\":[\"a\",\"b\"]}";
+
+    /**
+     * This test checks the input is left unchanged and the output is the one of the mutating mode.
+     */
+    @Test
+    public void testInputUnchanged() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setCopyOnWrite(true));
+        CompiledSchema schema = engine.compile(SCHEMA);
+        JsonElement input = new JsonParser().parse(INPUT);
+        JsonElement output = engine.parseJsonElement(input, schema);
+        Assert.assertEquals("Input should not be modified", INPUT, input.toString());
+        Assert.assertEquals("Didn't receive the expected output", new JJParserEngine().parseJsonElement(
+                new JsonParser().parse(INPUT), schema), output);
+        Assert.assertEquals("Didn't receive the expected output", "{\"name\":\"Ann\",\"address\":{\"city\":" +
+                "\"Colombo\",\"zip\":10},\"grades\":[{\"maths\":90},{\"maths\":80},{\"maths\":70}],\"tags\":" +
+                "[\"a\",\"b\"]}", output.toString());
+    }
+
+    /**
+     * This test checks unchanged subtrees are shared with the input and only the path to a correction is copied.
+     */
+    @Test
+    public void testStructuralSharing() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setCopyOnWrite(true));
+        CompiledSchema schema = engine.compile(SCHEMA);
+        JsonObject input = new JsonParser().parse(INPUT).getAsJsonObject();
+        JsonObject output = engine.parseJsonElement(input, schema).getAsJsonObject();
+        Assert.assertNotSame("Corrected object should be copied", input, output);
+        Assert.assertSame("Unchanged object should be shared", input.get("address"), output.get("address"));
+        Assert.assertSame("Unchanged array should be shared", input.get("tags"), output.get("tags"));
+        Assert.assertNotSame("Corrected array should be copied", input.get("grades"), output.get("grades"));
+        Assert.assertSame("Unchanged item should be shared", input.getAsJsonArray("grades").get(0),
+                output.getAsJsonArray("grades").get(0));
+        Assert.assertNotSame("Corrected item should be copied", input.getAsJsonArray("grades").get(1),
+                output.getAsJsonArray("grades").get(1));
+    }
+
+    /**
+     * This test checks a valid input needing no correction is returned as is.
+     */
+    @Test
+    public void testUnchangedInput() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setCopyOnWrite(true));
+        CompiledSchema schema = engine.compile("{\"type\": \"object\", \"properties\": {\"id\": {\"type\": " +
+                "\"integer\"}}, \"patternProperties\": {\"^x\": {\"type\": \"boolean\"}}}");
+        JsonElement input = new JsonParser().parse("{\"id\":1,\"x1\":true,\"x2\":false}");
+        Assert.assertSame("Unchanged input should be returned", input, engine.parseJsonElement(input, schema));
+        input = new JsonParser().parse("{\"x1\":true,\"id\":1,\"x2\":false}");
+        JsonElement output = engine.parseJsonElement(input, schema);
+        Assert.assertEquals("Pattern properties should be moved as in the mutating mode",
+                "{\"id\":1,\"x1\":true,\"x2\":false}", output.toString());
+        Assert.assertEquals("Input should not be modified", "{\"x1\":true,\"id\":1,\"x2\":false}",
+                input.toString());
+    }
+
+    /**
+     * This test checks a failing input is left unchanged.
+     */
+    @Test
+    public void testInvalidInputUnchanged() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setCopyOnWrite(true));
+        CompiledSchema schema = engine.compile(SCHEMA);
+        JsonElement input = new JsonParser().parse("{\"name\":\"Ann\",\"grades\":[{\"maths\":\"80\"}," +
+                "{\"maths\":\"x\"}]}");
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.NOT_A_NUMBER,
+                engine.tryParseJsonElement(input, schema).getErrorCode());
+        Assert.assertEquals("Input should not be modified", "{\"name\":\"Ann\",\"grades\":[{\"maths\":\"80\"}," +
+                "{\"maths\":\"x\"}]}", input.toString());
+    }
+}
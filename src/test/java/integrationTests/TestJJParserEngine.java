@@ -0,0 +1,264 @@
+package integrationTests;
+
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.BatchResult;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.ParserExecutors;
+import parser.ParserOptions;
+import schema.CompiledSchema;
+import schema.SchemaCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * This class will test the instance based parser engine.
+ */
+public class TestJJParserEngine {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"properties\": {" +
+            "\"id\": {\"type\": \"integer\"}, \"tags\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}}}, " +
+            "\"patternProperties\": {\"^is\": {\"type\": \"boolean\"}}, " +
+            "\"additionalProperties\": {\"type\": \"number\"}}";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks the same engine gives the same results for consecutive documents on one thread.
+     */
+    @Test
+    public void testReuseAcrossDocuments() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("Didn't receive the expected payload",
+                    "{\"id\":" + i + ",\"tags\":[\"a\"],\"isNew\":true,\"price\":" + i + ".5}",
+                    engine.parseJson("{\"id\":\"" + i + "\",\"tags\":\"a\",\"isNew\":\"true\",\"price\":\"" + i +
+                            ".5\"}", SCHEMA));
+        }
+        Assert.assertEquals("Schema should be compiled once", 1, engine.getSchemaCache().getMissCount());
+    }
+
+    /**
+     * This test checks a failed document does not affect the next document parsed on the same thread.
+     */
+    @Test
+    public void testReuseAfterFailure() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine();
+        try {
+            engine.parseJson("{\"id\":1,\"isNew\":\"maybe\",\"isOld\":\"true\"}", SCHEMA);
+            Assert.fail("Expected a conversion failure");
+        } catch (ParserException expected) {
+            // expected
+        }
+        Assert.assertEquals("Didn't receive the expected payload", "{\"id\":1,\"isOld\":true}",
+                engine.parseJson("{\"id\":\"1\",\"isOld\":\"true\"}", SCHEMA));
+    }
+
+    /**
+     * This test checks one engine can be shared between threads.
+     */
+    @Test
+    public void testConcurrentUse() throws Exception {
+        final JJParserEngine engine = new JJParserEngine();
+        final CompiledSchema schema = engine.compile(SCHEMA);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int id = i;
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return engine.parseJson("{\"id\":\"" + id + "\",\"tags\":[\"x\"],\"price\":\"" + id + "\"}",
+                                schema);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals("Didn't receive the expected payload",
+                        "{\"id\":" + i + ",\"tags\":[\"x\"],\"price\":" + i + ".0}", results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * This test checks engine options.
+     */
+    @Test
+    public void testOptions() throws ValidatorException, ParserException {
+        SchemaCache cache = new SchemaCache(0, 0);
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setSchemaCache(cache)
+                .setReuseScratchState(false).setInitialBufferSize(0).setMaxRetainedBufferSize(0));
+        Assert.assertSame("Engine should use the given cache", cache, engine.getSchemaCache());
+        Assert.assertEquals("Didn't receive the expected payload", "[1,2]",
+                engine.parseJson("[\"1\",2]", "{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}"));
+        Assert.assertEquals("Cache should be disabled", 0, cache.size());
+
+        thrown.expect(IllegalArgumentException.class);
+        new ParserOptions().setInitialBufferSize(-1);
+    }
+
+    /**
+     * This test checks invalid inputs.
+     */
+    @Test
+    public void testInvalidInputs() throws ValidatorException, ParserException {
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("Invalid inputs");
+        new JJParserEngine().parseJson("{}", (CompiledSchema) null);
+    }
+
+    /**
+     * This test checks a batch keeps input order and reports per item errors on a fork/join pool.
+     */
+    @Test
+    public void testBatchOnForkJoinPool() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine();
+        CompiledSchema schema = engine.compile("{\"type\": \"object\", \"properties\": {" +
+                "\"id\": {\"type\": \"integer\"}, \"active\": {\"type\": \"boolean\"}}}");
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inputs.add("{\"id\":\"" + i + "\",\"active\":\"" + (i % 100 == 7 ? "maybe" : "true") + "\"}");
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<BatchResult> results = engine.parseJsonBatch(inputs, schema, pool);
+            Assert.assertEquals("Expected one result per input", inputs.size(), results.size());
+            for (int i = 0; i < results.size(); i++) {
+                BatchResult result = results.get(i);
+                Assert.assertEquals("Results should be in input order", i, result.getIndex());
+                if (i % 100 == 7) {
+                    Assert.assertFalse("Input should fail", result.isSuccess());
+                    Assert.assertTrue("Expected a conversion error", result.getError() instanceof ParserException);
+                } else {
+                    Assert.assertEquals("Didn't receive the expected payload",
+                            "{\"id\":" + i + ",\"active\":true}", result.getOutput());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * This test checks a batch on a plain executor, including malformed inputs.
+     */
+    @Test
+    public void testBatchOnExecutor() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<BatchResult> results = JavaJsonParser.parseJsonBatch(
+                    Arrays.asList("[\"1\"]", "[1,", "2", "[\"3\",4]"), schema, executor);
+            Assert.assertEquals("Didn't receive the expected payload", "[1]", results.get(0).getOutput());
+            Assert.assertFalse("Malformed input should fail", results.get(1).isSuccess());
+            Assert.assertEquals("Didn't receive the expected payload", "[2]", results.get(2).getOutput());
+            Assert.assertEquals("Didn't receive the expected payload", "[3,4]", results.get(3).getOutput());
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue("Empty batch should give no results",
+                JavaJsonParser.parseJsonBatch(new ArrayList<String>(), schema).isEmpty());
+    }
+
+    /**
+     * This test checks asynchronous parsing completes with the corrected payload or the validation error.
+     */
+    @Test
+    public void testAsync() throws Exception {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}");
+        Assert.assertEquals("Didn't receive the expected payload", "[1,2]",
+                JavaJsonParser.parseJsonAsync("[\"1\",2]", schema).get());
+        CompletableFuture<String> failed = new JJParserEngine().parseJsonAsync("[1]", "{\"type\": \"array\", " +
+                "\"maxItems\": 0}");
+        try {
+            failed.get();
+            Assert.fail("Expected a validation failure");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue("Expected a validation error", ex.getCause() instanceof ValidatorException);
+        }
+    }
+
+    /**
+     * This test checks documents are rejected once the maximum number of in flight documents is reached.
+     */
+    @Test
+    public void testAsyncRejection() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // occupy the only worker, so submitted documents stay in flight
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            JJParserEngine engine = new JJParserEngine(new ParserOptions().setAsyncExecutor(executor)
+                    .setMaxInFlight(2));
+            CompiledSchema schema = engine.compile("{\"type\": \"integer\"}");
+            CompletableFuture<String> first = engine.parseJsonAsync("\"1\"", schema);
+            CompletableFuture<String> second = engine.parseJsonAsync("\"2\"", schema);
+            CompletableFuture<String> third = engine.parseJsonAsync("\"3\"", schema);
+            Assert.assertEquals("Expected two documents in flight", 2, engine.getInFlightCount());
+            Assert.assertTrue("Third document should be rejected", third.isCompletedExceptionally());
+            try {
+                third.get();
+                Assert.fail("Expected a rejection");
+            } catch (ExecutionException ex) {
+                Assert.assertTrue("Expected a rejection", ex.getCause() instanceof RejectedExecutionException);
+            }
+            release.countDown();
+            Assert.assertEquals("Didn't receive the expected payload", "1", first.get());
+            Assert.assertEquals("Didn't receive the expected payload", "2", second.get());
+            Assert.assertEquals("Didn't receive the expected payload", "4",
+                    engine.parseJsonAsync("\"4\"", schema).get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * This test checks the virtual thread executor on JDKs supporting it.
+     */
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        if (!ParserExecutors.isVirtualThreadSupported()) {
+            thrown.expect(UnsupportedOperationException.class);
+            ParserExecutors.newVirtualThreadExecutor();
+            return;
+        }
+        ExecutorService executor = ParserExecutors.newVirtualThreadExecutor();
+        try {
+            JJParserEngine engine = new JJParserEngine(new ParserOptions().setAsyncExecutor(executor));
+            Assert.assertEquals("Didn't receive the expected payload", "true",
+                    engine.parseJsonAsync("\"true\"", "{\"type\": \"boolean\"}").get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
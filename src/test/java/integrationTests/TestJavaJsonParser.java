@@ -1,5 +1,6 @@
 package integrationTests;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import exceptions.ParserException;
 import exceptions.ValidatorException;
@@ -10,9 +11,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import parser.JavaJsonParser;
+import schema.CompiledSchema;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -162,4 +168,66 @@ public class TestJavaJsonParser {
         String inputJson = "{\"singleObjArray\":{\"bla\":\"3\"}}";
         JavaJsonParser.parseJson(inputJson, schema);
     }
+
+    /**
+     * This test checks a compiled schema can be reused for multiple inputs.
+     */
+    @Test
+    public void testCompiledSchemaReuse() throws ValidatorException, ParserException {
+        String schema = "{\"type\": \"array\", \"items\": {\"type\": \"object\", \"properties\": {" +
+                "\"id\": {\"type\": \"integer\"}, \"tags\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}}}}}";
+        CompiledSchema compiled = JavaJsonParser.compile(schema);
+        Assert.assertEquals("Didn't receive the expected payload", "[{\"id\":1,\"tags\":[\"a\"]}]",
+                JavaJsonParser.parseJson("{\"id\":\"1\",\"tags\":\"a\"}", compiled));
+        Assert.assertEquals("Didn't receive the expected payload", "[{\"id\":2,\"tags\":[\"b\",\"c\"]}]",
+                JavaJsonParser.parseJson("[{\"id\":2,\"tags\":[\"b\",\"c\"]}]", compiled));
+    }
+
+    /**
+     * This test checks compiling boolean and empty schemas.
+     */
+    @Test
+    public void testCompileBooleanSchemas() throws ValidatorException, ParserException {
+        Assert.assertTrue("{} should accept all inputs", JavaJsonParser.compile(" { } ").isAcceptAll());
+        Assert.assertTrue("true should accept all inputs", JavaJsonParser.compile("true").isAcceptAll());
+        Assert.assertTrue("false should reject all inputs", JavaJsonParser.compile("false").isRejectAll());
+        Assert.assertEquals("Didn't receive the expected payload", "123",
+                JavaJsonParser.parseJson("123", JavaJsonParser.compile("true")));
+    }
+
+    /**
+     * This test checks the reader and writer entry point.
+     */
+    @Test
+    public void testReaderAndWriter() throws ValidatorException, ParserException {
+        CompiledSchema compiled = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}");
+        StringWriter writer = new StringWriter();
+        JavaJsonParser.parseJson(new StringReader("[\"1\", 2, \"3\"]"), compiled, writer);
+        Assert.assertEquals("Didn't receive the expected payload", "[1,2,3]", writer.toString());
+    }
+
+    /**
+     * This test checks the input and output stream entry point with non ASCII content.
+     */
+    @Test
+    public void testStreams() throws ValidatorException, ParserException {
+        CompiledSchema compiled = JavaJsonParser.compile("{\"type\": \"object\", \"properties\": {" +
+                "\"name\": {\"type\": \"string\"}, \"age\": {\"type\": \"integer\"}}}");
+        String input = "{\"name\":\"\u0DBD\u0DC4\u0DD2\u0DBB\u0DD4 <3\",\"age\":\"27\"}";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JavaJsonParser.parseJson(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), compiled, output);
+        Assert.assertEquals("Didn't receive the expected payload",
+                "{\"name\":\"\u0DBD\u0DC4\u0DD2\u0DBB\u0DD4 <3\",\"age\":27}",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This test checks correcting an already parsed element.
+     */
+    @Test
+    public void testJsonElementInput() throws ValidatorException, ParserException {
+        CompiledSchema compiled = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"boolean\"}}");
+        JsonElement result = JavaJsonParser.parseJsonElement(parser.parse("\"true\""), compiled);
+        Assert.assertEquals("Didn't receive the expected element", parser.parse("[true]"), result);
+    }
 }
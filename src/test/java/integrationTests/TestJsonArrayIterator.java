@@ -0,0 +1,129 @@
+package integrationTests;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.JsonArrayIterator;
+import schema.CompiledSchema;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class will test iterating over the items of a top-level array.
+ */
+public class TestJsonArrayIterator {
+
+    private static final String SCHEMA = "{\"type\": \"array\", \"minItems\": 2, \"maxItems\": 3, \"items\": " +
+            "{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}, \"tags\": {\"type\": " +
+            "\"array\", \"items\": {\"type\": \"string\"}}}}}";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks the items are corrected one at a time.
+     */
+    @Test
+    public void testIterate() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        JsonArrayIterator iterator = JavaJsonParser.iterateArray(new ByteArrayInputStream(("[{\"id\":\"1\"," +
+                "\"tags\":\"a\"},{\"id\":2}]").getBytes(StandardCharsets.UTF_8)), schema);
+        Assert.assertTrue("Iterator should have an item", iterator.hasNext());
+        Assert.assertEquals("Didn't receive the expected item", "{\"id\":1,\"tags\":[\"a\"]}",
+                iterator.next().toString());
+        Assert.assertEquals("Only the first item should be read", 1, iterator.getCount());
+        Assert.assertEquals("Didn't receive the expected item", "{\"id\":2}", iterator.next().toString());
+        Assert.assertFalse("Iterator should be done", iterator.hasNext());
+    }
+
+    /**
+     * This test checks the stream view of the iterator.
+     */
+    @Test
+    public void testStream() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": " +
+                "\"integer\"}}");
+        try (Stream<JsonElement> items = new JJParserEngine().iterateArray(new StringReader("[\"1\",2,\"3\"]"),
+                schema).stream()) {
+            List<Integer> values = items.map(JsonElement::getAsInt).collect(Collectors.toList());
+            Assert.assertEquals("Didn't receive the expected items", "[1, 2, 3]", values.toString());
+        }
+    }
+
+    /**
+     * This test checks a failing item reports its index and iterating continues with the next item.
+     */
+    @Test
+    public void testFailingItem() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        JsonArrayIterator iterator = new JJParserEngine().iterateArray(new StringReader("[{\"id\":1}," +
+                "{\"id\":\"x\"},{\"id\":3}]"), schema);
+        iterator.next();
+        try {
+            iterator.next();
+            Assert.fail("Item should not be valid");
+        } catch (JsonParseException ex) {
+            Assert.assertEquals("Didn't receive the expected path", "/1/id",
+                    ((ParserException) ex.getCause()).getPath());
+        }
+        Assert.assertEquals("Didn't receive the expected item", "{\"id\":3}", iterator.next().toString());
+        Assert.assertFalse("Iterator should be done", iterator.hasNext());
+    }
+
+    /**
+     * This test checks the number of items is checked from the running count.
+     */
+    @Test
+    public void testItemCount() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        JJParserEngine engine = new JJParserEngine();
+        JsonArrayIterator iterator = engine.iterateArray(new StringReader("[{},{},{},{},{}]"), schema);
+        for (int i = 0; i < 3; i++) {
+            iterator.next();
+        }
+        try {
+            iterator.next();
+            Assert.fail("Array should have too many items");
+        } catch (JsonParseException ex) {
+            Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_ITEMS,
+                    ((ValidatorException) ex.getCause()).getErrorCode());
+        }
+        iterator = engine.iterateArray(new StringReader("[{}]"), schema);
+        iterator.next();
+        thrown.expect(JsonParseException.class);
+        thrown.expectMessage("minItems");
+        iterator.hasNext();
+    }
+
+    /**
+     * This test checks malformed input and schemas which are not array schemas.
+     */
+    @Test
+    public void testInvalidInput() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        JsonArrayIterator iterator = new JJParserEngine().iterateArray(new StringReader("[{},{]"), schema);
+        iterator.next();
+        try {
+            iterator.next();
+            Assert.fail("Input should be malformed");
+        } catch (JsonSyntaxException ex) {
+            Assert.assertFalse("Iterator should be done", iterator.hasNext());
+        }
+        thrown.expect(ParserException.class);
+        new JJParserEngine().iterateArray(new StringReader("[]"), JavaJsonParser.compile("{\"type\": \"object\"}"));
+    }
+}
@@ -0,0 +1,175 @@
+package integrationTests;
+
+import backend.GsonBackend;
+import backend.LimitExceededException;
+import backend.ParseLimits;
+import backend.Utf8Backend;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.ParserOptions;
+import parser.ValidationResult;
+import schema.CompiledSchema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class will test the UTF-8 byte backend against the default Gson backend.
+ */
+public class TestJsonBackend {
+
+    private final JJParserEngine gsonEngine = new JJParserEngine(new ParserOptions().setBackend(new GsonBackend()));
+    private final JJParserEngine utf8Engine = new JJParserEngine(new ParserOptions().setBackend(new Utf8Backend()));
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks the sample document gives the same output with both backends.
+     */
+    @Test
+    public void testSampleDocument() throws ValidatorException, ParserException, IOException {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        InputStream inputStream = classloader.getResourceAsStream("schema.json");
+        String schema = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        inputStream = classloader.getResourceAsStream("validatingInput.json");
+        String input = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        assertSameOutput(schema, input);
+    }
+
+    /**
+     * This test checks strings, escapes and numbers keep their value and text.
+     */
+    @Test
+    public void testValues() throws ValidatorException, ParserException {
+        assertSameOutput("{\"type\": \"object\"}", "{\"plain\":\"abc\",\"utf8\":\"d\u00e9j\u00e0 vu \u20ac " +
+                "\ud834\udd1e\",\"escapes\":\"a\\\"b\\\\c\\/\\n\\t\\u00e9\\ud834\\udd1e\"," +
+                "\"numbers\":[0,-0,12,-12,1.50,1e5,-2.5E-3,123456789012345678901234567890]," +
+                "\"literals\":[true,false,null],\"empty\":{\"a\":[],\"b\":{}}}");
+        assertSameOutput("{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}, \"price\": " +
+                "{\"type\": \"number\"}, \"name\": {\"type\": \"string\"}, \"tags\": {\"type\": \"array\", " +
+                "\"items\": {\"type\": \"string\"}}}}", " {\"id\":\"12\",\"price\":\"1.50\",\"name\":12," +
+                "\"tags\":\"\u00fcn\u00ef\"} ");
+        assertSameOutput("{\"type\": \"array\", \"uniqueItems\": true, \"items\": {\"type\": \"integer\", " +
+                "\"maximum\": 100}}", "[1,2,99]");
+    }
+
+    /**
+     * This test checks byte buffers and streams are read as UTF-8 bytes.
+     */
+    @Test
+    public void testBytes() throws ValidatorException, ParserException {
+        CompiledSchema schema = utf8Engine.compile("{\"type\": \"array\", \"items\": {\"type\": \"string\"}}");
+        byte[] bytes = "\uFEFF[\"d\u00e9j\u00e0\",1]".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        Assert.assertEquals("Didn't receive the expected output", "[\"d\u00e9j\u00e0\",\"1\"]",
+                utf8Engine.parseJsonElement(direct, schema).toString());
+        Assert.assertEquals("Buffer position should not change", 0, direct.position());
+        ByteBuffer slice = ByteBuffer.wrap(("xx" + "[\"a\"]").getBytes(StandardCharsets.UTF_8), 2, 5).slice();
+        Assert.assertEquals("Didn't receive the expected output", "[\"a\"]",
+                utf8Engine.parseJsonElement(slice, schema).toString());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        utf8Engine.parseJson(new ByteArrayInputStream(bytes), schema, output);
+        Assert.assertEquals("Didn't receive the expected output", "[\"d\u00e9j\u00e0\",\"1\"]",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This test checks invalid UTF-8 bytes are replaced in strings.
+     */
+    @Test
+    public void testInvalidUtf8() throws ValidatorException, ParserException {
+        CompiledSchema schema = utf8Engine.compile("{\"type\": \"array\", \"items\": {\"type\": \"string\"}}");
+        byte[] bytes = {'[', '"', 'a', (byte) 0xC3, 'b', (byte) 0xFF, '"', ']'};
+        JsonElement result = utf8Engine.parseJsonElement(ByteBuffer.wrap(bytes), schema);
+        Assert.assertEquals("Didn't receive the expected output", "a\uFFFDb\uFFFD",
+                result.getAsJsonArray().get(0).getAsString());
+    }
+
+    /**
+     * This test checks malformed and non strict documents are rejected.
+     */
+    @Test
+    public void testMalformedInput() throws ValidatorException, ParserException {
+        CompiledSchema schema = utf8Engine.compile("{\"type\": \"array\"}");
+        String[] inputs = {"[1,]", "[1 2]", "[01]", "[1.]", "[-]", "[\"a]", "[\"\\x\"]", "[tru]", "['a']",
+                "[1] x", "{\"a\" 1}", "{1:2}", "[NaN]", "[\"a\tb\"]"};
+        for (String input : inputs) {
+            ValidationResult<String> result = utf8Engine.tryParseJson(input, schema);
+            Assert.assertFalse("Input should be malformed : " + input, result.isValid());
+            Assert.assertEquals("Didn't receive the expected code", ErrorCode.MALFORMED_JSON,
+                    result.getError().getErrorCode());
+        }
+        thrown.expect(JsonSyntaxException.class);
+        thrown.expectMessage("at offset 3");
+        utf8Engine.parseJson("[1,]", schema);
+    }
+
+    /**
+     * This test checks nesting too deep for the stack is reported as malformed, as with the Gson backend.
+     */
+    @Test
+    public void testDeepNesting() throws ValidatorException, ParserException {
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            deep.append('[');
+        }
+        for (JJParserEngine engine : new JJParserEngine[]{gsonEngine, utf8Engine,
+                new JJParserEngine(new ParserOptions().setBackend(new Utf8Backend(true)))}) {
+            ValidationResult<String> result = engine.tryParseJson(deep.toString(), engine.compile("{\"type\": " +
+                    "\"array\"}"));
+            Assert.assertFalse("Input should be malformed", result.isValid());
+            Assert.assertEquals("Didn't receive the expected code", ErrorCode.MALFORMED_JSON,
+                    result.getError().getErrorCode());
+        }
+    }
+
+    /**
+     * This test checks the size of a reader is checked while it is read.
+     */
+    @Test
+    public void testReaderInputSize() {
+        Utf8Backend backend = new Utf8Backend(false, new ParseLimits(-1, 4, -1, -1, -1));
+        Assert.assertEquals("Document at the limit should be accepted", "\"\u00e9\u00e9\"",
+                backend.parse(new StringReader("\"\u00e9\u00e9\"")).toString());
+        thrown.expect(LimitExceededException.class);
+        backend.parse(new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                // never ends, so the limit must be checked while reading
+                Arrays.fill(buffer, offset, offset + length, ' ');
+                return length;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    private void assertSameOutput(String schema, String input) throws ValidatorException, ParserException {
+        String expected = gsonEngine.parseJson(input, gsonEngine.compile(schema));
+        Assert.assertEquals("UTF-8 backend output should match the Gson backend", expected,
+                utf8Engine.parseJson(input, utf8Engine.compile(schema)));
+        Assert.assertEquals("UTF-8 backend output should match the Gson backend", expected,
+                utf8Engine.parseJsonElement(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)),
+                        utf8Engine.compile(schema)).toString());
+    }
+}
@@ -0,0 +1,96 @@
+package integrationTests;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JavaJsonParser;
+import parser.JsonCorrectionTypeAdapterFactory;
+
+import java.util.List;
+
+/**
+ * This class will test correcting values while deserializing with Gson.
+ */
+public class TestJsonCorrectionTypeAdapterFactory {
+
+    private static final String ORDER_SCHEMA = "{\"type\": \"object\", \"properties\": {" +
+            "\"id\": {\"type\": \"integer\"}, \"paid\": {\"type\": \"boolean\"}, " +
+            "\"items\": {\"type\": \"array\", \"items\": {\"type\": \"object\", \"properties\": {" +
+            "\"name\": {\"type\": \"string\"}, \"price\": {\"type\": \"number\"}}}}}}";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    static class Item {
+        String name;
+        double price;
+    }
+
+    static class Order {
+        long id;
+        boolean paid;
+        List<Item> items;
+    }
+
+    /**
+     * This test checks values are corrected before binding, including nested single element arrays.
+     */
+    @Test
+    public void testCorrectWhileDeserializing() throws ValidatorException, ParserException {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new JsonCorrectionTypeAdapterFactory()
+                .register(Order.class, JavaJsonParser.compile(ORDER_SCHEMA))).create();
+        Order order = gson.fromJson("{\"id\":\"42\",\"paid\":\"true\",\"items\":{\"name\":\"pen\"," +
+                "\"price\":\"2.5\"}}", Order.class);
+        Assert.assertEquals("Didn't receive the expected id", 42, order.id);
+        Assert.assertTrue("Didn't receive the expected paid flag", order.paid);
+        Assert.assertEquals("Single item should be wrapped in a list", 1, order.items.size());
+        Assert.assertEquals("Didn't receive the expected price", 2.5, order.items.get(0).price, 0);
+        Assert.assertNull("Null input should give null", gson.fromJson("null", Order.class));
+    }
+
+    /**
+     * This test checks registering a parameterized type.
+     */
+    @Test
+    public void testParameterizedType() throws ValidatorException, ParserException {
+        TypeToken<List<Integer>> type = new TypeToken<List<Integer>>() {
+        };
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new JsonCorrectionTypeAdapterFactory()
+                .register(type, JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}")))
+                .create();
+        List<Integer> values = gson.fromJson("\"7\"", type.getType());
+        Assert.assertEquals("Didn't receive the expected list", 7, values.get(0).intValue());
+    }
+
+    /**
+     * This test checks validation errors are reported as parse errors.
+     */
+    @Test
+    public void testValidationError() throws ValidatorException, ParserException {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new JsonCorrectionTypeAdapterFactory()
+                .register(Order.class, JavaJsonParser.compile(ORDER_SCHEMA))).create();
+        thrown.expect(JsonParseException.class);
+        thrown.expectCause(CoreMatchers.<Throwable>instanceOf(ParserException.class));
+        gson.fromJson("{\"id\":\"forty two\"}", Order.class);
+    }
+
+    /**
+     * This test checks values of another kind than their schema are reported as parse errors.
+     */
+    @Test
+    public void testShapeMismatch() throws ValidatorException, ParserException {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new JsonCorrectionTypeAdapterFactory()
+                .register(Order.class, JavaJsonParser.compile(ORDER_SCHEMA))).create();
+        thrown.expect(JsonParseException.class);
+        thrown.expectCause(CoreMatchers.<Throwable>instanceOf(ValidatorException.class));
+        gson.fromJson("{\"items\":[{\"name\":{\"first\":\"pen\"}}]}", Order.class);
+    }
+}
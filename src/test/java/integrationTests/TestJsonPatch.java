@@ -0,0 +1,81 @@
+package integrationTests;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import schema.CompiledSchema;
+
+/**
+ * This class will test the JSON Patch output of corrections.
+ */
+public class TestJsonPatch {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"properties\": {\"name\": {\"type\": " +
+            "\"string\"}, \"active\": {\"type\": \"boolean\"}, \"a/b\": {\"type\": \"array\", \"items\": {\"type\": " +
+            "\"integer\"}}, \"grades\": {\"type\": \"array\", \"items\": {\"type\": \"object\", \"properties\": " +
+            "{\"maths\": {\"type\": \"integer\"}}}}}}";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks only the corrected values are part of the patch.
+     */
+    @Test
+    public void testPatch() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        String patch = JavaJsonParser.parseJsonPatch("{\"name\":\"Ann\",\"active\":\"true\",\"a/b\":\"5\"," +
+                "\"grades\":[{\"maths\":90},{\"maths\":\"80\"}]}", schema);
+        Assert.assertEquals("Didn't receive the expected patch", "[{\"op\":\"replace\",\"path\":\"/active\"," +
+                "\"value\":true},{\"op\":\"replace\",\"path\":\"/a~1b\",\"value\":[5]},{\"op\":\"replace\"," +
+                "\"path\":\"/grades/1/maths\",\"value\":80}]", patch);
+    }
+
+    /**
+     * This test checks a valid input gives an empty patch.
+     */
+    @Test
+    public void testEmptyPatch() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        Assert.assertEquals("Didn't receive the expected patch", "[]", JavaJsonParser.parseJsonPatch(
+                "{\"name\":\"Ann\",\"active\":false,\"grades\":[{\"maths\":90}]}", schema));
+        Assert.assertEquals("Didn't receive the expected patch", "[{\"op\":\"replace\",\"path\":\"\",\"value\":12}]",
+                JavaJsonParser.parseJsonPatch("\"12\"", JavaJsonParser.compile("{\"type\": \"integer\"}")));
+    }
+
+    /**
+     * This test checks a parsed element is left unchanged.
+     */
+    @Test
+    public void testElementPatch() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        JsonElement input = new JsonParser().parse("{\"active\":\"false\"}");
+        Assert.assertEquals("Didn't receive the expected patch", "[{\"op\":\"replace\",\"path\":\"/active\"," +
+                "\"value\":false}]", new JJParserEngine().parseJsonPatch(input, schema).toString());
+        Assert.assertEquals("Input should not be modified", "{\"active\":\"false\"}", input.toString());
+    }
+
+    /**
+     * This test checks invalid inputs are reported as for the full output.
+     */
+    @Test
+    public void testInvalidPatch() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        JJParserEngine engine = new JJParserEngine();
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.NOT_A_BOOLEAN,
+                engine.tryParseJsonPatch("{\"active\":\"maybe\"}", schema).getErrorCode());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MALFORMED_JSON,
+                engine.tryParseJsonPatch("{\"active\":", schema).getErrorCode());
+        thrown.expect(JsonSyntaxException.class);
+        engine.parseJsonPatch("{\"active\":", schema);
+    }
+}
@@ -0,0 +1,226 @@
+package integrationTests;
+
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.JsonPushParser;
+import parser.ParserOptions;
+import schema.CompiledSchema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class will test correcting a document fed to the push parser in chunks.
+ */
+public class TestJsonPushParser {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks the output matches the tree corrector whatever the size of the chunks.
+     */
+    @Test
+    public void testChunkSizes() throws ValidatorException, ParserException {
+        String objectSchema = "{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}, \"v\": " +
+                "{\"type\": \"string\"}, \"any\": {\"type\": \"array\"}}, \"patternProperties\": {\"^x\": " +
+                "{\"type\": \"number\"}}, \"additionalProperties\": {\"type\": \"boolean\"}}";
+        String objectInput = "{ \"x1\" : \"2\", \"id\":\"12\",\"extra\":\"true\",\"v\":\"a,]}\\\"b\"," +
+                "\"any\":[1,{\"b\":null}], \"name\":\"false\" }";
+        String arraySchema = "{\"type\": \"array\", \"items\": {\"type\": \"object\", \"properties\": {\"id\": " +
+                "{\"type\": \"integer\"}, \"v\": {\"type\": \"string\"}}}}";
+        String arrayInput = " [ {\"id\":\"1\",\"v\":\"\u20ac,]\"} , {\"id\":2,\"n\":null,\"v\":[\"x\"]} ] ";
+        for (int size : new int[]{1, 2, 3, 7, 1000}) {
+            assertSameOutput(objectSchema, objectInput, size);
+            assertSameOutput(arraySchema, arrayInput, size);
+            assertSameOutput(arraySchema, "[]", size);
+            assertSameOutput("{\"type\": \"string\"}", "12", size);
+            assertSameOutput("{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}", "\"5\"", size);
+            assertSameOutput("true", "{\"a\":[1,\"\u00fc\"]}", size);
+        }
+    }
+
+    /**
+     * This test checks each item is written as soon as it is complete.
+     */
+    @Test
+    public void testIncrementalOutput() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": " +
+                "\"integer\"}}");
+        StringWriter output = new StringWriter();
+        JsonPushParser parser = JavaJsonParser.newPushParser(schema, output);
+        parser.feed(utf8("[\"1\","));
+        Assert.assertEquals("First item should be written", "[1", output.toString());
+        parser.feed(utf8("\"2"));
+        Assert.assertEquals("An incomplete item should not be written", "[1", output.toString());
+        parser.feed(utf8("\"]"));
+        Assert.assertEquals("Array should be complete", "[1,2]", output.toString());
+        parser.finish();
+        Assert.assertEquals("Didn't receive the expected output", "[1,2]", output.toString());
+    }
+
+    /**
+     * This test checks violations are thrown with their path and stop the parser.
+     */
+    @Test
+    public void testViolations() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine();
+        CompiledSchema schema = engine.compile("{\"type\": \"array\", \"maxItems\": 2, \"items\": {\"type\": " +
+                "\"object\", \"required\": [\"id\"], \"properties\": {\"id\": {\"type\": \"integer\", " +
+                "\"maximum\": 10}}}}");
+        assertViolation(engine, schema, "[{\"id\":1},{\"id\":11}]", ErrorCode.MAXIMUM, "/1/id");
+        assertViolation(engine, schema, "[{\"id\":1},{}]", ErrorCode.REQUIRED, "/1");
+        assertViolation(engine, schema, "[{\"id\":1},{\"id\":2},{\"id\":3}]", ErrorCode.MAX_ITEMS, "");
+
+        JsonPushParser parser = engine.newPushParser(schema, new StringWriter());
+        try {
+            parser.feed(utf8("[{\"id\":12},"));
+            Assert.fail("Input should not be valid");
+        } catch (ValidatorException ex) {
+            Assert.assertEquals("Didn't receive the expected path", "/0/id", ex.getPath());
+        }
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("The parser failed on a previous chunk");
+        parser.feed(utf8("{\"id\":1}]"));
+    }
+
+    /**
+     * This test checks malformed and incomplete documents.
+     */
+    @Test
+    public void testMalformedInput() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": " +
+                "\"integer\"}}");
+        assertMalformed(schema, "[1,,2]");
+        assertMalformed(schema, "[1 2]");
+        assertMalformed(schema, "[1,2");
+        assertMalformed(schema, "");
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("Unexpected content after the JSON document");
+        JsonPushParser parser = JavaJsonParser.newPushParser(schema, new StringWriter());
+        parser.feed(utf8("[1] [2]"));
+    }
+
+    /**
+     * This test checks the kept characters are limited and roots the schema rejects fail on their first character.
+     */
+    @Test
+    public void testBufferLimit() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxPushBuffer(8));
+        assertBufferExceeded(engine.newPushParser(engine.compile("{\"type\": \"string\"}"), new StringWriter()),
+                "\"abcdefghijkl");
+        assertBufferExceeded(engine.newPushParser(engine.compile("{\"type\": \"array\", \"items\": {\"type\": " +
+                "\"string\"}}"), new StringWriter()), "[\"abc\",\"abcdefghijkl");
+        StringWriter output = new StringWriter();
+        JsonPushParser parser = engine.newPushParser(engine.compile("{\"type\": \"array\"}"), output);
+        parser.feed(utf8("[\"abcdef\",\"abcdef\",\"abcdef\"]"));
+        parser.finish();
+        Assert.assertEquals("Items within the limit should be accepted", "[\"abcdef\",\"abcdef\",\"abcdef\"]",
+                output.toString());
+
+        parser = engine.newPushParser(engine.compile("{\"type\": \"object\"}"), new StringWriter());
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("Expected a json object input");
+        parser.feed(utf8("["));
+    }
+
+    /**
+     * This test checks the output stream receives UTF-8.
+     */
+    @Test
+    public void testOutputStream() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": " +
+                "\"string\"}}");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonPushParser parser = new JJParserEngine().newPushParser(schema, output);
+        feedInChunks(parser, "[\"d\u00e9j\u00e0\",1]".getBytes(StandardCharsets.UTF_8), 1);
+        parser.finish();
+        Assert.assertEquals("Didn't receive the expected output", "[\"d\u00e9j\u00e0\",\"1\"]",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This test checks single quoted strings and comments accepted by the lenient reader do not split items or
+     * members.
+     */
+    @Test
+    public void testLenientInput() throws ValidatorException, ParserException {
+        String arraySchema = "{\"type\": \"array\", \"items\": {\"type\": \"string\"}}";
+        String objectSchema = "{\"type\": \"object\", \"properties\": {\"a\": {\"type\": \"string\"}}}";
+        for (int chunkSize : new int[]{1, 3, 64}) {
+            assertSameOutput(arraySchema, "['a,b','c\\',\"d']", chunkSize);
+            assertSameOutput(arraySchema, "[\"a\" /* , ] */, \"c\"]", chunkSize);
+            assertSameOutput(arraySchema, "[\"a\", // x, y]\n\"b\" # z, ]\n]", chunkSize);
+            assertSameOutput(arraySchema, "/* [ */ [1 /**/, 2]", chunkSize);
+            assertSameOutput(objectSchema, "{'a':'x,y', \"b\": '}'}", chunkSize);
+        }
+    }
+
+    private static void assertSameOutput(String schema, String input, int chunkSize) throws ValidatorException,
+            ParserException {
+        CompiledSchema compiled = JavaJsonParser.compile(schema);
+        StringWriter expected = new StringWriter();
+        JavaJsonParser.parseJson(new StringReader(input), compiled, expected);
+        StringWriter pushed = new StringWriter();
+        JsonPushParser parser = JavaJsonParser.newPushParser(compiled, pushed);
+        feedInChunks(parser, input.getBytes(StandardCharsets.UTF_8), chunkSize);
+        parser.finish();
+        Assert.assertEquals("Push parser output should match the tree output with chunks of " + chunkSize,
+                expected.toString(), pushed.toString());
+    }
+
+    private static void assertViolation(JJParserEngine engine, CompiledSchema schema, String input, ErrorCode code,
+                                        String path) throws ParserException {
+        try {
+            JsonPushParser parser = engine.newPushParser(schema, new StringWriter());
+            feedInChunks(parser, input.getBytes(StandardCharsets.UTF_8), 4);
+            parser.finish();
+            Assert.fail("Input should not be valid");
+        } catch (ValidatorException ex) {
+            Assert.assertEquals("Didn't receive the expected code", code, ex.getErrorCode());
+            Assert.assertEquals("Didn't receive the expected path", path, ex.getPath());
+        }
+    }
+
+    private static void assertBufferExceeded(JsonPushParser parser, String input) throws ValidatorException {
+        try {
+            parser.feed(utf8(input));
+            Assert.fail("Input should exceed the buffer : " + input);
+        } catch (ParserException ex) {
+            Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_PUSH_BUFFER, ex.getErrorCode());
+        }
+    }
+
+    private static void assertMalformed(CompiledSchema schema, String input) throws ValidatorException {
+        try {
+            JsonPushParser parser = JavaJsonParser.newPushParser(schema, new StringWriter());
+            parser.feed(utf8(input));
+            parser.finish();
+            Assert.fail("Input should be malformed : " + input);
+        } catch (ParserException ex) {
+            Assert.assertEquals("Didn't receive the expected code", ErrorCode.MALFORMED_JSON, ex.getErrorCode());
+        }
+    }
+
+    private static void feedInChunks(JsonPushParser parser, byte[] bytes, int chunkSize) throws ValidatorException,
+            ParserException {
+        for (int start = 0; start < bytes.length; start += chunkSize) {
+            parser.feed(ByteBuffer.wrap(Arrays.copyOfRange(bytes, start, Math.min(bytes.length, start + chunkSize))));
+        }
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,170 @@
+package integrationTests;
+
+import backend.JsonTape;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.ParserOptions;
+import parser.ValidationResult;
+import schema.CompiledSchema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class will test correcting documents parsed into a tape against the tree validators.
+ */
+public class TestJsonTape {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks the sample document gives the same output as the tree validators.
+     */
+    @Test
+    public void testSampleDocument() throws ValidatorException, ParserException, IOException {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        InputStream inputStream = classloader.getResourceAsStream("schema.json");
+        String schema = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        inputStream = classloader.getResourceAsStream("validatingInput.json");
+        String input = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        assertSameOutput(schema, input);
+    }
+
+    /**
+     * This test checks arrays, objects, moved members and values of another shape give the same output as the
+     * tree validators.
+     */
+    @Test
+    public void testCorrections() throws ValidatorException, ParserException {
+        assertSameOutput("{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}, \"price\": " +
+                "{\"type\": \"number\"}, \"name\": {\"type\": \"string\"}, \"tags\": {\"type\": \"array\", " +
+                "\"items\": {\"type\": \"string\"}}, \"flag\": {\"type\": \"boolean\"}, \"none\": {\"type\": " +
+                "\"null\"}}}", "{\"id\":\"12\",\"price\":\"1.50\",\"name\":12,\"tags\":\"d\u00e9j\u00e0\"," +
+                "\"flag\":\"true\",\"none\":null,\"other\":{\"a\":[1e5,-0]}}");
+        assertSameOutput("{\"type\": \"array\", \"items\": [{\"type\": \"integer\"}, {\"type\": \"string\"}], " +
+                "\"additionalItems\": {\"type\": \"number\"}}", "[\"1\",\"a\\nb\",\"3.5\",4]");
+        assertSameOutput("{\"type\": \"array\", \"uniqueItems\": true, \"items\": {\"type\": \"integer\"}}",
+                "[\"1\",2,3]");
+        assertSameOutput("{\"type\": \"object\", \"properties\": {\"a\": {\"type\": \"integer\"}}, " +
+                "\"patternProperties\": {\"^x\": {\"type\": \"string\"}}}", "{\"xb\":1,\"a\":\"2\",\"c\":true}");
+        assertSameOutput("{\"type\": \"object\", \"properties\": {\"a\": {\"type\": \"integer\"}}, " +
+                "\"additionalProperties\": {\"type\": \"boolean\"}}", "{\"b\":\"true\",\"a\":\"2\",\"c\":false}");
+        assertSameOutput("{\"type\": \"object\", \"properties\": {\"list\": {\"type\": \"array\", \"items\": " +
+                "{\"type\": \"object\", \"properties\": {\"n\": {\"type\": \"number\"}}}}}}",
+                "{\"list\":[{\"n\":\"1\"},{\"n\":2},{}],\"empty\":[]}");
+    }
+
+    /**
+     * This test checks only corrected values are recorded and unchanged numbers keep their text.
+     */
+    @Test
+    public void testOverrides() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"object\", \"properties\": {\"items\": " +
+                "{\"type\": \"array\", \"items\": {\"type\": \"object\", \"properties\": {\"id\": {\"type\": " +
+                "\"integer\"}, \"name\": {\"type\": \"string\"}}}}}}");
+        JsonTape tape = new JsonTape();
+        parse(tape, "{\"items\":[{\"id\":1,\"name\":\"a\"},{\"id\":\"2\",\"name\":\"b\"},{\"id\":3,\"big\":" +
+                "123456789012345678901234567890}]}");
+        JavaJsonParser.correctTape(tape, schema);
+        Assert.assertEquals("Only the corrected value should be recorded", 1, tape.getOverrideCount());
+        Assert.assertEquals("Didn't receive the expected output", "{\"items\":[{\"id\":1,\"name\":\"a\"}," +
+                "{\"id\":2,\"name\":\"b\"},{\"id\":3,\"big\":123456789012345678901234567890}]}", tape.toString());
+
+        Assert.assertEquals("Root should be an object", JsonTape.OBJECT, tape.getType(0));
+        Assert.assertEquals("Didn't receive the expected name", "items", tape.getString(1));
+        Assert.assertEquals("Root should hold every node", tape.size(), tape.next(0));
+        tape.setOverride(1 + 1, new JsonPrimitive("replaced"));
+        Assert.assertEquals("Override should replace the subtree", "{\"items\":\"replaced\"}", tape.toString());
+        tape.setOverride(2, null);
+        Assert.assertEquals("Removed override should restore the subtree", 1, tape.getOverrideCount());
+    }
+
+    /**
+     * This test checks a tape is reused for the next document and its overrides are cleared.
+     */
+    @Test
+    public void testReuse() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}");
+        JsonTape tape = new JsonTape(true);
+        StringBuilder large = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            large.append(i > 0 ? "," : "").append('"').append(i).append('"');
+        }
+        parse(tape, large.append(']').toString());
+        JavaJsonParser.correctTape(tape, schema);
+        Assert.assertEquals("Every item should be corrected", 500, tape.getOverrideCount());
+        Assert.assertEquals("Didn't receive the expected output",
+                JavaJsonParser.parseJson(large.toString(), schema), tape.toString());
+
+        parse(tape, " [7] ");
+        Assert.assertEquals("Overrides should be cleared", 0, tape.getOverrideCount());
+        Assert.assertEquals("Didn't receive the expected number of nodes", 2, tape.size());
+        JavaJsonParser.correctTape(tape, schema);
+        Assert.assertEquals("Didn't receive the expected output", "[7]", tape.toString());
+    }
+
+    /**
+     * This test checks violations are reported with their path.
+     */
+    @Test
+    public void testViolations() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxErrors(10));
+        CompiledSchema schema = engine.compile("{\"type\": \"object\", \"required\": [\"id\"], \"properties\": " +
+                "{\"grades\": {\"type\": \"array\", \"maxItems\": 2, \"items\": {\"type\": \"integer\", " +
+                "\"maximum\": 100}}}}");
+        JsonTape tape = new JsonTape();
+        parse(tape, "{\"grades\":[90,120,\"x\"]}");
+        ValidationResult<Void> result = engine.tryCorrectTape(tape, schema);
+        Assert.assertFalse("Input should not be valid", result.isValid());
+        Assert.assertEquals("Didn't receive the expected number of errors", 4, result.getErrors().size());
+        Assert.assertEquals("Didn't receive the expected path", "/grades/1", result.getErrors().get(0).getPath());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAXIMUM,
+                result.getErrors().get(0).getErrorCode());
+        Assert.assertEquals("Didn't receive the expected path", "/grades/2", result.getErrors().get(1).getPath());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_ITEMS,
+                result.getErrors().get(2).getErrorCode());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.REQUIRED,
+                result.getErrors().get(3).getErrorCode());
+
+        parse(tape, "[1]");
+        thrown.expect(ValidatorException.class);
+        JavaJsonParser.correctTape(tape, schema);
+    }
+
+    /**
+     * This test checks malformed documents are rejected while parsing the tape.
+     */
+    @Test
+    public void testMalformedInput() {
+        JsonTape tape = new JsonTape();
+        thrown.expect(JsonSyntaxException.class);
+        thrown.expectMessage("at offset 5");
+        parse(tape, "{\"a\":}");
+    }
+
+    private static void parse(JsonTape tape, String input) {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        tape.parse(bytes, 0, bytes.length);
+    }
+
+    private static void assertSameOutput(String schema, String input) throws ValidatorException, ParserException {
+        CompiledSchema compiled = JavaJsonParser.compile(schema);
+        JsonTape tape = new JsonTape();
+        parse(tape, input);
+        JavaJsonParser.correctTape(tape, compiled);
+        Assert.assertEquals("Tape should match the tree output for " + input,
+                JavaJsonParser.parseJson(input, compiled), tape.toString());
+    }
+}
@@ -0,0 +1,216 @@
+package integrationTests;
+
+import backend.Utf8Backend;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JsonPushParser;
+import parser.ParserOptions;
+import parser.ValidationResult;
+import schema.CompiledSchema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class will test the parse limits checked while tokenizing the input documents.
+ */
+public class TestParseLimits {
+
+    private static final String ARRAY_SCHEMA = "{\"type\": \"array\"}";
+    private static final String OBJECT_SCHEMA = "{\"type\": \"object\", \"properties\": {\"name\": {\"type\": " +
+            "\"string\"}}}";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks nesting deeper than the limit is rejected by every backend, without overflowing the stack.
+     */
+    @Test
+    public void testMaxDepth() throws ValidatorException, ParserException {
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            deep.append('[');
+        }
+        for (int i = 0; i < 100000; i++) {
+            deep.append(']');
+        }
+        for (ParserOptions options : allBackends(new ParserOptions().setMaxDepth(64))) {
+            JJParserEngine engine = new JJParserEngine(options);
+            CompiledSchema schema = engine.compile(ARRAY_SCHEMA);
+            assertRejected(engine.tryParseJson(deep.toString(), schema), ErrorCode.MAX_DEPTH);
+            Assert.assertEquals("Document at the limit should be accepted", "[[[]]]",
+                    engine.parseJson("[[[]]]", schema));
+        }
+    }
+
+    /**
+     * This test checks documents larger than the limit are rejected, counting UTF-8 bytes.
+     */
+    @Test
+    public void testMaxInputBytes() throws ValidatorException, ParserException {
+        for (ParserOptions options : allBackends(new ParserOptions().setMaxInputBytes(12))) {
+            JJParserEngine engine = new JJParserEngine(options);
+            CompiledSchema schema = engine.compile(ARRAY_SCHEMA);
+            Assert.assertEquals("Document at the limit should be accepted", "[\"\u00e9\u00e9\u00e9\u00e9\"]",
+                    engine.parseJson("[\"\u00e9\u00e9\u00e9\u00e9\"]", schema));
+            assertRejected(engine.tryParseJson("[\"\u00e9\u00e9\u00e9\u00e9\u00e9\"]", schema),
+                    ErrorCode.MAX_INPUT_SIZE);
+        }
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxInputBytes(12));
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("limit of 12");
+        engine.parseJson(new ByteArrayInputStream("[1, 2, 3, 4, 5]".getBytes(StandardCharsets.UTF_8)),
+                engine.compile(ARRAY_SCHEMA), new ByteArrayOutputStream());
+    }
+
+    /**
+     * This test checks strings, member names, arrays and objects over their limits are rejected.
+     */
+    @Test
+    public void testLengths() throws ValidatorException, ParserException {
+        ParserOptions limited = new ParserOptions().setMaxStringLength(4).setMaxArrayLength(3)
+                .setMaxObjectMembers(2);
+        for (ParserOptions options : allBackends(limited)) {
+            JJParserEngine engine = new JJParserEngine(options);
+            CompiledSchema array = engine.compile(ARRAY_SCHEMA);
+            CompiledSchema object = engine.compile(OBJECT_SCHEMA);
+            Assert.assertEquals("Document within the limits should be accepted", "{\"name\":\"abcd\",\"b\":[1,2,3]}",
+                    engine.parseJson("{\"name\":\"abcd\",\"b\":[1,2,3]}", object));
+            assertRejected(engine.tryParseJson("{\"name\":\"abcde\"}", object), ErrorCode.MAX_STRING_LENGTH);
+            assertRejected(engine.tryParseJson("{\"names\":1}", object), ErrorCode.MAX_STRING_LENGTH);
+            assertRejected(engine.tryParseJson("[1,2,[3,4,5,6]]", array), ErrorCode.MAX_ARRAY_LENGTH);
+            assertRejected(engine.tryParseJson("{\"name\":\"a\",\"b\":1,\"c\":2}", object),
+                    ErrorCode.MAX_OBJECT_MEMBERS);
+        }
+    }
+
+    /**
+     * This test checks the limits of scalar roots, which the scalar validators read without tokenizing them.
+     */
+    @Test
+    public void testScalarRoots() throws ValidatorException, ParserException {
+        for (ParserOptions options : allBackends(new ParserOptions().setMaxStringLength(3))) {
+            JJParserEngine engine = new JJParserEngine(options);
+            CompiledSchema schema = engine.compile("{\"type\": \"string\"}");
+            Assert.assertTrue("String at the limit should be accepted",
+                    engine.tryParseJson("\"\\u0061bc\"", schema).isValid());
+            assertRejected(engine.tryParseJson("\"abcdefg\"", schema), ErrorCode.MAX_STRING_LENGTH);
+        }
+        for (ParserOptions options : allBackends(new ParserOptions().setMaxInputBytes(3))) {
+            JJParserEngine engine = new JJParserEngine(options);
+            CompiledSchema schema = engine.compile("{\"type\": \"integer\"}");
+            Assert.assertEquals("Document at the limit should be accepted", "123", engine.parseJson("123", schema));
+            assertRejected(engine.tryParseJson("12345", schema), ErrorCode.MAX_INPUT_SIZE);
+        }
+    }
+
+    /**
+     * This test checks the streaming methods check the limits while reading.
+     */
+    @Test
+    public void testStreaming() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxArrayLength(2));
+        CompiledSchema schema = engine.compile(ARRAY_SCHEMA);
+        StringWriter output = new StringWriter();
+        engine.streamJson(new StringReader("[1,2]"), schema, output);
+        Assert.assertEquals("Didn't receive the expected output", "[1,2]", output.toString());
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("more items than the limit of 2");
+        engine.streamJson(new StringReader("[1,2,3]"), schema, new StringWriter());
+    }
+
+    /**
+     * This test checks the push parser checks the limits while the chunks are fed.
+     */
+    @Test
+    public void testPushParser() throws ValidatorException, ParserException {
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            deep.append('[');
+        }
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxDepth(3).setMaxInputBytes(40)
+                .setMaxStringLength(4).setMaxArrayLength(3).setMaxObjectMembers(2));
+        CompiledSchema array = engine.compile(ARRAY_SCHEMA);
+        CompiledSchema object = engine.compile(OBJECT_SCHEMA);
+        StringWriter output = new StringWriter();
+        JsonPushParser parser = engine.newPushParser(array, output);
+        feedInChunks(parser, "[[[1]],\"abcd\",{\"a\":1,\"b\":[1,2,3]}]");
+        parser.finish();
+        Assert.assertEquals("Document within the limits should be accepted", "[[[1]],\"abcd\",{\"a\":1,\"b\":" +
+                "[1,2,3]}]", output.toString());
+
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_DEPTH, pushError(engine, array,
+                deep.toString()));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_DEPTH, pushError(engine, object,
+                "{\"name\":[[[1]]]}"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_INPUT_SIZE, pushError(engine, array,
+                "[1,   2,   3]                                    "));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_STRING_LENGTH, pushError(engine,
+                object, "{\"name\":\"abcde\"}"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_STRING_LENGTH, pushError(engine,
+                object, "{\"names\":1}"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_STRING_LENGTH, pushError(engine,
+                engine.compile("{\"type\": \"string\"}"), "\"abcde\""));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_ARRAY_LENGTH, pushError(engine, array,
+                "[1,2,3,4]"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_ARRAY_LENGTH, pushError(engine, array,
+                "[[1,2,3,4]]"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_OBJECT_MEMBERS, pushError(engine,
+                object, "{\"a\":1,\"b\":2,\"c\":3}"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_OBJECT_MEMBERS, pushError(engine,
+                array, "[{\"a\":1,\"b\":2,\"c\":3}]"));
+    }
+
+    /**
+     * This test checks invalid limits are rejected.
+     */
+    @Test
+    public void testInvalidLimit() {
+        thrown.expect(IllegalArgumentException.class);
+        new ParserOptions().setMaxDepth(0);
+    }
+
+    private static ParserOptions[] allBackends(ParserOptions options) {
+        return new ParserOptions[]{options, new ParserOptions(options).setBackend(new Utf8Backend()),
+                new ParserOptions(options).setBackend(new Utf8Backend(true)),
+                new ParserOptions(options).setRawPassthrough(true)};
+    }
+
+    private static ErrorCode pushError(JJParserEngine engine, CompiledSchema schema, String input)
+            throws ValidatorException {
+        try {
+            JsonPushParser parser = engine.newPushParser(schema, new StringWriter());
+            feedInChunks(parser, input);
+            parser.finish();
+        } catch (ParserException ex) {
+            return ex.getErrorCode();
+        }
+        Assert.fail("Document over the limit should be rejected : " + input);
+        return null;
+    }
+
+    private static void feedInChunks(JsonPushParser parser, String input) throws ValidatorException,
+            ParserException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        for (int start = 0; start < bytes.length; start += 3) {
+            parser.feed(ByteBuffer.wrap(Arrays.copyOfRange(bytes, start, Math.min(bytes.length, start + 3))));
+        }
+    }
+
+    private static void assertRejected(ValidationResult<String> result, ErrorCode errorCode) {
+        Assert.assertFalse("Document over the limit should be rejected", result.isValid());
+        Assert.assertEquals("Didn't receive the expected code", errorCode, result.getError().getErrorCode());
+    }
+}
@@ -0,0 +1,130 @@
+package integrationTests;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.ParserOptions;
+import parser.ValidationResult;
+import schema.CompiledSchema;
+
+/**
+ * This class will test applying JSON Patches to corrected documents and correcting only the touched paths.
+ */
+public class TestPatchRevalidation {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"required\": [\"id\"], \"maxProperties\": 4, " +
+            "\"properties\": {\"id\": {\"type\": \"integer\"}, \"name\": {\"type\": \"string\"}, \"readings\": " +
+            "{\"type\": \"array\", \"maxItems\": 3, \"uniqueItems\": true, \"items\": {\"type\": \"object\", " +
+            "\"properties\": {\"value\": {\"type\": \"number\"}}}}, \"pair\": {\"type\": \"array\", \"items\": " +
+            "[{\"type\": \"integer\"}, {\"type\": \"string\"}]}}}";
+    private static final String DOCUMENT = "{\"id\":1,\"readings\":[{\"value\":1.5},{\"value\":2.5}],\"pair\":" +
+            "[1,\"a\"]}";
+
+    private final JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxErrors(10));
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks added and replaced values are corrected, and the input document is left unchanged.
+     */
+    @Test
+    public void testCorrections() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        JsonElement document = new JsonParser().parse(DOCUMENT);
+        JsonElement patched = engine.applyPatch(document, schema, patch("[{\"op\":\"replace\",\"path\":\"/id\"," +
+                "\"value\":\"7\"},{\"op\":\"add\",\"path\":\"/readings/1\",\"value\":{\"value\":\"0.5\"}}," +
+                "{\"op\":\"add\",\"path\":\"/name\",\"value\":12}]"));
+        Assert.assertEquals("Didn't receive the expected output", "{\"id\":7,\"readings\":[{\"value\":1.5}," +
+                "{\"value\":0.5},{\"value\":2.5}],\"pair\":[1,\"a\"],\"name\":\"12\"}", patched.toString());
+        Assert.assertEquals("Input document should be unchanged", DOCUMENT, document.toString());
+        Assert.assertSame("Untouched values should be shared", document.getAsJsonObject().get("pair"),
+                patched.getAsJsonObject().get("pair"));
+        Assert.assertEquals("Didn't receive the same output as a full correction",
+                JavaJsonParser.parseJson(DOCUMENT.replace("\"id\":1", "\"id\":\"7\""), schema),
+                engine.applyPatch(document, schema, patch("[{\"op\":\"replace\",\"path\":\"/id\",\"value\":" +
+                        "\"7\"}]")).toString());
+    }
+
+    /**
+     * This test checks items whose position changed are corrected with the schema of their new position.
+     */
+    @Test
+    public void testMovedItems() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        JsonElement document = new JsonParser().parse(DOCUMENT);
+        JsonElement patched = JavaJsonParser.applyPatch(document, schema, patch("[{\"op\":\"add\",\"path\":" +
+                "\"/pair/0\",\"value\":\"2\"}]"));
+        Assert.assertEquals("Didn't receive the expected output", "[2,\"1\",\"a\"]",
+                patched.getAsJsonObject().get("pair").toString());
+        patched = engine.applyPatch(document, schema, patch("[{\"op\":\"move\",\"from\":\"/readings/1\"," +
+                "\"path\":\"/readings/0\"},{\"op\":\"copy\",\"from\":\"/id\",\"path\":\"/readings/-\"}," +
+                "{\"op\":\"remove\",\"path\":\"/readings/2\"},{\"op\":\"test\",\"path\":\"/readings/0/value\"," +
+                "\"value\":2.5}]"));
+        Assert.assertEquals("Didn't receive the expected output", "[{\"value\":2.5},{\"value\":1.5}]",
+                patched.getAsJsonObject().get("readings").toString());
+    }
+
+    /**
+     * This test checks the structural keywords of the ancestors are checked and errors carry their path.
+     */
+    @Test
+    public void testViolations() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        JsonElement document = new JsonParser().parse(DOCUMENT);
+        ValidationResult<JsonElement> result = engine.tryApplyPatch(document, schema, patch("[{\"op\":" +
+                "\"remove\",\"path\":\"/id\"},{\"op\":\"add\",\"path\":\"/readings/-\",\"value\":{\"value\":1.5}}," +
+                "{\"op\":\"add\",\"path\":\"/readings/-\",\"value\":{\"value\":\"x\"}}]"));
+        Assert.assertFalse("Patched document should not be valid", result.isValid());
+        Assert.assertEquals("Didn't receive the expected number of errors", 4, result.getErrors().size());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.REQUIRED,
+                result.getErrors().get(0).getErrorCode());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_ITEMS,
+                result.getErrors().get(1).getErrorCode());
+        Assert.assertEquals("Didn't receive the expected path", "/readings", result.getErrors().get(1).getPath());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.UNIQUE_ITEMS,
+                result.getErrors().get(2).getErrorCode());
+        Assert.assertEquals("Didn't receive the expected path", "/readings/3/value",
+                result.getErrors().get(3).getPath());
+
+        result = engine.tryApplyPatch(document, schema, patch("[{\"op\":\"add\",\"path\":\"/a\",\"value\":1}," +
+                "{\"op\":\"add\",\"path\":\"/b\",\"value\":2}]"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAX_PROPERTIES,
+                result.getErrors().get(0).getErrorCode());
+    }
+
+    /**
+     * This test checks patches which can not be applied are rejected.
+     */
+    @Test
+    public void testInvalidPatch() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        JsonElement document = new JsonParser().parse(DOCUMENT);
+        ValidationResult<JsonElement> result = engine.tryApplyPatch(document, schema, patch("[{\"op\":\"test\"," +
+                "\"path\":\"/id\",\"value\":2}]"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.INVALID_PATCH,
+                result.getError().getErrorCode());
+        result = engine.tryApplyPatch(document, schema, patch("[{\"op\":\"add\",\"path\":\"/readings/5\"," +
+                "\"value\":1}]"));
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.INVALID_PATCH,
+                result.getError().getErrorCode());
+        Assert.assertEquals("Input document should be unchanged", DOCUMENT, document.toString());
+
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("/missing/x does not exist");
+        engine.applyPatch(document, schema, patch("[{\"op\":\"remove\",\"path\":\"/missing/x\"}]"));
+    }
+
+    private static JsonArray patch(String operations) {
+        return new JsonParser().parse(operations).getAsJsonArray();
+    }
+}
@@ -0,0 +1,113 @@
+package integrationTests;
+
+import backend.JsonTape;
+import backend.Projection;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.ParserOptions;
+import parser.ValidationResult;
+import schema.CompiledSchema;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class will test correcting only the values at the paths of a projection.
+ */
+public class TestProjection {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"required\": [\"id\"], \"properties\": {\"id\": " +
+            "{\"type\": \"integer\"}, \"name\": {\"type\": \"string\"}, \"items\": {\"type\": \"array\", " +
+            "\"maxItems\": 1, \"items\": {\"type\": \"object\", \"properties\": {\"price\": {\"type\": " +
+            "\"number\"}, \"qty\": {\"type\": \"integer\"}}}}}}";
+    private static final String INPUT = "{\"id\":\"1\",\"name\":5,\"items\":[{\"price\":\"2.5\",\"qty\":\"3\"}," +
+            "{\"price\":\"4.5\",\"qty\":\"x\"}]}";
+
+    private final JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxErrors(10));
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks only the projected values are corrected and the others are passed through.
+     */
+    @Test
+    public void testPassThrough() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        Assert.assertEquals("Didn't receive the expected output", "{\"id\":1,\"name\":5,\"items\":[{\"price\":" +
+                        "\"2.5\",\"qty\":\"3\"},{\"price\":\"4.5\",\"qty\":\"x\"}]}",
+                engine.parseJson(INPUT, schema, Projection.compile(false, "/id")));
+        Assert.assertEquals("Glob should match every item", "{\"id\":\"1\",\"name\":5,\"items\":[{\"price\":2.5," +
+                        "\"qty\":\"3\"},{\"price\":4.5,\"qty\":\"x\"}]}",
+                engine.parseJson(INPUT, schema, Projection.compile(false, "/items/*/price")));
+        Assert.assertEquals("Named index should override the glob", "{\"id\":\"1\",\"name\":5,\"items\":" +
+                        "[{\"price\":2.5,\"qty\":3},{\"price\":4.5,\"qty\":\"x\"}]}",
+                JavaJsonParser.parseJson(INPUT, schema, Projection.compile(false, "/items/*/price", "/items/0")));
+    }
+
+    /**
+     * This test checks the values outside the projection are dropped.
+     */
+    @Test
+    public void testDropOthers() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        Assert.assertEquals("Didn't receive the expected output", "{\"id\":1,\"items\":[{\"price\":2.5}," +
+                        "{\"price\":4.5}]}",
+                engine.parseJson(INPUT, schema, Projection.compile(true, "/id", "/items/*/price")));
+        Assert.assertEquals("Empty pointer should select the whole document", engine.parseJson("{\"id\":\"1\"}",
+                schema), engine.parseJson("{\"id\":\"1\"}", schema, Projection.compile(true, "")));
+    }
+
+    /**
+     * This test checks errors of the projected values are reported with their path in the whole document, and the
+     * values outside the projection are not checked.
+     */
+    @Test
+    public void testViolations() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        ValidationResult<String> result = engine.tryParseJson("{\"items\":[{\"qty\":\"x\"},{\"qty\":\"y\"}]," +
+                "\"id\":\"z\"}", schema, Projection.compile(false, "/items/1/qty"));
+        Assert.assertFalse("Input should not be valid", result.isValid());
+        Assert.assertEquals("Didn't receive the expected number of errors", 1, result.getErrors().size());
+        Assert.assertEquals("Didn't receive the expected path", "/items/1/qty", result.getErrors().get(0).getPath());
+
+        thrown.expect(ParserException.class);
+        engine.parseJson("{\"id\":\"z\"}", schema, Projection.compile(false, "/id"));
+    }
+
+    /**
+     * This test checks which nodes of a tape parsed for a projection are excluded, for both tokenizers.
+     */
+    @Test
+    public void testExcludedNodes() {
+        byte[] bytes = "{\"a\":{\"b\":[1,2]},\"c\":[3,{\"d\":4}],\"e/f\":5}".getBytes(StandardCharsets.UTF_8);
+        Projection projection = Projection.compile(false, "/c/1/d", "/e~1f");
+        for (JsonTape tape : new JsonTape[]{new JsonTape(), new JsonTape(true)}) {
+            tape.parse(bytes, 0, bytes.length, null, projection);
+            Assert.assertEquals("Didn't receive the expected output", new String(bytes, StandardCharsets.UTF_8),
+                    tape.toString());
+            Assert.assertTrue("Root should be on the way to the paths", tape.isPartial(0));
+            Assert.assertTrue("Unprojected member should be excluded", tape.isExcluded(2));
+            Assert.assertEquals("Unprojected subtree should be raw", JsonTape.RAW, tape.getType(2));
+            Assert.assertTrue("Projected array should be partial", tape.isPartial(4));
+            Assert.assertTrue("Unprojected item should be excluded", tape.isExcluded(5));
+            Assert.assertFalse("Projected value should be included", tape.isExcluded(8));
+            Assert.assertFalse("Escaped name should be unescaped", tape.isExcluded(10));
+        }
+    }
+
+    /**
+     * This test checks paths which are not JSON Pointers are rejected.
+     */
+    @Test
+    public void testInvalidPath() {
+        thrown.expect(IllegalArgumentException.class);
+        Projection.compile(false, "id");
+    }
+}
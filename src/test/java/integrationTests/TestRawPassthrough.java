@@ -0,0 +1,150 @@
+package integrationTests;
+
+import backend.JsonTape;
+import backend.Projection;
+import backend.Utf8Backend;
+import com.google.gson.JsonSyntaxException;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.ParserOptions;
+import parser.ValidationResult;
+import schema.CompiledSchema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class will test copying the arrays and objects the schema does not constrain without parsing them.
+ */
+public class TestRawPassthrough {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}, " +
+            "\"any\": {}, \"tags\": {\"type\": \"array\"}, \"pair\": {\"type\": \"array\", \"items\": [{\"type\": " +
+            "\"integer\"}, {}]}}}";
+    private static final String PATTERN_SCHEMA = SCHEMA.substring(0, SCHEMA.length() - 1) + ", " +
+            "\"patternProperties\": {\"^x\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}}}}";
+
+    private final JJParserEngine engine = new JJParserEngine();
+    private final JJParserEngine rawEngine = new JJParserEngine(new ParserOptions().setRawPassthrough(true));
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks the sample document gives the same output as the tree validators.
+     */
+    @Test
+    public void testSampleDocument() throws ValidatorException, ParserException, IOException {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        InputStream inputStream = classloader.getResourceAsStream("schema.json");
+        CompiledSchema schema = engine.compile(IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+        inputStream = classloader.getResourceAsStream("validatingInput.json");
+        String input = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        Assert.assertEquals("Didn't receive the expected output", engine.parseJson(input, schema),
+                rawEngine.parseJson(input, schema));
+    }
+
+    /**
+     * This test checks unconstrained subtrees are copied as they are and the other values are corrected.
+     */
+    @Test
+    public void testPassthrough() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        String input = "{\"id\":\"7\",\"any\":{ \"a\" : [1, 2.50] },\"tags\":[{\"b\":\"\\u00e9\"}],\"other\":[ ]," +
+                "\"pair\":[\"1\",{\"c\":null}]}";
+        Assert.assertEquals("Didn't receive the expected output", "{\"id\":7,\"any\":{ \"a\" : [1, 2.50] }," +
+                        "\"tags\":[{\"b\":\"\\u00e9\"}],\"other\":[ ],\"pair\":[1,{\"c\":null}]}",
+                rawEngine.parseJson(input, schema));
+
+        String compact = "{\"id\":\"7\",\"any\":{\"a\":[1,2.50]},\"other\":[],\"pair\":[\"1\",{\"c\":null}]}";
+        Assert.assertEquals("Compact raw subtrees should match the tree output", engine.parseJson(compact, schema),
+                rawEngine.parseJson(compact, schema));
+    }
+
+    /**
+     * This test checks which values of a tape parsed for a schema are kept raw.
+     */
+    @Test
+    public void testRawNodes() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(PATTERN_SCHEMA);
+        byte[] bytes = "{\"any\":{\"a\":[1,{}]},\"pair\":[[1],[2]],\"xs\":[[3]]}".getBytes(StandardCharsets.UTF_8);
+        for (JsonTape tape : new JsonTape[]{new JsonTape(), new JsonTape(true)}) {
+            tape.parse(bytes, 0, bytes.length, schema);
+            Assert.assertEquals("Didn't receive the expected number of nodes", 12, tape.size());
+            Assert.assertEquals("Unconstrained property should be raw", JsonTape.RAW, tape.getType(2));
+            Assert.assertEquals("Validated item should be tokenized", JsonTape.ARRAY, tape.getType(5));
+            Assert.assertEquals("Unvalidated item should be raw", JsonTape.RAW, tape.getType(7));
+            Assert.assertEquals("Pattern property should be tokenized", JsonTape.ARRAY, tape.getType(10));
+            Assert.assertEquals("Raw node should be parsed when read", "{\"a\":[1,{}]}",
+                    tape.getElement(2).toString());
+            Assert.assertEquals("Didn't receive the expected output", new String(bytes, StandardCharsets.UTF_8),
+                    tape.toString());
+        }
+    }
+
+    /**
+     * This test checks streams are corrected with raw passthrough.
+     */
+    @Test
+    public void testStreams() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        rawEngine.parseJson(new ByteArrayInputStream("{\"id\":\"1\",\"any\":[\"d\u00e9j\u00e0\" ]}"
+                .getBytes(StandardCharsets.UTF_8)), schema, output);
+        Assert.assertEquals("Didn't receive the expected output", "{\"id\":1,\"any\":[\"d\u00e9j\u00e0\" ]}",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This test checks raw subtrees with brackets which do not match are rejected.
+     */
+    @Test
+    public void testUnbalancedBrackets() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        Assert.assertEquals("Brackets inside strings should be ignored", "{\"any\":[\"]\\\"}\"]}",
+                rawEngine.parseJson("{\"any\":[\"]\\\"}\"]}", schema));
+        thrown.expect(JsonSyntaxException.class);
+        rawEngine.parseJson("{\"any\":[{]}}", schema);
+    }
+
+    /**
+     * This test checks raw subtrees with misplaced separators or tokens are rejected, with and without a projection.
+     */
+    @Test
+    public void testMalformedSubtrees() throws ValidatorException, ParserException {
+        CompiledSchema schema = engine.compile(SCHEMA);
+        String valid = "{\"any\":{\"a\":[1, {\"b\":null}, [], {}],\"c\":\"x\"}}";
+        Assert.assertEquals("Well formed raw subtrees should be copied", valid, rawEngine.parseJson(valid, schema));
+        JJParserEngine indexedEngine = new JJParserEngine(new ParserOptions().setRawPassthrough(true)
+                .setBackend(new Utf8Backend(true)));
+        Projection projection = Projection.compile(false, "/id");
+        String[] inputs = {"{\"id\":1,\"any\":[1 2 ,,]}", "{\"any\":{\"k\" 1}}", "{\"any\":[1,]}",
+                "{\"any\":{\"a\":1,}}", "{\"any\":[tru]}", "{\"any\":{1:2}}", "{\"any\":[:]}", "{\"any\":[1"};
+        for (String input : inputs) {
+            assertMalformed(rawEngine.tryParseJson(input, schema), input);
+            assertMalformed(indexedEngine.tryParseJson(input, schema), input);
+            try {
+                rawEngine.parseJson(input, schema, projection);
+                Assert.fail("Input should be malformed : " + input);
+            } catch (JsonSyntaxException | ParserException ex) {
+                // expected
+            }
+        }
+    }
+
+    private static void assertMalformed(ValidationResult<String> result, String input) {
+        Assert.assertFalse("Input should be malformed : " + input, result.isValid());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MALFORMED_JSON,
+                result.getError().getErrorCode());
+    }
+}
@@ -0,0 +1,167 @@
+package integrationTests;
+
+import exceptions.ErrorCode;
+import exceptions.JJParserException;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.ParserOptions;
+import schema.CompiledSchema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class will test the token streaming corrector against the tree corrector.
+ */
+public class TestStreamingCorrection {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks the sample document gives the same output as the tree corrector.
+     */
+    @Test
+    public void testSampleDocument() throws ValidatorException, ParserException, IOException {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        InputStream inputStream = classloader.getResourceAsStream("schema.json");
+        String schema = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        inputStream = classloader.getResourceAsStream("validatingInput.json");
+        String input = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        assertSameOutput(schema, input);
+    }
+
+    /**
+     * This test checks the structure corrections and the members moved by pattern and additional properties.
+     */
+    @Test
+    public void testCorrections() throws ValidatorException, ParserException {
+        assertSameOutput("{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}, \"tags\": " +
+                "{\"type\": \"array\", \"items\": {\"type\": \"string\"}}, \"flags\": {\"type\": \"array\", " +
+                "\"uniqueItems\": true, \"items\": {\"type\": \"boolean\"}}, \"any\": {\"type\": \"object\"}}, " +
+                "\"patternProperties\": {\"^x\": {\"type\": \"number\"}, \"^xy\": {\"type\": \"number\"}}, " +
+                "\"additionalProperties\": {\"type\": \"boolean\"}}",
+                "{\"xy\":\"2\",\"id\":\"12\",\"extra\":\"true\",\"x1\":3,\"tags\":\"one\",\"flags\":[\"true\"," +
+                        "false],\"any\":{\"a\":[1,{\"b\":null}],\"c\":\"d\"},\"none\":false}");
+        assertSameOutput("{\"type\": \"array\", \"items\": [{\"type\": \"integer\"}, {}, {\"type\": \"boolean\"}], " +
+                "\"additionalItems\": {\"type\": \"array\", \"items\": {\"type\": \"number\"}}}",
+                "[\"1\",{\"free\":1.50},\"false\",\"4\",5]");
+        assertSameOutput("{\"type\": \"array\", \"items\": {\"type\": \"array\", \"items\": {\"type\": " +
+                "\"integer\"}}}", "[[\"1\"],2,[],[3]]");
+        assertSameOutput("{\"type\": \"string\"}", "12");
+        assertSameOutput("{\"type\": \"null\"}", "null");
+        assertSameOutput("true", "{\"a\":[1,2.50,\"x\",null,true]}");
+    }
+
+    /**
+     * This test checks violations are reported with their path.
+     */
+    @Test
+    public void testViolations() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine();
+        CompiledSchema schema = engine.compile("{\"type\": \"object\", \"required\": [\"id\"], \"properties\": " +
+                "{\"id\": {\"type\": \"integer\"}, \"grades\": {\"type\": \"array\", \"maxItems\": 2, \"items\": " +
+                "{\"type\": \"integer\", \"maximum\": 100}}}, \"additionalProperties\": false}");
+        assertViolation(engine, schema, "{\"id\":1,\"grades\":[90,120]}", ErrorCode.MAXIMUM, "/grades/1");
+        assertViolation(engine, schema, "{\"id\":1,\"grades\":[90,80,70]}", ErrorCode.MAX_ITEMS, "/grades");
+        assertViolation(engine, schema, "{\"grades\":[]}", ErrorCode.REQUIRED, "");
+        assertViolation(engine, schema, "{\"id\":1,\"other\":1}", ErrorCode.ADDITIONAL_PROPERTIES, "");
+        assertViolation(engine, schema, "[]", ErrorCode.NOT_AN_OBJECT, "");
+    }
+
+    /**
+     * This test checks an engine collecting errors keeps streaming after a violation and throws the first one.
+     */
+    @Test
+    public void testCollectedViolations() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxErrors(10));
+        CompiledSchema schema = engine.compile("{\"type\": \"array\", \"minItems\": 5, \"items\": {\"type\": " +
+                "\"object\", \"properties\": {\"id\": {\"type\": \"integer\"}}}}");
+        try {
+            engine.streamJson(new StringReader("[{\"id\":1},{\"id\":\"a\"},{\"id\":\"b\"}]"), schema,
+                    new StringWriter());
+            Assert.fail("Input should not be valid");
+        } catch (JJParserException ex) {
+            Assert.assertEquals("Didn't receive the expected path", "/1/id", ex.getPath());
+        }
+    }
+
+    /**
+     * This test checks content after the document and UTF-8 streams.
+     */
+    @Test
+    public void testStreams() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"string\"}}");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JavaJsonParser.streamJson(new ByteArrayInputStream("[\"d\u00e9j\u00e0\",1]".getBytes(
+                StandardCharsets.UTF_8)), schema, output);
+        Assert.assertEquals("Didn't receive the expected output", "[\"d\u00e9j\u00e0\",\"1\"]",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("Unexpected content after the JSON document");
+        JavaJsonParser.streamJson(new StringReader("[\"a\"] [\"b\"]"), schema, new StringWriter());
+    }
+
+    /**
+     * This test checks duplicate member names are kept while streaming, where the tree keeps the last value.
+     */
+    @Test
+    public void testDuplicateNames() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"object\", \"properties\": {\"a\": " +
+                "{\"type\": \"integer\"}}}");
+        String input = "{\"a\":\"12\",\"a\":\"13\"}";
+        Assert.assertEquals("Tree should keep the last value", "{\"a\":13}", JavaJsonParser.parseJson(input, schema));
+        StringWriter streamed = new StringWriter();
+        JavaJsonParser.streamJson(new StringReader(input), schema, streamed);
+        Assert.assertEquals("Streaming should keep every member", "{\"a\":12,\"a\":13}", streamed.toString());
+    }
+
+    /**
+     * This test checks malformed and truncated documents are reported as malformed JSON while streaming.
+     */
+    @Test
+    public void testMalformedInput() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\"}");
+        for (String input : new String[]{"[1 2]", "{\"a\" 1}", "[1, 2"}) {
+            try {
+                JavaJsonParser.streamJson(new StringReader(input), schema, new StringWriter());
+                Assert.fail("Input should be malformed : " + input);
+            } catch (ParserException ex) {
+                Assert.assertEquals("Didn't receive the expected code", ErrorCode.MALFORMED_JSON, ex.getErrorCode());
+            }
+        }
+    }
+
+    private static void assertSameOutput(String schema, String input) throws ValidatorException, ParserException {
+        CompiledSchema compiled = JavaJsonParser.compile(schema);
+        StringWriter expected = new StringWriter();
+        JavaJsonParser.parseJson(new StringReader(input), compiled, expected);
+        StringWriter streamed = new StringWriter();
+        JavaJsonParser.streamJson(new StringReader(input), compiled, streamed);
+        Assert.assertEquals("Streaming output should match the tree output", expected.toString(),
+                streamed.toString());
+    }
+
+    private static void assertViolation(JJParserEngine engine, CompiledSchema schema, String input, ErrorCode code,
+                                        String path) throws ParserException {
+        try {
+            engine.streamJson(new StringReader(input), schema, new StringWriter());
+            Assert.fail("Input should not be valid");
+        } catch (ValidatorException ex) {
+            Assert.assertEquals("Didn't receive the expected code", code, ex.getErrorCode());
+            Assert.assertEquals("Didn't receive the expected path", path, ex.getPath());
+        }
+    }
+}
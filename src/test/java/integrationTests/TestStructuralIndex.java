@@ -0,0 +1,98 @@
+package integrationTests;
+
+import backend.StructuralIndex;
+import backend.Utf8Backend;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * This class will test the structural index and the indexed UTF-8 tokenizer.
+ */
+public class TestStructuralIndex {
+
+    private static final byte[] ALPHABET = "{}[]:, \t\n\"\"\\\\abtrue01-.eE\u00e9".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * This test checks the positions of a small document.
+     */
+    @Test
+    public void testPositions() {
+        byte[] bytes = "{\"a\\\"b\": [1, true, \"\u00e9\"]}".getBytes(StandardCharsets.UTF_8);
+        StructuralIndex index = StructuralIndex.buildScalar(bytes, 0, bytes.length);
+        int[] expected = {0, 1, 6, 7, 9, 10, 11, 13, 17, 19, 22, 23, 24};
+        Assert.assertEquals("Didn't receive the expected number of positions", expected.length, index.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals("Didn't receive the expected position", expected[i], index.get(i));
+        }
+        Assert.assertTrue("Escaped quote should need decoding", index.hasSpecial(2, 6));
+        Assert.assertFalse("Quotes should not need decoding", index.hasSpecial(0, 2));
+        Assert.assertTrue("Non ASCII bytes should need decoding", index.hasSpecial(20, 22));
+    }
+
+    /**
+     * This test checks strings and escapes crossing the 64 byte blocks.
+     */
+    @Test
+    public void testBlockBoundaries() {
+        Utf8Backend scanning = new Utf8Backend();
+        Utf8Backend indexed = new Utf8Backend(true);
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 130; i++) {
+            String[] documents = {"[\"" + padding + "\\\\\",\"\\\"x\"]", "[\"" + padding + "\\\\\\\"\"]",
+                    "{\"" + padding + "\u00e9\":[" + padding.length() + ",\"a\"]}",
+                    padding.toString().replaceAll(".", " ") + "[true, null]"};
+            for (String document : documents) {
+                Assert.assertEquals("Indexed tree should match for " + document, scanning.parse(document),
+                        indexed.parse(document));
+            }
+            padding.append(i % 10 == 0 ? ' ' : 'p');
+        }
+    }
+
+    /**
+     * This test checks random byte sequences give the same trees or both fail.
+     */
+    @Test
+    public void testRandomInputs() {
+        Utf8Backend scanning = new Utf8Backend();
+        Utf8Backend indexed = new Utf8Backend(true);
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            byte[] bytes = new byte[random.nextInt(200)];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            String input = new String(bytes, StandardCharsets.UTF_8);
+            Assert.assertEquals("Indexed tokenizer should match for " + input, parse(scanning, bytes),
+                    parse(indexed, bytes));
+        }
+    }
+
+    /**
+     * This test checks malformed documents are rejected by the indexed tokenizer.
+     */
+    @Test
+    public void testMalformedInput() {
+        Utf8Backend indexed = new Utf8Backend(true);
+        String[] inputs = {"[1x]", "[truex]", "[1\\]", "[\"a]", "[\"a\\\"]", "[\"a\tb\"]", "[1 2]", "[01]", "{\"a\"1}",
+                "[\"\\u12\"]", "\"a\" b"};
+        for (String input : inputs) {
+            Assert.assertEquals("Input should be malformed : " + input, "malformed",
+                    parse(indexed, input.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static Object parse(Utf8Backend backend, byte[] bytes) {
+        try {
+            JsonElement element = backend.parse(bytes, 0, bytes.length);
+            return element;
+        } catch (JsonSyntaxException ex) {
+            return "malformed";
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package integrationTests;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import exceptions.ErrorCode;
+import exceptions.ParserException;
+import exceptions.ValidationError;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JJParserEngine;
+import parser.JavaJsonParser;
+import parser.ParserOptions;
+import parser.ValidationResult;
+import schema.CompiledSchema;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * This class will test the non throwing API and the codes and paths of errors.
+ */
+public class TestValidationResult {
+
+    private static final String SHAPE_SCHEMA = "{\"type\":\"object\",\"properties\":{\"a\":{\"type\":" +
+            "\"object\"},\"b\":{\"type\":\"string\"}}}";
+    private static final String SCHEMA = "{\"type\": \"object\", \"properties\": {\"name\": {\"type\": " +
+            "\"string\", \"maxLength\": 4}, \"grades\": {\"type\": \"array\", \"items\": {\"type\": \"object\", " +
+            "\"properties\": {\"maths\": {\"type\": \"integer\", \"maximum\": 100}}}}}}";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * This test checks a valid input gives the corrected output.
+     */
+    @Test
+    public void testValidResult() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        ValidationResult<String> result = JavaJsonParser.tryParseJson("{\"name\":\"Ann\",\"grades\":" +
+                "{\"maths\":\"90\"}}", schema);
+        Assert.assertTrue("Input should be valid", result.isValid());
+        Assert.assertEquals("Didn't receive the expected output", "{\"name\":\"Ann\",\"grades\":[{\"maths\":90}]}",
+                result.getOutput());
+        Assert.assertNull("Valid result should not have an error", result.getError());
+    }
+
+    /**
+     * This test checks the code, keyword, path and message of an error.
+     */
+    @Test
+    public void testInvalidResult() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        ValidationResult<String> result = JavaJsonParser.tryParseJson("{\"name\":\"Ann\",\"grades\":[" +
+                "{\"maths\":90},{\"maths\":120}]}", schema);
+        Assert.assertFalse("Input should not be valid", result.isValid());
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAXIMUM, result.getErrorCode());
+        Assert.assertEquals("Didn't receive the expected keyword", "maximum", result.getError().getKeyword());
+        Assert.assertEquals("Didn't receive the expected path", "/grades/1/maths", result.getPath());
+        Assert.assertEquals("Didn't receive the expected message",
+                "Number 120 is greater than the maximum allowed value", result.getMessage());
+        Assert.assertEquals("Errors should not capture a stack trace", 0,
+                result.getError().getException().getStackTrace().length);
+    }
+
+    /**
+     * This test checks errors of keys which need escaping in a JSON Pointer and of additional properties.
+     */
+    @Test
+    public void testEscapedPath() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"object\", \"properties\": {}, " +
+                "\"additionalProperties\": {\"type\": \"boolean\"}}");
+        ValidationResult<String> result = JavaJsonParser.tryParseJson("{\"a/b~c\":\"maybe\"}", schema);
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.NOT_A_BOOLEAN, result.getErrorCode());
+        Assert.assertEquals("Didn't receive the expected path", "/a~1b~0c", result.getPath());
+    }
+
+    /**
+     * This test checks malformed JSON and invalid arguments are reported without throwing.
+     */
+    @Test
+    public void testMalformedInput() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        ValidationResult<String> result = JavaJsonParser.tryParseJson("{\"name\":", schema);
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MALFORMED_JSON, result.getErrorCode());
+        Assert.assertNull("Malformed input has no keyword", result.getError().getKeyword());
+        result = JavaJsonParser.tryParseJson(null, schema);
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.OTHER, result.getErrorCode());
+        Assert.assertEquals("Didn't receive the expected message", "Invalid inputs", result.getMessage());
+        Assert.assertFalse("Input should not be valid", JavaJsonParser.tryParseJsonElement(
+                new JsonParser().parse("{\"name\":\"Longer\"}"), schema).isValid());
+    }
+
+    /**
+     * This test checks the throwing API still throws the Gson exception for malformed JSON.
+     */
+    @Test
+    public void testThrowingMalformedInput() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        thrown.expect(JsonSyntaxException.class);
+        JavaJsonParser.parseJson("{\"name\":", schema);
+    }
+
+    /**
+     * This test checks the throwing API throws the error of the result.
+     */
+    @Test
+    public void testThrowingError() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("String \"Longer\" violated the max length constraint");
+        JavaJsonParser.parseJson("{\"name\":\"Longer\"}", schema);
+    }
+
+    /**
+     * This test checks every error is collected with its path and keyword.
+     */
+    @Test
+    public void testCollectAllErrors() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxErrors(10));
+        CompiledSchema schema = engine.compile("{\"type\": \"object\", \"required\": [\"id\"], \"properties\": {" +
+                "\"name\": {\"type\": \"string\", \"maxLength\": 4}, \"arrayOfObjects\": {\"type\": \"array\", " +
+                "\"minItems\": 5, \"items\": {\"type\": \"object\", \"properties\": {\"maths\": {\"type\": " +
+                "\"integer\", \"maximum\": 100}}}}}}");
+        ValidationResult<String> result = engine.tryParseJson("{\"name\":\"Longer\",\"arrayOfObjects\":[" +
+                "{\"maths\":90},{\"maths\":\"x\"},{\"maths\":80},{\"maths\":120}]}", schema);
+        Assert.assertFalse("Input should not be valid", result.isValid());
+        List<ValidationError> errors = result.getErrors();
+        Assert.assertEquals("Didn't receive the expected number of errors", 5, errors.size());
+        assertError(errors.get(0), ErrorCode.REQUIRED, "required", "");
+        assertError(errors.get(1), ErrorCode.MAX_LENGTH, "maxLength", "/name");
+        assertError(errors.get(2), ErrorCode.MIN_ITEMS, "minItems", "/arrayOfObjects");
+        assertError(errors.get(3), ErrorCode.NOT_A_NUMBER, "type", "/arrayOfObjects/1/maths");
+        assertError(errors.get(4), ErrorCode.MAXIMUM, "maximum", "/arrayOfObjects/3/maths");
+        Assert.assertTrue("Valid input should still be valid", engine.tryParseJson("{\"id\":1}", schema).isValid());
+    }
+
+    /**
+     * This test checks the walk stops once the maximum number of errors is reached.
+     */
+    @Test
+    public void testErrorBudget() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxErrors(2));
+        CompiledSchema schema = engine.compile("{\"type\": \"array\", \"items\": {\"type\": \"integer\"}}");
+        ValidationResult<String> result = engine.tryParseJson("[\"a\",\"b\",\"c\",\"d\"]", schema);
+        Assert.assertEquals("Didn't receive the expected number of errors", 2, result.getErrors().size());
+        Assert.assertEquals("Didn't receive the expected path", "/1", result.getErrors().get(1).getPath());
+        thrown.expect(ParserException.class);
+        engine.parseJson("[1,\"b\"]", schema);
+    }
+
+    /**
+     * This test checks the validate only mode leaves the input unchanged.
+     */
+    @Test
+    public void testValidateOnly() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        String input = "{\"grades\":{\"maths\":\"90\"},\"name\":\"Ann\"}";
+        JsonElement element = new JsonParser().parse(input);
+        Assert.assertTrue("Input should be valid", new JJParserEngine().validateOnly(element, schema)
+                .isValid());
+        Assert.assertEquals("Input should not be modified", input, element.toString());
+        Assert.assertTrue("Input should be valid", JavaJsonParser.validateOnly(input, schema).isValid());
+        Assert.assertNull("Validate only gives no output", JavaJsonParser.validateOnly(input, schema).getOutput());
+    }
+
+    /**
+     * This test checks the validate only mode reports the same errors as the correcting mode.
+     */
+    @Test
+    public void testValidateOnlyErrors() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(SCHEMA);
+        ValidationResult<Void> result = JavaJsonParser.validateOnly("{\"name\":\"Ann\",\"grades\":[" +
+                "{\"maths\":90},{\"maths\":120}]}", schema);
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.MAXIMUM, result.getErrorCode());
+        Assert.assertEquals("Didn't receive the expected path", "/grades/1/maths", result.getPath());
+        Assert.assertFalse("Input should not be valid", JavaJsonParser.validateOnly("\"x\"",
+                JavaJsonParser.compile("{\"type\": \"number\"}")).isValid());
+    }
+
+    /**
+     * This test checks well formed values of another kind than their schema are reported as errors, in every mode.
+     */
+    @Test
+    public void testShapeMismatch() throws ValidatorException, ParserException {
+        for (ParserOptions options : new ParserOptions[]{new ParserOptions(),
+                new ParserOptions().setRawPassthrough(true)}) {
+            JJParserEngine engine = new JJParserEngine(options);
+            CompiledSchema schema = engine.compile(SHAPE_SCHEMA);
+            assertError(engine.tryParseJson("{\"a\":5}", schema).getError(), ErrorCode.NOT_AN_OBJECT, "type", "/a");
+            assertError(engine.tryParseJson("{\"b\":{\"x\":1}}", schema).getError(), ErrorCode.NOT_A_VALUE,
+                    "type", "/b");
+            assertError(engine.tryParseJson("{\"b\":[1,2]}", schema).getError(), ErrorCode.NOT_A_VALUE, "type",
+                    "/b");
+        }
+    }
+
+    /**
+     * This test checks the validate only mode reports well formed values of another kind than their schema.
+     */
+    @Test
+    public void testValidateOnlyShapeMismatch() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine();
+        CompiledSchema schema = engine.compile(SHAPE_SCHEMA);
+        assertError(engine.validateOnly("{\"a\":5}", schema).getError(), ErrorCode.NOT_AN_OBJECT, "type", "/a");
+        assertError(engine.validateOnly("{\"b\":{\"x\":1}}", schema).getError(), ErrorCode.NOT_A_VALUE, "type",
+                "/b");
+        assertError(engine.validateOnly(new JsonParser().parse("{\"b\":[1,2]}"), schema).getError(),
+                ErrorCode.NOT_A_VALUE, "type", "/b");
+        assertError(engine.validateOnly("5", schema).getError(), ErrorCode.NOT_AN_OBJECT, "type", "");
+    }
+
+    /**
+     * This test checks shape mismatches are collected with the other errors.
+     */
+    @Test
+    public void testCollectShapeMismatches() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine(new ParserOptions().setMaxErrors(10));
+        CompiledSchema schema = engine.compile("{\"type\":\"array\",\"items\":" + SHAPE_SCHEMA + "}");
+        List<ValidationError> errors = engine.tryParseJson("[{\"a\":5},{\"b\":{\"x\":1}},{\"b\":[1,2]}]",
+                schema).getErrors();
+        Assert.assertEquals("Didn't receive the expected number of errors", 3, errors.size());
+        assertError(errors.get(0), ErrorCode.NOT_AN_OBJECT, "type", "/0/a");
+        assertError(errors.get(1), ErrorCode.NOT_A_VALUE, "type", "/1/b");
+        assertError(errors.get(2), ErrorCode.NOT_A_VALUE, "type", "/2/b");
+    }
+
+    /**
+     * This test checks shape mismatches found while streaming throw the coded exception.
+     */
+    @Test
+    public void testStreamShapeMismatch() throws ValidatorException, ParserException {
+        JJParserEngine engine = new JJParserEngine();
+        CompiledSchema schema = engine.compile(SHAPE_SCHEMA);
+        for (String input : new String[]{"{\"a\":5}", "{\"b\":{\"x\":1}}", "{\"b\":[1,2]}"}) {
+            try {
+                engine.streamJson(new StringReader(input), schema, new StringWriter());
+                Assert.fail("Input should not be valid : " + input);
+            } catch (ValidatorException | ParserException ex) {
+                Assert.assertNotNull("Error should have a code", ex.getErrorCode());
+            }
+        }
+    }
+
+    private static void assertError(ValidationError error, ErrorCode code, String keyword, String path) {
+        Assert.assertEquals("Didn't receive the expected code", code, error.getErrorCode());
+        Assert.assertEquals("Didn't receive the expected keyword", keyword, error.getKeyword());
+        Assert.assertEquals("Didn't receive the expected path", path, error.getPath());
+    }
+}
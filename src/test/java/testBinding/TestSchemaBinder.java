@@ -0,0 +1,150 @@
+package testBinding;
+
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JavaJsonParser;
+import schema.CompiledSchema;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class will test binding JSON to Java objects according to a schema.
+ */
+public class TestSchemaBinder {
+
+    private static final String ORDER_SCHEMA = "{\"type\": \"object\", \"required\": [\"id\"], \"properties\": {" +
+            "\"id\": {\"type\": \"integer\"}, \"paid\": {\"type\": \"boolean\"}, \"total\": {\"type\": \"number\", " +
+            "\"minimum\": 0}, \"note\": {\"type\": \"string\"}, \"tags\": {\"type\": \"array\", \"items\": " +
+            "{\"type\": \"string\"}}, \"lines\": {\"type\": \"array\", \"items\": {\"type\": \"object\", " +
+            "\"properties\": {\"sku\": {\"type\": \"string\"}, \"quantity\": {\"type\": \"integer\"}}}}, " +
+            "\"extra\": {\"type\": \"object\", \"additionalProperties\": {\"type\": \"number\"}, \"properties\": {}}}}";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    static class Line {
+        String sku;
+        int quantity;
+    }
+
+    static class Order {
+        long id;
+        boolean paid;
+        double total;
+        String note;
+        String[] tags;
+        List<Line> lines;
+        Map<String, Double> extra;
+        transient int ignored;
+    }
+
+    /**
+     * This test checks binding corrected values into primitive fields, arrays, lists and maps.
+     */
+    @Test
+    public void testBindObject() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(ORDER_SCHEMA);
+        Order order = JavaJsonParser.bind("{\"id\":\"12\",\"paid\":\"true\",\"total\":\"9.5\",\"note\":7," +
+                "\"tags\":\"new\",\"lines\":{\"sku\":\"A1\",\"quantity\":\"3\"},\"extra\":{\"fee\":\"1.25\"}," +
+                "\"unknown\":[1,2]}", schema, Order.class);
+        Assert.assertEquals("Didn't receive the expected id", 12, order.id);
+        Assert.assertTrue("Didn't receive the expected paid flag", order.paid);
+        Assert.assertEquals("Didn't receive the expected total", 9.5, order.total, 0);
+        Assert.assertEquals("Didn't receive the expected note", "7", order.note);
+        Assert.assertArrayEquals("Single tag should be wrapped", new String[]{"new"}, order.tags);
+        Assert.assertEquals("Single line should be wrapped", 1, order.lines.size());
+        Assert.assertEquals("Didn't receive the expected sku", "A1", order.lines.get(0).sku);
+        Assert.assertEquals("Didn't receive the expected quantity", 3, order.lines.get(0).quantity);
+        Assert.assertEquals("Didn't receive the expected fee", 1.25, order.extra.get("fee"), 0);
+    }
+
+    /**
+     * This test checks binding to maps and lists gives the same values as the corrected string.
+     */
+    @Test
+    public void testBindMapAndList() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"array\", \"items\": {\"type\": \"object\", " +
+                "\"properties\": {\"n\": {\"type\": \"integer\"}, \"ok\": {\"type\": \"boolean\"}}}}");
+        List<?> result = JavaJsonParser.bind("{\"n\":\"5\",\"ok\":\"false\",\"free\":\"text\"}", schema, List.class);
+        Assert.assertEquals("Expected a single wrapped object", 1, result.size());
+        Map<?, ?> first = (Map<?, ?>) result.get(0);
+        Assert.assertEquals("Didn't receive the expected number", 5, first.get("n"));
+        Assert.assertEquals("Didn't receive the expected flag", false, first.get("ok"));
+        Assert.assertEquals("Unconstrained values should be kept", "text", first.get("free"));
+    }
+
+    /**
+     * This test checks long fields and boxed longs accept numbers outside the int range, and integers only within the
+     * range the validators accept.
+     */
+    @Test
+    public void testBindLong() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(ORDER_SCHEMA);
+        Order order = JavaJsonParser.bind("{\"id\":\"2000000000\"}", schema, Order.class);
+        Assert.assertEquals("Didn't receive the expected id", 2000000000L, order.id);
+        Long boxed = JavaJsonParser.bind("5000000000", JavaJsonParser.compile("{\"type\": \"number\"}"), Long.class);
+        Assert.assertEquals("Didn't receive the expected value", Long.valueOf(5000000000L), boxed);
+        CompiledSchema integer = JavaJsonParser.compile("{\"type\": \"integer\"}");
+        Assert.assertFalse("Integer outside the int range should be rejected",
+                JavaJsonParser.tryParseJson("9000000000", integer).isValid());
+        thrown.expect(ParserException.class);
+        JavaJsonParser.bind("9000000000", integer, Long.class);
+    }
+
+    /**
+     * This test checks a member is corrected with its property, then with every matching pattern property.
+     */
+    @Test
+    public void testBindPatternProperties() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"object\", \"properties\": {\"n\": " +
+                "{\"type\": \"integer\"}, \"s\": {\"type\": \"string\"}}, \"patternProperties\": {\"^n\": " +
+                "{\"type\": \"string\"}, \"n$\": {\"type\": \"array\"}, \"^s\": {\"type\": \"string\", " +
+                "\"maxLength\": 1}}}");
+        Map<?, ?> result = JavaJsonParser.bind("{\"n\":\"5\",\"s\":\"a\"}", schema, Map.class);
+        Assert.assertEquals("Member should be corrected by every schema", "{\"n\":[\"5\"]}",
+                JavaJsonParser.parseJson("{\"n\":\"5\"}", schema));
+        Assert.assertEquals("Member should be corrected by every schema", "[5]", result.get("n").toString());
+        Assert.assertEquals("Didn't receive the expected string", "a", result.get("s"));
+        thrown.expect(ValidatorException.class);
+        JavaJsonParser.bind("{\"s\":\"abc\"}", schema, Map.class);
+    }
+
+    /**
+     * This test checks validation errors while binding.
+     */
+    @Test
+    public void testBindValidationError() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(ORDER_SCHEMA);
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("Number -1 is less than the minimum allowed value");
+        JavaJsonParser.bind("{\"id\":1,\"total\":-1}", schema, Order.class);
+    }
+
+    /**
+     * This test checks the required constraint while binding.
+     */
+    @Test
+    public void testBindRequired() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile(ORDER_SCHEMA);
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("Object does not have all the elements required in the schema");
+        JavaJsonParser.bind("{\"paid\":true}", schema, Order.class);
+    }
+
+    /**
+     * This test checks a value which does not fit the target field.
+     */
+    @Test
+    public void testBindTypeMismatch() throws ValidatorException, ParserException {
+        CompiledSchema schema = JavaJsonParser.compile("{\"type\": \"object\", \"properties\": {" +
+                "\"quantity\": {\"type\": \"number\"}}}");
+        thrown.expect(ParserException.class);
+        thrown.expectMessage("Cannot bind 2.5 to int");
+        JavaJsonParser.bind("{\"quantity\":2.5}", schema, Line.class);
+    }
+}
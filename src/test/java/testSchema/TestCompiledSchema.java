@@ -0,0 +1,104 @@
+package testSchema;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import parser.JavaJsonParser;
+import schema.CompiledSchema;
+import schema.DataType;
+
+/**
+ * This class will test the functionality of CompiledSchema class.
+ */
+public class TestCompiledSchema {
+
+    private static JsonParser parser;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void init() {
+        parser = new JsonParser();
+    }
+
+    /**
+     * This test checks numeric and string keywords are parsed into typed fields.
+     */
+    @Test
+    public void testScalarKeywords() throws ValidatorException, ParserException {
+        String schema = "{ \"type\": \"integer\", \"minimum\": -5, \"exclusiveMaximum\": \"20\", \"multipleOf\": 2.5," +
+                "\"minLength\": 2, \"maxLength\": 6, \"pattern\": \"^[0-9]+$\", \"enum\": [10, \"ten\", true]," +
+                "\"const\": 10}";
+        CompiledSchema compiled = CompiledSchema.compile((JsonObject) parser.parse(schema));
+        Assert.assertEquals("Unexpected data type", DataType.NUMERIC, compiled.getDataType());
+        Assert.assertTrue("Integer type is not detected", compiled.isInteger());
+        Assert.assertEquals("Unexpected minimum", -5.0, compiled.getMinimum(), 0);
+        Assert.assertEquals("Unexpected exclusiveMaximum", 20.0, compiled.getExclusiveMaximum(), 0);
+        Assert.assertNull("Maximum should not be present", compiled.getMaximum());
+        Assert.assertEquals("Unexpected minLength", 2, compiled.getMinLength());
+        Assert.assertEquals("Unexpected maxLength", 6, compiled.getMaxLength());
+        Assert.assertEquals("Unexpected pattern", "^[0-9]+$", compiled.getPattern().pattern());
+        Assert.assertTrue("Numeric enum is not parsed", compiled.getNumericEnum().contains(10.0));
+        Assert.assertTrue("String enum is not parsed", compiled.getStringEnum().contains("ten"));
+        Assert.assertTrue("Boolean enum is not parsed", compiled.getBooleanEnum().contains(true));
+        Assert.assertEquals("Unexpected const", 10.0, compiled.getNumericConst(), 0);
+    }
+
+    /**
+     * This test checks array and object keywords are compiled recursively.
+     */
+    @Test
+    public void testNestedSchemas() throws ValidatorException, ParserException {
+        String schema = "{ \"type\": \"object\", \"required\": [\"a\"], \"properties\": {\"a\": {\"type\": \"array\"," +
+                "\"items\": {\"type\": \"boolean\"}, \"minItems\": 1, \"uniqueItems\": true}, \"b\": true}," +
+                "\"patternProperties\": {\"_x$\": {\"type\": \"string\"}}, \"additionalProperties\": false}";
+        CompiledSchema compiled = CompiledSchema.compile((JsonObject) parser.parse(schema));
+        Assert.assertEquals("Unexpected data type", DataType.OBJECT, compiled.getDataType());
+        Assert.assertEquals("Unexpected required keys", 1, compiled.getRequired().size());
+        Assert.assertTrue("Property names should include non object schemas",
+                compiled.getPropertyNames().contains("b"));
+        CompiledSchema arraySchema = compiled.getProperties().get("a");
+        Assert.assertEquals("Unexpected property data type", DataType.ARRAY, arraySchema.getDataType());
+        Assert.assertEquals("Unexpected minItems", 1, arraySchema.getMinItems());
+        Assert.assertTrue("uniqueItems is not parsed", arraySchema.isUniqueItems());
+        Assert.assertEquals("Unexpected items type", DataType.BOOLEAN, arraySchema.getItems().getDataType());
+        Assert.assertEquals("Unexpected patternProperties", 1, compiled.getPatternProperties().size());
+        Assert.assertFalse("additionalProperties is not parsed", compiled.getAdditionalPropertiesAllowed());
+    }
+
+    /**
+     * This test checks invalid constraints are reported when compiling.
+     */
+    @Test
+    public void testInvalidMinItems() throws ValidatorException, ParserException {
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("Invalid minItems constraint in the schema");
+        CompiledSchema.compile((JsonObject) parser.parse("{ \"type\": \"array\", \"minItems\": -2}"));
+    }
+
+    /**
+     * This test checks a keyword which cannot be read fails only the values validated by its sub schema.
+     */
+    @Test
+    public void testUnreadableKeyword() throws ValidatorException, ParserException {
+        String schema = "{ \"type\": \"object\", \"properties\": {\"a\": {\"type\": \"number\", \"maximum\": 5," +
+                "\"exclusiveMaximum\": true}, \"s\": {\"type\": \"string\", \"pattern\": \"[\"}," +
+                "\"b\": {\"type\": \"integer\"}}}";
+        CompiledSchema compiled = JavaJsonParser.compile(schema);
+        Assert.assertEquals("Unexpected output", "{}", JavaJsonParser.parseJson("{}", compiled));
+        Assert.assertEquals("Unexpected output", "{\"b\":1}", JavaJsonParser.parseJson("{\"b\":\"1\"}", compiled));
+        Assert.assertFalse("Unreadable pattern should fail a string",
+                JavaJsonParser.tryParseJson("{\"s\":\"x\"}", compiled).isValid());
+        Assert.assertFalse("Unreadable keyword should fail again",
+                JavaJsonParser.tryParseJson("{\"a\":3}", compiled).isValid());
+        thrown.expect(ParserException.class);
+        JavaJsonParser.parseJson("{\"a\":3}", compiled);
+    }
+}
@@ -0,0 +1,101 @@
+package testSchema;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Test;
+import parser.JavaJsonParser;
+import schema.CompiledSchema;
+import schema.SchemaCache;
+
+/**
+ * This class will test the functionality of SchemaCache class.
+ */
+public class TestSchemaCache {
+
+    private static final String NUMBER_SCHEMA = "{\"type\": \"number\"}";
+    private static final String STRING_SCHEMA = "{\"type\": \"string\"}";
+    private static final String BOOLEAN_SCHEMA = "{\"type\": \"boolean\"}";
+
+    /**
+     * This test checks hits and misses are counted and the same compiled schema is returned.
+     */
+    @Test
+    public void testHitAndMiss() throws ValidatorException, ParserException {
+        SchemaCache cache = new SchemaCache();
+        CompiledSchema first = cache.get(NUMBER_SCHEMA, JavaJsonParser::compile);
+        CompiledSchema second = cache.get(NUMBER_SCHEMA, JavaJsonParser::compile);
+        Assert.assertSame("Cached schema was not reused", first, second);
+        Assert.assertEquals("Unexpected hit count", 1, cache.getHitCount());
+        Assert.assertEquals("Unexpected miss count", 1, cache.getMissCount());
+    }
+
+    /**
+     * This test checks the least recently used schema is evicted when the size limit is reached.
+     */
+    @Test
+    public void testSizeEviction() throws ValidatorException, ParserException {
+        SchemaCache cache = new SchemaCache(2, SchemaCache.DEFAULT_MAXIMUM_WEIGHT);
+        CompiledSchema number = cache.get(NUMBER_SCHEMA, JavaJsonParser::compile);
+        cache.get(STRING_SCHEMA, JavaJsonParser::compile);
+        cache.get(NUMBER_SCHEMA, JavaJsonParser::compile);
+        cache.get(BOOLEAN_SCHEMA, JavaJsonParser::compile);
+        Assert.assertEquals("Unexpected cache size", 2, cache.size());
+        Assert.assertEquals("Unexpected eviction count", 1, cache.getEvictionCount());
+        Assert.assertSame("Recently used schema was evicted", number,
+                cache.get(NUMBER_SCHEMA, JavaJsonParser::compile));
+    }
+
+    /**
+     * This test checks the weight limit.
+     */
+    @Test
+    public void testWeightEviction() throws ValidatorException, ParserException {
+        SchemaCache cache = new SchemaCache(10, STRING_SCHEMA.length() + BOOLEAN_SCHEMA.length());
+        cache.get(NUMBER_SCHEMA, JavaJsonParser::compile);
+        cache.get(STRING_SCHEMA, JavaJsonParser::compile);
+        cache.get(BOOLEAN_SCHEMA, JavaJsonParser::compile);
+        Assert.assertTrue("Weight limit is exceeded", cache.getWeight() <= cache.getMaximumWeight());
+        Assert.assertEquals("Unexpected eviction count", 1, cache.getEvictionCount());
+    }
+
+    /**
+     * This test checks JsonObject schemas passed to parseJson are compiled once, from a copy of the schema.
+     */
+    @Test
+    public void testJsonObjectSchema() throws ValidatorException, ParserException {
+        SchemaCache previous = JavaJsonParser.getSchemaCache();
+        SchemaCache cache = new SchemaCache();
+        JavaJsonParser.setSchemaCache(cache);
+        try {
+            JsonObject schema = new JsonParser().parse(NUMBER_SCHEMA).getAsJsonObject();
+            Assert.assertEquals("Didn't receive the expected output", "1.5",
+                    JavaJsonParser.parseJson("\"1.5\"", schema));
+            Assert.assertEquals("Didn't receive the expected output", "2.5",
+                    JavaJsonParser.parseJson("\"2.5\"", schema));
+            Assert.assertEquals("Unexpected miss count", 1, cache.getMissCount());
+            Assert.assertEquals("Unexpected hit count", 1, cache.getHitCount());
+            String key = schema.toString();
+            schema.addProperty("maximum", 1);
+            Assert.assertFalse("Cached schema should not see later changes",
+                    cache.get(key, JavaJsonParser::compile).getSource().has("maximum"));
+        } finally {
+            JavaJsonParser.setSchemaCache(previous);
+        }
+    }
+
+    /**
+     * This test checks invalid schemas are not cached.
+     */
+    @Test(expected = ValidatorException.class)
+    public void testInvalidSchemaNotCached() throws ValidatorException, ParserException {
+        SchemaCache cache = new SchemaCache();
+        try {
+            cache.get("{\"type\": ", JavaJsonParser::compile);
+        } finally {
+            Assert.assertEquals("Invalid schema was cached", 0, cache.size());
+        }
+    }
+}
@@ -9,12 +9,15 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import utils.GSONDataTypeConverter;
+import schema.CompiledSchema;
 import validators.ArrayValidator;
+import validators.ValidationContext;
 
 
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class will test the functionality of ArrayValidator class.
@@ -397,4 +400,58 @@ public class TestArrayValidator {
         JsonObject schemaObject = (JsonObject) parser.parse(schema);
         ArrayValidator.validateArray(GSONDataTypeConverter.getMapFromString(testPayload), schemaObject);
     }
+
+    /**
+     * This test checks parallel validation of a large array gives the same result as the sequential pass.
+     */
+    @Test
+    public void testParallelLargeArray() throws ValidatorException, ParserException {
+        CompiledSchema schema = CompiledSchema.compile((JsonObject) parser.parse("{\"type\": \"array\", " +
+                "\"items\": {\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}, " +
+                "\"tags\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}}}}}"));
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            payload.append(i == 0 ? "" : ",").append("{\"id\":\"").append(i).append("\",\"tags\":\"t\"}");
+        }
+        payload.append("]");
+        JsonArray expected = ArrayValidator.validateArray(parser.parse(payload.toString()), schema);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            JsonArray result = ArrayValidator.validateArray(parser.parse(payload.toString()), schema,
+                    new ValidationContext(pool, 100));
+            Assert.assertEquals("Didn't receive the expected array", expected, result);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * This test checks parallel validation reports the first failing item, as the sequential pass does.
+     */
+    @Test
+    public void testParallelLargeArrayFirstError() throws ValidatorException, ParserException {
+        CompiledSchema schema = CompiledSchema.compile((JsonObject) parser.parse("{\"type\": \"array\", " +
+                "\"items\": {\"type\": \"object\", \"maxProperties\": 1, \"properties\": {" +
+                "\"n\": {\"type\": \"integer\"}}}}"));
+        JsonArray payload = new JsonArray();
+        for (int i = 0; i < 4000; i++) {
+            // items after 2000 violate the maxProperties constraint
+            payload.add(parser.parse(i < 2000 || i % 100 != 0 ? "{\"n\":\"1\"}" : "{\"n\":1,\"m\":2}"));
+        }
+        // item 1500 fails first with a conversion error
+        payload.set(1500, parser.parse("{\"n\":\"one\"}"));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ArrayValidator.validateArray(payload, schema, new ValidationContext(pool, 100));
+            Assert.fail("Expected a conversion failure");
+        } catch (ParserException expected) {
+            // expected, item 1500 fails before any later item
+        } finally {
+            pool.shutdown();
+        }
+        payload.set(1500, parser.parse("{\"n\":\"1\"}"));
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("Object violates the maximum number of properties constraint");
+        ArrayValidator.validateArray(payload, schema, new ValidationContext(ForkJoinPool.commonPool(), 100));
+    }
 }
@@ -3,6 +3,7 @@ package testValidators;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import exceptions.ErrorCode;
 import exceptions.ParserException;
 import exceptions.ValidatorException;
 import org.junit.Assert;
@@ -10,6 +11,7 @@ import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import parser.JavaJsonParser;
 import validators.NumericValidator;
 
 /**
@@ -313,4 +315,16 @@ public class TestNumericValidator {
         JsonObject schemaObject = (JsonObject) parser.parse(schema);
         NumericValidator.validateNumeric(schemaObject, testPayload);
     }
+
+    /**
+     * This test checks a const which is not a number is never equal to a numeric input.
+     */
+    @Test
+    public void testNonNumericConst() throws ValidatorException, ParserException {
+        String schema = "{ \"type\": \"number\", \"const\" : \"abc\" }";
+        Assert.assertEquals("Didn't receive the expected code", ErrorCode.NUMBER_CONST,
+                JavaJsonParser.tryParseJson("5", JavaJsonParser.compile(schema)).getErrorCode());
+        thrown.expect(ValidatorException.class);
+        JavaJsonParser.parseJson("5", schema);
+    }
 }
@@ -10,7 +10,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import schema.CompiledSchema;
 import validators.ObjectValidator;
+import validators.ValidationContext;
+
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class will test the functionality of ObjectValidator class.
@@ -351,4 +355,31 @@ public class TestObjectValidator {
         JsonObject payload = (JsonObject) parser.parse(testPayload);
         ObjectValidator.validateObject(payload, schemaObject);
     }
+
+    /**
+     * This test checks parallel validation of a wide object gives the same result and key order as the sequential
+     * pass.
+     */
+    @Test
+    public void testParallelWideObject() throws ValidatorException, ParserException {
+        CompiledSchema schema = CompiledSchema.compile((JsonObject) parser.parse("{\"type\": \"object\", " +
+                "\"properties\": {\"p1\": {\"type\": \"integer\"}, \"p2\": {\"type\": \"boolean\"}}, " +
+                "\"patternProperties\": {\"^b\": {\"type\": \"boolean\"}}, " +
+                "\"additionalProperties\": {\"type\": \"number\"}}"));
+        StringBuilder payload = new StringBuilder("{\"p1\":\"1\",\"p2\":\"true\"");
+        for (int i = 0; i < 3000; i++) {
+            payload.append(",\"").append(i % 3 == 0 ? "b" : "n").append(i).append("\":\"")
+                    .append(i % 3 == 0 ? "false" : String.valueOf(i)).append("\"");
+        }
+        payload.append("}");
+        JsonObject expected = ObjectValidator.validateObject((JsonObject) parser.parse(payload.toString()), schema);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            JsonObject result = ObjectValidator.validateObject((JsonObject) parser.parse(payload.toString()), schema,
+                    new ValidationContext(pool, 2));
+            Assert.assertEquals("Didn't receive the expected object", expected.toString(), result.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
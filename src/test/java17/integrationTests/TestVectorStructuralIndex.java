@@ -0,0 +1,50 @@
+package integrationTests;
+
+import backend.StructuralIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * This class will test the structural index built with the vector API against the scalar index.
+ */
+public class TestVectorStructuralIndex {
+
+    private static final byte[] ALPHABET = "{}[]:, \t\n\"\"\\\\abtrue01-.eE\u00e9\u0001"
+            .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * This test checks the vector API is used when the module is added.
+     */
+    @Test
+    public void testVectorized() {
+        Assert.assertTrue("Vector API should be used", StructuralIndex.isVectorized());
+    }
+
+    /**
+     * This test checks random byte sequences give the same index with and without the vector API.
+     */
+    @Test
+    public void testRandomInputs() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            byte[] bytes = new byte[random.nextInt(400)];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            int offset = bytes.length > 0 ? random.nextInt(bytes.length) : 0;
+            StructuralIndex vector = StructuralIndex.build(bytes, offset, bytes.length - offset);
+            StructuralIndex scalar = StructuralIndex.buildScalar(bytes, offset, bytes.length - offset);
+            Assert.assertEquals("Didn't receive the same number of positions", scalar.size(), vector.size());
+            for (int j = 0; j < scalar.size(); j++) {
+                Assert.assertEquals("Didn't receive the same position", scalar.get(j), vector.get(j));
+            }
+            for (int j = offset; j < bytes.length; j++) {
+                Assert.assertEquals("Didn't receive the same bytes to decode", scalar.hasSpecial(j, j + 1),
+                        vector.hasSpecial(j, j + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package integrationTests;
+
+import exceptions.ParserException;
+import exceptions.ValidatorException;
+import org.junit.Assert;
+import org.junit.Test;
+import parser.CorrectionResult;
+import parser.JJParserEngine;
+import parser.JsonCorrectionProcessor;
+import schema.CompiledSchema;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class will test the flow processor correcting document streams.
+ */
+public class TestJsonCorrectionProcessor {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}}}";
+
+    /**
+     * Subscriber collecting results, requesting a given number of items when subscribed.
+     */
+    private static final class CollectingSubscriber implements Flow.Subscriber<CorrectionResult<String>> {
+        private final List<CorrectionResult<String>> results = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final long initialRequest;
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        private CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(CorrectionResult<String> item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+
+    /**
+     * This test checks items are published in order with per item failures, and the stream completes.
+     */
+    @Test
+    public void testOrderAndFailures() throws ValidatorException, ParserException, InterruptedException {
+        JJParserEngine engine = new JJParserEngine();
+        CompiledSchema schema = engine.compile(SCHEMA);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            JsonCorrectionProcessor<String, String> processor = JsonCorrectionProcessor.forStrings(engine, schema,
+                    4, 8, executor);
+            CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+            processor.subscribe(subscriber);
+            try (SubmissionPublisher<String> publisher = new SubmissionPublisher<>()) {
+                publisher.subscribe(processor);
+                for (int i = 0; i < 500; i++) {
+                    publisher.submit(i % 50 == 3 ? "{\"id\":\"three\"}" : "{\"id\":\"" + i + "\"}");
+                }
+            }
+            Assert.assertTrue("Stream should complete", subscriber.done.await(30, TimeUnit.SECONDS));
+            Assert.assertNull("Stream should not fail", subscriber.error);
+            Assert.assertEquals("Expected one result per item", 500, subscriber.results.size());
+            for (int i = 0; i < 500; i++) {
+                CorrectionResult<String> result = subscriber.results.get(i);
+                Assert.assertEquals("Results should be in stream order", i, result.getSequence());
+                if (i % 50 == 3) {
+                    Assert.assertFalse("Item should fail", result.isSuccess());
+                    Assert.assertTrue("Expected a conversion error", result.getError() instanceof ParserException);
+                } else {
+                    Assert.assertEquals("Didn't receive the expected payload", "{\"id\":" + i + "}",
+                            result.getOutput());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * This test checks the processor only requests items from upstream as the subscriber requests results.
+     */
+    @Test
+    public void testBackpressure() throws ValidatorException, ParserException, InterruptedException {
+        JJParserEngine engine = new JJParserEngine();
+        final AtomicLong upstreamRequested = new AtomicLong();
+        JsonCorrectionProcessor<String, String> processor = JsonCorrectionProcessor.forStrings(engine,
+                engine.compile(SCHEMA), 2, 4, Runnable::run);
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new Flow.Subscription() {
+            private long next;
+
+            @Override
+            public void request(long n) {
+                upstreamRequested.addAndGet(n);
+                for (long i = 0; i < n; i++) {
+                    processor.onNext("{\"id\":\"" + next++ + "\"}");
+                }
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        Assert.assertEquals("Processor should only fill its buffer", 4, upstreamRequested.get());
+        Assert.assertTrue("Nothing should be published without demand", subscriber.results.isEmpty());
+
+        subscriber.subscription.request(3);
+        Assert.assertEquals("Expected the requested results", 3, subscriber.results.size());
+        Assert.assertEquals("Processor should refill its buffer", 7, upstreamRequested.get());
+        Assert.assertEquals("Didn't receive the expected payload", "{\"id\":2}",
+                subscriber.results.get(2).getOutput());
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+        Assert.assertEquals("Nothing should be published after cancel", 3, subscriber.results.size());
+    }
+}